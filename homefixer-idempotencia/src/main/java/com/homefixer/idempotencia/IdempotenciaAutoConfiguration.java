@@ -0,0 +1,17 @@
+package com.homefixer.idempotencia;
+
+import com.homefixer.idempotencia.filter.IdempotenciaFilter; // Filtro de Idempotency-Key
+import com.homefixer.idempotencia.service.IdempotenciaService; // Almacén de claves
+import org.springframework.boot.autoconfigure.AutoConfiguration; // Configuración automática
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage; // Entidades y repositorios de este paquete
+import org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration; // Registro de repositorios
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration; // Escaneo de entidades
+import org.springframework.context.annotation.Import; // Registra filtro y servicio
+
+// Basta con tener la dependencia: registra el filtro, el servicio y la tabla claves_idempotencia en el servicio que la usa.
+// Las rutas cubiertas y los tiempos se configuran en homefixer.idempotencia.* de cada servicio.
+@AutoConfiguration(before = {HibernateJpaAutoConfiguration.class, JpaRepositoriesAutoConfiguration.class}) // Paquete registrado antes de escanear
+@AutoConfigurationPackage // Suma com.homefixer.idempotencia a las entidades y repositorios JPA del servicio
+@Import({IdempotenciaService.class, IdempotenciaFilter.class})
+public class IdempotenciaAutoConfiguration {
+}
@@ -0,0 +1,13 @@
+package com.homefixer.idempotencia.dto;
+
+import java.time.LocalDateTime; // Para fechas
+
+// Respuesta guardada para una Idempotency-Key (se repite tal cual ante reintentos)
+public record RespuestaIdempotente(
+    String hashPeticion, // SHA-256 del cuerpo original
+    int codigoHttp, // Status original
+    String contentType, // Content-Type original
+    byte[] cuerpo, // Cuerpo original
+    LocalDateTime fechaExpiracion // Fin del TTL
+) {
+}
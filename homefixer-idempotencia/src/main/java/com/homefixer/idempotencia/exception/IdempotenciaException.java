@@ -0,0 +1,9 @@
+package com.homefixer.idempotencia.exception;
+
+// La Idempotency-Key no se puede atender ahora: la petición original sigue en curso o falló
+public class IdempotenciaException extends RuntimeException {
+
+    public IdempotenciaException(String mensaje) {
+        super(mensaje);
+    }
+}
@@ -0,0 +1,193 @@
+package com.homefixer.idempotencia.filter;
+
+import com.homefixer.idempotencia.dto.RespuestaIdempotente; // Respuesta guardada
+import com.homefixer.idempotencia.service.IdempotenciaService; // Almacén de claves
+import jakarta.servlet.FilterChain; // Cadena de filtros
+import jakarta.servlet.ReadListener; // Requerido por ServletInputStream
+import jakarta.servlet.ServletException; // Errores de servlet
+import jakarta.servlet.ServletInputStream; // Cuerpo de la petición
+import jakarta.servlet.http.HttpServletRequest; // Petición HTTP
+import jakarta.servlet.http.HttpServletRequestWrapper; // Para reemplazar el cuerpo
+import jakarta.servlet.http.HttpServletResponse; // Respuesta HTTP
+import lombok.extern.slf4j.Slf4j; // Logger automático
+import org.springframework.beans.factory.annotation.Value; // Para leer configuración
+import org.springframework.http.HttpStatus; // Códigos HTTP
+import org.springframework.web.filter.OncePerRequestFilter; // Filtro una vez por petición
+import org.springframework.web.util.ContentCachingResponseWrapper; // Captura la respuesta
+import java.io.BufferedReader; // Lectura como texto
+import java.io.ByteArrayInputStream; // Cuerpo ya leído
+import java.io.IOException; // Errores de E/S
+import java.io.InputStreamReader; // Lectura como texto
+import java.nio.charset.StandardCharsets; // UTF-8
+import java.security.MessageDigest; // SHA-256
+import java.security.NoSuchAlgorithmException; // Algoritmo no disponible
+import java.util.HexFormat; // Hash en hexadecimal
+import java.util.List; // Para listas
+import java.util.Optional; // Para opcionales
+import java.util.concurrent.CompletableFuture; // Resultado compartido
+import java.util.concurrent.ExecutionException; // Falla de la original
+import java.util.concurrent.TimeUnit; // Unidades de espera
+import java.util.concurrent.TimeoutException; // Espera agotada
+
+// Soporte de Idempotency-Key en los POST de creación: repite la respuesta original y ejecuta una sola vez las peticiones concurrentes
+@Slf4j // Logger automático
+public class IdempotenciaFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key"; // Header estándar
+    public static final String HEADER_REPETIDA = "Idempotent-Replayed"; // Marca las respuestas repetidas
+    private static final int LARGO_MAXIMO_CLAVE = 200; // Claves más largas se rechazan
+
+    private final IdempotenciaService idempotenciaService; // Almacén de claves
+    private final List<String> rutas; // POST cubiertos
+    private final long esperaMs; // Cuánto espera una petición coalescida
+
+    public IdempotenciaFilter(IdempotenciaService idempotenciaService,
+                              @Value("${homefixer.idempotencia.rutas:}") List<String> rutas,
+                              @Value("${homefixer.idempotencia.espera-ms:30000}") long esperaMs) {
+        this.idempotenciaService = idempotenciaService;
+        this.rutas = rutas;
+        this.esperaMs = esperaMs;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || request.getHeader(HEADER) == null
+            || !rutas.contains(request.getRequestURI()); // Solo POST de creación con clave
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String claveCliente = request.getHeader(HEADER).trim();
+        if (claveCliente.isEmpty() || claveCliente.length() > LARGO_MAXIMO_CLAVE) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Idempotency-Key inválida"); // 400
+            return;
+        }
+
+        byte[] cuerpo = request.getInputStream().readAllBytes(); // Se necesita para el hash y para el controlador
+        String clave = request.getRequestURI() + "|" + claveCliente; // La clave vale por ruta
+        String hash = sha256(cuerpo);
+
+        Optional<CompletableFuture<RespuestaIdempotente>> previa = idempotenciaService.reservar(clave, hash);
+        if (previa.isPresent()) {
+            responderConPrevia(previa.get(), hash, response); // Repetición o coalescencia
+            return;
+        }
+
+        ContentCachingResponseWrapper captura = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(new PeticionConCuerpo(request, cuerpo), captura); // Ejecución real, una sola vez
+        } catch (IOException | ServletException | RuntimeException e) {
+            idempotenciaService.abortar(clave); // Se puede reintentar con la misma clave
+            throw e;
+        }
+        idempotenciaService.completar(clave, hash, captura.getStatus(), captura.getContentType(), captura.getContentAsByteArray());
+        captura.copyBodyToResponse(); // Envía la respuesta original al cliente
+    }
+
+    // Escribe la respuesta guardada (o el error si la original no se puede repetir)
+    private void responderConPrevia(CompletableFuture<RespuestaIdempotente> previa, String hash, HttpServletResponse response) throws IOException {
+        RespuestaIdempotente guardada;
+        try {
+            guardada = previa.get(esperaMs, TimeUnit.MILLISECONDS); // Espera a la original si sigue en curso
+        } catch (ExecutionException | TimeoutException e) {
+            String motivo = e instanceof TimeoutException ? "La petición original sigue en curso" : e.getCause().getMessage();
+            response.sendError(HttpStatus.CONFLICT.value(), motivo); // 409: reintentar más tarde
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value()); // 503
+            return;
+        }
+
+        if (!guardada.hashPeticion().equals(hash)) {
+            log.warn("⚠️ Idempotency-Key reutilizada con otro cuerpo"); // Error del cliente
+            response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(), "Idempotency-Key usada con otra petición"); // 422
+            return;
+        }
+
+        response.setStatus(guardada.codigoHttp()); // Mismo status
+        if (guardada.contentType() != null) {
+            response.setContentType(guardada.contentType()); // Mismo tipo
+        }
+        response.setHeader(HEADER_REPETIDA, "true"); // El cliente sabe que no se ejecutó de nuevo
+        if (guardada.cuerpo() != null) {
+            response.setContentLength(guardada.cuerpo().length);
+            response.getOutputStream().write(guardada.cuerpo()); // Mismo cuerpo
+        }
+    }
+
+    private static String sha256(byte[] datos) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(datos));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e); // Siempre existe en la JVM
+        }
+    }
+
+    // Petición cuyo cuerpo ya fue leído por el filtro
+    private static final class PeticionConCuerpo extends HttpServletRequestWrapper {
+
+        private final byte[] cuerpo;
+
+        private PeticionConCuerpo(HttpServletRequest request, byte[] cuerpo) {
+            super(request);
+            this.cuerpo = cuerpo;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream entrada = new ByteArrayInputStream(cuerpo);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return entrada.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable(); // El cuerpo ya está en memoria: todo disponible de inmediato
+                        }
+                        if (isFinished()) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return entrada.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return entrada.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return cuerpo.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return cuerpo.length;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.homefixer.idempotencia.model;
+
+import jakarta.persistence.*; // Importa anotaciones JPA
+import lombok.*; // Importa Lombok
+import java.time.LocalDateTime; // Para fechas con hora
+
+@Entity // Marca como entidad de base de datos
+@Table(name = "claves_idempotencia", indexes = { // Respuestas guardadas por Idempotency-Key
+    @Index(name = "idx_idempotencia_expiracion", columnList = "fecha_expiracion") // Limpieza por TTL
+})
+@Data // Lombok: getters, setters, toString automáticos
+@NoArgsConstructor // Constructor vacío
+@AllArgsConstructor // Constructor con todos los parámetros
+@Builder // Patrón builder para crear objetos
+public class ClaveIdempotencia {
+    
+    @Id // Clave primaria: ruta + Idempotency-Key
+    @Column(name = "clave", length = 300) // Asignada por el filtro
+    private String clave; // Alcance de la clave
+    
+    @Column(name = "hash_peticion", nullable = false, length = 64) // SHA-256 del cuerpo
+    private String hashPeticion; // Detecta reutilizar la clave con otro cuerpo
+    
+    @Enumerated(EnumType.STRING) // Estado como texto
+    @Column(name = "estado", nullable = false, length = 20)
+    private EstadoClave estado; // EN_CURSO o COMPLETADA
+    
+    @Column(name = "codigo_http") // Status de la respuesta original
+    private Integer codigoHttp; // Null mientras está en curso
+    
+    @Column(name = "content_type", length = 100) // Tipo de la respuesta original
+    private String contentType; // Para repetir la respuesta igual
+    
+    @Lob // Binario largo
+    @Column(name = "cuerpo") // Cuerpo de la respuesta original
+    private byte[] cuerpo; // Se repite tal cual
+    
+    @Column(name = "fecha_creacion", nullable = false) // Cuándo llegó la primera petición
+    private LocalDateTime fechaCreacion; // Timestamp de creación
+    
+    @Column(name = "fecha_expiracion", nullable = false) // Fin del TTL
+    private LocalDateTime fechaExpiracion; // Después de esto la clave se puede reutilizar
+    
+    @Version // Hace que save() inserte (y falle si otra instancia ya la reservó)
+    @Column(name = "version")
+    private Long version; // Versión de la fila
+    
+    // Enum para el estado de una clave
+    public enum EstadoClave {
+        EN_CURSO,   // La primera petición aún se está ejecutando
+        COMPLETADA  // Respuesta guardada para repetir
+    }
+}
@@ -0,0 +1,18 @@
+package com.homefixer.idempotencia.repository;
+
+import com.homefixer.idempotencia.model.ClaveIdempotencia; // Importa entidad ClaveIdempotencia
+import org.springframework.data.jpa.repository.JpaRepository; // Interfaz base
+import org.springframework.data.jpa.repository.Modifying; // Para DELETE
+import org.springframework.data.jpa.repository.Query; // Para consultas personalizadas
+import org.springframework.data.repository.query.Param; // Para parámetros
+import org.springframework.stereotype.Repository; // Anotación repositorio
+import java.time.LocalDateTime; // Para fechas
+
+@Repository // Marca como repositorio Spring
+public interface ClaveIdempotenciaRepository extends JpaRepository<ClaveIdempotencia, String> {
+    
+    // Borra las claves cuyo TTL ya venció (usa idx_idempotencia_expiracion)
+    @Modifying
+    @Query("DELETE FROM ClaveIdempotencia c WHERE c.fechaExpiracion < :ahora")
+    int borrarExpiradas(@Param("ahora") LocalDateTime ahora); // Limpieza
+}
@@ -0,0 +1,164 @@
+package com.homefixer.idempotencia.service;
+
+import com.homefixer.idempotencia.dto.RespuestaIdempotente; // Respuesta guardada
+import com.homefixer.idempotencia.exception.IdempotenciaException; // Clave no disponible
+import com.homefixer.idempotencia.model.ClaveIdempotencia; // Importa entidad ClaveIdempotencia
+import com.homefixer.idempotencia.repository.ClaveIdempotenciaRepository; // Importa repositorio
+import lombok.extern.slf4j.Slf4j; // Logger automático
+import org.springframework.beans.factory.annotation.Value; // Para leer configuración
+import org.springframework.dao.DataIntegrityViolationException; // Clave duplicada
+import org.springframework.scheduling.annotation.Scheduled; // Tareas programadas
+import org.springframework.transaction.annotation.Transactional; // Para transacciones
+import java.time.LocalDateTime; // Para fechas
+import java.util.Collections; // Mapa sincronizado
+import java.util.LinkedHashMap; // LRU por orden de acceso
+import java.util.Map; // Para mapas
+import java.util.Optional; // Para opcionales
+import java.util.concurrent.CompletableFuture; // Resultado compartido entre peticiones
+import java.util.concurrent.ConcurrentHashMap; // Mapa concurrente
+
+// Almacén de Idempotency-Key: LRU acotado en memoria delante de la tabla claves_idempotencia, más coalescencia en vuelo
+@Slf4j // Logger automático
+public class IdempotenciaService {
+
+    private final ClaveIdempotenciaRepository claveRepository; // Respaldo en BD (sobrevive reinicios y otras instancias)
+    private final Map<String, RespuestaIdempotente> memoria; // Respuestas recientes
+    private final Map<String, CompletableFuture<RespuestaIdempotente>> enCurso = new ConcurrentHashMap<>(); // Primera petición ejecutándose
+
+    @Value("${homefixer.idempotencia.ttl-horas:24}")
+    private int ttlHoras; // Vida de una clave
+
+    public IdempotenciaService(ClaveIdempotenciaRepository claveRepository,
+                               @Value("${homefixer.idempotencia.capacidad-memoria:10000}") int capacidad) {
+        this.claveRepository = claveRepository;
+        this.memoria = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RespuestaIdempotente> mayor) {
+                return size() > capacidad; // Acotado: sale la menos usada
+            }
+        });
+    }
+
+    // Reserva la clave. Devuelve vacío si esta petición debe ejecutarse; si no, el resultado (o la espera) de la original
+    public Optional<CompletableFuture<RespuestaIdempotente>> reservar(String clave, String hashPeticion) {
+        RespuestaIdempotente guardada = memoria.get(clave);
+        if (guardada != null && guardada.fechaExpiracion().isAfter(LocalDateTime.now())) {
+            return Optional.of(CompletableFuture.completedFuture(guardada)); // Repetición desde memoria
+        }
+
+        CompletableFuture<RespuestaIdempotente> propio = new CompletableFuture<>();
+        CompletableFuture<RespuestaIdempotente> existente = enCurso.putIfAbsent(clave, propio);
+        if (existente != null) {
+            return Optional.of(existente); // Misma clave ejecutándose en esta instancia: esperar su resultado
+        }
+
+        try {
+            Optional<ClaveIdempotencia> fila = claveRepository.findById(clave);
+            if (fila.isPresent() && fila.get().getFechaExpiracion().isBefore(LocalDateTime.now())) {
+                claveRepository.delete(fila.get()); // TTL vencido: la clave se puede reutilizar
+                fila = Optional.empty();
+            }
+            if (fila.isPresent()) {
+                ClaveIdempotencia existenteEnBd = fila.get();
+                if (existenteEnBd.getEstado() == ClaveIdempotencia.EstadoClave.COMPLETADA) {
+                    RespuestaIdempotente respuesta = aRespuesta(existenteEnBd);
+                    memoria.put(clave, respuesta); // Calienta la memoria
+                    liberar(clave, propio).complete(respuesta);
+                } else {
+                    liberar(clave, propio).completeExceptionally(new IdempotenciaException("La petición original sigue en curso")); // Otra instancia
+                }
+                return Optional.of(propio);
+            }
+
+            LocalDateTime ahora = LocalDateTime.now();
+            claveRepository.saveAndFlush(ClaveIdempotencia.builder()
+                .clave(clave)
+                .hashPeticion(hashPeticion)
+                .estado(ClaveIdempotencia.EstadoClave.EN_CURSO)
+                .fechaCreacion(ahora)
+                .fechaExpiracion(ahora.plusHours(ttlHoras))
+                .build()); // INSERT: falla si otra instancia la reservó primero
+            return Optional.empty(); // Esta petición es la dueña
+        } catch (DataIntegrityViolationException e) {
+            liberar(clave, propio).completeExceptionally(new IdempotenciaException("La petición original sigue en curso")); // Perdió la carrera
+            return Optional.of(propio);
+        } catch (RuntimeException e) {
+            liberar(clave, propio).completeExceptionally(e); // No dejar esperando a nadie
+            throw e;
+        }
+    }
+
+    // Guarda la respuesta de la petición dueña y despierta a las que esperaban
+    public void completar(String clave, String hashPeticion, int codigoHttp, String contentType, byte[] cuerpo) {
+        CompletableFuture<RespuestaIdempotente> propio = enCurso.get(clave);
+        try {
+            if (!seGuarda(codigoHttp)) {
+                claveRepository.deleteById(clave); // Puede ser una falla pasajera: el cliente puede reintentar con la misma clave
+                if (propio != null) {
+                    liberar(clave, propio).completeExceptionally(new IdempotenciaException("La petición original falló"));
+                }
+                return;
+            }
+            ClaveIdempotencia fila = claveRepository.findById(clave)
+                .orElseThrow(() -> new IdempotenciaException("Clave de idempotencia no reservada"));
+            fila.setEstado(ClaveIdempotencia.EstadoClave.COMPLETADA);
+            fila.setCodigoHttp(codigoHttp);
+            fila.setContentType(contentType);
+            fila.setCuerpo(cuerpo);
+            claveRepository.save(fila); // Respaldo para reintentos tras reinicio u otra instancia
+
+            RespuestaIdempotente respuesta = new RespuestaIdempotente(hashPeticion, codigoHttp, contentType, cuerpo, fila.getFechaExpiracion());
+            memoria.put(clave, respuesta);
+            if (propio != null) {
+                liberar(clave, propio).complete(respuesta); // Despierta a las peticiones coalescidas
+            }
+        } catch (RuntimeException e) {
+            if (propio != null) {
+                liberar(clave, propio).completeExceptionally(e);
+            }
+            throw e;
+        }
+    }
+
+    // La petición dueña terminó con excepción: se libera la clave para reintentar
+    public void abortar(String clave) {
+        try {
+            claveRepository.deleteById(clave);
+        } finally {
+            CompletableFuture<RespuestaIdempotente> propio = enCurso.get(clave);
+            if (propio != null) {
+                liberar(clave, propio).completeExceptionally(new IdempotenciaException("La petición original falló"));
+            }
+        }
+    }
+
+    // Borra claves vencidas de BD y de memoria
+    @Scheduled(fixedDelayString = "${homefixer.idempotencia.limpieza-ms:600000}")
+    @Transactional // DELETE masivo
+    public void limpiarExpiradas() {
+        LocalDateTime ahora = LocalDateTime.now();
+        int borradas = claveRepository.borrarExpiradas(ahora);
+        synchronized (memoria) {
+            memoria.values().removeIf(r -> r.fechaExpiracion().isBefore(ahora)); // Misma política en memoria
+        }
+        if (borradas > 0) {
+            log.info("🧹 {} claves de idempotencia vencidas borradas", borradas); // Log limpieza
+        }
+    }
+
+    // Solo respuestas definitivas: 2xx y los rechazos explícitos (409 conflicto, 422 otra petición con la clave).
+    // Los controladores responden 400 ante cualquier excepción, incluida una caída de BD, así que un 400 no se repite
+    private static boolean seGuarda(int codigoHttp) {
+        return codigoHttp / 100 == 2 || codigoHttp == 409 || codigoHttp == 422;
+    }
+
+    // Saca la reserva en vuelo (solo si sigue siendo la misma) y la devuelve para completarla
+    private CompletableFuture<RespuestaIdempotente> liberar(String clave, CompletableFuture<RespuestaIdempotente> futuro) {
+        enCurso.remove(clave, futuro);
+        return futuro;
+    }
+
+    private static RespuestaIdempotente aRespuesta(ClaveIdempotencia fila) {
+        return new RespuestaIdempotente(fila.getHashPeticion(), fila.getCodigoHttp(), fila.getContentType(), fila.getCuerpo(), fila.getFechaExpiracion());
+    }
+}
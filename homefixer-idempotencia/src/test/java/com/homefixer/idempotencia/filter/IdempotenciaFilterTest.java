@@ -0,0 +1,176 @@
+package com.homefixer.idempotencia.filter;
+
+import com.homefixer.idempotencia.model.ClaveIdempotencia;
+import com.homefixer.idempotencia.repository.ClaveIdempotenciaRepository;
+import com.homefixer.idempotencia.service.IdempotenciaService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Repetición de respuestas, qué códigos se guardan, cuerpo distinto con la misma clave, coalescencia de peticiones concurrentes
+// y lectura asíncrona del cuerpo ya leído por el filtro
+class IdempotenciaFilterTest {
+
+	private final Map<String, ClaveIdempotencia> tabla = new ConcurrentHashMap<>();
+	private final AtomicInteger ejecuciones = new AtomicInteger();
+	private volatile int estado = 200; // Respuesta del controlador falso
+	private IdempotenciaFilter filtro;
+
+	@BeforeEach
+	void preparar() {
+		ClaveIdempotenciaRepository repository = mock(ClaveIdempotenciaRepository.class);
+		when(repository.findById(anyString())).thenAnswer(i -> Optional.ofNullable(tabla.get(i.<String>getArgument(0))));
+		when(repository.saveAndFlush(any())).thenAnswer(i -> guardar(i.getArgument(0)));
+		when(repository.save(any())).thenAnswer(i -> guardar(i.getArgument(0)));
+		doAnswer(i -> tabla.remove(i.<String>getArgument(0))).when(repository).deleteById(anyString());
+
+		IdempotenciaService service = new IdempotenciaService(repository, 100);
+		ReflectionTestUtils.setField(service, "ttlHoras", 24);
+		filtro = new IdempotenciaFilter(service, List.of("/api/solicitudes"), 5000);
+	}
+
+	@Test
+	void repiteLaRespuestaSinEjecutarDeNuevo() throws Exception {
+		MockHttpServletResponse primera = enviar("clave-1", "{\"titulo\":\"Fuga\"}");
+		MockHttpServletResponse segunda = enviar("clave-1", "{\"titulo\":\"Fuga\"}");
+
+		assertEquals(1, ejecuciones.get());
+		assertEquals(200, segunda.getStatus());
+		assertEquals(primera.getContentAsString(), segunda.getContentAsString());
+		assertEquals("true", segunda.getHeader(IdempotenciaFilter.HEADER_REPETIDA));
+		assertNull(primera.getHeader(IdempotenciaFilter.HEADER_REPETIDA));
+
+		assertEquals(422, enviar("clave-1", "{\"titulo\":\"Otra\"}").getStatus());
+		enviar("clave-2", "{\"titulo\":\"Fuga\"}");
+		assertEquals(2, ejecuciones.get());
+	}
+
+	@Test
+	void unCuatrocientosNoSeRepiteYUnConflictoSi() throws Exception {
+		estado = 400; // Los controladores responden 400 también ante una falla pasajera
+		assertEquals(400, enviar("clave-400", "{\"titulo\":\"Fuga\"}").getStatus());
+		estado = 200;
+		assertEquals(200, enviar("clave-400", "{\"titulo\":\"Fuga\"}").getStatus()); // El reintento se ejecuta
+		assertEquals(2, ejecuciones.get());
+
+		estado = 409;
+		enviar("clave-409", "{\"titulo\":\"Fuga\"}");
+		estado = 200;
+		assertEquals(409, enviar("clave-409", "{\"titulo\":\"Fuga\"}").getStatus()); // Rechazo explícito: se repite
+		assertEquals(3, ejecuciones.get());
+	}
+
+	@Test
+	void peticionesConcurrentesSeEjecutanUnaVez() throws Exception {
+		int hilos = 16;
+		ExecutorService pool = Executors.newFixedThreadPool(hilos);
+		CountDownLatch largada = new CountDownLatch(1);
+		List<Future<MockHttpServletResponse>> respuestas = new ArrayList<>();
+		try {
+			for (int i = 0; i < hilos; i++) {
+				respuestas.add(pool.submit(() -> {
+					largada.await();
+					return enviar("clave-concurrente", "{\"titulo\":\"Fuga\"}");
+				}));
+			}
+			largada.countDown();
+			for (Future<MockHttpServletResponse> respuesta : respuestas) {
+				assertEquals(200, respuesta.get().getStatus());
+				assertEquals("{\"idSolicitud\":1}", respuesta.get().getContentAsString());
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		assertEquals(1, ejecuciones.get());
+	}
+
+	@Test
+	void elCuerpoSeLeeTambienConReadListener() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/solicitudes");
+		request.addHeader(IdempotenciaFilter.HEADER, "clave-asincrona");
+		request.setContent("{\"titulo\":\"Fuga\"}".getBytes(StandardCharsets.UTF_8));
+		ByteArrayOutputStream leido = new ByteArrayOutputStream();
+		boolean[] terminado = {false};
+		FilterChain controlador = (req, res) -> {
+			ServletInputStream entrada = req.getInputStream();
+			entrada.setReadListener(new ReadListener() {
+				@Override
+				public void onDataAvailable() throws IOException {
+					while (entrada.isReady() && !entrada.isFinished()) {
+						leido.write(entrada.read());
+					}
+				}
+
+				@Override
+				public void onAllDataRead() {
+					terminado[0] = true;
+				}
+
+				@Override
+				public void onError(Throwable t) {
+					throw new IllegalStateException(t);
+				}
+			});
+			((HttpServletResponse) res).setStatus(200);
+		};
+		filtro.doFilter(request, new MockHttpServletResponse(), controlador);
+
+		assertEquals("{\"titulo\":\"Fuga\"}", leido.toString(StandardCharsets.UTF_8));
+		assertTrue(terminado[0]);
+	}
+
+	private MockHttpServletResponse enviar(String clave, String cuerpo) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/solicitudes");
+		request.addHeader(IdempotenciaFilter.HEADER, clave);
+		request.setContent(cuerpo.getBytes(StandardCharsets.UTF_8));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		FilterChain controlador = (req, res) -> {
+			req.getInputStream().readAllBytes();
+			int n = ejecuciones.incrementAndGet();
+			try {
+				Thread.sleep(50); // Deja que las demás peticiones lleguen mientras corre
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			((HttpServletResponse) res).setStatus(estado);
+			res.setContentType("application/json");
+			res.getOutputStream().write(("{\"idSolicitud\":" + n + "}").getBytes(StandardCharsets.UTF_8));
+		};
+		filtro.doFilter(request, response, controlador);
+		return response;
+	}
+
+	private ClaveIdempotencia guardar(ClaveIdempotencia fila) {
+		tabla.put(fila.getClave(), fila);
+		return fila;
+	}
+}
@@ -2,8 +2,10 @@ package com.homefixer.asignaciones;
 
 import org.springframework.boot.SpringApplication; // Importa SpringApplication
 import org.springframework.boot.autoconfigure.SpringBootApplication; // Importa configuración
+import org.springframework.scheduling.annotation.EnableScheduling; // Habilita tareas programadas
 
 @SpringBootApplication // Configuración automática Spring Boot
+@EnableScheduling // Habilita @Scheduled (limpieza de claves de idempotencia)
 public class AsignacionesApplication {
     
     // Método principal
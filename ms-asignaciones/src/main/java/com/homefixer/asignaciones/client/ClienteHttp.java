@@ -0,0 +1,102 @@
+package com.homefixer.asignaciones.client;
+
+import com.fasterxml.jackson.databind.JavaType; // Tipo a deserializar
+import com.fasterxml.jackson.databind.ObjectMapper; // Serializador JSON de Spring
+import com.homefixer.asignaciones.exception.ServicioNoDisponibleException; // Caído, lento o circuito abierto
+import java.io.IOException; // Error de red o de formato
+import java.net.URI; // Destino
+import java.net.http.HttpClient; // Cliente HTTP del JDK
+import java.net.http.HttpRequest; // Request
+import java.net.http.HttpResponse; // Response
+import java.time.Duration; // Timeouts
+import java.util.concurrent.CompletableFuture; // Llamadas asíncronas
+import java.util.concurrent.CompletionException; // Error dentro de un future
+
+// GET a otro microservicio con un HttpClient compartido (HTTP/1.1 con keep-alive: el JDK reutiliza las conexiones
+// abiertas por host), timeout por llamada y disyuntor. Los 5xx, timeouts y errores de red abren el circuito;
+// un 404 es una respuesta válida.
+public class ClienteHttp {
+
+    private final String servicio; // Nombre para los mensajes, ej: ms-usuarios
+    private final String baseUrl; // Ej: http://localhost:8080
+    private final Duration timeout; // Tiempo máximo por llamada
+    private final ObjectMapper objectMapper; // Mismo formato JSON que la API
+    private final Disyuntor disyuntor; // Corta las llamadas a un servicio caído
+    private final HttpClient httpClient; // Pool de conexiones
+
+    public ClienteHttp(String servicio, String baseUrl, Duration timeout, ObjectMapper objectMapper, Disyuntor disyuntor) {
+        this.servicio = servicio;
+        this.baseUrl = baseUrl;
+        this.timeout = timeout;
+        this.objectMapper = objectMapper;
+        this.disyuntor = disyuntor;
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1) // Sin intento de upgrade a h2c en cada conexión nueva
+            .connectTimeout(timeout)
+            .build();
+    }
+
+    // GET asíncrono; falla con ServicioNoDisponibleException si el circuito está abierto, vence el plazo o responde 5xx
+    public CompletableFuture<HttpResponse<byte[]>> getAsync(String ruta, Duration limite) {
+        if (!disyuntor.permitir()) {
+            return CompletableFuture.failedFuture(new ServicioNoDisponibleException(servicio + " no disponible (circuito abierto)"));
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + ruta))
+            .timeout(limite)
+            .header("Accept", "application/json")
+            .GET()
+            .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+            .handle((response, error) -> {
+                if (error != null) {
+                    disyuntor.fallo();
+                    Throwable causa = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    throw new ServicioNoDisponibleException(servicio + " no disponible: " + causa, causa);
+                }
+                if (response.statusCode() >= 500) {
+                    disyuntor.fallo();
+                    throw new ServicioNoDisponibleException(servicio + " respondió " + response.statusCode());
+                }
+                disyuntor.exito();
+                return response;
+            });
+    }
+
+    // GET con el timeout por defecto, esperando la respuesta
+    public HttpResponse<byte[]> get(String ruta) {
+        return get(ruta, timeout);
+    }
+
+    // GET esperando la respuesta
+    public HttpResponse<byte[]> get(String ruta, Duration limite) {
+        try {
+            return getAsync(ruta, limite).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException r ? r : e; // La excepción original
+        }
+    }
+
+    // Cuerpo 2xx como el tipo pedido
+    public <T> T leer(HttpResponse<byte[]> response, JavaType tipo) {
+        if (response.statusCode() / 100 != 2) {
+            throw new RuntimeException(servicio + " respondió " + response.statusCode());
+        }
+        try {
+            return objectMapper.readValue(response.body(), tipo);
+        } catch (IOException e) {
+            throw new RuntimeException("Respuesta inválida de " + servicio + ": " + e.getMessage(), e);
+        }
+    }
+
+    public ObjectMapper objectMapper() {
+        return objectMapper;
+    }
+
+    public Duration timeout() {
+        return timeout;
+    }
+
+    public Disyuntor disyuntor() {
+        return disyuntor;
+    }
+}
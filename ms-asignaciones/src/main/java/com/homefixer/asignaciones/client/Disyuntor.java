@@ -0,0 +1,57 @@
+package com.homefixer.asignaciones.client;
+
+// Circuit breaker por servicio remoto: tras fallos seguidos se abre y rechaza llamadas sin esperar el timeout;
+// pasada la espera deja pasar una sola llamada de prueba (semiabierto) que lo cierra o lo vuelve a abrir
+public class Disyuntor {
+
+    public enum Estado {
+        CERRADO,    // Llamadas normales
+        ABIERTO,    // Rechaza sin llamar
+        SEMIABIERTO // Una llamada de prueba en curso
+    }
+
+    private final int fallosMaximos; // Fallos seguidos que lo abren
+    private final long esperaNanos; // Tiempo abierto antes de probar
+    private Estado estado = Estado.CERRADO;
+    private int fallosSeguidos;
+    private long abiertoHasta; // System.nanoTime() en que se puede probar
+
+    public Disyuntor(int fallosMaximos, long esperaMs) {
+        if (fallosMaximos < 1 || esperaMs < 0) {
+            throw new IllegalArgumentException("Fallos o espera inválidos"); // Configuración inválida
+        }
+        this.fallosMaximos = fallosMaximos;
+        this.esperaNanos = esperaMs * 1_000_000;
+    }
+
+    // ¿Puede salir una llamada? En semiabierto solo la primera
+    public synchronized boolean permitir() {
+        if (estado == Estado.CERRADO) {
+            return true;
+        }
+        if (estado == Estado.ABIERTO && System.nanoTime() - abiertoHasta >= 0) {
+            estado = Estado.SEMIABIERTO; // Esta llamada es la prueba
+            return true;
+        }
+        return false;
+    }
+
+    // La llamada respondió (aunque sea 404)
+    public synchronized void exito() {
+        estado = Estado.CERRADO;
+        fallosSeguidos = 0;
+    }
+
+    // Timeout, error de red o 5xx
+    public synchronized void fallo() {
+        if (estado == Estado.SEMIABIERTO || ++fallosSeguidos >= fallosMaximos) {
+            estado = Estado.ABIERTO;
+            abiertoHasta = System.nanoTime() + esperaNanos;
+            fallosSeguidos = 0;
+        }
+    }
+
+    public synchronized Estado estado() {
+        return estado;
+    }
+}
@@ -0,0 +1,222 @@
+package com.homefixer.asignaciones.client;
+
+import com.homefixer.asignaciones.exception.ServicioNoDisponibleException; // Sin respuesta a tiempo (503)
+import java.time.Duration; // Espera máxima
+import java.util.ArrayList; // Lista del lote
+import java.util.Collection; // Ids pedidos
+import java.util.HashMap; // Resultado
+import java.util.List; // Para listas
+import java.util.Map; // Para mapas
+import java.util.Optional; // Puede no existir
+import java.util.concurrent.CompletableFuture; // Respuesta pendiente
+import java.util.concurrent.CompletionException; // Error dentro de un future
+import java.util.concurrent.ConcurrentHashMap; // Mapas concurrentes
+import java.util.concurrent.ExecutionException; // Error del lote
+import java.util.concurrent.Executors; // Hilo del temporizador
+import java.util.concurrent.ScheduledExecutorService; // Ventana del lote
+import java.util.concurrent.ScheduledFuture; // Ventana programada
+import java.util.concurrent.TimeUnit; // Unidades
+import java.util.concurrent.TimeoutException; // Lote lento
+import java.util.function.Function; // Llamada por lote
+
+// Búsquedas por id contra otro microservicio con tres capas: caché con TTL (también de "no existe", con TTL más
+// corto), una sola llamada en vuelo por id (los pedidos concurrentes del mismo id esperan el mismo future) y
+// micro-lotes: los ids pedidos dentro de la ventana salen juntos en una llamada a /lote, o antes si se llena el lote.
+public class LotesPorId<V> {
+
+    private final String nombre; // Para el hilo, ej: clientes
+    private final Function<List<Long>, CompletableFuture<Map<Long, V>>> buscarLote; // ids -> encontrados
+    private final long ttlNanos; // Vida de un valor en caché
+    private final long ttlNegativoNanos; // Vida de un "no existe"
+    private final int capacidad; // Entradas en caché como máximo
+    private final int loteMaximo; // Ids por llamada
+    private final long esperaLoteMs; // Ventana para juntar ids
+    private final Map<Long, Entrada<V>> cache = new ConcurrentHashMap<>(); // id -> valor o ausencia
+    private final Map<Long, CompletableFuture<Optional<V>>> enVuelo = new ConcurrentHashMap<>(); // id -> respuesta pendiente
+    private final ScheduledExecutorService temporizador; // Cierra la ventana del lote
+    private List<Long> pendientes = new ArrayList<>(); // Ids del lote en formación (bajo this)
+    private ScheduledFuture<?> ventana; // Envío programado del lote en formación (bajo this)
+
+    public LotesPorId(String nombre, Function<List<Long>, CompletableFuture<Map<Long, V>>> buscarLote,
+                      long ttlMs, long ttlNegativoMs, int capacidad, int loteMaximo, long esperaLoteMs) {
+        if (loteMaximo < 1 || capacidad < 0 || esperaLoteMs < 0) {
+            throw new IllegalArgumentException("Lote, capacidad o espera inválidos"); // Configuración inválida
+        }
+        this.nombre = nombre;
+        this.buscarLote = buscarLote;
+        this.ttlNanos = ttlMs * 1_000_000;
+        this.ttlNegativoNanos = ttlNegativoMs * 1_000_000;
+        this.capacidad = capacidad;
+        this.loteMaximo = loteMaximo;
+        this.esperaLoteMs = esperaLoteMs;
+        this.temporizador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "lotes-" + nombre);
+            hilo.setDaemon(true); // No frena el apagado
+            return hilo;
+        });
+    }
+
+    // Valor del id esperando como máximo el plazo dado; la excepción del lote si falló
+    public Optional<V> obtener(Long id, Duration plazo) {
+        return esperar(obtenerAsync(id), plazo);
+    }
+
+    // Varios ids en las mismas llamadas por lote; los que no existen no aparecen en el mapa
+    public Map<Long, V> obtenerVarios(Collection<Long> ids, Duration plazo) {
+        Map<Long, CompletableFuture<Optional<V>>> futuros = new HashMap<>();
+        List<Long> nuevos = new ArrayList<>();
+        for (Long id : ids) {
+            if (id != null) {
+                futuros.computeIfAbsent(id, k -> reservar(k, nuevos));
+            }
+        }
+        encolar(nuevos); // Todos juntos: la ventana no corta el pedido en lotes a medias
+        long limite = System.nanoTime() + plazo.toNanos();
+        Map<Long, V> resultado = new HashMap<>();
+        for (Map.Entry<Long, CompletableFuture<Optional<V>>> e : futuros.entrySet()) {
+            Duration resto = Duration.ofNanos(Math.max(0L, limite - System.nanoTime())); // Un solo plazo para todos
+            esperar(e.getValue(), resto).ifPresent(v -> resultado.put(e.getKey(), v));
+        }
+        return resultado;
+    }
+
+    // Caché, si no la llamada en vuelo del id, si no entra al lote en formación
+    public CompletableFuture<Optional<V>> obtenerAsync(Long id) {
+        List<Long> nuevos = new ArrayList<>(1);
+        CompletableFuture<Optional<V>> futuro = reservar(id, nuevos);
+        encolar(nuevos);
+        return futuro;
+    }
+
+    // Olvida el id (ej: se sabe que cambió)
+    public void invalidar(Long id) {
+        cache.remove(id);
+    }
+
+    // Entradas en caché (vigentes o no)
+    public int tamanoCache() {
+        return cache.size();
+    }
+
+    // Detiene el temporizador; los pedidos en vuelo fallan
+    public void cerrar() {
+        temporizador.shutdownNow();
+        RuntimeException cerrado = new IllegalStateException("Cliente de " + nombre + " cerrado");
+        enVuelo.values().forEach(f -> f.completeExceptionally(cerrado));
+    }
+
+    // Caché o llamada en vuelo del id; si no hay ninguna, deja el id en nuevos para que el llamador lo encole
+    private CompletableFuture<Optional<V>> reservar(Long id, List<Long> nuevos) {
+        Entrada<V> entrada = vigente(id);
+        if (entrada != null) {
+            return CompletableFuture.completedFuture(Optional.ofNullable(entrada.valor()));
+        }
+        CompletableFuture<Optional<V>> nuevo = new CompletableFuture<>();
+        CompletableFuture<Optional<V>> existente = enVuelo.putIfAbsent(id, nuevo);
+        if (existente != null) {
+            return existente; // Otro hilo ya lo pidió
+        }
+        entrada = vigente(id); // El lote anterior pudo terminar entre la lectura y el putIfAbsent
+        if (entrada != null) {
+            enVuelo.remove(id, nuevo);
+            nuevo.complete(Optional.ofNullable(entrada.valor()));
+            return nuevo;
+        }
+        nuevos.add(id);
+        return nuevo;
+    }
+
+    // Los ids entran al lote en formación en un solo turno; cada lote lleno sale ya
+    private synchronized void encolar(List<Long> ids) {
+        for (Long id : ids) {
+            pendientes.add(id);
+            if (pendientes.size() >= loteMaximo) {
+                enviar(); // Lote lleno: sale ya
+            }
+        }
+        if (!pendientes.isEmpty() && ventana == null) {
+            ventana = temporizador.schedule(this::enviarProgramado, esperaLoteMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void enviarProgramado() {
+        ventana = null;
+        if (!pendientes.isEmpty()) {
+            enviar();
+        }
+    }
+
+    // Saca el lote en formación y lanza su llamada (bajo this)
+    private void enviar() {
+        List<Long> lote = pendientes;
+        pendientes = new ArrayList<>();
+        if (ventana != null) {
+            ventana.cancel(false);
+            ventana = null;
+        }
+        CompletableFuture<Map<Long, V>> llamada;
+        try {
+            llamada = buscarLote.apply(lote);
+        } catch (RuntimeException e) {
+            llamada = CompletableFuture.failedFuture(e); // Circuito abierto o error antes de salir
+        }
+        llamada.whenComplete((encontrados, error) -> completar(lote, encontrados, error));
+    }
+
+    // Llena la caché antes de soltar los futures, para que un pedido nuevo no dispare otra llamada
+    private void completar(List<Long> lote, Map<Long, V> encontrados, Throwable error) {
+        if (error == null) {
+            long ahora = System.nanoTime();
+            purgar(ahora, lote.size());
+            for (Long id : lote) {
+                V valor = encontrados.get(id);
+                cache.put(id, new Entrada<>(valor, ahora + (valor != null ? ttlNanos : ttlNegativoNanos)));
+            }
+        }
+        Throwable causa = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        for (Long id : lote) {
+            CompletableFuture<Optional<V>> futuro = enVuelo.remove(id);
+            if (futuro == null) {
+                continue;
+            }
+            if (causa != null) {
+                futuro.completeExceptionally(causa); // Sin caché de errores: el próximo pedido reintenta
+            } else {
+                futuro.complete(Optional.ofNullable(encontrados.get(id)));
+            }
+        }
+    }
+
+    // Antes de pasar la capacidad: fuera las vencidas y, si no alcanza, se vacía
+    private void purgar(long ahora, int entrantes) {
+        if (cache.size() + entrantes <= capacidad) {
+            return;
+        }
+        cache.values().removeIf(e -> ahora - e.vence() >= 0);
+        if (cache.size() + entrantes > capacidad) {
+            cache.clear(); // Todas vigentes: se recargan en los próximos lotes
+        }
+    }
+
+    private Entrada<V> vigente(Long id) {
+        Entrada<V> entrada = cache.get(id);
+        return entrada != null && System.nanoTime() - entrada.vence() < 0 ? entrada : null;
+    }
+
+    private Optional<V> esperar(CompletableFuture<Optional<V>> futuro, Duration plazo) {
+        try {
+            return futuro.get(plazo.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException r ? r : new ServicioNoDisponibleException("Falló la llamada a " + nombre, e.getCause());
+        } catch (TimeoutException e) {
+            throw new ServicioNoDisponibleException("Sin respuesta de " + nombre + " en " + plazo.toMillis() + " ms", e); // 503, no 400
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServicioNoDisponibleException("Interrumpido esperando " + nombre, e);
+        }
+    }
+
+    // Valor (null = no existe) y cuándo vence
+    private record Entrada<V>(V valor, long vence) {
+    }
+}
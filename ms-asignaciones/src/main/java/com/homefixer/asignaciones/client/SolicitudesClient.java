@@ -0,0 +1,88 @@
+package com.homefixer.asignaciones.client;
+
+import com.fasterxml.jackson.core.type.TypeReference; // Tipo genérico para listas
+import com.fasterxml.jackson.databind.JavaType; // Tipo a deserializar
+import com.fasterxml.jackson.databind.ObjectMapper; // Serializador JSON de Spring
+import com.homefixer.asignaciones.dto.SolicitudRemota; // Solicitud de ms-solicitudes
+import jakarta.annotation.PreDestroy; // Al apagar
+import org.springframework.beans.factory.annotation.Value; // Para leer configuración
+import org.springframework.stereotype.Component; // Componente Spring
+import java.net.http.HttpResponse; // Response
+import java.time.Duration; // Timeouts
+import java.util.ArrayList; // Para listas mutables
+import java.util.HashMap; // Resultado por id
+import java.util.List; // Para listas
+import java.util.Map; // Para mapas
+import java.util.Optional; // Para opcionales
+import java.util.concurrent.CompletableFuture; // Llamadas asíncronas
+import java.util.stream.Collectors; // Para unir ids
+
+// Lecturas a ms-solicitudes por HTTP. Las solicitudes por id pasan por micro-lotes (GET /lote?ids=...) con una
+// caché corta, porque su estado cambia; el disyuntor corta las llamadas si ms-solicitudes cae.
+@Component // Componente Spring
+public class SolicitudesClient {
+
+    private static final TypeReference<List<SolicitudRemota>> LISTA_SOLICITUDES = new TypeReference<>() {
+    };
+    private static final String HEADER_CURSOR = "X-Next-Cursor"; // Siguiente página del listado
+    private static final int TAMANO_PAGINA = 500; // Máximo que acepta ms-solicitudes
+
+    private final ClienteHttp http; // Conexiones, timeout y disyuntor
+    private final LotesPorId<SolicitudRemota> solicitudes; // Caché corta y lotes
+    private final JavaType tipoLista; // List<SolicitudRemota>
+
+    public SolicitudesClient(ObjectMapper objectMapper,
+                             @Value("${homefixer.servicios.solicitudes-url:http://localhost:8082}") String baseUrl,
+                             @Value("${homefixer.servicios.timeout-ms:2000}") long timeoutMs,
+                             @Value("${homefixer.servicios.solicitudes-ttl-ms:1000}") long ttlMs,
+                             @Value("${homefixer.servicios.cache-capacidad:100000}") int capacidad,
+                             @Value("${homefixer.servicios.lote-maximo:100}") int loteMaximo,
+                             @Value("${homefixer.servicios.lote-espera-ms:2}") long esperaLoteMs,
+                             @Value("${homefixer.servicios.disyuntor.fallos:5}") int fallos,
+                             @Value("${homefixer.servicios.disyuntor.espera-ms:10000}") long esperaDisyuntorMs) {
+        this.http = new ClienteHttp("ms-solicitudes", baseUrl, Duration.ofMillis(timeoutMs), objectMapper,
+            new Disyuntor(fallos, esperaDisyuntorMs));
+        this.tipoLista = objectMapper.getTypeFactory().constructType(LISTA_SOLICITUDES);
+        this.solicitudes = new LotesPorId<>("solicitudes", this::buscarLote, ttlMs, ttlMs, capacidad, loteMaximo, esperaLoteMs);
+    }
+
+    // Solicitud por id (caché corta o lote); vacío si no existe
+    public Optional<SolicitudRemota> obtenerSolicitud(Long idSolicitud) {
+        return solicitudes.obtener(idSolicitud, http.timeout().multipliedBy(2)); // Ventana del lote más la llamada
+    }
+
+    // Todas las solicitudes PENDIENTE, recorriendo el listado por cursor con solo las columnas necesarias
+    public List<SolicitudRemota> listarPendientes() {
+        List<SolicitudRemota> pendientes = new ArrayList<>();
+        String cursor = "0";
+        while (cursor != null) {
+            HttpResponse<byte[]> response = http.get("/api/solicitudes/estado/PENDIENTE?cursor=" + cursor + "&limite=" + TAMANO_PAGINA
+                + "&fields=idCliente,especialidadRequerida,ciudad,prioridad");
+            pendientes.addAll(http.<List<SolicitudRemota>>leer(response, tipoLista));
+            cursor = response.headers().firstValue(HEADER_CURSOR).orElse(null); // Sin header: última página
+        }
+        return pendientes;
+    }
+
+    // Estado del disyuntor de ms-solicitudes
+    public Disyuntor.Estado estadoDisyuntor() {
+        return http.disyuntor().estado();
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        solicitudes.cerrar();
+    }
+
+    // GET /api/solicitudes/lote?ids=1,2,3 -> id -> solicitud
+    private CompletableFuture<Map<Long, SolicitudRemota>> buscarLote(List<Long> ids) {
+        String consulta = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+        return http.getAsync("/api/solicitudes/lote?ids=" + consulta, http.timeout())
+            .thenApply(response -> {
+                List<SolicitudRemota> encontradas = http.leer(response, tipoLista);
+                Map<Long, SolicitudRemota> porId = new HashMap<>();
+                encontradas.forEach(s -> porId.put(s.idSolicitud(), s));
+                return porId;
+            });
+    }
+}
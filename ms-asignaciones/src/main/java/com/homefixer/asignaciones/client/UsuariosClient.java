@@ -0,0 +1,103 @@
+package com.homefixer.asignaciones.client;
+
+import com.fasterxml.jackson.core.type.TypeReference; // Tipo genérico para listas
+import com.fasterxml.jackson.databind.JavaType; // Tipo a deserializar
+import com.fasterxml.jackson.databind.ObjectMapper; // Serializador JSON de Spring
+import com.homefixer.asignaciones.dto.ClienteRemoto; // Cliente de ms-usuarios
+import com.homefixer.asignaciones.dto.TecnicoRemoto; // Técnico de ms-usuarios
+import jakarta.annotation.PreDestroy; // Al apagar
+import org.springframework.beans.factory.annotation.Value; // Para leer configuración
+import org.springframework.stereotype.Component; // Componente Spring
+import java.time.Duration; // Timeouts
+import java.util.Collection; // Ids pedidos
+import java.util.HashMap; // Resultado por id
+import java.util.List; // Para listas
+import java.util.Map; // Para mapas
+import java.util.Optional; // Para opcionales
+import java.util.concurrent.CompletableFuture; // Llamadas asíncronas
+import java.util.function.Function; // Id de cada entidad
+import java.util.stream.Collectors; // Para unir ids
+
+// Lecturas a ms-usuarios por HTTP. Clientes y técnicos por id pasan por caché y micro-lotes (GET /lote?ids=...),
+// así que N búsquedas concurrentes salen en una sola llamada; el disyuntor corta las llamadas si ms-usuarios cae.
+@Component // Componente Spring
+public class UsuariosClient {
+
+    private static final TypeReference<List<TecnicoRemoto>> LISTA_TECNICOS = new TypeReference<>() {
+    };
+    private static final TypeReference<List<ClienteRemoto>> LISTA_CLIENTES = new TypeReference<>() {
+    };
+
+    private final ClienteHttp http; // Conexiones, timeout y disyuntor
+    private final LotesPorId<ClienteRemoto> clientes; // Caché y lotes de clientes
+    private final LotesPorId<TecnicoRemoto> tecnicos; // Caché y lotes de técnicos
+
+    public UsuariosClient(ObjectMapper objectMapper,
+                          @Value("${homefixer.servicios.usuarios-url:http://localhost:8080}") String baseUrl,
+                          @Value("${homefixer.servicios.timeout-ms:2000}") long timeoutMs,
+                          @Value("${homefixer.servicios.cache-ttl-ms:60000}") long ttlMs,
+                          @Value("${homefixer.servicios.cache-negativo-ms:5000}") long ttlNegativoMs,
+                          @Value("${homefixer.servicios.cache-capacidad:100000}") int capacidad,
+                          @Value("${homefixer.servicios.lote-maximo:100}") int loteMaximo,
+                          @Value("${homefixer.servicios.lote-espera-ms:2}") long esperaLoteMs,
+                          @Value("${homefixer.servicios.disyuntor.fallos:5}") int fallos,
+                          @Value("${homefixer.servicios.disyuntor.espera-ms:10000}") long esperaDisyuntorMs) {
+        this.http = new ClienteHttp("ms-usuarios", baseUrl, Duration.ofMillis(timeoutMs), objectMapper,
+            new Disyuntor(fallos, esperaDisyuntorMs));
+        this.clientes = new LotesPorId<>("clientes", ids -> buscarLote("/api/clientes/lote", ids, LISTA_CLIENTES, ClienteRemoto::idCliente),
+            ttlMs, ttlNegativoMs, capacidad, loteMaximo, esperaLoteMs);
+        this.tecnicos = new LotesPorId<>("tecnicos", ids -> buscarLote("/api/tecnicos/lote", ids, LISTA_TECNICOS, TecnicoRemoto::idTecnico),
+            ttlMs, ttlNegativoMs, capacidad, loteMaximo, esperaLoteMs);
+    }
+
+    // GET /api/tecnicos: todos los técnicos (snapshot del motor de emparejamiento)
+    public List<TecnicoRemoto> obtenerTecnicos() {
+        return http.leer(http.get("/api/tecnicos", http.timeout().multipliedBy(10)), // Respuesta grande
+            http.objectMapper().getTypeFactory().constructType(LISTA_TECNICOS));
+    }
+
+    // Cliente por id (caché o lote); vacío si no existe
+    public Optional<ClienteRemoto> obtenerCliente(Long idCliente) {
+        return clientes.obtener(idCliente, espera());
+    }
+
+    // Varios clientes en las mismas llamadas por lote; los que no existen no aparecen
+    public Map<Long, ClienteRemoto> obtenerClientes(Collection<Long> idsClientes) {
+        return clientes.obtenerVarios(idsClientes, espera()); // Los lotes salen en paralelo
+    }
+
+    // Técnico por id (caché o lote); vacío si no existe
+    public Optional<TecnicoRemoto> obtenerTecnico(Long idTecnico) {
+        return tecnicos.obtener(idTecnico, espera());
+    }
+
+    // Estado del disyuntor de ms-usuarios
+    public Disyuntor.Estado estadoDisyuntor() {
+        return http.disyuntor().estado();
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        clientes.cerrar();
+        tecnicos.cerrar();
+    }
+
+    // Ventana del lote más el timeout de la llamada
+    private Duration espera() {
+        return http.timeout().multipliedBy(2);
+    }
+
+    // GET {ruta}?ids=1,2,3 -> id -> entidad
+    private <T> CompletableFuture<Map<Long, T>> buscarLote(String ruta, List<Long> ids, TypeReference<List<T>> tipoLista,
+                                                           Function<T, Long> id) {
+        JavaType tipo = http.objectMapper().getTypeFactory().constructType(tipoLista);
+        String consulta = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+        return http.getAsync(ruta + "?ids=" + consulta, http.timeout())
+            .thenApply(response -> {
+                List<T> encontrados = http.leer(response, tipo);
+                Map<Long, T> porId = new HashMap<>();
+                encontrados.forEach(e -> porId.put(id.apply(e), e));
+                return porId;
+            });
+    }
+}
@@ -1,37 +1,85 @@
 package com.homefixer.asignaciones.controller;
 
+import com.homefixer.asignaciones.dto.AsignacionActiva; // Asignación abierta de un técnico
+import com.homefixer.asignaciones.dto.AsignacionAutoRequest; // Cuerpo de /auto
+import com.homefixer.asignaciones.dto.AsignacionResumen; // Fila del historial
+import com.homefixer.asignaciones.dto.CierreServicioRequest; // Cuerpo de /completar
+import com.homefixer.asignaciones.dto.EstadisticasTiempos; // Percentiles de tiempos
+import com.homefixer.asignaciones.dto.FiltroHistorial; // Filtros del historial
+import com.homefixer.asignaciones.dto.ResultadoEmparejamiento; // Lista corta
+import com.homefixer.asignaciones.dto.ResultadoLote; // Resumen del lote
+import com.homefixer.asignaciones.exception.ConflictoAsignacionException; // Técnico o solicitud ya tomados
+import com.homefixer.asignaciones.exception.TransicionAsignacionException; // Transición rechazada
+import com.homefixer.asignaciones.exception.ServicioNoDisponibleException; // Otro servicio caído o circuito abierto
 import com.homefixer.asignaciones.model.Asignacion; // Importa entidad Asignacion
+import com.homefixer.asignaciones.model.IntentoAsignacion; // Historial de rechazos
 import com.homefixer.asignaciones.service.AsignacionService; // IMPORT CORREGIDO - con ruta completa
+import com.homefixer.asignaciones.service.HistorialAsignacionesService; // Historial paginado y exportación
+import com.homefixer.asignaciones.service.OptimizacionLoteService; // Optimizador por lotes
 import lombok.RequiredArgsConstructor; // Constructor automático
+import org.springframework.beans.factory.annotation.Value; // Para leer configuración
+import org.springframework.format.annotation.DateTimeFormat; // Fechas ISO en parámetros
+import org.springframework.http.MediaType; // Tipo de contenido
 import org.springframework.http.ResponseEntity; // Para respuestas HTTP
 import org.springframework.web.bind.annotation.*; // Anotaciones REST
+import org.springframework.web.context.request.WebRequest; // Para If-None-Match
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody; // Respuesta en streaming
+import java.time.LocalDateTime; // Para fechas
 import java.util.List; // Para listas
+import java.util.Map; // Para mapas
 import java.util.Optional; // Para opcionales
+import java.util.function.Supplier; // Carga diferida de la vista completa
 
 @RestController // Controlador REST
 @RequestMapping("/api/asignaciones") // URL base
 @RequiredArgsConstructor // Constructor automático
 public class AsignacionController {
     
+    private static final String HEADER_CURSOR = "X-Next-Cursor"; // Cursor de la página siguiente
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson"); // Un JSON por línea
+    private static final int TECNICOS_MAXIMOS = 500; // Técnicos por consulta de carga en bloque
+    
     private final AsignacionService asignacionService; // Servicio inyectado
+    private final OptimizacionLoteService optimizacionLoteService; // Asignación por lotes
+    private final HistorialAsignacionesService historialService; // Historial de completadas
+    
+    @Value("${homefixer.asignaciones.historial.limite-maximo:500}")
+    private int limiteMaximo; // Filas máximas por página del historial
     
-    // GET todas las asignaciones
+    // GET todas las asignaciones (?view=summary o ?fields=a,b,c para filas angostas)
     @GetMapping
-    public ResponseEntity<List<Asignacion>> obtenerTodas() {
+    public ResponseEntity<List<?>> obtenerTodas(@RequestParam(required = false) String view,
+                                                @RequestParam(required = false) String fields) {
         System.out.println("📋 GET /api/asignaciones"); // Log request
-        List<Asignacion> asignaciones = asignacionService.obtenerTodas(); // Llama servicio
-        return ResponseEntity.ok(asignaciones); // Retorna 200 OK
+        try {
+            List<?> asignaciones = enVista(view, fields, null, asignacionService::obtenerTodas); // Llama servicio
+            return ResponseEntity.ok(asignaciones); // Retorna 200 OK
+        } catch (Exception e) {
+            System.out.println("❌ Vista o campos inválidos: " + e.getMessage()); // Log error
+            return ResponseEntity.badRequest().build(); // Retorna 400
+        }
     }
     
     // GET asignación por ID
     @GetMapping("/{id}")
-    public ResponseEntity<Asignacion> obtenerPorId(@PathVariable Long id) {
+    public ResponseEntity<Asignacion> obtenerPorId(@PathVariable Long id, WebRequest request) {
         System.out.println("🔍 GET /api/asignaciones/" + id); // Log request
         
+        Optional<String> etag = asignacionService.etagAsignacion(id); // Solo lee la versión
+        if (etag.isEmpty()) {
+            return ResponseEntity.notFound().build(); // Retorna 404
+        }
+        if (request.checkNotModified(etag.get())) {
+            return null; // 304 ya escrito, sin cargar ni serializar
+        }
+        
         Optional<Asignacion> asignacion = asignacionService.buscarPorId(id); // Busca asignación
         
         if (asignacion.isPresent()) {
-            return ResponseEntity.ok(asignacion.get()); // Retorna 200 OK
+            Asignacion encontrada = asignacion.get();
+            return ResponseEntity.ok()
+                .eTag(AsignacionService.etag(encontrada.getIdAsignacion(), encontrada.getVersion())) // Versión realmente enviada
+                .body(encontrada); // Retorna 200 OK
         } else {
             return ResponseEntity.notFound().build(); // Retorna 404
         }
@@ -45,42 +93,288 @@ public class AsignacionController {
         try {
             Asignacion asignacionCreada = asignacionService.crearAsignacion(asignacion); // Crea asignación
             return ResponseEntity.ok(asignacionCreada); // Retorna 200 OK
+        } catch (ConflictoAsignacionException e) {
+            System.out.println("⛔ Conflicto: " + e.getMessage()); // Log conflicto
+            return ResponseEntity.status(409).build(); // Otra petición tomó al técnico o la solicitud
+        } catch (ServicioNoDisponibleException e) {
+            System.out.println("🔌 " + e.getMessage()); // Log servicio caído
+            return ResponseEntity.status(503).build(); // No se pudo validar contra los otros servicios
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build(); // Retorna 400
+        }
+    }
+    
+    // POST asignación automática: el motor elige al mejor técnico para la solicitud
+    @PostMapping("/auto")
+    public ResponseEntity<Asignacion> asignarAutomaticamente(@RequestBody AsignacionAutoRequest request) {
+        System.out.println("🤖 POST /api/asignaciones/auto"); // Log request
+        
+        try {
+            Asignacion asignacionCreada = asignacionService.asignarAutomaticamente(request.idSolicitud()); // Rankea y crea
+            return ResponseEntity.ok(asignacionCreada); // Retorna 200 OK
+        } catch (ConflictoAsignacionException e) {
+            System.out.println("⛔ Conflicto: " + e.getMessage()); // Log conflicto
+            return ResponseEntity.status(409).build(); // La solicitud ya tiene asignación
+        } catch (ServicioNoDisponibleException e) {
+            System.out.println("🔌 " + e.getMessage()); // Log servicio caído
+            return ResponseEntity.status(503).build(); // ms-solicitudes o ms-usuarios no responde
+        } catch (Exception e) {
+            System.out.println("❌ Asignación automática fallida: " + e.getMessage()); // Log error
+            return ResponseEntity.badRequest().build(); // Retorna 400
+        }
+    }
+    
+    // GET lista corta de técnicos para una solicitud (sin asignar)
+    @GetMapping("/auto/candidatos/{idSolicitud}")
+    public ResponseEntity<ResultadoEmparejamiento> candidatos(@PathVariable Long idSolicitud) {
+        System.out.println("🧭 GET /api/asignaciones/auto/candidatos/" + idSolicitud); // Log request
+        
+        try {
+            return ResponseEntity.ok(asignacionService.candidatos(idSolicitud)); // Retorna 200 OK
+        } catch (Exception e) {
+            System.out.println("❌ Sin candidatos: " + e.getMessage()); // Log error
+            return ResponseEntity.badRequest().build(); // Retorna 400
+        }
+    }
+    
+    // POST corrida inmediata del optimizador por lotes (además de la periódica)
+    @PostMapping("/lote")
+    public ResponseEntity<ResultadoLote> optimizarLote() {
+        System.out.println("📦 POST /api/asignaciones/lote"); // Log request
+        
+        try {
+            return ResponseEntity.ok(optimizacionLoteService.optimizar()); // Retorna 200 OK
+        } catch (Exception e) {
+            System.out.println("❌ Lote fallido: " + e.getMessage()); // Log error
+            return ResponseEntity.status(409).build(); // Otra corrida en curso o servicios no disponibles
+        }
+    }
+    
+    // GET historial de completadas, de la más reciente a la más antigua (X-Next-Cursor para seguir)
+    @GetMapping("/historial")
+    public ResponseEntity<List<AsignacionResumen>> historial(@RequestParam(required = false) Long idTecnico,
+                                                             @RequestParam(required = false) Long idCliente,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(defaultValue = "100") int limite) {
+        System.out.println("📜 GET /api/asignaciones/historial"); // Log request
+        
+        try {
+            int tamano = Math.max(1, Math.min(limite, limiteMaximo)); // Nunca más que el máximo
+            List<AsignacionResumen> pagina = historialService.pagina(new FiltroHistorial(idTecnico, idCliente, desde, hasta), cursor, tamano);
+            if (pagina.size() < tamano) {
+                return ResponseEntity.ok(pagina); // Última página
+            }
+            return ResponseEntity.ok()
+                .header(HEADER_CURSOR, HistorialAsignacionesService.cursor(pagina.get(pagina.size() - 1))) // Sigue después de la última
+                .body(pagina); // Retorna 200 OK
         } catch (Exception e) {
+            System.out.println("❌ Historial inválido: " + e.getMessage()); // Cursor mal formado
             return ResponseEntity.badRequest().build(); // Retorna 400
         }
     }
     
+    // GET exportación del historial como NDJSON en streaming (memoria constante)
+    @GetMapping("/historial/export")
+    public ResponseEntity<StreamingResponseBody> exportarHistorial(@RequestParam(required = false) Long idTecnico,
+                                                                   @RequestParam(required = false) Long idCliente,
+                                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+                                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta) {
+        System.out.println("📤 GET /api/asignaciones/historial/export"); // Log request
+        
+        FiltroHistorial filtro = new FiltroHistorial(idTecnico, idCliente, desde, hasta); // Filtros
+        StreamingResponseBody cuerpo = salida -> historialService.exportarNdjson(filtro, salida); // Se escribe fila por fila
+        return ResponseEntity.ok().contentType(NDJSON).body(cuerpo); // Retorna 200 OK en streaming
+    }
+    
     // GET asignaciones por técnico
     @GetMapping("/tecnico/{idTecnico}")
-    public ResponseEntity<List<Asignacion>> buscarPorTecnico(@PathVariable Long idTecnico) {
+    public ResponseEntity<List<?>> buscarPorTecnico(@PathVariable Long idTecnico,
+                                                    @RequestParam(required = false) String view,
+                                                    @RequestParam(required = false) String fields,
+                                                    WebRequest request) {
         System.out.println("🔧 GET /api/asignaciones/tecnico/" + idTecnico); // Log request
-        List<Asignacion> asignaciones = asignacionService.buscarPorTecnico(idTecnico); // Busca por técnico
-        return ResponseEntity.ok(asignaciones); // Retorna 200 OK
+        
+        try {
+            validarVista(view, fields); // Antes del ETag: una vista inválida es 400, nunca 304
+        } catch (Exception e) {
+            System.out.println("❌ Vista o campos inválidos: " + e.getMessage()); // Log error
+            return ResponseEntity.badRequest().build(); // Retorna 400
+        }
+        String etag = conVista(asignacionService.etagPorTecnico(idTecnico), view, fields); // Versión de la colección y de la vista
+        if (request.checkNotModified(etag)) {
+            return null; // 304 ya escrito
+        }
+        
+        try {
+            List<?> asignaciones = enVista(view, fields, idTecnico, () -> asignacionService.buscarPorTecnico(idTecnico)); // Busca por técnico
+            return ResponseEntity.ok().eTag(etag).body(asignaciones); // Retorna 200 OK
+        } catch (Exception e) {
+            System.out.println("❌ Vista o campos inválidos: " + e.getMessage()); // Log error
+            return ResponseEntity.badRequest().build(); // Retorna 400
+        }
+    }
+    
+    // GET asignaciones abiertas de un técnico (vista en memoria)
+    @GetMapping("/tecnico/{idTecnico}/activas")
+    public ResponseEntity<List<AsignacionActiva>> activasPorTecnico(@PathVariable Long idTecnico) {
+        System.out.println("📋 GET /api/asignaciones/tecnico/" + idTecnico + "/activas"); // Log request
+        return ResponseEntity.ok(asignacionService.activasPorTecnico(idTecnico)); // Sin consultar BD
     }
     
-    // PUT aceptar asignación
+    // GET asignaciones abiertas de varios técnicos: ?ids=1,2,3
+    @GetMapping("/tecnicos/activas")
+    public ResponseEntity<Map<Long, List<AsignacionActiva>>> activasPorTecnicos(@RequestParam List<Long> ids) {
+        System.out.println("📋 GET /api/asignaciones/tecnicos/activas (" + ids.size() + " técnicos)"); // Log request
+        
+        if (ids.size() > TECNICOS_MAXIMOS) {
+            return ResponseEntity.badRequest().build(); // Retorna 400
+        }
+        return ResponseEntity.ok(asignacionService.activasPorTecnicos(ids)); // Sin consultar BD
+    }
+    
+    // GET percentiles de tiempos de aceptación, trayecto y servicio (?idTecnico= o ?especialidad=; sin filtros = todo)
+    @GetMapping("/estadisticas/tiempos")
+    public ResponseEntity<EstadisticasTiempos> estadisticasTiempos(@RequestParam(required = false) Long idTecnico,
+                                                                   @RequestParam(required = false) String especialidad) {
+        System.out.println("📈 GET /api/asignaciones/estadisticas/tiempos"); // Log request
+        return ResponseEntity.ok(asignacionService.estadisticasTiempos(idTecnico, especialidad)); // Sin consultar BD
+    }
+    
+    // PUT aceptar asignación (PROPUESTA -> ACEPTADA)
     @PutMapping("/{id}/aceptar")
     public ResponseEntity<Asignacion> aceptarAsignacion(@PathVariable Long id) {
         System.out.println("✅ PUT /api/asignaciones/" + id + "/aceptar"); // Log request
         
         try {
-            Asignacion asignacionAceptada = asignacionService.aceptarAsignacion(id); // Acepta asignación
-            return ResponseEntity.ok(asignacionAceptada); // Retorna 200 OK
+            return ResponseEntity.ok(asignacionService.aceptarAsignacion(id)); // Retorna 200 OK
+        } catch (TransicionAsignacionException e) {
+            System.out.println("⚠️ Conflicto: " + e.getMessage()); // Ya no está PROPUESTA
+            return ResponseEntity.status(409).build(); // Retorna 409
         } catch (Exception e) {
             return ResponseEntity.badRequest().build(); // Retorna 400
         }
     }
     
-    // PUT rechazar asignación
+    // PUT rechazar asignación (PROPUESTA o ACEPTADA -> RECHAZADA); la solicitud se re-propone al siguiente técnico
     @PutMapping("/{id}/rechazar")
     public ResponseEntity<Asignacion> rechazarAsignacion(@PathVariable Long id, @RequestBody String motivo) {
         System.out.println("❌ PUT /api/asignaciones/" + id + "/rechazar"); // Log request
         
         try {
-            Asignacion asignacionRechazada = asignacionService.rechazarAsignacion(id, motivo); // Rechaza asignación
-            return ResponseEntity.ok(asignacionRechazada); // Retorna 200 OK
+            return ResponseEntity.ok(asignacionService.rechazarAsignacion(id, motivo)); // Retorna 200 OK
+        } catch (TransicionAsignacionException e) {
+            System.out.println("⚠️ Conflicto: " + e.getMessage()); // Ya salió o se cerró
+            return ResponseEntity.status(409).build(); // Retorna 409
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build(); // Retorna 400
+        }
+    }
+    
+    // GET rechazos de la solicitud de la asignación, del primero al último
+    @GetMapping("/{id}/intentos")
+    public ResponseEntity<List<IntentoAsignacion>> intentos(@PathVariable Long id) {
+        System.out.println("📋 GET /api/asignaciones/" + id + "/intentos"); // Log request
+        
+        try {
+            return ResponseEntity.ok(asignacionService.intentos(id)); // Retorna 200 OK
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build(); // Retorna 404
+        }
+    }
+    
+    // PUT técnico en camino (ACEPTADA -> EN_CAMINO)
+    @PutMapping("/{id}/en-camino")
+    public ResponseEntity<Asignacion> marcarEnCamino(@PathVariable Long id) {
+        System.out.println("🚗 PUT /api/asignaciones/" + id + "/en-camino"); // Log request
+        
+        try {
+            return ResponseEntity.ok(asignacionService.marcarEnCamino(id)); // Retorna 200 OK
+        } catch (TransicionAsignacionException e) {
+            System.out.println("⚠️ Conflicto: " + e.getMessage()); // No estaba ACEPTADA
+            return ResponseEntity.status(409).build(); // Retorna 409
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build(); // Retorna 400
+        }
+    }
+    
+    // PUT inicio del servicio (EN_CAMINO -> EN_SERVICIO)
+    @PutMapping("/{id}/iniciar")
+    public ResponseEntity<Asignacion> iniciarServicio(@PathVariable Long id) {
+        System.out.println("🔧 PUT /api/asignaciones/" + id + "/iniciar"); // Log request
+        
+        try {
+            return ResponseEntity.ok(asignacionService.iniciarServicio(id)); // Retorna 200 OK
+        } catch (TransicionAsignacionException e) {
+            System.out.println("⚠️ Conflicto: " + e.getMessage()); // No estaba EN_CAMINO
+            return ResponseEntity.status(409).build(); // Retorna 409
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build(); // Retorna 400
+        }
+    }
+    
+    // PUT servicio terminado (EN_SERVICIO -> COMPLETADA)
+    @PutMapping("/{id}/completar")
+    public ResponseEntity<Asignacion> completarServicio(@PathVariable Long id, @RequestBody CierreServicioRequest request) {
+        System.out.println("🏁 PUT /api/asignaciones/" + id + "/completar"); // Log request
+        
+        try {
+            return ResponseEntity.ok(asignacionService.completarServicio(id, request.costoFinal(), request.observaciones())); // Retorna 200 OK
+        } catch (TransicionAsignacionException e) {
+            System.out.println("⚠️ Conflicto: " + e.getMessage()); // No estaba EN_SERVICIO
+            return ResponseEntity.status(409).build(); // Retorna 409
         } catch (Exception e) {
             return ResponseEntity.badRequest().build(); // Retorna 400
         }
     }
-}
\ No newline at end of file
+    
+    // PUT cancelar asignación (cualquier estado activo -> CANCELADA)
+    @PutMapping("/{id}/cancelar")
+    public ResponseEntity<Asignacion> cancelarAsignacion(@PathVariable Long id, @RequestBody(required = false) String motivo) {
+        System.out.println("🚫 PUT /api/asignaciones/" + id + "/cancelar"); // Log request
+        
+        try {
+            return ResponseEntity.ok(asignacionService.cancelarAsignacion(id, motivo)); // Retorna 200 OK
+        } catch (TransicionAsignacionException e) {
+            System.out.println("⚠️ Conflicto: " + e.getMessage()); // Ya estaba cerrada
+            return ResponseEntity.status(409).build(); // Retorna 409
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build(); // Retorna 400
+        }
+    }
+    
+    // Lista en la vista pedida: completa (por defecto), ?view=summary o ?fields=a,b,c con SELECT angosto
+    private List<?> enVista(String view, String fields, Long idTecnico, Supplier<List<Asignacion>> completa) {
+        if (fields != null && !fields.isBlank()) {
+            return asignacionService.listarCampos(fields, idTecnico); // Solo las columnas pedidas
+        }
+        if (view == null || view.equalsIgnoreCase("full")) {
+            return completa.get(); // Entidades completas
+        }
+        if (view.equalsIgnoreCase("summary")) {
+            return asignacionService.listarResumen(idTecnico); // Sin textos largos
+        }
+        throw new IllegalArgumentException("Vista desconocida: " + view);
+    }
+    
+    // Falla si la vista o los campos pedidos no existen, sin consultar filas
+    private void validarVista(String view, String fields) {
+        if (fields != null && !fields.isBlank()) {
+            asignacionService.validarCampos(fields); // Campos desconocidos
+        } else if (view != null && !view.equalsIgnoreCase("full") && !view.equalsIgnoreCase("summary")) {
+            throw new IllegalArgumentException("Vista desconocida: " + view);
+        }
+    }
+    
+    // El ETag de una colección cambia según la vista: misma versión, distinta representación
+    private static String conVista(String etag, String view, String fields) {
+        if (fields != null && !fields.isBlank()) {
+            return etag.substring(0, etag.length() - 1) + "-f" + Integer.toHexString(fields.replace(" ", "").hashCode()) + "\"";
+        }
+        if (view != null && view.equalsIgnoreCase("summary")) {
+            return etag.substring(0, etag.length() - 1) + "-r\"";
+        }
+        return etag; // Vista completa
+    }
+}
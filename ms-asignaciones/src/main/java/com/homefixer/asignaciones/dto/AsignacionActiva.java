@@ -0,0 +1,11 @@
+package com.homefixer.asignaciones.dto;
+
+import com.homefixer.asignaciones.model.Asignacion; // Importa entidad Asignacion
+
+// Asignación abierta de un técnico (vista de carga en memoria)
+public record AsignacionActiva(
+    Long idAsignacion, // ID de la asignación
+    Long idTecnico, // Técnico que la tiene
+    Asignacion.EstadoAsignacion estado // PROPUESTA, ACEPTADA, EN_CAMINO o EN_SERVICIO
+) {
+}
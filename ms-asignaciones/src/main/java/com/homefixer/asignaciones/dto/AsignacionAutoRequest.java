@@ -0,0 +1,7 @@
+package com.homefixer.asignaciones.dto;
+
+// Cuerpo de POST /api/asignaciones/auto
+public record AsignacionAutoRequest(
+    Long idSolicitud // Solicitud PENDIENTE a asignar
+) {
+}
@@ -0,0 +1,23 @@
+package com.homefixer.asignaciones.dto;
+
+import com.homefixer.asignaciones.model.Asignacion; // Importa entidad Asignacion
+import java.math.BigDecimal; // Para decimales
+import java.time.LocalDateTime; // Para fechas
+
+// Fila de listado (?view=summary): todo menos observacionesTecnico y motivoRechazo
+public record AsignacionResumen(
+    Long idAsignacion, // ID de la asignación
+    Long idSolicitud, // Solicitud asignada
+    Long idTecnico, // Técnico asignado
+    Long idCliente, // Cliente que solicitó
+    Asignacion.EstadoAsignacion estado, // Estado actual
+    LocalDateTime fechaAsignacion, // Cuándo se asignó
+    LocalDateTime fechaAceptacion, // Cuándo aceptó el técnico
+    LocalDateTime fechaInicioServicio, // Cuándo empezó el trabajo
+    LocalDateTime fechaFinServicio, // Cuándo terminó el trabajo
+    BigDecimal distanciaKm, // Distancia técnico-cliente
+    Integer tiempoEstimadoMinutos, // ETA en minutos
+    BigDecimal costoFinal, // Precio cobrado
+    Long version // Versión de la fila
+) {
+}
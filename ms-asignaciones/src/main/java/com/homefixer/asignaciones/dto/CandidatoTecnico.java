@@ -0,0 +1,12 @@
+package com.homefixer.asignaciones.dto;
+
+// Técnico de la lista corta con su puntaje y los factores que lo componen
+public record CandidatoTecnico(
+    Long idTecnico, // ID del técnico
+    double puntaje, // 0..1, mayor es mejor
+    double distanciaKm, // Distancia al cliente
+    double calificacion, // Calificación promedio
+    int cargaActiva, // Asignaciones abiertas en este momento
+    int minutosEstimados // ETA con el ritmo observado (o la velocidad configurada)
+) {
+}
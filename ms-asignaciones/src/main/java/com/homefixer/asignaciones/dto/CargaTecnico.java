@@ -0,0 +1,11 @@
+package com.homefixer.asignaciones.dto;
+
+import java.time.LocalDateTime; // Para fechas
+
+// Carga actual de un técnico según la tabla de asignaciones (carga inicial del motor)
+public record CargaTecnico(
+    Long idTecnico, // ID del técnico
+    Long activas, // Asignaciones PROPUESTA/ACEPTADA/EN_CAMINO/EN_SERVICIO
+    LocalDateTime ultimaAsignacion // Para repartir el trabajo
+) {
+}
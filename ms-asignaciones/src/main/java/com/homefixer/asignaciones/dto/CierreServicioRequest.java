@@ -0,0 +1,10 @@
+package com.homefixer.asignaciones.dto;
+
+import java.math.BigDecimal; // Para decimales precisos
+
+// Cuerpo de PUT /api/asignaciones/{id}/completar
+public record CierreServicioRequest(
+    BigDecimal costoFinal, // Precio total cobrado
+    String observaciones // Notas del técnico sobre el trabajo
+) {
+}
@@ -0,0 +1,13 @@
+package com.homefixer.asignaciones.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties; // Tolera campos nuevos
+
+// Ubicación de un cliente de ms-usuarios
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ClienteRemoto(
+    Long idCliente, // ID del cliente
+    String ciudad, // Ciudad donde vive
+    Double latitud, // Grados decimales (WGS84)
+    Double longitud // Grados decimales (WGS84)
+) {
+}
@@ -0,0 +1,12 @@
+package com.homefixer.asignaciones.dto;
+
+// Tiempos de servicio observados para un técnico, una especialidad o todo el servicio
+public record EstadisticasTiempos(
+    String especialidad, // Filtro aplicado (null = todas)
+    Long idTecnico, // Filtro aplicado (null = todos)
+    PercentilesTiempo aceptacionMinutos, // Asignación -> aceptación
+    PercentilesTiempo trayectoMinutos, // En camino -> inicio del servicio
+    PercentilesTiempo servicioMinutos, // Inicio -> fin del servicio
+    PercentilesTiempo ritmoMinutosPorKm // Trayecto por km recorrido (alimenta los ETA)
+) {
+}
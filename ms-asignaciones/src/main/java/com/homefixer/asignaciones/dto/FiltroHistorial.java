@@ -0,0 +1,12 @@
+package com.homefixer.asignaciones.dto;
+
+import java.time.LocalDateTime; // Para fechas
+
+// Filtros opcionales del historial de asignaciones COMPLETADA
+public record FiltroHistorial(
+    Long idTecnico, // null = todos los técnicos
+    Long idCliente, // null = todos los clientes
+    LocalDateTime desde, // fecha_fin_servicio >= desde (opcional)
+    LocalDateTime hasta // fecha_fin_servicio < hasta (opcional)
+) {
+}
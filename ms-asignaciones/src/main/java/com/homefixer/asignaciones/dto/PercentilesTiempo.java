@@ -0,0 +1,10 @@
+package com.homefixer.asignaciones.dto;
+
+// Percentiles de una métrica de tiempo; null si no hay muestras
+public record PercentilesTiempo(
+    long muestras, // Muestras registradas
+    Double p50, // Mediana
+    Double p90, // Percentil 90
+    Double p99 // Percentil 99
+) {
+}
@@ -0,0 +1,10 @@
+package com.homefixer.asignaciones.dto;
+
+import java.time.LocalDateTime; // Para fechas
+
+// Propuesta sin respuesta (carga inicial de la rueda de plazos)
+public record PlazoPropuesta(
+    Long idAsignacion, // Asignación en PROPUESTA
+    LocalDateTime fechaAsignacion // Desde cuándo corre el plazo
+) {
+}
@@ -0,0 +1,10 @@
+package com.homefixer.asignaciones.dto;
+
+// Asignación activa con el cupo que ocupa (carga inicial de la tabla de reservas)
+public record ReservaActiva(
+    Long idAsignacion, // ID de la asignación
+    Long idSolicitud, // Solicitud reservada
+    Long idTecnico, // Técnico reservado
+    Integer cupoActivo // NULL en filas creadas antes de la tabla de reservas
+) {
+}
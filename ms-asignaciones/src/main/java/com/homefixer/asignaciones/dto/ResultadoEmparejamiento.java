@@ -0,0 +1,12 @@
+package com.homefixer.asignaciones.dto;
+
+import java.util.List; // Para listas
+
+// Lista corta de técnicos para una solicitud, del mejor al peor
+public record ResultadoEmparejamiento(
+    Long idSolicitud, // Solicitud a asignar
+    Long idCliente, // Cliente de la solicitud
+    String especialidad, // Especialidad requerida
+    List<CandidatoTecnico> candidatos // Ordenados por puntaje
+) {
+}
@@ -0,0 +1,13 @@
+package com.homefixer.asignaciones.dto;
+
+// Resumen de una corrida del optimizador por lotes
+public record ResultadoLote(
+    int pendientes, // Solicitudes PENDIENTE sin asignación
+    int tecnicos, // Técnicos disponibles considerados
+    int asignadas, // Asignaciones PROPUESTA creadas
+    double kmTotales, // Suma de distancias técnico-cliente
+    int gruposExactos, // Especialidades resueltas con el húngaro
+    int gruposHeuristicos, // Especialidades resueltas con la heurística
+    long duracionMs // Tiempo total de la corrida
+) {
+}
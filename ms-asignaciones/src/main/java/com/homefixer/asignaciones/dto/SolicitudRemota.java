@@ -0,0 +1,15 @@
+package com.homefixer.asignaciones.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties; // Tolera campos nuevos
+
+// Lo que el emparejamiento necesita de una solicitud de ms-solicitudes
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record SolicitudRemota(
+    Long idSolicitud, // ID de la solicitud
+    Long idCliente, // Cliente que la creó
+    String especialidadRequerida, // Especialidad que debe tener el técnico
+    String ciudad, // Ciudad del servicio
+    String estado, // PENDIENTE, ASIGNADA, ...
+    String prioridad // BAJA, MEDIA, ALTA, CRITICA
+) {
+}
@@ -0,0 +1,15 @@
+package com.homefixer.asignaciones.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties; // Tolera campos nuevos
+
+// Técnico de ms-usuarios con lo necesario para puntuarlo
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record TecnicoRemoto(
+    Long idTecnico, // ID del técnico
+    String especialidad, // Ej: "Plomería"
+    String estado, // DISPONIBLE, OCUPADO, INACTIVO
+    Double calificacionPromedio, // De 0 a 5
+    Double latitud, // Posición actual (puede faltar)
+    Double longitud // Posición actual (puede faltar)
+) {
+}
@@ -0,0 +1,14 @@
+package com.homefixer.asignaciones.dto;
+
+// Resumen barato de una colección para calcular su ETag sin cargar las filas
+public record VersionColeccion(
+    Long cantidad, // Filas en la colección (cambia con altas y bajas)
+    Long sumaVersiones, // Cambia con cada modificación de una fila
+    Long maxId // Cambia si se reemplaza una fila por otra
+) {
+
+    // ETag fuerte de la colección (con prefijo para distinguir recursos)
+    public String etag(String prefijo) {
+        return "\"" + prefijo + "-" + cantidad + "-" + sumaVersiones + "-" + maxId + "\"";
+    }
+}
@@ -0,0 +1,10 @@
+package com.homefixer.asignaciones.event;
+
+// Un técnico rechazó la asignación; se publica dentro de la transacción del rechazo
+public record AsignacionRechazadaEvent(
+    Long idAsignacion, // Fila a re-proponer
+    Long idSolicitud, // Solicitud sin técnico
+    Long idTecnico, // Quién rechazó
+    int intento // Rechazos acumulados de la solicitud
+) {
+}
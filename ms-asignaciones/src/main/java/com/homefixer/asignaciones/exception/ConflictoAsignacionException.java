@@ -0,0 +1,16 @@
+package com.homefixer.asignaciones.exception;
+
+// El técnico no tiene cupo libre o la solicitud ya tiene una asignación activa: otra petición ganó (409)
+public class ConflictoAsignacionException extends RuntimeException {
+
+    private final boolean porSolicitud; // true: la solicitud ya estaba tomada; false: el técnico no tenía cupo
+
+    public ConflictoAsignacionException(String mensaje, boolean porSolicitud) {
+        super(mensaje);
+        this.porSolicitud = porSolicitud;
+    }
+
+    public boolean isPorSolicitud() {
+        return porSolicitud;
+    }
+}
@@ -0,0 +1,13 @@
+package com.homefixer.asignaciones.exception;
+
+// Otro microservicio no respondió a tiempo, falló o tiene el circuito abierto (503)
+public class ServicioNoDisponibleException extends RuntimeException {
+
+    public ServicioNoDisponibleException(String mensaje) {
+        super(mensaje);
+    }
+
+    public ServicioNoDisponibleException(String mensaje, Throwable causa) {
+        super(mensaje, causa);
+    }
+}
@@ -0,0 +1,24 @@
+package com.homefixer.asignaciones.exception;
+
+import com.homefixer.asignaciones.model.Asignacion; // Importa entidad Asignacion
+
+// La asignación existe pero su estado ya no permite el cambio pedido: otro proceso ganó (409)
+public class TransicionAsignacionException extends RuntimeException {
+
+    private final Asignacion.EstadoAsignacion estadoActual; // Estado que tiene ahora la fila
+    private final Long versionActual; // Versión que tiene ahora la fila
+
+    public TransicionAsignacionException(String mensaje, Asignacion.EstadoAsignacion estadoActual, Long versionActual) {
+        super(mensaje);
+        this.estadoActual = estadoActual;
+        this.versionActual = versionActual;
+    }
+
+    public Asignacion.EstadoAsignacion getEstadoActual() {
+        return estadoActual;
+    }
+
+    public Long getVersionActual() {
+        return versionActual;
+    }
+}
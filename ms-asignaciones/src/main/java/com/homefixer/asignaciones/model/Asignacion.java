@@ -1,20 +1,35 @@
 package com.homefixer.asignaciones.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore; // Para ocultar columnas internas
 import jakarta.persistence.*; // Importa anotaciones JPA
 import lombok.*; // Importa Lombok
+import org.hibernate.exception.ConstraintViolationException; // Nombre de la restricción violada
 import java.math.BigDecimal; // Para decimales precisos
 import java.time.LocalDateTime; // Para fechas con hora
+import java.util.EnumSet; // Conjuntos de estados
+import java.util.Locale; // Para comparar nombres de restricciones
+import java.util.Set; // Para conjuntos
 
 @Entity // Marca como entidad de base de datos
-@Table(name = "asignaciones") // Nombre de tabla en MySQL
+@Table(name = "asignaciones", indexes = { // Nombre de tabla en MySQL
+    @Index(name = "idx_asignaciones_tecnico", columnList = "id_tecnico, id_asignacion, version"), // Listado y ETag por técnico
+    @Index(name = "idx_asignaciones_historial", columnList = "estado, fecha_fin_servicio, id_asignacion"), // Historial completo
+    @Index(name = "idx_asignaciones_historial_tecnico", columnList = "id_tecnico, estado, fecha_fin_servicio, id_asignacion"), // Historial por técnico
+    @Index(name = "idx_asignaciones_historial_cliente", columnList = "id_cliente, estado, fecha_fin_servicio, id_asignacion") // Historial por cliente
+}, uniqueConstraints = {
+    @UniqueConstraint(name = Asignacion.UK_CUPO_ACTIVO, columnNames = {"id_tecnico_activo", "cupo_activo"}) // Un dueño por cupo activo; NULL no choca
+})
 @Data // Lombok: getters, setters, toString automáticos
 @NoArgsConstructor // Constructor vacío
 @AllArgsConstructor // Constructor con todos los parámetros
 @Builder // Patrón builder para crear objetos
 public class Asignacion {
+
+    public static final String UK_CUPO_ACTIVO = "uk_asignaciones_cupo_activo"; // Único del cupo activo del técnico
     
     @Id // Clave primaria
     @GeneratedValue(strategy = GenerationType.IDENTITY) // Auto incremento
+    @Column(name = "id_asignacion") // Nombre explícito para el índice
     private Long idAsignacion; // ID único de la asignación
     
     @Column(name = "id_solicitud", nullable = false, unique = true) // FK única a ms-solicitudes
@@ -26,7 +41,16 @@ public class Asignacion {
     @Column(name = "id_cliente", nullable = false) // FK a ms-usuarios (clientes)
     private Long idCliente; // ID del cliente que solicitó
     
+    @JsonIgnore // Interno; no viaja en la API
+    @Column(name = "id_tecnico_activo") // = id_tecnico mientras está activa, NULL al cerrarse
+    private Long idTecnicoActivo; // Respaldo en BD de la reserva del técnico
+    
+    @JsonIgnore // Interno; no viaja en la API
+    @Column(name = "cupo_activo") // Cupo del técnico que ocupa mientras está activa
+    private Integer cupoActivo; // 0 .. carga-maxima - 1
+    
     @Enumerated(EnumType.STRING) // Guarda enum como texto
+    @Column(name = "estado") // Nombre explícito para los índices
     private EstadoAsignacion estado; // Estado actual de la asignación
     
     @Column(name = "fecha_asignacion") // Cuándo se asignó
@@ -35,6 +59,9 @@ public class Asignacion {
     @Column(name = "fecha_aceptacion") // Cuándo aceptó el técnico
     private LocalDateTime fechaAceptacion; // Timestamp de aceptación
     
+    @Column(name = "fecha_en_camino") // Cuándo salió hacia el cliente
+    private LocalDateTime fechaEnCamino; // Timestamp de salida (inicio del trayecto)
+    
     @Column(name = "fecha_inicio_servicio") // Cuándo empezó el trabajo
     private LocalDateTime fechaInicioServicio; // Timestamp inicio trabajo
     
@@ -56,6 +83,10 @@ public class Asignacion {
     @Column(name = "motivo_rechazo", length = 300) // Por qué rechazó
     private String motivoRechazo; // Razón si rechaza la asignación
     
+    @Version // Bloqueo optimista; también es la base del ETag
+    @Column(name = "version") // Se incrementa en cada cambio
+    private Long version; // Versión de la fila
+    
     // Enum para los estados de una asignación
     public enum EstadoAsignacion {
         PROPUESTA,    // Enviada al técnico, esperando respuesta
@@ -64,6 +95,37 @@ public class Asignacion {
         EN_CAMINO,    // Técnico va hacia el cliente
         EN_SERVICIO,  // Técnico está trabajando
         COMPLETADA,   // Trabajo terminado exitosamente
-        CANCELADA     // Cancelada por alguna razón
+        CANCELADA;    // Cancelada por alguna razón
+        
+        // Estados desde los que se puede llegar a este
+        public Set<EstadoAsignacion> origenesPermitidos() {
+            return switch (this) {
+                case PROPUESTA -> EnumSet.of(RECHAZADA); // Al crear, o al re-proponer una rechazada a otro técnico
+                case ACEPTADA -> EnumSet.of(PROPUESTA); // El técnico aceptó
+                case RECHAZADA -> EnumSet.of(PROPUESTA, ACEPTADA); // El técnico se baja antes de salir
+                case EN_CAMINO -> EnumSet.of(ACEPTADA); // Salió hacia el cliente
+                case EN_SERVICIO -> EnumSet.of(EN_CAMINO); // Llegó y empezó
+                case COMPLETADA -> EnumSet.of(EN_SERVICIO); // Solo se completa lo que está en servicio
+                case CANCELADA -> EnumSet.of(PROPUESTA, ACEPTADA, EN_CAMINO, EN_SERVICIO); // Cualquier estado activo
+            };
+        }
+        
+        // RECHAZADA, COMPLETADA y CANCELADA liberan al técnico (RECHAZADA puede volver a PROPUESTA con otro)
+        public boolean esTerminal() {
+            return this == RECHAZADA || this == COMPLETADA || this == CANCELADA;
+        }
+    }
+
+    // Si el error de BD viene del único del cupo activo (y no del de id_solicitud): Hibernate deja el nombre de la
+    // restricción en la causa; MySQL lo antepone con la tabla y H2 lo pone en mayúsculas
+    public static boolean violaCupoActivo(Throwable error) {
+        for (Throwable causa = error; causa != null; causa = causa.getCause()) {
+            String texto = causa instanceof ConstraintViolationException cve && cve.getConstraintName() != null
+                ? cve.getConstraintName() : causa.getMessage();
+            if (texto != null && texto.toLowerCase(Locale.ROOT).contains(UK_CUPO_ACTIVO)) {
+                return true;
+            }
+        }
+        return false;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,42 @@
+package com.homefixer.asignaciones.model;
+
+import jakarta.persistence.*; // Importa anotaciones JPA
+import lombok.*; // Importa Lombok
+import java.time.LocalDateTime; // Para fechas con hora
+
+@Entity // Marca como entidad de base de datos
+@Table(name = "intentos_asignacion", uniqueConstraints = { // Propuestas rechazadas de cada solicitud
+    @UniqueConstraint(name = "uk_intentos_solicitud_numero", columnNames = {"id_solicitud", "numero"}) // Un registro por intento; también sirve de índice
+})
+@Data // Lombok: getters, setters, toString automáticos
+@NoArgsConstructor // Constructor vacío
+@AllArgsConstructor // Constructor con todos los parámetros
+@Builder // Patrón builder para crear objetos
+public class IntentoAsignacion {
+    
+    @Id // Clave primaria
+    @GeneratedValue(strategy = GenerationType.IDENTITY) // Auto incremento
+    @Column(name = "id_intento")
+    private Long idIntento; // ID único del intento
+    
+    @Column(name = "id_asignacion", nullable = false) // Fila de asignaciones que se re-propone
+    private Long idAsignacion; // Asignación de la solicitud
+    
+    @Column(name = "id_solicitud", nullable = false) // Prefijo del índice único
+    private Long idSolicitud; // Solicitud intentada
+    
+    @Column(name = "numero", nullable = false) // 1 = la propuesta original
+    private Integer numero; // Orden del intento
+    
+    @Column(name = "id_tecnico", nullable = false) // Técnico que rechazó
+    private Long idTecnico; // A quién se le propuso
+    
+    @Column(name = "fecha_propuesta") // Cuándo se le propuso
+    private LocalDateTime fechaPropuesta; // fechaAsignacion de ese intento
+    
+    @Column(name = "fecha_rechazo", nullable = false) // Cuándo rechazó
+    private LocalDateTime fechaRechazo; // Timestamp del rechazo
+    
+    @Column(name = "motivo", length = 300) // Por qué rechazó
+    private String motivo; // Razón que dio el técnico
+}
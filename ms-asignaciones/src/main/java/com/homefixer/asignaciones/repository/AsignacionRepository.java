@@ -1,10 +1,20 @@
 package com.homefixer.asignaciones.repository;
 
+import com.homefixer.asignaciones.dto.AsignacionActiva; // Asignación abierta de un técnico
+import com.homefixer.asignaciones.dto.AsignacionResumen; // Fila de listado
+import com.homefixer.asignaciones.dto.CargaTecnico; // Carga por técnico
+import com.homefixer.asignaciones.dto.PlazoPropuesta; // Propuesta pendiente
+import com.homefixer.asignaciones.dto.ReservaActiva; // Cupo de una asignación activa
+import com.homefixer.asignaciones.dto.VersionColeccion; // Resumen para ETag
 import com.homefixer.asignaciones.model.Asignacion; // Importa entidad Asignacion
 import org.springframework.data.jpa.repository.JpaRepository; // Interfaz base
+import org.springframework.data.jpa.repository.Modifying; // Para UPDATE
 import org.springframework.data.jpa.repository.Query; // Para consultas personalizadas
 import org.springframework.data.repository.query.Param; // Para parámetros
 import org.springframework.stereotype.Repository; // Anotación repositorio
+import java.math.BigDecimal; // Para decimales
+import java.time.LocalDateTime; // Para fechas
+import java.util.Collection; // Para colecciones
 import java.util.List; // Para listas
 import java.util.Optional; // Para opcionales
 
@@ -12,12 +22,29 @@ import java.util.Optional; // Para opcionales
 public interface AsignacionRepository extends JpaRepository<Asignacion, Long> {
     // Hereda métodos CRUD básicos
     
+    // SELECT angosto de AsignacionResumen (alias a)
+    String SELECT_RESUMEN = "SELECT new com.homefixer.asignaciones.dto.AsignacionResumen(a.idAsignacion, a.idSolicitud, a.idTecnico, "
+        + "a.idCliente, a.estado, a.fechaAsignacion, a.fechaAceptacion, a.fechaInicioServicio, a.fechaFinServicio, "
+        + "a.distanciaKm, a.tiempoEstimadoMinutos, a.costoFinal, a.version) ";
+    
     // Buscar asignación por solicitud (relación 1:1)
     Optional<Asignacion> findByIdSolicitud(Long idSolicitud); // Una solicitud tiene máximo una asignación
     
     // Buscar asignaciones por técnico
     List<Asignacion> findByIdTecnico(Long idTecnico); // Todas las asignaciones de un técnico
     
+    // Resumen de todas las asignaciones (sin textos largos; no crea entidades administradas)
+    @Query(SELECT_RESUMEN + "FROM Asignacion a ORDER BY a.idAsignacion")
+    List<AsignacionResumen> listarResumen(); // Todas
+    
+    // Resumen de las asignaciones de un técnico (usa idx_asignaciones_tecnico)
+    @Query(SELECT_RESUMEN + "FROM Asignacion a WHERE a.idTecnico = :idTecnico ORDER BY a.idAsignacion")
+    List<AsignacionResumen> listarResumenPorTecnico(@Param("idTecnico") Long idTecnico); // Por técnico
+    
+    // Cuáles de estas solicitudes ya tienen asignación (usa el índice único de id_solicitud)
+    @Query("SELECT a.idSolicitud FROM Asignacion a WHERE a.idSolicitud IN :ids")
+    List<Long> encontrarSolicitudesAsignadas(@Param("ids") List<Long> ids); // Subconjunto de ids
+    
     // Buscar asignaciones por cliente
     List<Asignacion> findByIdCliente(Long idCliente); // Todas las asignaciones de un cliente
     
@@ -34,10 +61,6 @@ public interface AsignacionRepository extends JpaRepository<Asignacion, Long> {
     @Query("SELECT a FROM Asignacion a WHERE a.idTecnico = :idTecnico AND a.estado IN ('ACEPTADA', 'EN_CAMINO', 'EN_SERVICIO')")
     List<Asignacion> encontrarAsignacionesActivas(@Param("idTecnico") Long idTecnico); // Trabajos actuales
     
-    // Consulta personalizada: historial de asignaciones completadas
-    @Query("SELECT a FROM Asignacion a WHERE a.estado = 'COMPLETADA' ORDER BY a.fechaFinServicio DESC")
-    List<Asignacion> obtenerHistorialCompletadas(); // Trabajos terminados
-    
     // Contar asignaciones por estado
     long countByEstado(Asignacion.EstadoAsignacion estado); // Estadísticas por estado
     
@@ -46,4 +69,96 @@ public interface AsignacionRepository extends JpaRepository<Asignacion, Long> {
     
     // Verificar si solicitud ya tiene asignación
     boolean existsByIdSolicitud(Long idSolicitud); // ¿Ya fue asignada?
-}
\ No newline at end of file
+    
+    // Asignaciones abiertas y última asignación de cada técnico (carga inicial del motor de emparejamiento)
+    @Query("SELECT new com.homefixer.asignaciones.dto.CargaTecnico(a.idTecnico, SUM(CASE WHEN a.estado IN :activos THEN 1L ELSE 0L END), MAX(a.fechaAsignacion)) "
+         + "FROM Asignacion a GROUP BY a.idTecnico")
+    List<CargaTecnico> obtenerCargas(@Param("activos") List<Asignacion.EstadoAsignacion> activos); // Una fila por técnico
+    
+    // Asignaciones activas con el cupo que ocupan (carga inicial de la tabla de reservas)
+    @Query("SELECT new com.homefixer.asignaciones.dto.ReservaActiva(a.idAsignacion, a.idSolicitud, a.idTecnico, a.cupoActivo) "
+         + "FROM Asignacion a WHERE a.estado IN :activos")
+    List<ReservaActiva> obtenerReservasActivas(@Param("activos") List<Asignacion.EstadoAsignacion> activos); // Una fila por asignación activa
+    
+    // Asignaciones abiertas de todos los técnicos (carga inicial de la vista de carga)
+    @Query("SELECT new com.homefixer.asignaciones.dto.AsignacionActiva(a.idAsignacion, a.idTecnico, a.estado) FROM Asignacion a WHERE a.estado IN :activos")
+    List<AsignacionActiva> obtenerAsignacionesActivas(@Param("activos") List<Asignacion.EstadoAsignacion> activos); // Una fila por asignación abierta
+    
+    // Propuestas sin respuesta y cuándo se propusieron (carga inicial de los plazos de aceptación)
+    @Query("SELECT new com.homefixer.asignaciones.dto.PlazoPropuesta(a.idAsignacion, a.fechaAsignacion) FROM Asignacion a WHERE a.estado = :estado")
+    List<PlazoPropuesta> obtenerPlazosPropuesta(@Param("estado") Asignacion.EstadoAsignacion estado); // Una fila por PROPUESTA
+    
+    // Id, técnico y estado de las asignaciones de estas solicitudes (usa el índice único de id_solicitud)
+    @Query("SELECT new com.homefixer.asignaciones.dto.AsignacionActiva(a.idAsignacion, a.idTecnico, a.estado) FROM Asignacion a WHERE a.idSolicitud IN :ids")
+    List<AsignacionActiva> obtenerAsignacionesPorSolicitudes(@Param("ids") List<Long> ids); // Tras un INSERT por lotes
+    
+    // Da cupo a una fila activa que no lo tenía; 0 si otro proceso ya se lo dio
+    @Modifying
+    @Query("UPDATE Asignacion a SET a.idTecnicoActivo = a.idTecnico, a.cupoActivo = :cupo WHERE a.idAsignacion = :id AND a.cupoActivo IS NULL")
+    int fijarCupo(@Param("id") Long id, @Param("cupo") Integer cupo); // Filas anteriores a la tabla de reservas
+    
+    // Transiciones condicionales en una sola sentencia: devuelven 1 si ganaron, 0 si el estado ya no lo permitía
+    
+    // PROPUESTA -> ACEPTADA
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Asignacion a SET a.estado = :nuevoEstado, a.fechaAceptacion = :ahora, a.version = a.version + 1 "
+         + "WHERE a.idAsignacion = :id AND a.estado IN :permitidos")
+    int aceptar(@Param("id") Long id, @Param("nuevoEstado") Asignacion.EstadoAsignacion nuevoEstado,
+                @Param("permitidos") Collection<Asignacion.EstadoAsignacion> permitidos,
+                @Param("ahora") LocalDateTime ahora); // Sin leer antes
+    
+    // ACEPTADA -> EN_CAMINO
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Asignacion a SET a.estado = :nuevoEstado, a.fechaEnCamino = :ahora, a.version = a.version + 1 "
+         + "WHERE a.idAsignacion = :id AND a.estado IN :permitidos")
+    int salirEnCamino(@Param("id") Long id, @Param("nuevoEstado") Asignacion.EstadoAsignacion nuevoEstado,
+                      @Param("permitidos") Collection<Asignacion.EstadoAsignacion> permitidos,
+                      @Param("ahora") LocalDateTime ahora); // Sin leer antes
+    
+    // EN_CAMINO -> EN_SERVICIO
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Asignacion a SET a.estado = :nuevoEstado, a.fechaInicioServicio = :ahora, a.version = a.version + 1 "
+         + "WHERE a.idAsignacion = :id AND a.estado IN :permitidos")
+    int iniciarServicio(@Param("id") Long id, @Param("nuevoEstado") Asignacion.EstadoAsignacion nuevoEstado,
+                        @Param("permitidos") Collection<Asignacion.EstadoAsignacion> permitidos,
+                        @Param("ahora") LocalDateTime ahora); // Sin leer antes
+    
+    // EN_SERVICIO -> COMPLETADA; libera el cupo activo en la misma sentencia
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Asignacion a SET a.estado = :nuevoEstado, a.fechaFinServicio = :ahora, a.costoFinal = :costo, "
+         + "a.observacionesTecnico = :observaciones, a.idTecnicoActivo = NULL, a.cupoActivo = NULL, a.version = a.version + 1 "
+         + "WHERE a.idAsignacion = :id AND a.estado IN :permitidos")
+    int completar(@Param("id") Long id, @Param("nuevoEstado") Asignacion.EstadoAsignacion nuevoEstado,
+                  @Param("permitidos") Collection<Asignacion.EstadoAsignacion> permitidos,
+                  @Param("ahora") LocalDateTime ahora, @Param("costo") BigDecimal costo,
+                  @Param("observaciones") String observaciones); // Sin leer antes
+    
+    // Activa -> RECHAZADA o CANCELADA con motivo; libera el cupo activo en la misma sentencia
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Asignacion a SET a.estado = :nuevoEstado, a.motivoRechazo = :motivo, "
+         + "a.idTecnicoActivo = NULL, a.cupoActivo = NULL, a.version = a.version + 1 "
+         + "WHERE a.idAsignacion = :id AND a.estado IN :permitidos")
+    int cerrar(@Param("id") Long id, @Param("nuevoEstado") Asignacion.EstadoAsignacion nuevoEstado,
+               @Param("permitidos") Collection<Asignacion.EstadoAsignacion> permitidos,
+               @Param("motivo") String motivo); // Sin leer antes
+    
+    // RECHAZADA -> PROPUESTA para otro técnico: toma su cupo y borra lo que era del intento anterior
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Asignacion a SET a.estado = :nuevoEstado, a.idTecnico = :idTecnico, a.idTecnicoActivo = :idTecnico, "
+         + "a.cupoActivo = :cupo, a.fechaAsignacion = :ahora, a.fechaAceptacion = NULL, a.fechaEnCamino = NULL, "
+         + "a.motivoRechazo = NULL, a.distanciaKm = :distancia, a.tiempoEstimadoMinutos = :minutos, a.version = a.version + 1 "
+         + "WHERE a.idAsignacion = :id AND a.estado IN :permitidos")
+    int reproponer(@Param("id") Long id, @Param("nuevoEstado") Asignacion.EstadoAsignacion nuevoEstado,
+                   @Param("permitidos") Collection<Asignacion.EstadoAsignacion> permitidos,
+                   @Param("idTecnico") Long idTecnico, @Param("cupo") Integer cupo, @Param("ahora") LocalDateTime ahora,
+                   @Param("distancia") BigDecimal distancia, @Param("minutos") Integer minutos); // Sin leer antes
+    
+    // Versión de una asignación sin cargar la entidad (para If-None-Match)
+    @Query("SELECT a.version FROM Asignacion a WHERE a.idAsignacion = :id")
+    Optional<Long> obtenerVersion(@Param("id") Long id); // Vacío si no existe
+    
+    // Versión de la colección de un técnico (usa idx_asignaciones_tecnico como índice cubriente)
+    @Query("SELECT new com.homefixer.asignaciones.dto.VersionColeccion(COUNT(a), COALESCE(SUM(a.version), 0L), COALESCE(MAX(a.idAsignacion), 0L)) "
+         + "FROM Asignacion a WHERE a.idTecnico = :idTecnico")
+    VersionColeccion obtenerVersionPorTecnico(@Param("idTecnico") Long idTecnico); // Una fila agregada
+}
@@ -0,0 +1,22 @@
+package com.homefixer.asignaciones.repository;
+
+import com.homefixer.asignaciones.model.IntentoAsignacion; // Importa entidad IntentoAsignacion
+import org.springframework.data.jpa.repository.JpaRepository; // Interfaz base
+import org.springframework.data.jpa.repository.Query; // Para consultas personalizadas
+import org.springframework.data.repository.query.Param; // Para parámetros
+import org.springframework.stereotype.Repository; // Anotación repositorio
+import java.util.List; // Para listas
+
+@Repository // Marca como repositorio Spring
+public interface IntentoAsignacionRepository extends JpaRepository<IntentoAsignacion, Long> {
+    
+    // Historial de rechazos de una solicitud (usa uk_intentos_solicitud_numero)
+    List<IntentoAsignacion> findByIdSolicitudOrderByNumeroAsc(Long idSolicitud); // Del primero al último
+    
+    // Rechazos ya registrados de la solicitud
+    long countByIdSolicitud(Long idSolicitud); // Número del próximo intento - 1
+    
+    // Técnicos que ya rechazaron la solicitud
+    @Query("SELECT i.idTecnico FROM IntentoAsignacion i WHERE i.idSolicitud = :idSolicitud")
+    List<Long> tecnicosIntentados(@Param("idSolicitud") Long idSolicitud); // No se les vuelve a proponer
+}
@@ -0,0 +1,70 @@
+package com.homefixer.asignaciones.service;
+
+import java.util.EnumMap; // Un histograma por métrica
+import java.util.Map; // Para mapas
+import java.util.Optional; // Para opcionales
+import java.util.concurrent.ConcurrentHashMap; // Mapas concurrentes
+
+// Histogramas de tiempos de servicio en memoria: global, por especialidad (más precisos) y por técnico
+// (más livianos, hay muchos). Cada muestra entra a los tres niveles al momento de la transición.
+public class AnaliticaTiempos {
+
+    // Métricas medidas en segundos (RITMO: segundos por km de trayecto)
+    public enum Metrica {
+        ACEPTACION, // fechaAsignacion -> fechaAceptacion
+        TRAYECTO,   // fechaEnCamino -> fechaInicioServicio
+        SERVICIO,   // fechaInicioServicio -> fechaFinServicio
+        RITMO       // TRAYECTO / distanciaKm
+    }
+
+    private final int bitsGrupo; // Precisión global y por especialidad
+    private final int bitsTecnico; // Precisión por técnico
+    private final long segundosMaximos; // Tope de cada histograma
+    private final Serie global; // Todas las muestras
+    private final Map<String, Serie> porEspecialidad = new ConcurrentHashMap<>(); // especialidad -> serie
+    private final Map<Long, Serie> porTecnico = new ConcurrentHashMap<>(); // idTecnico -> serie
+
+    public AnaliticaTiempos(int bitsGrupo, int bitsTecnico, long segundosMaximos) {
+        this.bitsGrupo = bitsGrupo;
+        this.bitsTecnico = bitsTecnico;
+        this.segundosMaximos = segundosMaximos;
+        this.global = new Serie(bitsGrupo, segundosMaximos);
+    }
+
+    // Suma una muestra; especialidad null solo cuenta para el técnico y el global
+    public void registrar(long idTecnico, String especialidad, Metrica metrica, long segundos) {
+        global.de(metrica).registrar(segundos);
+        if (especialidad != null) {
+            porEspecialidad.computeIfAbsent(especialidad, e -> new Serie(bitsGrupo, segundosMaximos)).de(metrica).registrar(segundos);
+        }
+        porTecnico.computeIfAbsent(idTecnico, id -> new Serie(bitsTecnico, segundosMaximos)).de(metrica).registrar(segundos);
+    }
+
+    public Serie global() {
+        return global;
+    }
+
+    public Optional<Serie> especialidad(String especialidad) {
+        return Optional.ofNullable(porEspecialidad.get(especialidad));
+    }
+
+    public Optional<Serie> tecnico(long idTecnico) {
+        return Optional.ofNullable(porTecnico.get(idTecnico));
+    }
+
+    // Un histograma por métrica
+    public static final class Serie {
+
+        private final Map<Metrica, HistogramaTiempos> histogramas = new EnumMap<>(Metrica.class); // Se llena al crear, luego solo se lee
+
+        Serie(int bits, long segundosMaximos) {
+            for (Metrica metrica : Metrica.values()) {
+                histogramas.put(metrica, new HistogramaTiempos(bits, segundosMaximos));
+            }
+        }
+
+        public HistogramaTiempos de(Metrica metrica) {
+            return histogramas.get(metrica);
+        }
+    }
+}
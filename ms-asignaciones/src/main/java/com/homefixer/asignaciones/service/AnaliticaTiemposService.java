@@ -0,0 +1,104 @@
+package com.homefixer.asignaciones.service;
+
+import com.homefixer.asignaciones.dto.EstadisticasTiempos; // Respuesta del endpoint
+import com.homefixer.asignaciones.dto.PercentilesTiempo; // Percentiles de una métrica
+import com.homefixer.asignaciones.model.Asignacion; // Importa entidad
+import org.springframework.beans.factory.annotation.Value; // Para leer configuración
+import org.springframework.stereotype.Service; // Anotación servicio
+import java.time.Duration; // Para medir intervalos
+import java.time.LocalDateTime; // Para fechas
+
+// Tiempos de aceptación, trayecto y servicio medidos en cada transición (sin recorrer la tabla).
+// La mediana de minutos por km de trayecto reemplaza a la velocidad configurada en los ETA
+// en cuanto el técnico o su especialidad juntan suficientes muestras.
+@Service // Marca como servicio Spring
+public class AnaliticaTiemposService {
+
+    private static final double DISTANCIA_MINIMA_KM = 0.2; // Trayectos más cortos no dan un ritmo confiable
+
+    private final EmparejamientoService emparejamientoService; // Especialidad del técnico y ETA
+    private final AnaliticaTiempos analitica; // Histogramas en memoria
+    private final int muestrasMinimas; // Muestras para confiar en un ritmo observado
+
+    public AnaliticaTiemposService(EmparejamientoService emparejamientoService,
+                                   @Value("${homefixer.asignaciones.analitica.bits-especialidad:7}") int bitsEspecialidad,
+                                   @Value("${homefixer.asignaciones.analitica.bits-tecnico:4}") int bitsTecnico,
+                                   @Value("${homefixer.asignaciones.analitica.horas-maximas:720}") long horasMaximas,
+                                   @Value("${homefixer.asignaciones.analitica.muestras-minimas:20}") int muestrasMinimas) {
+        this.emparejamientoService = emparejamientoService;
+        this.analitica = new AnaliticaTiempos(bitsEspecialidad, bitsTecnico, horasMaximas * 3600);
+        this.muestrasMinimas = muestrasMinimas;
+    }
+
+    // Registra lo que la transición recién cerró; la fila ya viene releída con sus fechas
+    public void registrar(Asignacion asignacion, Asignacion.EstadoAsignacion nuevoEstado) {
+        long idTecnico = asignacion.getIdTecnico();
+        String especialidad = emparejamientoService.especialidad(idTecnico).orElse(null); // Null si el técnico no está en el snapshot
+        switch (nuevoEstado) {
+            case ACEPTADA -> registrar(idTecnico, especialidad, AnaliticaTiempos.Metrica.ACEPTACION,
+                asignacion.getFechaAsignacion(), asignacion.getFechaAceptacion());
+            case EN_SERVICIO -> {
+                long segundos = registrar(idTecnico, especialidad, AnaliticaTiempos.Metrica.TRAYECTO,
+                    asignacion.getFechaEnCamino(), asignacion.getFechaInicioServicio());
+                if (segundos >= 0 && asignacion.getDistanciaKm() != null
+                        && asignacion.getDistanciaKm().doubleValue() >= DISTANCIA_MINIMA_KM) {
+                    analitica.registrar(idTecnico, especialidad, AnaliticaTiempos.Metrica.RITMO,
+                        Math.round(segundos / asignacion.getDistanciaKm().doubleValue()));
+                    actualizarRitmo(idTecnico, especialidad);
+                }
+            }
+            case COMPLETADA -> registrar(idTecnico, especialidad, AnaliticaTiempos.Metrica.SERVICIO,
+                asignacion.getFechaInicioServicio(), asignacion.getFechaFinServicio());
+            default -> {
+                // Las demás transiciones no cierran ningún intervalo
+            }
+        }
+    }
+
+    // Percentiles del técnico, si no de la especialidad, si no de todo el servicio
+    public EstadisticasTiempos estadisticas(Long idTecnico, String especialidad) {
+        String clave = MotorEmparejamiento.clave(especialidad);
+        AnaliticaTiempos.Serie serie = idTecnico != null ? analitica.tecnico(idTecnico).orElse(null)
+            : clave != null ? analitica.especialidad(clave).orElse(null)
+            : analitica.global();
+        return new EstadisticasTiempos(clave, idTecnico,
+            percentiles(serie, AnaliticaTiempos.Metrica.ACEPTACION),
+            percentiles(serie, AnaliticaTiempos.Metrica.TRAYECTO),
+            percentiles(serie, AnaliticaTiempos.Metrica.SERVICIO),
+            percentiles(serie, AnaliticaTiempos.Metrica.RITMO));
+    }
+
+    // Segundos entre dos fechas, registrados si ambas existen; -1 si falta alguna
+    private long registrar(long idTecnico, String especialidad, AnaliticaTiempos.Metrica metrica,
+                           LocalDateTime desde, LocalDateTime hasta) {
+        if (desde == null || hasta == null) {
+            return -1L; // Fila anterior a la columna o transición sin fecha
+        }
+        long segundos = Math.max(0L, Duration.between(desde, hasta).getSeconds());
+        analitica.registrar(idTecnico, especialidad, metrica, segundos);
+        return segundos;
+    }
+
+    // Publica al motor la mediana de minutos por km de quien ya tiene muestras suficientes
+    private void actualizarRitmo(long idTecnico, String especialidad) {
+        Double tecnico = analitica.tecnico(idTecnico).map(s -> mediana(s.de(AnaliticaTiempos.Metrica.RITMO))).orElse(null);
+        Double grupo = especialidad == null ? null
+            : analitica.especialidad(especialidad).map(s -> mediana(s.de(AnaliticaTiempos.Metrica.RITMO))).orElse(null);
+        if (tecnico != null || grupo != null) {
+            emparejamientoService.fijarRitmo(idTecnico, especialidad, tecnico, grupo);
+        }
+    }
+
+    // Mediana en minutos por km; null con pocas muestras
+    private Double mediana(HistogramaTiempos ritmo) {
+        return ritmo.total() < muestrasMinimas ? null : ritmo.percentil(50) / 60.0;
+    }
+
+    private static PercentilesTiempo percentiles(AnaliticaTiempos.Serie serie, AnaliticaTiempos.Metrica metrica) {
+        if (serie == null || serie.de(metrica).total() == 0) {
+            return new PercentilesTiempo(0, null, null, null); // Sin muestras
+        }
+        HistogramaTiempos h = serie.de(metrica);
+        return new PercentilesTiempo(h.total(), h.percentil(50) / 60.0, h.percentil(90) / 60.0, h.percentil(99) / 60.0);
+    }
+}
@@ -1,12 +1,28 @@
 package com.homefixer.asignaciones.service;
 
+import com.homefixer.asignaciones.dto.AsignacionActiva; // Asignación abierta de un técnico
+import com.homefixer.asignaciones.dto.AsignacionResumen; // Fila de listado
+import com.homefixer.asignaciones.dto.CandidatoTecnico; // Técnico elegido por el motor
+import com.homefixer.asignaciones.dto.EstadisticasTiempos; // Percentiles de tiempos
+import com.homefixer.asignaciones.dto.ResultadoEmparejamiento; // Lista corta
+import com.homefixer.asignaciones.exception.ConflictoAsignacionException; // Técnico o solicitud ya tomados
+import com.homefixer.asignaciones.exception.TransicionAsignacionException; // Transición rechazada
 import com.homefixer.asignaciones.model.Asignacion; // Importa entidad
+import com.homefixer.asignaciones.model.IntentoAsignacion; // Historial de rechazos
 import com.homefixer.asignaciones.repository.AsignacionRepository; // Importa repositorio
 import lombok.RequiredArgsConstructor; // Constructor automático
+import org.springframework.core.Ordered; // Orden tras el commit
+import org.springframework.dao.DataIntegrityViolationException; // Respaldo único en BD
 import org.springframework.stereotype.Service; // IMPORTANTE: Anotación @Service
+import org.springframework.transaction.annotation.Transactional; // Para transacciones
+import org.springframework.transaction.support.TransactionSynchronization; // Acción tras el commit
+import org.springframework.transaction.support.TransactionSynchronizationManager; // Transacción en curso
 import java.math.BigDecimal; // Para decimales
+import java.math.RoundingMode; // Redondeo de distancias
 import java.time.LocalDateTime; // Para fechas
+import java.util.EnumSet; // Conjuntos de estados
 import java.util.List; // Para listas
+import java.util.Map; // Para mapas
 import java.util.Optional; // Para opcionales
 
 @Service // ESTA ANOTACIÓN ES OBLIGATORIA
@@ -14,17 +30,99 @@ import java.util.Optional; // Para opcionales
 public class AsignacionService {
     
     private final AsignacionRepository asignacionRepository; // Repositorio inyectado
+    private final CamposAsignacionesService camposService; // Listados con fields=
+    private final EmparejamientoService emparejamientoService; // Motor de emparejamiento
+    private final ReservaTecnicosService reservaService; // Cupos de técnicos y solicitudes activas
+    private final CargaTecnicosService cargaService; // Asignaciones abiertas por técnico
+    private final AnaliticaTiemposService analiticaService; // Tiempos de servicio observados
+    private final RedespachoService redespachoService; // Siguiente técnico tras un rechazo
+    private final PlazosPropuestaService plazosService; // Plazo de aceptación de cada propuesta
     
-    // Crear nueva asignación
+    private static final BigDecimal DISTANCIA_MAXIMA = new BigDecimal("999.99"); // Tope de la columna distancia_km
+    
+    // Crear nueva asignación con el técnico elegido por quien llama; si la solicitud quedó RECHAZADA se re-propone esa fila
     public Asignacion crearAsignacion(Asignacion asignacion) {
         System.out.println("✅ Creando asignación"); // Log
         
+        asignacion.setIdCliente(emparejamientoService.validarReferencias(asignacion.getIdSolicitud(),
+            asignacion.getIdCliente(), asignacion.getIdTecnico())); // Sin idCliente se toma el de la solicitud
+        asignacion.setDistanciaKm(null); // Se calcula, no se recibe
+        asignacion.setTiempoEstimadoMinutos(null);
+        emparejamientoService.estimarTrayecto(asignacion.getIdTecnico(), asignacion.getIdCliente())
+            .ifPresent(t -> fijarTrayecto(asignacion, t.distanciaKm(), t.minutosEstimados())); // Vacío si falta una posición
+        
+        Optional<Asignacion> rechazada = asignacionRepository.findByIdSolicitud(asignacion.getIdSolicitud())
+            .filter(a -> a.getEstado() == Asignacion.EstadoAsignacion.RECHAZADA); // Búsqueda por el único de id_solicitud
+        if (rechazada.isPresent()) {
+            return redespachoService.reproponer(rechazada.get().getIdAsignacion(), asignacion.getIdTecnico(),
+                asignacion.getDistanciaKm(), asignacion.getTiempoEstimadoMinutos()); // Sin tope de intentos: lo decide una persona
+        }
+        return guardarPropuesta(asignacion);
+    }
+    
+    // Lista corta de técnicos para una solicitud, sin asignar
+    public ResultadoEmparejamiento candidatos(Long idSolicitud) {
+        return emparejamientoService.candidatos(idSolicitud); // Ranking en memoria
+    }
+    
+    // Asigna la solicitud al mejor técnico según el motor de emparejamiento
+    public Asignacion asignarAutomaticamente(Long idSolicitud) {
+        System.out.println("🤖 Asignación automática de solicitud " + idSolicitud); // Log
+        
+        if (asignacionRepository.existsByIdSolicitud(idSolicitud)) {
+            throw new ConflictoAsignacionException("La solicitud ya tiene asignación", true); // Una asignación por solicitud
+        }
+        ResultadoEmparejamiento resultado = emparejamientoService.candidatos(idSolicitud);
+        for (CandidatoTecnico candidato : resultado.candidatos()) { // Del mayor puntaje al menor
+            Asignacion asignacion = Asignacion.builder()
+                .idSolicitud(idSolicitud)
+                .idTecnico(candidato.idTecnico())
+                .idCliente(resultado.idCliente())
+                .build();
+            fijarTrayecto(asignacion, candidato.distanciaKm(), candidato.minutosEstimados());
+            
+            try {
+                Asignacion guardada = guardarPropuesta(asignacion);
+                redespachoService.recordar(resultado); // Lista para re-despachar si este técnico rechaza
+                System.out.println("✅ Solicitud " + idSolicitud + " asignada a técnico " + candidato.idTecnico()
+                    + " (puntaje " + String.format("%.3f", candidato.puntaje()) + ")"); // Log éxito
+                return guardada;
+            } catch (ConflictoAsignacionException e) {
+                if (e.isPorSolicitud()) {
+                    throw e; // Otra petición asignó la solicitud
+                }
+                System.out.println("🔁 Técnico " + candidato.idTecnico() + " tomado por otra asignación, probando el siguiente"); // Carrera perdida
+            }
+        }
+        throw new RuntimeException("No hay técnicos disponibles para " + resultado.especialidad());
+    }
+    
+    // Reserva cupo, guarda como PROPUESTA y suma la carga del técnico; la BD rechaza lo que la reserva no vio
+    private Asignacion guardarPropuesta(Asignacion asignacion) {
         asignacion.setEstado(Asignacion.EstadoAsignacion.PROPUESTA); // Estado inicial
+        asignacion.setVersion(null); // La asigna Hibernate
         asignacion.setFechaAsignacion(LocalDateTime.now()); // Fecha actual
-        asignacion.setDistanciaKm(BigDecimal.valueOf(5.0)); // Distancia fija para prueba
-        asignacion.setTiempoEstimadoMinutos(30); // Tiempo fijo para prueba
         
-        return asignacionRepository.save(asignacion); // Guarda en BD
+        reservaService.reservar(asignacion); // Sin cupo o solicitud tomada: 409 sin tocar la BD
+        Asignacion guardada;
+        try {
+            guardada = asignacionRepository.save(asignacion); // Un INSERT; únicos de id_solicitud y cupo activo
+        } catch (DataIntegrityViolationException e) {
+            reservaService.liberar(asignacion);
+            if (Asignacion.violaCupoActivo(e)) {
+                throw new ConflictoAsignacionException("Otra asignación tomó el cupo del técnico " + asignacion.getIdTecnico(), false); // /auto prueba el siguiente
+            }
+            throw new ConflictoAsignacionException("Otra asignación tomó la solicitud " + asignacion.getIdSolicitud(), true); // Ganó otra instancia
+        }
+        emparejamientoService.asignado(guardada.getIdTecnico()); // Cuenta para la carga
+        cargaService.registrar(guardada); // Entra a la vista de carga
+        plazosService.programar(guardada); // Corre el plazo de aceptación
+        return guardada;
+    }
+    
+    static void fijarTrayecto(Asignacion asignacion, double distanciaKm, int minutos) {
+        asignacion.setDistanciaKm(BigDecimal.valueOf(distanciaKm).setScale(2, RoundingMode.HALF_UP).min(DISTANCIA_MAXIMA));
+        asignacion.setTiempoEstimadoMinutos(minutos);
     }
     
     // Buscar por ID
@@ -42,25 +140,168 @@ public class AsignacionService {
         return asignacionRepository.findByIdTecnico(idTecnico); // Filtra por técnico
     }
     
-    // Aceptar asignación
+    // Asignaciones abiertas del técnico, sin consultar la BD
+    public List<AsignacionActiva> activasPorTecnico(Long idTecnico) {
+        return cargaService.activas(idTecnico);
+    }
+    
+    // Asignaciones abiertas de varios técnicos, sin consultar la BD
+    public Map<Long, List<AsignacionActiva>> activasPorTecnicos(List<Long> idsTecnico) {
+        return cargaService.activas(idsTecnico);
+    }
+    
+    // Resumen sin textos largos; idTecnico null = todas
+    public List<AsignacionResumen> listarResumen(Long idTecnico) {
+        return idTecnico == null
+            ? asignacionRepository.listarResumen() // Todas
+            : asignacionRepository.listarResumenPorTecnico(idTecnico); // Por técnico
+    }
+    
+    // Valida fields= sin consultar filas (el controlador lo hace antes de comparar el ETag)
+    public void validarCampos(String fields) {
+        camposService.parsear(fields); // Falla con campos desconocidos
+    }
+    
+    // Solo los campos pedidos (fields=); idTecnico null = todas
+    public List<Map<String, Object>> listarCampos(String fields, Long idTecnico) {
+        List<String> campos = camposService.parsear(fields); // Falla con campos desconocidos
+        return camposService.listar(campos, idTecnico == null ? Map.of() : Map.of("idTecnico", idTecnico));
+    }
+    
+    // ETag de una asignación a partir de su versión (vacío si no existe)
+    public Optional<String> etagAsignacion(Long id) {
+        return asignacionRepository.obtenerVersion(id)
+            .map(version -> etag(id, version)); // Sin cargar la entidad
+    }
+    
+    // ETag fuerte de una asignación
+    public static String etag(Long idAsignacion, Long version) {
+        return "\"a-" + idAsignacion + "-" + version + "\"";
+    }
+    
+    // ETag de las asignaciones de un técnico
+    public String etagPorTecnico(Long idTecnico) {
+        return asignacionRepository.obtenerVersionPorTecnico(idTecnico).etag("at-" + idTecnico); // Una consulta agregada
+    }
+    
+    // Percentiles de aceptación, trayecto y servicio (histogramas en memoria)
+    public EstadisticasTiempos estadisticasTiempos(Long idTecnico, String especialidad) {
+        return analiticaService.estadisticas(idTecnico, especialidad);
+    }
+    
+    // PROPUESTA -> ACEPTADA
+    @Transactional // UPDATE y relectura en la misma transacción
     public Asignacion aceptarAsignacion(Long idAsignacion) {
-        Asignacion asignacion = asignacionRepository.findById(idAsignacion)
-            .orElseThrow(() -> new RuntimeException("Asignación no encontrada")); // Busca
-        
-        asignacion.setEstado(Asignacion.EstadoAsignacion.ACEPTADA); // Cambia estado
-        asignacion.setFechaAceptacion(LocalDateTime.now()); // Marca fecha
-        
-        return asignacionRepository.save(asignacion); // Guarda cambio
+        Asignacion.EstadoAsignacion nuevo = Asignacion.EstadoAsignacion.ACEPTADA;
+        int filas = asignacionRepository.aceptar(idAsignacion, nuevo, nuevo.origenesPermitidos(), LocalDateTime.now());
+        return resultadoTransicion(idAsignacion, filas, nuevo);
     }
     
-    // Rechazar asignación
+    // PROPUESTA o ACEPTADA -> RECHAZADA; libera al técnico y re-despacha la solicitud
+    @Transactional // UPDATE y relectura en la misma transacción
     public Asignacion rechazarAsignacion(Long idAsignacion, String motivo) {
+        Asignacion.EstadoAsignacion nuevo = Asignacion.EstadoAsignacion.RECHAZADA;
+        int filas = asignacionRepository.cerrar(idAsignacion, nuevo, nuevo.origenesPermitidos(), motivo);
+        Asignacion actual = resultadoTransicion(idAsignacion, filas, nuevo);
+        redespachoService.rechazada(actual); // Intento al historial; el siguiente técnico después del commit
+        return actual;
+    }
+    
+    // PROPUESTA sin respuesta -> RECHAZADA; solo desde PROPUESTA, para no pisar una aceptación de último momento
+    @Transactional // UPDATE y relectura en la misma transacción
+    public Asignacion expirarPropuesta(Long idAsignacion, String motivo) {
+        Asignacion.EstadoAsignacion nuevo = Asignacion.EstadoAsignacion.RECHAZADA;
+        int filas = asignacionRepository.cerrar(idAsignacion, nuevo, EnumSet.of(Asignacion.EstadoAsignacion.PROPUESTA), motivo);
+        Asignacion actual = resultadoTransicion(idAsignacion, filas, nuevo);
+        redespachoService.rechazada(actual); // Cuenta como intento y re-despacha igual que un rechazo
+        return actual;
+    }
+    
+    // Rechazos de la solicitud, del primero al último
+    public List<IntentoAsignacion> intentos(Long idAsignacion) {
         Asignacion asignacion = asignacionRepository.findById(idAsignacion)
-            .orElseThrow(() -> new RuntimeException("Asignación no encontrada")); // Busca
-        
-        asignacion.setEstado(Asignacion.EstadoAsignacion.RECHAZADA); // Cambia estado
-        asignacion.setMotivoRechazo(motivo); // Guarda motivo
+            .orElseThrow(() -> new RuntimeException("Asignación no encontrada")); // No existe
+        return redespachoService.intentos(asignacion.getIdSolicitud());
+    }
+    
+    // ACEPTADA -> EN_CAMINO
+    @Transactional // UPDATE y relectura en la misma transacción
+    public Asignacion marcarEnCamino(Long idAsignacion) {
+        Asignacion.EstadoAsignacion nuevo = Asignacion.EstadoAsignacion.EN_CAMINO;
+        int filas = asignacionRepository.salirEnCamino(idAsignacion, nuevo, nuevo.origenesPermitidos(), LocalDateTime.now());
+        return resultadoTransicion(idAsignacion, filas, nuevo);
+    }
+    
+    // EN_CAMINO -> EN_SERVICIO
+    @Transactional // UPDATE y relectura en la misma transacción
+    public Asignacion iniciarServicio(Long idAsignacion) {
+        Asignacion.EstadoAsignacion nuevo = Asignacion.EstadoAsignacion.EN_SERVICIO;
+        int filas = asignacionRepository.iniciarServicio(idAsignacion, nuevo, nuevo.origenesPermitidos(), LocalDateTime.now());
+        return resultadoTransicion(idAsignacion, filas, nuevo);
+    }
+    
+    // EN_SERVICIO -> COMPLETADA con costo y observaciones; libera al técnico
+    @Transactional // UPDATE y relectura en la misma transacción
+    public Asignacion completarServicio(Long idAsignacion, BigDecimal costoFinal, String observaciones) {
+        if (costoFinal != null && costoFinal.signum() < 0) {
+            throw new RuntimeException("El costo final no puede ser negativo");
+        }
+        Asignacion.EstadoAsignacion nuevo = Asignacion.EstadoAsignacion.COMPLETADA;
+        int filas = asignacionRepository.completar(idAsignacion, nuevo, nuevo.origenesPermitidos(), LocalDateTime.now(), costoFinal, observaciones);
+        return resultadoTransicion(idAsignacion, filas, nuevo);
+    }
+    
+    // Cualquier estado activo -> CANCELADA; libera al técnico
+    @Transactional // UPDATE y relectura en la misma transacción
+    public Asignacion cancelarAsignacion(Long idAsignacion, String motivo) {
+        Asignacion.EstadoAsignacion nuevo = Asignacion.EstadoAsignacion.CANCELADA;
+        int filas = asignacionRepository.cerrar(idAsignacion, nuevo, nuevo.origenesPermitidos(), motivo);
+        return resultadoTransicion(idAsignacion, filas, nuevo);
+    }
+    
+    // Después del UPDATE condicional: relee la fila (MySQL no tiene RETURNING); 0 filas = no existe o perdió la carrera
+    private Asignacion resultadoTransicion(Long idAsignacion, int filas, Asignacion.EstadoAsignacion nuevoEstado) {
+        Asignacion actual = asignacionRepository.findById(idAsignacion)
+            .orElseThrow(() -> new RuntimeException("Asignación no encontrada")); // No existe
         
-        return asignacionRepository.save(asignacion); // Guarda cambio
+        if (filas == 0) {
+            System.out.println("⚠️ Transición rechazada: asignación " + idAsignacion + " está " + actual.getEstado()
+                + " (versión " + actual.getVersion() + "), se pidió " + nuevoEstado); // Perdió la carrera
+            throw new TransicionAsignacionException("No se puede pasar de " + actual.getEstado() + " a " + nuevoEstado,
+                actual.getEstado(), actual.getVersion()); // El controlador responde 409
+        }
+        despuesDelCommit(() -> { // Si algo posterior hace rollback, la memoria sigue igual que la BD
+            if (nuevoEstado.esTerminal()) {
+                reservaService.liberar(actual); // El UPDATE ya dejó el cupo libre en BD
+                emparejamientoService.liberado(actual.getIdTecnico()); // Deja de contar para la carga
+            }
+            if (nuevoEstado == Asignacion.EstadoAsignacion.COMPLETADA || nuevoEstado == Asignacion.EstadoAsignacion.CANCELADA) {
+                redespachoService.olvidar(actual.getIdSolicitud()); // Ya no se re-despacha
+            }
+            cargaService.registrar(actual); // Cambia de estado o sale de la vista de carga
+            plazosService.cancelar(idAsignacion); // Ya respondió: sin plazo
+            analiticaService.registrar(actual, nuevoEstado); // Intervalo que cerró esta transición
+        });
+        return actual; // Estado ya actualizado
+    }
+    
+    // Corre la acción tras el commit, antes que los listeners del re-despacho (que re-proponen la misma fila);
+    // sin transacción activa corre de inmediato
+    private static void despuesDelCommit(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public int getOrder() {
+                return Ordered.HIGHEST_PRECEDENCE; // Primero liberar y cancelar el plazo, después re-proponer
+            }
+            
+            @Override
+            public void afterCommit() {
+                accion.run();
+            }
+        });
     }
-}
\ No newline at end of file
+}
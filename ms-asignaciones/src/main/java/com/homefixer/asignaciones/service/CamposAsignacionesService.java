@@ -0,0 +1,74 @@
+package com.homefixer.asignaciones.service;
+
+import com.homefixer.asignaciones.model.Asignacion; // Importa entidad Asignacion
+import jakarta.persistence.EntityManager; // Para consultas dinámicas
+import jakarta.persistence.Tuple; // Fila con columnas elegidas
+import jakarta.persistence.TupleElement; // Columna de la fila
+import jakarta.persistence.criteria.CriteriaBuilder; // Constructor de consultas
+import jakarta.persistence.criteria.CriteriaQuery; // Consulta tipada
+import jakarta.persistence.criteria.Predicate; // Condiciones
+import jakarta.persistence.criteria.Root; // Entidad consultada
+import jakarta.persistence.criteria.Selection; // Columna seleccionada
+import jakarta.persistence.metamodel.SingularAttribute; // Atributos simples
+import lombok.RequiredArgsConstructor; // Constructor automático
+import org.springframework.stereotype.Service; // Anotación servicio
+import java.util.ArrayList; // Para listas mutables
+import java.util.LinkedHashMap; // Mapa con orden
+import java.util.LinkedHashSet; // Conjunto con orden
+import java.util.List; // Para listas
+import java.util.Map; // Para mapas
+import java.util.Set; // Para conjuntos
+import java.util.stream.Collectors; // Para colectar
+
+// Listados con fields= (sparse fieldset): el SELECT trae solo las columnas pedidas y no crea entidades administradas
+@Service // Marca como servicio Spring
+@RequiredArgsConstructor // Constructor automático
+public class CamposAsignacionesService {
+
+    private static final String ID = "idAsignacion"; // Siempre se incluye
+
+    private final EntityManager entityManager; // Proxy compartido de Spring
+
+    // Valida "estado,idTecnico,..." contra los atributos de Asignacion; devuelve la lista con el id primero
+    public List<String> parsear(String fields) {
+        Set<String> validos = entityManager.getMetamodel().entity(Asignacion.class).getSingularAttributes().stream()
+            .map(SingularAttribute::getName)
+            .collect(Collectors.toSet()); // Nombres igual que en el JSON completo
+        Set<String> campos = new LinkedHashSet<>();
+        campos.add(ID);
+        for (String campo : fields.split(",")) {
+            String limpio = campo.trim();
+            if (limpio.isEmpty()) {
+                continue; // Tolera comas de más
+            }
+            if (!validos.contains(limpio)) {
+                throw new RuntimeException("Campo desconocido: " + limpio); // El controlador responde 400
+            }
+            campos.add(limpio);
+        }
+        return new ArrayList<>(campos);
+    }
+
+    // Asignaciones ordenadas por id con solo los campos pedidos; filtros = igualdades por atributo
+    public List<Map<String, Object>> listar(List<String> campos, Map<String, Object> filtros) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> consulta = cb.createTupleQuery();
+        Root<Asignacion> raiz = consulta.from(Asignacion.class);
+
+        consulta.multiselect(campos.stream().<Selection<?>>map(c -> raiz.get(c).alias(c)).toList()); // Solo estas columnas
+        List<Predicate> condiciones = new ArrayList<>();
+        filtros.forEach((atributo, valor) -> condiciones.add(cb.equal(raiz.get(atributo), valor)));
+        consulta.where(condiciones.toArray(Predicate[]::new));
+        consulta.orderBy(cb.asc(raiz.get(ID)));
+
+        List<Map<String, Object>> filas = new ArrayList<>();
+        for (Tuple tupla : entityManager.createQuery(consulta).getResultList()) {
+            Map<String, Object> fila = new LinkedHashMap<>(); // Mismo orden que fields=
+            for (TupleElement<?> elemento : tupla.getElements()) {
+                fila.put(elemento.getAlias(), tupla.get(elemento));
+            }
+            filas.add(fila);
+        }
+        return filas;
+    }
+}
@@ -0,0 +1,130 @@
+package com.homefixer.asignaciones.service;
+
+import com.homefixer.asignaciones.dto.AsignacionActiva; // Fila de la vista
+import com.homefixer.asignaciones.model.Asignacion; // Importa entidad
+import java.util.ArrayList; // Para listas mutables
+import java.util.List; // Para listas
+
+// Asignaciones abiertas por técnico en memoria: técnico -> long[] con (idAsignacion << 3 | estado) por asignación.
+// Los técnicos se reparten en franjas con su propio MapaPorId y candado, así las transiciones de técnicos distintos
+// no compiten entre sí; cada lectura copia a lo más un arreglo de pocos longs.
+public class CargaActivaTecnicos {
+
+    private static final int BITS_ESTADO = 3; // 7 estados caben en 3 bits
+    private static final long MASCARA_ESTADO = (1L << BITS_ESTADO) - 1;
+    private static final long[] VACIO = new long[0];
+    private static final Asignacion.EstadoAsignacion[] ESTADOS = Asignacion.EstadoAsignacion.values();
+
+    private final MapaPorId<long[]>[] franjas; // técnico -> asignaciones abiertas, repartido por hash
+    private final int mascaraFranjas;
+
+    @SuppressWarnings("unchecked")
+    public CargaActivaTecnicos(int franjas, int capacidadInicial) {
+        int cantidad = Integer.highestOneBit(Math.max(1, franjas) * 2 - 1); // Potencia de 2
+        this.franjas = new MapaPorId[cantidad];
+        for (int f = 0; f < cantidad; f++) {
+            this.franjas[f] = new MapaPorId<>(Math.max(16, capacidadInicial / cantidad));
+        }
+        this.mascaraFranjas = cantidad - 1;
+    }
+
+    // Registra el estado actual de la asignación: entra, cambia de estado o sale si ya no está activa
+    public void registrar(long idTecnico, long idAsignacion, Asignacion.EstadoAsignacion estado) {
+        boolean activa = !estado.esTerminal();
+        MapaPorId<long[]> franja = franja(idTecnico);
+        synchronized (franja) {
+            long[] actuales = franja.obtener(idTecnico);
+            long[] nuevas = actualizar(actuales == null ? VACIO : actuales, idAsignacion, activa ? empaquetar(idAsignacion, estado) : 0L);
+            if (nuevas.length == 0) {
+                franja.quitar(idTecnico);
+            } else if (nuevas != actuales) {
+                franja.poner(idTecnico, nuevas);
+            }
+        }
+    }
+
+    // Asignaciones abiertas del técnico en orden de id
+    public List<AsignacionActiva> activas(long idTecnico) {
+        long[] actuales;
+        MapaPorId<long[]> franja = franja(idTecnico);
+        synchronized (franja) {
+            actuales = franja.obtener(idTecnico); // Arreglo inmutable: se lee fuera del candado
+        }
+        if (actuales == null) {
+            return List.of();
+        }
+        List<AsignacionActiva> lista = new ArrayList<>(actuales.length);
+        for (long valor : actuales) {
+            lista.add(new AsignacionActiva(valor >>> BITS_ESTADO, idTecnico, ESTADOS[(int) (valor & MASCARA_ESTADO)]));
+        }
+        return lista;
+    }
+
+    // Cantidad de asignaciones abiertas del técnico
+    public int cantidad(long idTecnico) {
+        MapaPorId<long[]> franja = franja(idTecnico);
+        synchronized (franja) {
+            long[] actuales = franja.obtener(idTecnico);
+            return actuales == null ? 0 : actuales.length;
+        }
+    }
+
+    // Técnicos con al menos una asignación abierta
+    public int tecnicos() {
+        int total = 0;
+        for (MapaPorId<long[]> franja : franjas) {
+            synchronized (franja) {
+                total += franja.tamano();
+            }
+        }
+        return total;
+    }
+
+    public void limpiar() {
+        for (MapaPorId<long[]> franja : franjas) {
+            synchronized (franja) {
+                franja.limpiar();
+            }
+        }
+    }
+
+    // Copia con la asignación reemplazada, agregada (ordenada por id) o quitada (valor 0); el mismo arreglo si no cambia
+    private static long[] actualizar(long[] actuales, long idAsignacion, long valor) {
+        int i = 0;
+        while (i < actuales.length && (actuales[i] >>> BITS_ESTADO) < idAsignacion) {
+            i++;
+        }
+        boolean existe = i < actuales.length && (actuales[i] >>> BITS_ESTADO) == idAsignacion;
+        if (valor == 0L) {
+            if (!existe) {
+                return actuales;
+            }
+            long[] nuevas = new long[actuales.length - 1];
+            System.arraycopy(actuales, 0, nuevas, 0, i);
+            System.arraycopy(actuales, i + 1, nuevas, i, actuales.length - i - 1);
+            return nuevas;
+        }
+        if (existe) {
+            if (actuales[i] == valor) {
+                return actuales;
+            }
+            long[] nuevas = actuales.clone();
+            nuevas[i] = valor;
+            return nuevas;
+        }
+        long[] nuevas = new long[actuales.length + 1];
+        System.arraycopy(actuales, 0, nuevas, 0, i);
+        nuevas[i] = valor;
+        System.arraycopy(actuales, i, nuevas, i + 1, actuales.length - i);
+        return nuevas;
+    }
+
+    private static long empaquetar(long idAsignacion, Asignacion.EstadoAsignacion estado) {
+        return (idAsignacion << BITS_ESTADO) | estado.ordinal();
+    }
+
+    private MapaPorId<long[]> franja(long idTecnico) {
+        long h = idTecnico * 0xC2B2AE3D27D4EB4FL; // Otra mezcla que la de MapaPorId: franja e índice no se correlacionan
+        return franjas[(int) (h >>> 40) & mascaraFranjas];
+    }
+}
@@ -0,0 +1,68 @@
+package com.homefixer.asignaciones.service;
+
+import com.homefixer.asignaciones.dto.AsignacionActiva; // Fila de la vista
+import com.homefixer.asignaciones.model.Asignacion; // Importa entidad
+import com.homefixer.asignaciones.repository.AsignacionRepository; // Importa repositorio
+import org.springframework.beans.factory.annotation.Value; // Para leer configuración
+import org.springframework.boot.context.event.ApplicationReadyEvent; // Evento de arranque
+import org.springframework.context.event.EventListener; // Para escuchar eventos
+import org.springframework.stereotype.Service; // Anotación servicio
+import java.util.ArrayList; // Para listas mutables
+import java.util.Collection; // Para colecciones
+import java.util.LinkedHashMap; // Respuesta en el orden pedido
+import java.util.List; // Para listas
+import java.util.Map; // Para mapas
+
+// Vista en memoria de las asignaciones abiertas de cada técnico: se carga al arrancar y cada alta o transición la
+// actualiza, así emparejamiento y despacho no consultan la BD por técnico candidato
+@Service // Marca como servicio Spring
+public class CargaTecnicosService {
+
+    private static final int TAMANO_CONSULTA = 1000; // Ids por IN (...)
+
+    private final AsignacionRepository asignacionRepository; // Carga inicial
+    private final CargaActivaTecnicos carga; // Técnico -> asignaciones abiertas
+
+    public CargaTecnicosService(AsignacionRepository asignacionRepository,
+                                @Value("${homefixer.asignaciones.carga.franjas:64}") int franjas) {
+        this.asignacionRepository = asignacionRepository;
+        this.carga = new CargaActivaTecnicos(franjas, 1024);
+    }
+
+    // Asignaciones abiertas desde la BD (una consulta)
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        List<AsignacionActiva> activas = asignacionRepository.obtenerAsignacionesActivas(EmparejamientoService.ESTADOS_ACTIVOS);
+        activas.forEach(a -> carga.registrar(a.idTecnico(), a.idAsignacion(), a.estado()));
+        System.out.println("📋 Vista de carga: " + activas.size() + " asignaciones abiertas de " + carga.tecnicos() + " técnicos"); // Log carga
+    }
+
+    // Estado actual de una asignación recién creada o transicionada
+    public void registrar(Asignacion asignacion) {
+        carga.registrar(asignacion.getIdTecnico(), asignacion.getIdAsignacion(), asignacion.getEstado());
+    }
+
+    // Asignaciones insertadas por JDBC (sin id en memoria): se leen por solicitud
+    public List<AsignacionActiva> registrarPorSolicitudes(List<Long> idsSolicitud) {
+        List<AsignacionActiva> registradas = new ArrayList<>();
+        for (int desde = 0; desde < idsSolicitud.size(); desde += TAMANO_CONSULTA) {
+            registradas.addAll(asignacionRepository.obtenerAsignacionesPorSolicitudes(idsSolicitud.subList(desde, Math.min(idsSolicitud.size(), desde + TAMANO_CONSULTA))));
+        }
+        registradas.forEach(a -> carga.registrar(a.idTecnico(), a.idAsignacion(), a.estado()));
+        return registradas; // Con los ids generados por la BD
+    }
+
+    // Asignaciones abiertas de un técnico
+    public List<AsignacionActiva> activas(Long idTecnico) {
+        return carga.activas(idTecnico);
+    }
+
+    // Asignaciones abiertas de varios técnicos (todos aparecen, con lista vacía si están libres)
+    public Map<Long, List<AsignacionActiva>> activas(Collection<Long> idsTecnico) {
+        Map<Long, List<AsignacionActiva>> resultado = new LinkedHashMap<>();
+        for (Long id : idsTecnico) {
+            resultado.put(id, carga.activas(id));
+        }
+        return resultado;
+    }
+}
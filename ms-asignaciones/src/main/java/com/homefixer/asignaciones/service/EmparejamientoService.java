@@ -0,0 +1,182 @@
+package com.homefixer.asignaciones.service;
+
+import com.homefixer.asignaciones.client.SolicitudesClient; // Lecturas a ms-solicitudes
+import com.homefixer.asignaciones.client.UsuariosClient; // Lecturas a ms-usuarios
+import com.homefixer.asignaciones.dto.CandidatoTecnico; // Candidato puntuado
+import com.homefixer.asignaciones.dto.CargaTecnico; // Carga inicial
+import com.homefixer.asignaciones.dto.ClienteRemoto; // Ubicación del cliente
+import com.homefixer.asignaciones.dto.ResultadoEmparejamiento; // Lista corta
+import com.homefixer.asignaciones.dto.SolicitudRemota; // Solicitud a asignar
+import com.homefixer.asignaciones.dto.TecnicoRemoto; // Snapshot de técnicos
+import com.homefixer.asignaciones.model.Asignacion; // Importa entidad
+import com.homefixer.asignaciones.repository.AsignacionRepository; // Importa repositorio
+import org.springframework.beans.factory.annotation.Value; // Para leer configuración
+import org.springframework.boot.context.event.ApplicationReadyEvent; // Evento de arranque
+import org.springframework.context.event.EventListener; // Para escuchar eventos
+import org.springframework.scheduling.annotation.Scheduled; // Refresco periódico
+import org.springframework.stereotype.Service; // Anotación servicio
+import java.time.ZoneId; // Para pasar fechas a milisegundos
+import java.util.Collection; // Ids pedidos
+import java.util.HashMap; // Ubicaciones por cliente
+import java.util.List; // Para listas
+import java.util.Map; // Para mapas
+import java.util.Optional; // Para opcionales
+
+// Mantiene el motor de emparejamiento al día (snapshot de técnicos de ms-usuarios y carga desde la BD)
+// y arma la lista corta de una solicitud sin consultas por técnico
+@Service // Marca como servicio Spring
+public class EmparejamientoService {
+
+    // Estados que ocupan al técnico
+    public static final List<Asignacion.EstadoAsignacion> ESTADOS_ACTIVOS = List.of(
+        Asignacion.EstadoAsignacion.PROPUESTA, Asignacion.EstadoAsignacion.ACEPTADA,
+        Asignacion.EstadoAsignacion.EN_CAMINO, Asignacion.EstadoAsignacion.EN_SERVICIO);
+
+    private final AsignacionRepository asignacionRepository; // Carga inicial
+    private final SolicitudesClient solicitudesClient; // Solicitud a asignar
+    private final UsuariosClient usuariosClient; // Técnicos y ubicación del cliente
+    private final MotorEmparejamiento motor; // Índice y carga en memoria
+    private final int candidatos; // Tamaño de la lista corta
+    private final double radioKm; // Distancia máxima técnico-cliente
+    private final int cargaMaxima; // Asignaciones abiertas por técnico
+
+    public EmparejamientoService(AsignacionRepository asignacionRepository,
+                                 SolicitudesClient solicitudesClient,
+                                 UsuariosClient usuariosClient,
+                                 @Value("${homefixer.asignaciones.emparejamiento.celda-grados:0.05}") double celdaGrados,
+                                 @Value("${homefixer.asignaciones.emparejamiento.candidatos:10}") int candidatos,
+                                 @Value("${homefixer.asignaciones.emparejamiento.radio-km:15}") double radioKm,
+                                 @Value("${homefixer.asignaciones.emparejamiento.carga-maxima:1}") int cargaMaxima,
+                                 @Value("${homefixer.asignaciones.emparejamiento.pesos.distancia:0.4}") double pesoDistancia,
+                                 @Value("${homefixer.asignaciones.emparejamiento.pesos.calificacion:0.3}") double pesoCalificacion,
+                                 @Value("${homefixer.asignaciones.emparejamiento.pesos.carga:0.2}") double pesoCarga,
+                                 @Value("${homefixer.asignaciones.emparejamiento.pesos.equidad:0.1}") double pesoEquidad,
+                                 @Value("${homefixer.asignaciones.emparejamiento.horas-equidad:24}") double horasEquidad,
+                                 @Value("${homefixer.asignaciones.emparejamiento.velocidad-kmh:30}") double velocidadKmh) {
+        this.asignacionRepository = asignacionRepository;
+        this.solicitudesClient = solicitudesClient;
+        this.usuariosClient = usuariosClient;
+        this.candidatos = candidatos;
+        this.radioKm = radioKm;
+        this.cargaMaxima = cargaMaxima;
+        this.motor = new MotorEmparejamiento(celdaGrados, new MotorEmparejamiento.Parametros(
+            pesoDistancia, pesoCalificacion, pesoCarga, pesoEquidad, horasEquidad, velocidadKmh));
+    }
+
+    // Carga de cada técnico desde la tabla de asignaciones (una consulta agrupada)
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarCargas() {
+        List<CargaTecnico> cargas = asignacionRepository.obtenerCargas(ESTADOS_ACTIVOS);
+        for (CargaTecnico c : cargas) {
+            long ultima = c.ultimaAsignacion() == null ? 0L : c.ultimaAsignacion().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            motor.registrarCarga(c.idTecnico(), c.activas().intValue(), ultima);
+        }
+        System.out.println("⚖️ Carga inicial de " + cargas.size() + " técnicos"); // Log carga
+    }
+
+    // Snapshot de técnicos desde ms-usuarios; si falla se conserva el índice anterior
+    @Scheduled(fixedDelayString = "${homefixer.asignaciones.emparejamiento.refresco-ms:30000}")
+    public void refrescarTecnicos() {
+        try {
+            List<TecnicoRemoto> tecnicos = usuariosClient.obtenerTecnicos();
+            motor.reconstruir(tecnicos);
+            System.out.println("🧭 Índice de emparejamiento: " + tecnicos.size() + " técnicos, " + motor.tamano() + " candidatos"); // Log refresco
+        } catch (RuntimeException e) {
+            System.out.println("⚠️ No se pudo refrescar técnicos: " + e.getMessage()); // Sigue con el snapshot anterior
+        }
+    }
+
+    // Lista corta de técnicos para una solicitud PENDIENTE
+    public ResultadoEmparejamiento candidatos(Long idSolicitud) {
+        SolicitudRemota solicitud = solicitudesClient.obtenerSolicitud(idSolicitud)
+            .orElseThrow(() -> new RuntimeException("Solicitud no encontrada")); // Una llamada
+        if (!"PENDIENTE".equals(solicitud.estado())) {
+            throw new RuntimeException("La solicitud no está PENDIENTE: " + solicitud.estado());
+        }
+        ClienteRemoto cliente = ubicacion(solicitud.idCliente())
+            .orElseThrow(() -> new RuntimeException("El cliente no tiene ubicación registrada")); // Una llamada
+
+        List<CandidatoTecnico> lista = motor.rankear(solicitud.especialidadRequerida(), cliente.latitud(), cliente.longitud(),
+            candidatos, radioKm, cargaMaxima, System.currentTimeMillis()); // Solo memoria
+        return new ResultadoEmparejamiento(idSolicitud, solicitud.idCliente(), solicitud.especialidadRequerida(), lista);
+    }
+
+    // Verifica en ms-solicitudes y ms-usuarios que la solicitud, su cliente y el técnico existan; devuelve el cliente de la solicitud.
+    // Las búsquedas pasan por la caché y los lotes del cliente HTTP; ServicioNoDisponibleException si alguno no responde
+    public Long validarReferencias(Long idSolicitud, Long idCliente, Long idTecnico) {
+        SolicitudRemota solicitud = solicitudesClient.obtenerSolicitud(idSolicitud)
+            .orElseThrow(() -> new RuntimeException("Solicitud no encontrada"));
+        if (idCliente != null && !idCliente.equals(solicitud.idCliente())) {
+            throw new RuntimeException("El cliente " + idCliente + " no corresponde a la solicitud " + idSolicitud);
+        }
+        if (motor.especialidad(idTecnico).isEmpty() && usuariosClient.obtenerTecnico(idTecnico).isEmpty()) {
+            throw new RuntimeException("Técnico no encontrado"); // Ni en el snapshot ni en ms-usuarios
+        }
+        usuariosClient.obtenerCliente(solicitud.idCliente())
+            .orElseThrow(() -> new RuntimeException("Cliente no encontrado")); // Queda en caché para el trayecto
+        return solicitud.idCliente();
+    }
+
+    // Distancia y ETA de un técnico elegido a mano; vacío si falta alguna posición
+    public Optional<Trayecto> estimarTrayecto(Long idTecnico, Long idCliente) {
+        try {
+            return ubicacion(idCliente)
+                .flatMap(c -> motor.distanciaA(idTecnico, c.latitud(), c.longitud()))
+                .map(d -> new Trayecto(d, motor.minutosEstimados(idTecnico, d)));
+        } catch (RuntimeException e) {
+            System.out.println("⚠️ Sin trayecto para técnico " + idTecnico + ": " + e.getMessage()); // La asignación sigue
+            return Optional.empty();
+        }
+    }
+
+    // Técnicos disponibles de la especialidad con cupo (entrada del optimizador por lotes)
+    public List<OptimizadorAsignaciones.PuntoTecnico> disponibles(String especialidad) {
+        return motor.disponibles(especialidad, cargaMaxima);
+    }
+
+    // Ubicaciones de varios clientes en llamadas por lote; fuera los que no existen o no tienen ubicación
+    public Map<Long, ClienteRemoto> ubicacionesClientes(Collection<Long> idsClientes) {
+        Map<Long, ClienteRemoto> ubicaciones = new HashMap<>(usuariosClient.obtenerClientes(idsClientes));
+        ubicaciones.values().removeIf(c -> c.latitud() == null || c.longitud() == null);
+        return ubicaciones;
+    }
+
+    // Minutos de trayecto del técnico para una distancia
+    public int minutosEstimados(long idTecnico, double distanciaKm) {
+        return motor.minutosEstimados(idTecnico, distanciaKm);
+    }
+
+    // Especialidad del técnico según el último snapshot
+    public Optional<String> especialidad(Long idTecnico) {
+        return motor.especialidad(idTecnico);
+    }
+
+    // Ritmo observado que reemplaza a la velocidad configurada en los ETA
+    public void fijarRitmo(Long idTecnico, String especialidad, Double minutosTecnico, Double minutosEspecialidad) {
+        motor.fijarRitmo(idTecnico, especialidad, minutosTecnico, minutosEspecialidad);
+    }
+
+    // Distancia máxima técnico-cliente
+    public double radioKm() {
+        return radioKm;
+    }
+
+    // Registra una asignación abierta del técnico
+    public void asignado(Long idTecnico) {
+        motor.asignado(idTecnico, System.currentTimeMillis());
+    }
+
+    // Libera una asignación cerrada del técnico
+    public void liberado(Long idTecnico) {
+        motor.liberado(idTecnico);
+    }
+
+    private Optional<ClienteRemoto> ubicacion(Long idCliente) {
+        return usuariosClient.obtenerCliente(idCliente)
+            .filter(c -> c.latitud() != null && c.longitud() != null);
+    }
+
+    // Distancia técnico-cliente y tiempo estimado de llegada
+    public record Trayecto(double distanciaKm, int minutosEstimados) {
+    }
+}
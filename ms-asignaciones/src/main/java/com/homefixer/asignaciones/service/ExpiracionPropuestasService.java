@@ -0,0 +1,62 @@
+package com.homefixer.asignaciones.service;
+
+import com.homefixer.asignaciones.exception.TransicionAsignacionException; // Ya respondida
+import jakarta.annotation.PreDestroy; // Cierre del hilo
+import org.springframework.beans.factory.annotation.Value; // Para leer configuración
+import org.springframework.boot.context.event.ApplicationReadyEvent; // Arranque del tick
+import org.springframework.context.event.EventListener; // Para escuchar eventos
+import org.springframework.stereotype.Service; // Anotación servicio
+import java.util.concurrent.Executors; // Hilo propio
+import java.util.concurrent.ScheduledExecutorService; // Tick periódico
+import java.util.concurrent.TimeUnit; // Unidades
+
+// Cada tick avanza la rueda de plazos y pasa a RECHAZADA las propuestas sin respuesta, lo que re-despacha la solicitud.
+// El tick corre en su propio hilo: en el scheduler de Spring esperaría detrás del optimizador o del refresco de técnicos
+@Service // Marca como servicio Spring
+public class ExpiracionPropuestasService {
+
+    private final PlazosPropuestaService plazosService; // Rueda de plazos
+    private final AsignacionService asignacionService; // Transición condicional y re-despacho
+    private final long tickMs; // Cada cuánto se avanza la rueda
+    private final ScheduledExecutorService tick = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread hilo = new Thread(r, "expiracion-propuestas");
+        hilo.setDaemon(true); // No frena el apagado
+        return hilo;
+    });
+
+    public ExpiracionPropuestasService(PlazosPropuestaService plazosService,
+                                       AsignacionService asignacionService,
+                                       @Value("${homefixer.asignaciones.propuestas.tick-ms:1000}") long tickMs) {
+        this.plazosService = plazosService;
+        this.asignacionService = asignacionService;
+        this.tickMs = tickMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        tick.scheduleWithFixedDelay(this::vencer, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        tick.shutdownNow();
+    }
+
+    public void vencer() {
+        long[] vencidas = plazosService.vencidas();
+        int expiradas = 0;
+        for (long idAsignacion : vencidas) {
+            try {
+                asignacionService.expirarPropuesta(idAsignacion, "Sin respuesta en " + plazosService.plazoMinutos() + " minutos");
+                expiradas++;
+            } catch (TransicionAsignacionException e) {
+                // El técnico respondió justo antes del plazo: el UPDATE condicional no tocó nada
+            } catch (RuntimeException e) {
+                System.out.println("⚠️ No se pudo expirar la asignación " + idAsignacion + ": " + e.getMessage()); // Sigue con las demás
+            }
+        }
+        if (expiradas > 0) {
+            System.out.println("⏰ " + expiradas + " propuestas vencidas pasaron a RECHAZADA"); // Log expiración
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.homefixer.asignaciones.service;
+
+import java.util.concurrent.atomic.AtomicLong; // Total de muestras
+import java.util.concurrent.atomic.AtomicLongArray; // Conteos sin candados
+
+// Histograma log-lineal al estilo HDR: los valores menores a 2^bits tienen cubeta propia y de ahí en adelante
+// cada potencia de dos se parte en 2^(bits-1) cubetas, así el error relativo queda acotado por 2^-(bits-1)
+// con memoria fija. Registrar es un incremento atómico; los percentiles recorren las cubetas, no las muestras.
+public class HistogramaTiempos {
+
+    private final int bits; // Bits de precisión
+    private final int subCubetas; // 2^bits
+    private final int mitad; // 2^(bits-1): cubetas por potencia de dos
+    private final long valorMaximo; // Lo que supere esto cuenta como el máximo
+    private final AtomicLongArray cuentas; // Muestras por cubeta
+    private final AtomicLong total = new AtomicLong(); // Muestras registradas
+
+    public HistogramaTiempos(int bits, long valorMaximo) {
+        if (bits < 2 || bits > 16 || valorMaximo < 1) {
+            throw new IllegalArgumentException("Precisión o máximo inválidos"); // Configuración inválida
+        }
+        this.bits = bits;
+        this.subCubetas = 1 << bits;
+        this.mitad = subCubetas >> 1;
+        this.valorMaximo = valorMaximo;
+        this.cuentas = new AtomicLongArray(indice(valorMaximo) + 1);
+    }
+
+    // Suma una muestra; negativos cuentan como 0
+    public void registrar(long valor) {
+        cuentas.incrementAndGet(indice(Math.min(Math.max(valor, 0L), valorMaximo)));
+        total.incrementAndGet();
+    }
+
+    // Muestras registradas
+    public long total() {
+        return total.get();
+    }
+
+    // Valor bajo el que cae el p por ciento de las muestras (p en 0..100); -1 si está vacío
+    public long percentil(double p) {
+        long muestras = total.get();
+        if (muestras == 0) {
+            return -1L;
+        }
+        long objetivo = Math.max(1L, (long) Math.ceil(Math.min(100.0, Math.max(0.0, p)) / 100.0 * muestras));
+        long acumulado = 0;
+        int ultima = 0;
+        for (int i = 0; i < cuentas.length(); i++) {
+            long cuenta = cuentas.get(i);
+            if (cuenta == 0) {
+                continue;
+            }
+            ultima = i;
+            acumulado += cuenta;
+            if (acumulado >= objetivo) {
+                return representante(i);
+            }
+        }
+        return representante(ultima); // Registros concurrentes entre leer el total y las cubetas
+    }
+
+    // Cubetas reservadas (memoria fija del histograma)
+    public int cubetas() {
+        return cuentas.length();
+    }
+
+    // Cubeta de un valor ya acotado a 0..valorMaximo
+    private int indice(long valor) {
+        if (valor < subCubetas) {
+            return (int) valor; // Exacto
+        }
+        int desplazamiento = 63 - Long.numberOfLeadingZeros(valor) - (bits - 1); // >= 1
+        return subCubetas + (desplazamiento - 1) * mitad + (int) ((valor >>> desplazamiento) - mitad);
+    }
+
+    // Punto medio de la cubeta
+    private long representante(int indice) {
+        if (indice < subCubetas) {
+            return indice;
+        }
+        int resto = indice - subCubetas;
+        int desplazamiento = resto / mitad + 1;
+        long inferior = (long) (resto % mitad + mitad) << desplazamiento;
+        return Math.min(valorMaximo, inferior + ((1L << desplazamiento) - 1) / 2);
+    }
+}
@@ -0,0 +1,167 @@
+package com.homefixer.asignaciones.service;
+
+import com.fasterxml.jackson.core.JsonGenerator; // Opciones del generador
+import com.fasterxml.jackson.databind.ObjectMapper; // Serializador JSON de Spring
+import com.fasterxml.jackson.databind.SequenceWriter; // Escritura de muchos valores seguidos
+import com.fasterxml.jackson.databind.SerializationFeature; // Opciones de serialización
+import com.homefixer.asignaciones.dto.AsignacionResumen; // Fila del historial
+import com.homefixer.asignaciones.dto.FiltroHistorial; // Filtros del historial
+import com.homefixer.asignaciones.model.Asignacion; // Importa entidad
+import org.springframework.beans.factory.annotation.Value; // Para leer configuración
+import org.springframework.jdbc.core.JdbcTemplate; // Acceso JDBC directo
+import org.springframework.jdbc.core.RowCallbackHandler; // Procesa fila por fila
+import org.springframework.stereotype.Service; // Anotación servicio
+import javax.sql.DataSource; // Pool de conexiones
+import java.io.IOException; // Errores de escritura
+import java.io.OutputStream; // Salida de la respuesta
+import java.io.UncheckedIOException; // Para propagar desde el callback
+import java.sql.ResultSet; // Fila actual
+import java.sql.SQLException; // Errores JDBC
+import java.sql.Timestamp; // Fechas JDBC
+import java.time.LocalDateTime; // Para fechas
+import java.time.format.DateTimeParseException; // Cursor mal formado
+import java.util.ArrayList; // Para listas mutables
+import java.util.List; // Para listas
+import java.util.function.Consumer; // Recibe cada fila
+
+// Historial de asignaciones COMPLETADA del más reciente al más antiguo, con cursor (fecha_fin_servicio, id_asignacion):
+// cada página es un rango sobre idx_asignaciones_historial* y nunca ordena la tabla; la exportación recorre el mismo
+// rango con un cursor JDBC de solo avance
+@Service // Marca como servicio Spring
+public class HistorialAsignacionesService {
+
+    private static final String COLUMNAS = "id_asignacion, id_solicitud, id_tecnico, id_cliente, estado, fecha_asignacion, "
+        + "fecha_aceptacion, fecha_inicio_servicio, fecha_fin_servicio, distancia_km, tiempo_estimado_minutos, costo_final, version"; // Columnas del resumen
+    private static final String SEPARADOR_CURSOR = "_"; // fecha_id
+
+    private final JdbcTemplate jdbcTemplate; // Páginas
+    private final JdbcTemplate jdbcStreaming; // JdbcTemplate con fetch size de streaming
+    private final ObjectMapper objectMapper; // Mismo formato JSON que la API
+
+    public HistorialAsignacionesService(JdbcTemplate jdbcTemplate, DataSource dataSource, ObjectMapper objectMapper,
+                                        @Value("${homefixer.asignaciones.historial.fetch-size:-2147483648}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jdbcStreaming = new JdbcTemplate(dataSource);
+        this.jdbcStreaming.setFetchSize(fetchSize); // MySQL con Integer.MIN_VALUE: filas de a una, cursor forward-only
+        this.objectMapper = objectMapper;
+    }
+
+    // Una página del historial; cursor null = desde la más reciente
+    public List<AsignacionResumen> pagina(FiltroHistorial filtro, String cursor, int limite) {
+        List<Object> parametros = new ArrayList<>();
+        StringBuilder sql = consulta(filtro, parametros);
+        if (cursor != null && !cursor.isBlank()) {
+            Cursor desde = leerCursor(cursor);
+            sql.append(" AND (fecha_fin_servicio < ? OR (fecha_fin_servicio = ? AND id_asignacion < ?))"); // Después del cursor
+            parametros.add(Timestamp.valueOf(desde.fecha()));
+            parametros.add(Timestamp.valueOf(desde.fecha()));
+            parametros.add(desde.idAsignacion());
+        }
+        sql.append(" ORDER BY fecha_fin_servicio DESC, id_asignacion DESC LIMIT ?"); // Mismo orden que el índice
+        parametros.add(limite);
+        return jdbcTemplate.query(sql.toString(), (rs, n) -> mapear(rs), parametros.toArray());
+    }
+
+    // Cursor que continúa después de esta fila
+    public static String cursor(AsignacionResumen ultima) {
+        return ultima.fechaFinServicio() + SEPARADOR_CURSOR + ultima.idAsignacion();
+    }
+
+    // Escribe el historial completo del filtro, una asignación JSON por línea (NDJSON)
+    public long exportarNdjson(FiltroHistorial filtro, OutputStream salida) throws IOException {
+        System.out.println("📤 Exportando historial con filtro: " + filtro); // Log inicio
+        long[] filas = {0}; // Contador mutable para la lambda
+
+        try (SequenceWriter escritor = objectMapper.writerFor(AsignacionResumen.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE) // El buffer decide cuándo vaciar
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET) // La respuesta la cierra Spring
+                .withRootValueSeparator("\n") // Una asignación por línea
+                .writeValues(salida)) {
+            recorrer(filtro, fila -> {
+                try {
+                    escritor.write(fila); // Serializa y descarta la fila
+                    filas[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e); // Cliente desconectado
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause(); // Error de escritura original
+        }
+        if (filas[0] > 0) {
+            salida.write('\n'); // Última línea terminada; sin filas el cuerpo queda vacío
+        }
+        salida.flush(); // Envía lo que quede
+
+        System.out.println("✅ Exportación terminada: " + filas[0] + " asignaciones"); // Log resultado
+        return filas[0];
+    }
+
+    // Recorre todas las filas del filtro en el orden del historial, una a la vez
+    public void recorrer(FiltroHistorial filtro, Consumer<AsignacionResumen> consumidor) {
+        List<Object> parametros = new ArrayList<>();
+        StringBuilder sql = consulta(filtro, parametros).append(" ORDER BY fecha_fin_servicio DESC, id_asignacion DESC");
+        RowCallbackHandler porFila = rs -> consumidor.accept(mapear(rs)); // Nunca se acumulan filas
+        jdbcStreaming.query(sql.toString(), porFila, parametros.toArray());
+    }
+
+    // SELECT con los filtros; técnico o cliente al frente aprovechan su índice, sin ellos el de (estado, fecha, id)
+    private StringBuilder consulta(FiltroHistorial filtro, List<Object> parametros) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNAS)
+            .append(" FROM asignaciones WHERE estado = ? AND fecha_fin_servicio IS NOT NULL");
+        parametros.add(Asignacion.EstadoAsignacion.COMPLETADA.name());
+        if (filtro.idTecnico() != null) {
+            sql.append(" AND id_tecnico = ?");
+            parametros.add(filtro.idTecnico());
+        }
+        if (filtro.idCliente() != null) {
+            sql.append(" AND id_cliente = ?");
+            parametros.add(filtro.idCliente());
+        }
+        if (filtro.desde() != null) {
+            sql.append(" AND fecha_fin_servicio >= ?");
+            parametros.add(Timestamp.valueOf(filtro.desde()));
+        }
+        if (filtro.hasta() != null) {
+            sql.append(" AND fecha_fin_servicio < ?");
+            parametros.add(Timestamp.valueOf(filtro.hasta()));
+        }
+        return sql;
+    }
+
+    // "2025-03-01T10:15:30.123_42" -> (fecha, id)
+    private static Cursor leerCursor(String cursor) {
+        int corte = cursor.lastIndexOf(SEPARADOR_CURSOR);
+        try {
+            return new Cursor(LocalDateTime.parse(cursor.substring(0, corte)), Long.parseLong(cursor.substring(corte + 1)));
+        } catch (DateTimeParseException | NumberFormatException | StringIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor);
+        }
+    }
+
+    // Convierte la fila actual en AsignacionResumen
+    private static AsignacionResumen mapear(ResultSet rs) throws SQLException {
+        return new AsignacionResumen(
+            rs.getLong("id_asignacion"),
+            rs.getLong("id_solicitud"),
+            rs.getLong("id_tecnico"),
+            rs.getLong("id_cliente"),
+            Asignacion.EstadoAsignacion.valueOf(rs.getString("estado")),
+            fecha(rs.getTimestamp("fecha_asignacion")),
+            fecha(rs.getTimestamp("fecha_aceptacion")),
+            fecha(rs.getTimestamp("fecha_inicio_servicio")),
+            fecha(rs.getTimestamp("fecha_fin_servicio")),
+            rs.getBigDecimal("distancia_km"),
+            (Integer) rs.getObject("tiempo_estimado_minutos", Integer.class),
+            rs.getBigDecimal("costo_final"),
+            rs.getLong("version"));
+    }
+
+    private static LocalDateTime fecha(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+    // Posición después de la última fila entregada
+    private record Cursor(LocalDateTime fecha, long idAsignacion) {
+    }
+}
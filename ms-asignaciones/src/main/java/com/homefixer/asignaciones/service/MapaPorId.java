@@ -0,0 +1,119 @@
+package com.homefixer.asignaciones.service;
+
+import java.util.Arrays; // Para rellenar arreglos
+
+// Mapa de id long (> 0) a valor con direccionamiento abierto: claves en un long[] sin cajas Long ni nodos de entrada,
+// sondeo lineal y borrado por desplazamiento hacia atrás (sin lápidas). No es seguro entre hilos: quien lo usa sincroniza.
+public class MapaPorId<V> {
+
+    private static final long VACIA = 0L; // Los ids de la BD empiezan en 1
+    private static final float CARGA_MAXIMA = 0.6f; // Ocupación antes de duplicar
+
+    private long[] claves;
+    private Object[] valores;
+    private int mascara; // capacidad - 1 (potencia de 2)
+    private int tamano;
+
+    public MapaPorId(int capacidadInicial) {
+        int capacidad = Integer.highestOneBit(Math.max(4, (int) (capacidadInicial / CARGA_MAXIMA)) - 1) << 1;
+        claves = new long[capacidad];
+        valores = new Object[capacidad];
+        mascara = capacidad - 1;
+    }
+
+    // Valor del id o null
+    @SuppressWarnings("unchecked")
+    public V obtener(long clave) {
+        for (int i = indice(clave); ; i = (i + 1) & mascara) {
+            if (claves[i] == clave) {
+                return (V) valores[i];
+            }
+            if (claves[i] == VACIA) {
+                return null;
+            }
+        }
+    }
+
+    // Pone o reemplaza; devuelve el valor anterior o null
+    @SuppressWarnings("unchecked")
+    public V poner(long clave, V valor) {
+        if (clave == VACIA) {
+            throw new IllegalArgumentException("El id 0 no es válido");
+        }
+        int i = indice(clave);
+        for (; claves[i] != VACIA; i = (i + 1) & mascara) {
+            if (claves[i] == clave) {
+                V anterior = (V) valores[i];
+                valores[i] = valor;
+                return anterior;
+            }
+        }
+        claves[i] = clave;
+        valores[i] = valor;
+        if (++tamano > CARGA_MAXIMA * claves.length) {
+            crecer();
+        }
+        return null;
+    }
+
+    // Quita el id; devuelve el valor que tenía o null
+    @SuppressWarnings("unchecked")
+    public V quitar(long clave) {
+        int i = indice(clave);
+        while (claves[i] != clave) {
+            if (claves[i] == VACIA) {
+                return null;
+            }
+            i = (i + 1) & mascara;
+        }
+        V anterior = (V) valores[i];
+        tamano--;
+        // Corre hacia atrás las claves siguientes del grupo que quedarían inalcanzables con el hueco
+        int hueco = i;
+        for (int j = (i + 1) & mascara; claves[j] != VACIA; j = (j + 1) & mascara) {
+            int ideal = indice(claves[j]);
+            if (((j - ideal) & mascara) >= ((j - hueco) & mascara)) { // Su celda ideal está en o antes del hueco
+                claves[hueco] = claves[j];
+                valores[hueco] = valores[j];
+                hueco = j;
+            }
+        }
+        claves[hueco] = VACIA;
+        valores[hueco] = null;
+        return anterior;
+    }
+
+    public int tamano() {
+        return tamano;
+    }
+
+    public void limpiar() {
+        Arrays.fill(claves, VACIA);
+        Arrays.fill(valores, null);
+        tamano = 0;
+    }
+
+    private void crecer() {
+        long[] viejasClaves = claves;
+        Object[] viejosValores = valores;
+        claves = new long[viejasClaves.length * 2];
+        valores = new Object[viejasClaves.length * 2];
+        mascara = claves.length - 1;
+        for (int k = 0; k < viejasClaves.length; k++) {
+            if (viejasClaves[k] != VACIA) {
+                int i = indice(viejasClaves[k]);
+                while (claves[i] != VACIA) {
+                    i = (i + 1) & mascara;
+                }
+                claves[i] = viejasClaves[k];
+                valores[i] = viejosValores[k];
+            }
+        }
+    }
+
+    // Mezcla los bits del id (los ids consecutivos no deben caer en celdas vecinas)
+    private int indice(long clave) {
+        long h = clave * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mascara;
+    }
+}
@@ -0,0 +1,256 @@
+package com.homefixer.asignaciones.service;
+
+import com.homefixer.asignaciones.dto.CandidatoTecnico; // Resultado del ranking
+import com.homefixer.asignaciones.dto.TecnicoRemoto; // Técnico de ms-usuarios
+import java.text.Normalizer; // Para quitar tildes
+import java.util.ArrayList; // Para listas mutables
+import java.util.Collection; // Para colecciones
+import java.util.Comparator; // Para ordenar
+import java.util.HashMap; // Mapas del índice (inmutables una vez publicados)
+import java.util.List; // Para listas
+import java.util.Locale; // Para minúsculas
+import java.util.Map; // Para mapas
+import java.util.Optional; // Para opcionales
+import java.util.PriorityQueue; // Heap de los k mejores
+import java.util.concurrent.ConcurrentHashMap; // Mapa concurrente
+
+// Motor de emparejamiento en memoria: índice precalculado de técnicos DISPONIBLES por especialidad y celda
+// geográfica, más la carga viva de cada técnico. Rankear una solicitud recorre solo las celdas dentro del radio.
+public class MotorEmparejamiento {
+
+    private static final double KM_POR_GRADO = 111.32; // Kilómetros por grado de latitud
+    private static final double RADIO_TIERRA_KM = 6371.0; // Radio medio de la Tierra
+    private static final double CALIFICACION_MAXIMA = 5.0; // Escala de calificaciones
+    private static final double CALIFICACION_SIN_DATO = 3.0; // Técnico sin calificación
+
+    // Orden del heap: el peor candidato arriba (menor puntaje, y a igual puntaje el id mayor)
+    private static final Comparator<CandidatoTecnico> PEOR_PRIMERO = Comparator
+        .comparingDouble(CandidatoTecnico::puntaje)
+        .thenComparing(CandidatoTecnico::idTecnico, Comparator.reverseOrder());
+
+    private final double celdaGrados; // Lado de cada celda en grados
+    private final Parametros parametros; // Pesos y constantes del puntaje
+    private final Map<Long, Carga> cargas = new ConcurrentHashMap<>(); // idTecnico -> asignaciones abiertas
+    private final Map<Long, Double> ritmoPorTecnico = new ConcurrentHashMap<>(); // idTecnico -> minutos por km observados
+    private final Map<String, Double> ritmoPorEspecialidad = new ConcurrentHashMap<>(); // especialidad -> minutos por km observados
+    private volatile Indice indice = new Indice(Map.of(), Map.of()); // Se reemplaza completo en cada refresco
+
+    public MotorEmparejamiento(double celdaGrados, Parametros parametros) {
+        if (celdaGrados <= 0) {
+            throw new IllegalArgumentException("El tamaño de celda debe ser positivo"); // Configuración inválida
+        }
+        this.celdaGrados = celdaGrados;
+        this.parametros = parametros;
+    }
+
+    // Reconstruye el índice desde un snapshot de técnicos y lo publica de una vez
+    public void reconstruir(Collection<TecnicoRemoto> tecnicos) {
+        Map<String, Map<Long, List<Tecnico>>> porEspecialidad = new HashMap<>();
+        Map<Long, Tecnico> porId = new HashMap<>();
+        for (TecnicoRemoto t : tecnicos) {
+            if (t.idTecnico() == null || t.latitud() == null || t.longitud() == null || clave(t.especialidad()) == null) {
+                continue; // Sin posición o sin especialidad no se puede emparejar
+            }
+            double calificacion = t.calificacionPromedio() != null ? t.calificacionPromedio() : CALIFICACION_SIN_DATO;
+            Tecnico tecnico = new Tecnico(t.idTecnico(), clave(t.especialidad()), t.latitud(), t.longitud(), calificacion / CALIFICACION_MAXIMA);
+            porId.put(tecnico.idTecnico, tecnico); // Posición de todos (para estimar trayectos)
+            if (!"DISPONIBLE".equals(t.estado())) {
+                continue; // Solo los disponibles son candidatos
+            }
+            porEspecialidad
+                .computeIfAbsent(clave(t.especialidad()), e -> new HashMap<>())
+                .computeIfAbsent(claveCelda(indiceCelda(t.latitud()), indiceCelda(t.longitud())), c -> new ArrayList<>())
+                .add(tecnico);
+        }
+
+        Map<String, Map<Long, Tecnico[]>> celdas = new HashMap<>();
+        porEspecialidad.forEach((especialidad, grilla) -> {
+            Map<Long, Tecnico[]> compacta = new HashMap<>();
+            grilla.forEach((celda, lista) -> compacta.put(celda, lista.toArray(Tecnico[]::new))); // Arreglos: recorrido sin iteradores
+            celdas.put(especialidad, compacta);
+        });
+        indice = new Indice(celdas, porId); // Publicación atómica
+    }
+
+    // Técnicos disponibles en el índice
+    public int tamano() {
+        return indice.celdasPorEspecialidad.values().stream()
+            .flatMap(grilla -> grilla.values().stream())
+            .mapToInt(celda -> celda.length)
+            .sum();
+    }
+
+    // Carga inicial desde la tabla de asignaciones
+    public void registrarCarga(long idTecnico, int activas, long ultimaAsignacionMs) {
+        cargas.put(idTecnico, new Carga(activas, ultimaAsignacionMs));
+    }
+
+    // Nueva asignación abierta para el técnico
+    public void asignado(long idTecnico, long ahoraMs) {
+        cargas.merge(idTecnico, new Carga(1, ahoraMs), (actual, nueva) -> new Carga(actual.activas + 1, ahoraMs));
+    }
+
+    // Una asignación del técnico se cerró (rechazada, completada o cancelada)
+    public void liberado(long idTecnico) {
+        cargas.computeIfPresent(idTecnico, (id, actual) -> new Carga(Math.max(0, actual.activas - 1), actual.ultimaAsignacionMs));
+    }
+
+    // Asignaciones abiertas del técnico
+    public int cargaActiva(long idTecnico) {
+        Carga carga = cargas.get(idTecnico);
+        return carga == null ? 0 : carga.activas;
+    }
+
+    // Distancia del técnico al punto según su última posición conocida
+    public Optional<Double> distanciaA(long idTecnico, double latitud, double longitud) {
+        Tecnico tecnico = indice.porId.get(idTecnico);
+        return tecnico == null ? Optional.empty() : Optional.of(distanciaKm(latitud, longitud, tecnico.latitud, tecnico.longitud));
+    }
+
+    // Técnicos disponibles de la especialidad bajo la carga máxima (entrada del optimizador por lotes)
+    public List<OptimizadorAsignaciones.PuntoTecnico> disponibles(String especialidad, int cargaMaxima) {
+        Map<Long, Tecnico[]> grilla = indice.celdasPorEspecialidad.get(clave(especialidad));
+        if (grilla == null) {
+            return List.of(); // Nadie de esa especialidad
+        }
+        List<OptimizadorAsignaciones.PuntoTecnico> resultado = new ArrayList<>();
+        for (Tecnico[] celda : grilla.values()) {
+            for (Tecnico tecnico : celda) {
+                if (cargaActiva(tecnico.idTecnico) < cargaMaxima) {
+                    resultado.add(new OptimizadorAsignaciones.PuntoTecnico(tecnico.idTecnico, tecnico.latitud, tecnico.longitud));
+                }
+            }
+        }
+        return resultado;
+    }
+
+    // Especialidad normalizada del técnico según el último snapshot
+    public Optional<String> especialidad(long idTecnico) {
+        Tecnico tecnico = indice.porId.get(idTecnico);
+        return tecnico == null ? Optional.empty() : Optional.of(tecnico.especialidad);
+    }
+
+    // Mediana de minutos por km observada para el técnico y su especialidad; null deja la anterior
+    public void fijarRitmo(long idTecnico, String especialidad, Double minutosTecnico, Double minutosEspecialidad) {
+        if (minutosTecnico != null) {
+            ritmoPorTecnico.put(idTecnico, minutosTecnico);
+        }
+        if (minutosEspecialidad != null && clave(especialidad) != null) {
+            ritmoPorEspecialidad.put(clave(especialidad), minutosEspecialidad);
+        }
+    }
+
+    // Minutos de trayecto del técnico: su ritmo observado, el de su especialidad o la velocidad configurada
+    public int minutosEstimados(long idTecnico, double distanciaKm) {
+        Double ritmo = ritmoPorTecnico.get(idTecnico);
+        if (ritmo == null) {
+            Tecnico tecnico = indice.porId.get(idTecnico);
+            ritmo = tecnico == null ? null : ritmoPorEspecialidad.get(tecnico.especialidad);
+        }
+        return (int) Math.ceil(distanciaKm * (ritmo != null ? ritmo : 60.0 / parametros.velocidadKmh));
+    }
+
+    // Los k mejores técnicos de la especialidad dentro del radio y bajo la carga máxima, del mejor al peor
+    public List<CandidatoTecnico> rankear(String especialidad, double latitud, double longitud,
+                                         int k, double radioKm, int cargaMaxima, long ahoraMs) {
+        Map<Long, Tecnico[]> grilla = indice.celdasPorEspecialidad.get(clave(especialidad)); // Ajuste de especialidad: filtro exacto
+        if (grilla == null || k <= 0 || radioKm <= 0 || cargaMaxima <= 0) {
+            return List.of(); // Nadie de esa especialidad
+        }
+
+        // Rectángulo de celdas que cubre el círculo (las celdas se angostan hacia los polos)
+        double dLat = radioKm / KM_POR_GRADO;
+        double latExtrema = Math.min(89.9, Math.abs(latitud) + dLat);
+        double dLon = radioKm / (KM_POR_GRADO * Math.cos(Math.toRadians(latExtrema)));
+        int filaMin = indiceCelda(latitud - dLat), filaMax = indiceCelda(latitud + dLat);
+        int columnaMin = indiceCelda(longitud - dLon), columnaMax = indiceCelda(longitud + dLon);
+
+        PriorityQueue<CandidatoTecnico> mejores = new PriorityQueue<>(k + 1, PEOR_PRIMERO); // Min-heap por puntaje
+        for (int fila = filaMin; fila <= filaMax; fila++) {
+            for (int columna = columnaMin; columna <= columnaMax; columna++) {
+                Tecnico[] celda = grilla.get(claveCelda(fila, columna));
+                if (celda == null) {
+                    continue; // Celda sin técnicos
+                }
+                for (Tecnico tecnico : celda) {
+                    double distancia = distanciaKm(latitud, longitud, tecnico.latitud, tecnico.longitud);
+                    if (distancia > radioKm) {
+                        continue; // Fuera del radio
+                    }
+                    Carga carga = cargas.get(tecnico.idTecnico);
+                    int activas = carga == null ? 0 : carga.activas;
+                    if (activas >= cargaMaxima) {
+                        continue; // Ya tiene demasiado trabajo
+                    }
+                    double puntaje = puntaje(distancia / radioKm, tecnico.calificacion, (double) activas / cargaMaxima,
+                        carga == null ? 0L : carga.ultimaAsignacionMs, ahoraMs);
+                    CandidatoTecnico candidato = new CandidatoTecnico(tecnico.idTecnico, puntaje, distancia,
+                        tecnico.calificacion * CALIFICACION_MAXIMA, activas, minutosEstimados(tecnico.idTecnico, distancia));
+                    if (mejores.size() < k) {
+                        mejores.add(candidato);
+                    } else if (PEOR_PRIMERO.compare(candidato, mejores.peek()) > 0) {
+                        mejores.poll(); // Sale el peor
+                        mejores.add(candidato);
+                    }
+                }
+            }
+        }
+
+        List<CandidatoTecnico> resultado = new ArrayList<>(mejores); // Vacía el heap
+        resultado.sort(PEOR_PRIMERO.reversed()); // Mejor primero
+        return resultado;
+    }
+
+    // Suma ponderada de factores en 0..1: cerca, bien calificado, con poca carga y sin trabajo reciente
+    private double puntaje(double distanciaRelativa, double calificacion, double cargaRelativa, long ultimaAsignacionMs, long ahoraMs) {
+        double equidad = ultimaAsignacionMs == 0L ? 1.0
+            : Math.min(1.0, Math.max(0L, ahoraMs - ultimaAsignacionMs) / (parametros.horasEquidad * 3_600_000.0)); // Horas sin asignación
+        return parametros.pesoDistancia * (1.0 - distanciaRelativa)
+            + parametros.pesoCalificacion * calificacion
+            + parametros.pesoCarga * (1.0 - cargaRelativa)
+            + parametros.pesoEquidad * equidad;
+    }
+
+    // Distancia en km entre dos puntos (fórmula de haversine)
+    public static double distanciaKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * RADIO_TIERRA_KM * Math.asin(Math.sqrt(a));
+    }
+
+    // Sin tildes, minúsculas y espacios simples (misma forma que el catálogo de los otros servicios)
+    static String clave(String especialidad) {
+        if (especialidad == null || especialidad.isBlank()) {
+            return null;
+        }
+        String sinTildes = Normalizer.normalize(especialidad.trim(), Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return sinTildes.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    private int indiceCelda(double grados) {
+        return (int) Math.floor(grados / celdaGrados);
+    }
+
+    private static long claveCelda(int fila, int columna) {
+        return ((long) fila << 32) | (columna & 0xffffffffL); // Fila y columna empaquetadas en un long
+    }
+
+    // Pesos del puntaje (deberían sumar 1) y constantes
+    public record Parametros(double pesoDistancia, double pesoCalificacion, double pesoCarga, double pesoEquidad,
+                             double horasEquidad, double velocidadKmh) {
+    }
+
+    // Técnico dentro del índice; calificación ya normalizada a 0..1
+    private record Tecnico(long idTecnico, String especialidad, double latitud, double longitud, double calificacion) {
+    }
+
+    // Asignaciones abiertas y momento de la última
+    private record Carga(int activas, long ultimaAsignacionMs) {
+    }
+
+    // Snapshot inmutable: especialidad -> celda -> técnicos disponibles, e id -> técnico
+    private record Indice(Map<String, Map<Long, Tecnico[]>> celdasPorEspecialidad, Map<Long, Tecnico> porId) {
+    }
+}
@@ -0,0 +1,254 @@
+package com.homefixer.asignaciones.service;
+
+import com.homefixer.asignaciones.client.SolicitudesClient; // Solicitudes PENDIENTE
+import com.homefixer.asignaciones.dto.ClienteRemoto; // Ubicación del cliente
+import com.homefixer.asignaciones.dto.ResultadoLote; // Resumen de la corrida
+import com.homefixer.asignaciones.dto.SolicitudRemota; // Solicitud pendiente
+import com.homefixer.asignaciones.exception.ConflictoAsignacionException; // Técnico o solicitud ya tomados
+import com.homefixer.asignaciones.model.Asignacion; // Importa entidad
+import com.homefixer.asignaciones.repository.AsignacionRepository; // Importa repositorio
+import jakarta.annotation.PreDestroy; // Cierre del pool
+import org.springframework.beans.factory.annotation.Value; // Para leer configuración
+import org.springframework.dao.DataIntegrityViolationException; // Respaldo único en BD
+import org.springframework.jdbc.core.JdbcTemplate; // INSERT por lotes
+import org.springframework.scheduling.annotation.Scheduled; // Corrida periódica
+import org.springframework.stereotype.Service; // Anotación servicio
+import org.springframework.transaction.PlatformTransactionManager; // Para transacciones propias
+import org.springframework.transaction.support.TransactionTemplate; // Todo el lote o nada
+import java.math.BigDecimal; // Para decimales
+import java.math.RoundingMode; // Redondeo de distancias
+import java.sql.Timestamp; // Fecha para JDBC
+import java.time.LocalDateTime; // Para fechas
+import java.util.ArrayList; // Para listas mutables
+import java.util.HashSet; // Para conjuntos
+import java.util.LinkedHashMap; // Grupos en orden
+import java.util.List; // Para listas
+import java.util.Map; // Para mapas
+import java.util.Set; // Para conjuntos
+import java.util.concurrent.Callable; // Tarea por especialidad
+import java.util.concurrent.ExecutionException; // Falla de una tarea
+import java.util.concurrent.ForkJoinPool; // Una tarea por especialidad
+import java.util.concurrent.Future; // Resultado de una tarea
+import java.util.concurrent.atomic.AtomicBoolean; // Una corrida a la vez
+
+// Optimizador por lotes: toma todas las solicitudes PENDIENTE sin asignación y los técnicos disponibles, resuelve
+// una asignación de costo mínimo por especialidad (en paralelo) e inserta las propuestas en un solo lote
+@Service // Marca como servicio Spring
+public class OptimizacionLoteService {
+
+    private static final int TAMANO_CONSULTA = 1000; // Ids por IN (...)
+    private static final String INSERT = "INSERT INTO asignaciones (id_solicitud, id_tecnico, id_cliente, estado, fecha_asignacion, "
+        + "distancia_km, tiempo_estimado_minutos, id_tecnico_activo, cupo_activo, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private final AsignacionRepository asignacionRepository; // Filtra solicitudes ya asignadas
+    private final SolicitudesClient solicitudesClient; // Solicitudes PENDIENTE
+    private final EmparejamientoService emparejamientoService; // Técnicos disponibles y ubicaciones
+    private final ReservaTecnicosService reservaService; // Cupos de técnicos y solicitudes activas
+    private final CargaTecnicosService cargaService; // Asignaciones abiertas por técnico
+    private final PlazosPropuestaService plazosService; // Plazo de aceptación de cada propuesta
+    private final JdbcTemplate jdbcTemplate; // INSERT por lotes
+    private final TransactionTemplate transaccion; // Todo el lote o nada
+    private final OptimizadorAsignaciones optimizador; // Húngaro o heurística
+    private final ForkJoinPool pool; // Especialidades en paralelo
+    private final AtomicBoolean enCurso = new AtomicBoolean(); // Evita corridas superpuestas
+
+    @Value("${homefixer.asignaciones.optimizador.habilitado:true}")
+    private boolean habilitado; // Corrida periódica activa
+
+    public OptimizacionLoteService(AsignacionRepository asignacionRepository,
+                                   SolicitudesClient solicitudesClient,
+                                   EmparejamientoService emparejamientoService,
+                                   ReservaTecnicosService reservaService,
+                                   CargaTecnicosService cargaService,
+                                   PlazosPropuestaService plazosService,
+                                   JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${homefixer.asignaciones.optimizador.presupuesto-exacto:1000000000}") long presupuestoExacto,
+                                   @Value("${homefixer.asignaciones.optimizador.vecinos:10}") int vecinos,
+                                   @Value("${homefixer.asignaciones.optimizador.paralelismo:4}") int paralelismo,
+                                   @Value("${homefixer.asignaciones.emparejamiento.celda-grados:0.05}") double celdaGrados) {
+        this.asignacionRepository = asignacionRepository;
+        this.solicitudesClient = solicitudesClient;
+        this.emparejamientoService = emparejamientoService;
+        this.reservaService = reservaService;
+        this.cargaService = cargaService;
+        this.plazosService = plazosService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.optimizador = new OptimizadorAsignaciones(emparejamientoService.radioKm(), presupuestoExacto, vecinos, celdaGrados);
+        this.pool = new ForkJoinPool(paralelismo);
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        pool.shutdown(); // Sin corridas nuevas
+    }
+
+    // Corrida periódica
+    @Scheduled(fixedDelayString = "${homefixer.asignaciones.optimizador.intervalo-ms:60000}",
+               initialDelayString = "${homefixer.asignaciones.optimizador.intervalo-ms:60000}")
+    public void optimizarProgramado() {
+        if (!habilitado) {
+            return; // Desactivado por configuración
+        }
+        try {
+            optimizar();
+        } catch (RuntimeException e) {
+            System.out.println("⚠️ Optimización por lotes fallida: " + e.getMessage()); // Se reintenta en la próxima corrida
+        }
+    }
+
+    // Asigna en lote todas las solicitudes PENDIENTE que se puedan
+    public ResultadoLote optimizar() {
+        if (!enCurso.compareAndSet(false, true)) {
+            throw new RuntimeException("Ya hay una optimización en curso");
+        }
+        try {
+            return ejecutar();
+        } finally {
+            enCurso.set(false);
+        }
+    }
+
+    private ResultadoLote ejecutar() {
+        long inicio = System.currentTimeMillis();
+        List<SolicitudRemota> pendientes = sinAsignacion(solicitudesClient.listarPendientes());
+
+        Map<String, List<SolicitudRemota>> porEspecialidad = new LinkedHashMap<>();
+        for (SolicitudRemota s : pendientes) {
+            String clave = MotorEmparejamiento.clave(s.especialidadRequerida());
+            if (clave != null) {
+                porEspecialidad.computeIfAbsent(clave, e -> new ArrayList<>()).add(s);
+            }
+        }
+
+        Set<Long> idsClientes = new HashSet<>();
+        porEspecialidad.values().forEach(l -> l.forEach(s -> idsClientes.add(s.idCliente()))); // Un cliente puede tener varias solicitudes
+        Map<Long, ClienteRemoto> ubicaciones = emparejamientoService.ubicacionesClientes(idsClientes); // Llamadas por lote, no una por cliente
+        List<Callable<Grupo>> tareas = new ArrayList<>();
+        porEspecialidad.forEach((especialidad, solicitudes) -> tareas.add(() -> resolver(especialidad, solicitudes, ubicaciones)));
+
+        List<Grupo> grupos = new ArrayList<>();
+        for (Future<Grupo> futuro : pool.invokeAll(tareas)) {
+            try {
+                grupos.add(futuro.get());
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Falló una especialidad: " + e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // Conserva la interrupción
+                throw new RuntimeException("Optimización interrumpida", e);
+            }
+        }
+
+        List<Asignacion> nuevas = new ArrayList<>();
+        for (Asignacion a : grupos.stream().flatMap(g -> g.asignaciones.stream()).toList()) {
+            try {
+                reservaService.reservar(a);
+                nuevas.add(a);
+            } catch (ConflictoAsignacionException e) {
+                System.out.println("🔁 " + e.getMessage() + "; queda para el próximo lote"); // Una asignación manual ganó mientras se optimizaba
+            }
+        }
+        try {
+            insertar(nuevas);
+        } catch (DataIntegrityViolationException e) {
+            nuevas.forEach(reservaService::liberar); // La transacción no dejó nada
+            throw new ConflictoAsignacionException("Otra instancia asignó parte del lote; se reintenta en la próxima corrida", false);
+        }
+        nuevas.forEach(a -> emparejamientoService.asignado(a.getIdTecnico())); // Cuentan para la carga
+        LocalDateTime propuestas = nuevas.isEmpty() ? null : nuevas.get(0).getFechaAsignacion(); // Misma fecha para todo el lote
+        cargaService.registrarPorSolicitudes(nuevas.stream().map(Asignacion::getIdSolicitud).toList()) // Ids generados por la BD
+            .forEach(a -> plazosService.programar(a.idAsignacion(), propuestas)); // Corre el plazo de aceptación
+
+        ResultadoLote resultado = new ResultadoLote(pendientes.size(),
+            grupos.stream().mapToInt(g -> g.tecnicos).sum(),
+            nuevas.size(),
+            grupos.stream().mapToDouble(g -> g.resultado.kmTotales()).sum(),
+            (int) grupos.stream().filter(g -> g.resultado.exacto()).count(),
+            (int) grupos.stream().filter(g -> !g.resultado.exacto()).count(),
+            System.currentTimeMillis() - inicio);
+        System.out.println("📦 Lote: " + resultado); // Log corrida
+        return resultado;
+    }
+
+    // Resuelve una especialidad: arma el problema, optimiza y traduce a asignaciones
+    private Grupo resolver(String especialidad, List<SolicitudRemota> solicitudes, Map<Long, ClienteRemoto> ubicaciones) {
+        List<OptimizadorAsignaciones.PuntoSolicitud> puntos = new ArrayList<>();
+        for (SolicitudRemota s : solicitudes) {
+            ClienteRemoto c = ubicaciones.get(s.idCliente());
+            if (c != null) {
+                puntos.add(new OptimizadorAsignaciones.PuntoSolicitud(s.idSolicitud(), s.idCliente(),
+                    c.latitud(), c.longitud(), penalizacion(s.prioridad())));
+            } // Sin ubicación no se puede asignar
+        }
+        List<OptimizadorAsignaciones.PuntoTecnico> tecnicos = emparejamientoService.disponibles(especialidad);
+        OptimizadorAsignaciones.Resultado resultado = optimizador.optimizar(puntos, tecnicos);
+
+        List<Asignacion> asignaciones = new ArrayList<>();
+        LocalDateTime ahora = LocalDateTime.now();
+        for (int i = 0; i < puntos.size(); i++) {
+            int j = resultado.tecnicoDe()[i];
+            if (j == -1) {
+                continue; // Sin técnico en este lote
+            }
+            OptimizadorAsignaciones.PuntoSolicitud s = puntos.get(i);
+            OptimizadorAsignaciones.PuntoTecnico t = tecnicos.get(j);
+            double distancia = MotorEmparejamiento.distanciaKm(s.latitud(), s.longitud(), t.latitud(), t.longitud());
+            asignaciones.add(Asignacion.builder()
+                .idSolicitud(s.idSolicitud())
+                .idTecnico(t.idTecnico())
+                .idCliente(s.idCliente())
+                .estado(Asignacion.EstadoAsignacion.PROPUESTA)
+                .fechaAsignacion(ahora)
+                .distanciaKm(BigDecimal.valueOf(distancia).setScale(2, RoundingMode.HALF_UP))
+                .tiempoEstimadoMinutos(emparejamientoService.minutosEstimados(t.idTecnico(), distancia))
+                .build());
+        }
+        System.out.println("🧮 " + especialidad + ": " + puntos.size() + " solicitudes x " + tecnicos.size() + " técnicos -> "
+            + resultado.asignadas() + (resultado.exacto() ? " (húngaro)" : " (heurística)")); // Log por especialidad
+        return new Grupo(tecnicos.size(), resultado, asignaciones);
+    }
+
+    // Dejar sin técnico cuesta más que cualquier trayecto, y más cuanto más urgente
+    private double penalizacion(String prioridad) {
+        int peso = switch (prioridad == null ? "MEDIA" : prioridad) {
+            case "CRITICA" -> 4;
+            case "ALTA" -> 3;
+            case "BAJA" -> 1;
+            default -> 2; // MEDIA
+        };
+        return emparejamientoService.radioKm() * (1 + peso);
+    }
+
+    // Quita las solicitudes que ya tienen asignación en esta BD
+    private List<SolicitudRemota> sinAsignacion(List<SolicitudRemota> pendientes) {
+        Set<Long> asignadas = new HashSet<>();
+        List<Long> ids = pendientes.stream().map(SolicitudRemota::idSolicitud).toList();
+        for (int desde = 0; desde < ids.size(); desde += TAMANO_CONSULTA) {
+            asignadas.addAll(asignacionRepository.encontrarSolicitudesAsignadas(ids.subList(desde, Math.min(ids.size(), desde + TAMANO_CONSULTA))));
+        }
+        return pendientes.stream().filter(s -> !asignadas.contains(s.idSolicitud())).toList();
+    }
+
+    // Todas las propuestas en un batch JDBC dentro de una transacción
+    private void insertar(List<Asignacion> asignaciones) {
+        if (asignaciones.isEmpty()) {
+            return;
+        }
+        transaccion.executeWithoutResult(estado -> jdbcTemplate.batchUpdate(INSERT, asignaciones, asignaciones.size(), (ps, a) -> {
+            ps.setLong(1, a.getIdSolicitud());
+            ps.setLong(2, a.getIdTecnico());
+            ps.setLong(3, a.getIdCliente());
+            ps.setString(4, a.getEstado().name());
+            ps.setTimestamp(5, Timestamp.valueOf(a.getFechaAsignacion()));
+            ps.setBigDecimal(6, a.getDistanciaKm());
+            ps.setInt(7, a.getTiempoEstimadoMinutos());
+            ps.setLong(8, a.getIdTecnicoActivo());
+            ps.setInt(9, a.getCupoActivo());
+        }));
+    }
+
+    // Resultado de una especialidad
+    private record Grupo(int tecnicos, OptimizadorAsignaciones.Resultado resultado, List<Asignacion> asignaciones) {
+    }
+}
@@ -0,0 +1,320 @@
+package com.homefixer.asignaciones.service;
+
+import java.util.ArrayList; // Para listas mutables
+import java.util.Arrays; // Para rellenar arreglos
+import java.util.HashMap; // Grilla de técnicos
+import java.util.List; // Para listas
+import java.util.Map; // Para mapas
+import java.util.PriorityQueue; // Heap de vecinos y de Dijkstra
+
+// Asignación de costo mínimo entre solicitudes y técnicos de una especialidad (cada técnico a lo más una solicitud por lote).
+// Costo = km técnico-cliente; dejar una solicitud sin técnico cuesta su penalización (mayor con más prioridad), así cuando
+// faltan técnicos quedan fuera las menos urgentes. Algoritmo húngaro si cabe en el presupuesto; si no, heurística acotada.
+public class OptimizadorAsignaciones {
+
+    private static final double INFINITO = 1e12; // Par fuera del radio
+    private static final double KM_POR_GRADO = 111.32; // Kilómetros por grado de latitud
+    private static final int AMPLIACION = 5; // Aristas por solicitud en la heurística: k · AMPLIACION técnicos cercanos
+
+    private final double radioKm; // Distancia máxima técnico-cliente
+    private final long presupuestoExacto; // Operaciones máximas del húngaro (n² · (m + n))
+    private final int vecinos; // La heurística mira k · AMPLIACION técnicos por solicitud
+    private final double celdaGrados; // Grilla de la heurística
+
+    public OptimizadorAsignaciones(double radioKm, long presupuestoExacto, int vecinos, double celdaGrados) {
+        this.radioKm = radioKm;
+        this.presupuestoExacto = presupuestoExacto;
+        this.vecinos = vecinos;
+        this.celdaGrados = celdaGrados;
+    }
+
+    // Resuelve el lote: exacto si cabe en el presupuesto, heurístico si no
+    public Resultado optimizar(List<PuntoSolicitud> solicitudes, List<PuntoTecnico> tecnicos) {
+        int n = solicitudes.size();
+        int m = tecnicos.size();
+        if (n == 0 || m == 0) {
+            int[] vacio = new int[n];
+            Arrays.fill(vacio, -1);
+            return resultado(solicitudes, tecnicos, vacio, true); // Nada que asignar
+        }
+        if ((double) n * n * (m + n) <= presupuestoExacto) {
+            return resultado(solicitudes, tecnicos, hungaro(solicitudes, tecnicos), true);
+        }
+        return resultado(solicitudes, tecnicos, heuristico(solicitudes, tecnicos), false);
+    }
+
+    // Algoritmo húngaro (potenciales, O(n² · (m + n))) sobre n filas y m técnicos + n columnas "sin técnico"
+    int[] hungaro(List<PuntoSolicitud> solicitudes, List<PuntoTecnico> tecnicos) {
+        int n = solicitudes.size();
+        int m = tecnicos.size();
+        int columnas = m + n; // Siempre hay una columna libre para quedar sin técnico
+        double[][] distancia = new double[n][m]; // Se lee muchas veces: se calcula una vez
+        double[] penalizacion = new double[n];
+        for (int i = 0; i < n; i++) {
+            PuntoSolicitud s = solicitudes.get(i);
+            penalizacion[i] = s.penalizacion();
+            for (int j = 0; j < m; j++) {
+                PuntoTecnico t = tecnicos.get(j);
+                double d = MotorEmparejamiento.distanciaKm(s.latitud(), s.longitud(), t.latitud(), t.longitud());
+                distancia[i][j] = d <= radioKm ? d : INFINITO;
+            }
+        }
+
+        // Índices desde 1; fila 0 y columna 0 son auxiliares
+        double[] u = new double[n + 1];
+        double[] v = new double[columnas + 1];
+        int[] filaDe = new int[columnas + 1]; // Columna -> fila asignada
+        int[] camino = new int[columnas + 1];
+        double[] minimo = new double[columnas + 1];
+        boolean[] usada = new boolean[columnas + 1];
+        for (int i = 1; i <= n; i++) {
+            filaDe[0] = i;
+            int j0 = 0;
+            Arrays.fill(minimo, Double.POSITIVE_INFINITY);
+            Arrays.fill(usada, false);
+            do {
+                usada[j0] = true;
+                int i0 = filaDe[j0];
+                double delta = Double.POSITIVE_INFINITY;
+                int j1 = 0;
+                double[] filaDistancia = distancia[i0 - 1];
+                for (int j = 1; j <= columnas; j++) {
+                    if (usada[j]) {
+                        continue;
+                    }
+                    double costo = (j <= m ? filaDistancia[j - 1] : penalizacion[i0 - 1]) - u[i0] - v[j];
+                    if (costo < minimo[j]) {
+                        minimo[j] = costo;
+                        camino[j] = j0;
+                    }
+                    if (minimo[j] < delta) {
+                        delta = minimo[j];
+                        j1 = j;
+                    }
+                }
+                for (int j = 0; j <= columnas; j++) {
+                    if (usada[j]) {
+                        u[filaDe[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minimo[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (filaDe[j0] != 0);
+            do { // Invierte el camino aumentante
+                int j1 = camino[j0];
+                filaDe[j0] = filaDe[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        int[] tecnicoDe = new int[n];
+        Arrays.fill(tecnicoDe, -1);
+        for (int j = 1; j <= m; j++) {
+            if (filaDe[j] != 0 && distancia[filaDe[j] - 1][j - 1] < INFINITO) {
+                tecnicoDe[filaDe[j] - 1] = j - 1; // Las columnas > m son "sin técnico"
+            }
+        }
+        return tecnicoDe;
+    }
+
+    // Heurística acotada: el mismo húngaro (caminos aumentantes más cortos con potenciales) pero solo sobre las aristas
+    // a los k · AMPLIACION técnicos más cercanos de cada solicitud más su columna "sin técnico"; es óptima para ese
+    // subgrafo y cada Dijkstra termina apenas encuentra una columna libre, casi siempre cerca de la solicitud
+    int[] heuristico(List<PuntoSolicitud> solicitudes, List<PuntoTecnico> tecnicos) {
+        int n = solicitudes.size();
+        int m = tecnicos.size();
+        int[][] cercanos = cercanos(solicitudes, tecnicos, vecinos * AMPLIACION);
+        int[][] columna = new int[n][]; // Aristas de la fila i: técnicos cercanos y al final su columna m + i
+        double[][] costo = new double[n][];
+        for (int i = 0; i < n; i++) {
+            int k = cercanos[i].length;
+            columna[i] = Arrays.copyOf(cercanos[i], k + 1);
+            columna[i][k] = m + i;
+            costo[i] = new double[k + 1];
+            for (int c = 0; c < k; c++) {
+                costo[i][c] = costo(solicitudes, tecnicos, i, cercanos[i][c]);
+            }
+            costo[i][k] = solicitudes.get(i).penalizacion();
+        }
+
+        int columnas = m + n;
+        double[] u = new double[n];
+        double[] v = new double[columnas];
+        int[] filaDe = new int[columnas]; // Columna -> fila asignada
+        int[] columnaDe = new int[n]; // Fila -> columna asignada
+        Arrays.fill(filaDe, -1);
+        double[] distancia = new double[columnas];
+        int[] previa = new int[columnas]; // Fila desde la que se alcanzó la columna
+        boolean[] cerrada = new boolean[columnas];
+        Arrays.fill(distancia, Double.POSITIVE_INFINITY);
+        int[] tocadas = new int[columnas]; // Columnas a limpiar tras cada búsqueda
+        PriorityQueue<double[]> heap = new PriorityQueue<>((x, y) -> Double.compare(x[0], y[0])); // {distancia, columna}
+
+        for (int r = 0; r < n; r++) {
+            int nTocadas = 0;
+            heap.clear();
+            int fila = r;
+            double base = 0; // Distancia hasta la columna de la que salió "fila"
+            int libre = -1;
+            while (true) {
+                for (int c = 0; c < columna[fila].length; c++) {
+                    int j = columna[fila][c];
+                    double d = base + costo[fila][c] - u[fila] - v[j];
+                    if (!cerrada[j] && d < distancia[j]) {
+                        if (distancia[j] == Double.POSITIVE_INFINITY) {
+                            tocadas[nTocadas++] = j;
+                        }
+                        distancia[j] = d;
+                        previa[j] = fila;
+                        heap.add(new double[]{d, j});
+                    }
+                }
+                double[] tope;
+                do {
+                    tope = heap.poll(); // Siempre hay al menos la columna propia de r
+                } while (cerrada[(int) tope[1]] || tope[0] > distancia[(int) tope[1]]);
+                int j = (int) tope[1];
+                cerrada[j] = true;
+                if (filaDe[j] == -1) {
+                    libre = j;
+                    break;
+                }
+                fila = filaDe[j];
+                base = distancia[j];
+            }
+
+            // Potenciales: las columnas cerradas bajan lo que les faltó para llegar a la libre
+            double total = distancia[libre];
+            for (int t = 0; t < nTocadas; t++) {
+                int j = tocadas[t];
+                if (cerrada[j] && j != libre) {
+                    v[j] -= total - distancia[j];
+                }
+            }
+            // Invierte el camino aumentante
+            for (int j = libre; ; ) {
+                int i = previa[j];
+                int anterior = i == r ? -1 : columnaDe[i];
+                filaDe[j] = i;
+                columnaDe[i] = j;
+                if (anterior == -1) {
+                    break;
+                }
+                j = anterior;
+            }
+            // Las filas del árbol quedan ajustadas a su arista asignada
+            for (int t = 0; t < nTocadas; t++) {
+                int j = tocadas[t];
+                if (cerrada[j]) {
+                    int i = filaDe[j];
+                    u[i] = costoArista(columna[i], costo[i], j) - v[j];
+                }
+                cerrada[j] = false;
+                distancia[j] = Double.POSITIVE_INFINITY;
+            }
+        }
+
+        int[] tecnicoDe = new int[n];
+        for (int i = 0; i < n; i++) {
+            int j = columnaDe[i];
+            tecnicoDe[i] = j < m && costoArista(columna[i], costo[i], j) < INFINITO ? j : -1; // j >= m: sin técnico
+        }
+        return tecnicoDe;
+    }
+
+    // Costo de la arista de la fila hacia la columna j (las listas son cortas)
+    private static double costoArista(int[] columnas, double[] costos, int j) {
+        for (int c = 0; c < columnas.length; c++) {
+            if (columnas[c] == j) {
+                return costos[c];
+            }
+        }
+        throw new IllegalStateException("Arista inexistente hacia la columna " + j);
+    }
+
+    // Hasta "limite" técnicos dentro del radio por solicitud, ordenados por distancia (grilla de celdas)
+    private int[][] cercanos(List<PuntoSolicitud> solicitudes, List<PuntoTecnico> tecnicos, int limite) {
+        Map<Long, List<Integer>> grilla = new HashMap<>(); // celda -> técnicos
+        for (int j = 0; j < tecnicos.size(); j++) {
+            PuntoTecnico t = tecnicos.get(j);
+            grilla.computeIfAbsent(claveCelda(indiceCelda(t.latitud()), indiceCelda(t.longitud())), c -> new ArrayList<>()).add(j);
+        }
+        int[][] cercanos = new int[solicitudes.size()][];
+        double dLat = radioKm / KM_POR_GRADO;
+        for (int i = 0; i < solicitudes.size(); i++) {
+            PuntoSolicitud s = solicitudes.get(i);
+            double dLon = radioKm / (KM_POR_GRADO * Math.cos(Math.toRadians(Math.min(89.9, Math.abs(s.latitud()) + dLat))));
+            PriorityQueue<double[]> heap = new PriorityQueue<>((a, b) -> Double.compare(b[0], a[0])); // Max-heap {distancia, j}
+            for (int fila = indiceCelda(s.latitud() - dLat); fila <= indiceCelda(s.latitud() + dLat); fila++) {
+                for (int columna = indiceCelda(s.longitud() - dLon); columna <= indiceCelda(s.longitud() + dLon); columna++) {
+                    for (int j : grilla.getOrDefault(claveCelda(fila, columna), List.of())) {
+                        PuntoTecnico t = tecnicos.get(j);
+                        double d = MotorEmparejamiento.distanciaKm(s.latitud(), s.longitud(), t.latitud(), t.longitud());
+                        if (d > radioKm) {
+                            continue; // Fuera del radio
+                        }
+                        if (heap.size() < limite) {
+                            heap.add(new double[]{d, j});
+                        } else if (d < heap.peek()[0]) {
+                            heap.poll();
+                            heap.add(new double[]{d, j});
+                        }
+                    }
+                }
+            }
+            cercanos[i] = new int[heap.size()];
+            for (int c = heap.size() - 1; c >= 0; c--) {
+                cercanos[i][c] = (int) heap.poll()[1]; // El heap entrega del más lejano al más cercano
+            }
+        }
+        return cercanos;
+    }
+
+    // Costo de asignar i a j (j = -1: sin técnico)
+    private double costo(List<PuntoSolicitud> solicitudes, List<PuntoTecnico> tecnicos, int i, int j) {
+        PuntoSolicitud s = solicitudes.get(i);
+        if (j == -1) {
+            return s.penalizacion();
+        }
+        PuntoTecnico t = tecnicos.get(j);
+        double d = MotorEmparejamiento.distanciaKm(s.latitud(), s.longitud(), t.latitud(), t.longitud());
+        return d <= radioKm ? d : INFINITO;
+    }
+
+    private Resultado resultado(List<PuntoSolicitud> solicitudes, List<PuntoTecnico> tecnicos, int[] tecnicoDe, boolean exacto) {
+        double costo = 0;
+        double km = 0;
+        int asignadas = 0;
+        for (int i = 0; i < tecnicoDe.length; i++) {
+            double c = costo(solicitudes, tecnicos, i, tecnicoDe[i]);
+            costo += c;
+            if (tecnicoDe[i] != -1) {
+                km += c;
+                asignadas++;
+            }
+        }
+        return new Resultado(tecnicoDe, asignadas, km, costo, exacto);
+    }
+
+    private int indiceCelda(double grados) {
+        return (int) Math.floor(grados / celdaGrados);
+    }
+
+    private static long claveCelda(int fila, int columna) {
+        return ((long) fila << 32) | (columna & 0xffffffffL); // Fila y columna empaquetadas en un long
+    }
+
+    // Solicitud del lote; penalización = costo de dejarla sin técnico
+    public record PuntoSolicitud(long idSolicitud, long idCliente, double latitud, double longitud, double penalizacion) {
+    }
+
+    // Técnico disponible del lote
+    public record PuntoTecnico(long idTecnico, double latitud, double longitud) {
+    }
+
+    // tecnicoDe[i] = índice del técnico de la solicitud i, o -1
+    public record Resultado(int[] tecnicoDe, int asignadas, double kmTotales, double costoTotal, boolean exacto) {
+    }
+}
@@ -0,0 +1,66 @@
+package com.homefixer.asignaciones.service;
+
+import com.homefixer.asignaciones.dto.PlazoPropuesta; // Propuesta pendiente
+import com.homefixer.asignaciones.model.Asignacion; // Importa entidad
+import com.homefixer.asignaciones.repository.AsignacionRepository; // Importa repositorio
+import org.springframework.beans.factory.annotation.Value; // Para leer configuración
+import org.springframework.boot.context.event.ApplicationReadyEvent; // Evento de arranque
+import org.springframework.context.event.EventListener; // Para escuchar eventos
+import org.springframework.stereotype.Service; // Anotación servicio
+import java.time.LocalDateTime; // Para fechas
+import java.time.ZoneId; // Para pasar fechas a milisegundos
+import java.util.List; // Para listas
+
+// Plazo de aceptación de cada PROPUESTA en una rueda de temporizadores: se programa al proponer, se cancela en
+// cualquier transición y se recupera de la BD al arrancar; así nadie recorre las PROPUESTA buscando vencidas
+@Service // Marca como servicio Spring
+public class PlazosPropuestaService {
+
+    private final AsignacionRepository asignacionRepository; // Carga inicial
+    private final RuedaTemporizadores rueda; // idAsignacion -> vencimiento
+    private final long plazoMs; // Tiempo para aceptar o rechazar
+
+    public PlazosPropuestaService(AsignacionRepository asignacionRepository,
+                                  @Value("${homefixer.asignaciones.propuestas.plazo-minutos:15}") long plazoMinutos,
+                                  @Value("${homefixer.asignaciones.propuestas.tick-ms:1000}") long tickMs,
+                                  @Value("${homefixer.asignaciones.propuestas.ranuras:4096}") int ranuras) {
+        this.asignacionRepository = asignacionRepository;
+        this.rueda = new RuedaTemporizadores(tickMs, ranuras, System.currentTimeMillis());
+        this.plazoMs = plazoMinutos * 60_000;
+    }
+
+    // Plazos de las propuestas que ya estaban en la BD (las vencidas salen en el primer tick)
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        List<PlazoPropuesta> propuestas = asignacionRepository.obtenerPlazosPropuesta(Asignacion.EstadoAsignacion.PROPUESTA);
+        propuestas.forEach(p -> programar(p.idAsignacion(), p.fechaAsignacion()));
+        System.out.println("⏳ Plazos de aceptación: " + rueda.tamano() + " propuestas pendientes"); // Log carga
+    }
+
+    // La asignación quedó en PROPUESTA (nueva o re-propuesta)
+    public void programar(Asignacion asignacion) {
+        programar(asignacion.getIdAsignacion(), asignacion.getFechaAsignacion());
+    }
+
+    // Vence plazo-minutos después de la fecha de asignación
+    public void programar(Long idAsignacion, LocalDateTime fechaAsignacion) {
+        long desde = fechaAsignacion == null ? System.currentTimeMillis()
+            : fechaAsignacion.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        rueda.programar(idAsignacion, desde + plazoMs);
+    }
+
+    // La asignación salió de PROPUESTA; no hace nada si no tenía plazo
+    public void cancelar(Long idAsignacion) {
+        rueda.cancelar(idAsignacion);
+    }
+
+    // Propuestas cuyo plazo ya venció (salen de la rueda)
+    public long[] vencidas() {
+        return rueda.avanzar(System.currentTimeMillis());
+    }
+
+    // Minutos para responder una propuesta
+    public long plazoMinutos() {
+        return plazoMs / 60_000;
+    }
+}
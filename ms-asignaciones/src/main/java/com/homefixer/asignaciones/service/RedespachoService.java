@@ -0,0 +1,222 @@
+package com.homefixer.asignaciones.service;
+
+import com.homefixer.asignaciones.dto.CandidatoTecnico; // Técnico de la lista corta
+import com.homefixer.asignaciones.dto.ResultadoEmparejamiento; // Lista corta de la primera búsqueda
+import com.homefixer.asignaciones.event.AsignacionRechazadaEvent; // Rechazo confirmado
+import com.homefixer.asignaciones.exception.ConflictoAsignacionException; // Técnico sin cupo o fila tomada
+import com.homefixer.asignaciones.model.Asignacion; // Importa entidad
+import com.homefixer.asignaciones.model.IntentoAsignacion; // Historial de rechazos
+import com.homefixer.asignaciones.repository.AsignacionRepository; // Importa repositorio
+import com.homefixer.asignaciones.repository.IntentoAsignacionRepository; // Historial de rechazos
+import jakarta.annotation.PreDestroy; // Cierre del pool
+import org.springframework.beans.factory.annotation.Autowired; // Constructor de Spring
+import org.springframework.beans.factory.annotation.Value; // Para leer configuración
+import org.springframework.context.ApplicationEventPublisher; // Para publicar el rechazo
+import org.springframework.dao.DataIntegrityViolationException; // Respaldo único en BD
+import org.springframework.stereotype.Service; // Anotación servicio
+import org.springframework.transaction.PlatformTransactionManager; // Para transacciones propias
+import org.springframework.transaction.TransactionDefinition; // Propagación
+import org.springframework.transaction.event.TransactionalEventListener; // Escucha tras el commit
+import org.springframework.transaction.support.TransactionTemplate; // Una transacción por propuesta
+import java.math.BigDecimal; // Para decimales
+import java.time.LocalDateTime; // Para fechas
+import java.util.HashSet; // Técnicos ya intentados
+import java.util.List; // Para listas
+import java.util.Map; // Para mapas
+import java.util.Set; // Para conjuntos
+import java.util.concurrent.ConcurrentHashMap; // Mapa concurrente
+import java.util.concurrent.Executor; // Dónde corre el re-emparejo
+import java.util.concurrent.ExecutorService; // Pool propio
+import java.util.concurrent.Executors; // Para crear el pool
+import java.util.concurrent.RejectedExecutionException; // Pool cerrado
+
+// Re-despacho automático: cuando un técnico rechaza, la misma fila vuelve a PROPUESTA para el siguiente técnico
+// de la lista corta que se guardó al emparejar la solicitud (sin volver a llamar a ms-solicitudes ni ms-usuarios).
+// Cada rechazo queda en intentos_asignacion y después de intentos-maximos la asignación queda RECHAZADA.
+@Service // Marca como servicio Spring
+public class RedespachoService {
+
+    private final AsignacionRepository asignacionRepository; // Fila a re-proponer
+    private final IntentoAsignacionRepository intentoRepository; // Historial de rechazos
+    private final EmparejamientoService emparejamientoService; // Re-emparejar si no hay lista y carga del técnico
+    private final ReservaTecnicosService reservaService; // Cupo del nuevo técnico
+    private final CargaTecnicosService cargaService; // Vista de carga por técnico
+    private final PlazosPropuestaService plazosService; // Plazo de aceptación del nuevo técnico
+    private final ApplicationEventPublisher eventos; // Rechazos hacia después del commit
+    private final TransactionTemplate transaccion; // Transacción nueva por propuesta
+    private final int intentosMaximos; // Propuestas por solicitud, la original incluida
+    private final int capacidad; // Listas guardadas como máximo
+    private final Map<Long, List<CandidatoTecnico>> listas = new ConcurrentHashMap<>(); // idSolicitud -> lista corta
+    private final Executor reemparejos; // Re-emparejos sin lista, fuera del hilo que rechazó
+
+    @Autowired // Spring usa este; el otro es para pruebas
+    public RedespachoService(AsignacionRepository asignacionRepository,
+                             IntentoAsignacionRepository intentoRepository,
+                             EmparejamientoService emparejamientoService,
+                             ReservaTecnicosService reservaService,
+                             CargaTecnicosService cargaService,
+                             PlazosPropuestaService plazosService,
+                             ApplicationEventPublisher eventos,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${homefixer.asignaciones.redespacho.intentos-maximos:3}") int intentosMaximos,
+                             @Value("${homefixer.asignaciones.redespacho.capacidad:50000}") int capacidad,
+                             @Value("${homefixer.asignaciones.redespacho.hilos-reemparejo:2}") int hilosReemparejo) {
+        this(asignacionRepository, intentoRepository, emparejamientoService, reservaService, cargaService, plazosService,
+            eventos, transactionManager, intentosMaximos, capacidad, Executors.newFixedThreadPool(hilosReemparejo, r -> {
+                Thread hilo = new Thread(r, "reemparejo");
+                hilo.setDaemon(true); // No frena el apagado
+                return hilo;
+            }));
+    }
+
+    RedespachoService(AsignacionRepository asignacionRepository,
+                      IntentoAsignacionRepository intentoRepository,
+                      EmparejamientoService emparejamientoService,
+                      ReservaTecnicosService reservaService,
+                      CargaTecnicosService cargaService,
+                      PlazosPropuestaService plazosService,
+                      ApplicationEventPublisher eventos,
+                      PlatformTransactionManager transactionManager,
+                      int intentosMaximos,
+                      int capacidad,
+                      Executor reemparejos) {
+        this.asignacionRepository = asignacionRepository;
+        this.intentoRepository = intentoRepository;
+        this.emparejamientoService = emparejamientoService;
+        this.reservaService = reservaService;
+        this.cargaService = cargaService;
+        this.plazosService = plazosService;
+        this.eventos = eventos;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.transaccion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW); // También después de un commit
+        this.intentosMaximos = intentosMaximos;
+        this.capacidad = capacidad;
+        this.reemparejos = reemparejos;
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        if (reemparejos instanceof ExecutorService pool) {
+            pool.shutdown(); // Sin re-emparejos nuevos
+        }
+    }
+
+    // Guarda la lista corta con la que se asignó la solicitud
+    public void recordar(ResultadoEmparejamiento resultado) {
+        if (listas.size() < capacidad || listas.containsKey(resultado.idSolicitud())) {
+            listas.put(resultado.idSolicitud(), List.copyOf(resultado.candidatos()));
+        } // Llena: esa solicitud re-empareja si la rechazan
+    }
+
+    // La solicitud ya no se va a re-despachar
+    public void olvidar(Long idSolicitud) {
+        listas.remove(idSolicitud);
+    }
+
+    // En la transacción del rechazo: guarda el intento y deja el re-despacho para después del commit
+    public void rechazada(Asignacion asignacion) {
+        int numero = (int) intentoRepository.countByIdSolicitud(asignacion.getIdSolicitud()) + 1;
+        intentoRepository.save(IntentoAsignacion.builder()
+            .idAsignacion(asignacion.getIdAsignacion())
+            .idSolicitud(asignacion.getIdSolicitud())
+            .numero(numero)
+            .idTecnico(asignacion.getIdTecnico())
+            .fechaPropuesta(asignacion.getFechaAsignacion())
+            .fechaRechazo(LocalDateTime.now())
+            .motivo(asignacion.getMotivoRechazo())
+            .build()); // El único (id_solicitud, numero) frena un doble registro
+        eventos.publishEvent(new AsignacionRechazadaEvent(asignacion.getIdAsignacion(), asignacion.getIdSolicitud(),
+            asignacion.getIdTecnico(), numero));
+    }
+
+    // Historial de rechazos de la solicitud
+    public List<IntentoAsignacion> intentos(Long idSolicitud) {
+        return intentoRepository.findByIdSolicitudOrderByNumeroAsc(idSolicitud);
+    }
+
+    // Después del commit del rechazo: el siguiente técnico de la lista que no haya rechazado y tenga cupo.
+    // Con la lista guardada es solo memoria y un UPDATE; sin ella el re-emparejo (dos llamadas remotas) va a otro hilo
+    @TransactionalEventListener
+    public void redespachar(AsignacionRechazadaEvent evento) {
+        long inicio = System.nanoTime();
+        if (evento.intento() >= intentosMaximos) {
+            olvidar(evento.idSolicitud());
+            System.out.println("⛔ Solicitud " + evento.idSolicitud() + " rechazada " + evento.intento() + " veces; queda RECHAZADA"); // Tope
+            return;
+        }
+        List<CandidatoTecnico> lista = listas.get(evento.idSolicitud());
+        if (lista != null) {
+            proponerSiguiente(evento, lista, inicio);
+            return;
+        }
+        try {
+            reemparejos.execute(() -> reemparejar(evento, inicio)); // Asignada a mano, por lote o antes de reiniciar
+        } catch (RejectedExecutionException e) {
+            System.out.println("⚠️ Apagando: la solicitud " + evento.idSolicitud() + " queda RECHAZADA"); // Pool cerrado
+        }
+    }
+
+    // Lista nueva desde ms-solicitudes y ms-usuarios, y después lo mismo que con la lista guardada
+    private void reemparejar(AsignacionRechazadaEvent evento, long inicio) {
+        try {
+            ResultadoEmparejamiento resultado = emparejamientoService.candidatos(evento.idSolicitud());
+            recordar(resultado);
+            proponerSiguiente(evento, resultado.candidatos(), inicio);
+        } catch (RuntimeException e) {
+            System.out.println("⚠️ No se pudo re-emparejar la solicitud " + evento.idSolicitud() + ": " + e.getMessage()); // Queda RECHAZADA
+        }
+    }
+
+    private void proponerSiguiente(AsignacionRechazadaEvent evento, List<CandidatoTecnico> lista, long inicio) {
+        Set<Long> intentados = new HashSet<>(intentoRepository.tecnicosIntentados(evento.idSolicitud()));
+        for (CandidatoTecnico candidato : lista) { // Del mayor puntaje al menor
+            if (intentados.contains(candidato.idTecnico())) {
+                continue; // Ya rechazó
+            }
+            Asignacion trayecto = new Asignacion();
+            AsignacionService.fijarTrayecto(trayecto, candidato.distanciaKm(), candidato.minutosEstimados());
+            try {
+                reproponer(evento.idAsignacion(), candidato.idTecnico(), trayecto.getDistanciaKm(), trayecto.getTiempoEstimadoMinutos());
+                System.out.println("🔁 Solicitud " + evento.idSolicitud() + " re-propuesta a técnico " + candidato.idTecnico()
+                    + " en " + (System.nanoTime() - inicio) / 1_000 + " µs (intento " + (evento.intento() + 1) + ")"); // Log éxito
+                return;
+            } catch (ConflictoAsignacionException e) {
+                if (e.isPorSolicitud()) {
+                    System.out.println("⚠️ " + e.getMessage()); // Otra petición ya movió la fila
+                    return;
+                }
+            }
+        }
+        olvidar(evento.idSolicitud());
+        System.out.println("⚠️ Sin técnicos para re-proponer la solicitud " + evento.idSolicitud() + "; queda RECHAZADA"); // Lista agotada
+    }
+
+    // RECHAZADA -> PROPUESTA para el técnico dado; ConflictoAsignacionException si no tiene cupo o la fila ya no está RECHAZADA
+    public Asignacion reproponer(Long idAsignacion, Long idTecnico, BigDecimal distanciaKm, Integer minutos) {
+        Asignacion.EstadoAsignacion nuevo = Asignacion.EstadoAsignacion.PROPUESTA;
+        Asignacion actual = asignacionRepository.findById(idAsignacion)
+            .orElseThrow(() -> new RuntimeException("Asignación no encontrada")); // No existe
+        Asignacion propuesta = Asignacion.builder().idSolicitud(actual.getIdSolicitud()).idTecnico(idTecnico).build();
+        reservaService.reservar(propuesta); // Sin cupo: 409 sin tocar la BD
+
+        Asignacion guardada;
+        try {
+            guardada = transaccion.execute(s -> {
+                int filas = asignacionRepository.reproponer(idAsignacion, nuevo, nuevo.origenesPermitidos(), idTecnico,
+                    propuesta.getCupoActivo(), LocalDateTime.now(), distanciaKm, minutos);
+                return filas == 0 ? null : asignacionRepository.findById(idAsignacion).orElseThrow(); // Relee en la misma transacción
+            });
+        } catch (DataIntegrityViolationException e) {
+            reservaService.liberar(propuesta);
+            throw new ConflictoAsignacionException("Otra asignación tomó el cupo del técnico " + idTecnico, false); // Ganó otra instancia
+        }
+        if (guardada == null) {
+            reservaService.liberar(propuesta);
+            throw new ConflictoAsignacionException("La asignación " + idAsignacion + " ya no está RECHAZADA", true); // Perdió la carrera
+        }
+        emparejamientoService.asignado(idTecnico); // Cuenta para la carga
+        cargaService.registrar(guardada); // Entra a la vista de carga del nuevo técnico
+        plazosService.programar(guardada); // Plazo nuevo para responder
+        return guardada;
+    }
+}
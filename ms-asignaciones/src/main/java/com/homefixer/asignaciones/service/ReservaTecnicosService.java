@@ -0,0 +1,78 @@
+package com.homefixer.asignaciones.service;
+
+import com.homefixer.asignaciones.dto.ReservaActiva; // Fila activa con su cupo
+import com.homefixer.asignaciones.exception.ConflictoAsignacionException; // Reserva perdida (409)
+import com.homefixer.asignaciones.model.Asignacion; // Importa entidad
+import com.homefixer.asignaciones.repository.AsignacionRepository; // Importa repositorio
+import org.springframework.beans.factory.annotation.Value; // Para leer configuración
+import org.springframework.boot.context.event.ApplicationReadyEvent; // Evento de arranque
+import org.springframework.context.event.EventListener; // Para escuchar eventos
+import org.springframework.stereotype.Service; // Anotación servicio
+import org.springframework.transaction.annotation.Transactional; // Para transacciones
+import java.util.ArrayList; // Para listas mutables
+import java.util.List; // Para listas
+
+// Reserva de técnico y solicitud antes de escribir: la tabla en memoria decide sin tocar MySQL y las columnas
+// id_tecnico_activo/cupo_activo (únicas juntas) más la única de id_solicitud rechazan en BD lo que se le escape
+// (por ejemplo, otra instancia del servicio)
+@Service // Marca como servicio Spring
+public class ReservaTecnicosService {
+
+    private final AsignacionRepository asignacionRepository; // Carga inicial
+    private final TablaReservas tabla; // Cupos en memoria
+
+    public ReservaTecnicosService(AsignacionRepository asignacionRepository,
+                                  @Value("${homefixer.asignaciones.emparejamiento.carga-maxima:1}") int cargaMaxima) {
+        this.asignacionRepository = asignacionRepository;
+        this.tabla = new TablaReservas(cargaMaxima);
+    }
+
+    // Llena la tabla con las asignaciones activas; las filas sin cupo (anteriores a esta tabla) toman uno ahora
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional // UPDATE de filas sin cupo
+    public void cargar() {
+        List<ReservaActiva> sinCupo = new ArrayList<>();
+        int conflictos = 0;
+        for (ReservaActiva r : asignacionRepository.obtenerReservasActivas(EmparejamientoService.ESTADOS_ACTIVOS)) {
+            if (r.cupoActivo() == null) {
+                sinCupo.add(r); // Después de marcar los cupos conocidos
+            } else if (!tabla.ocupar(r.idTecnico(), r.idSolicitud(), r.cupoActivo())) {
+                conflictos++;
+            }
+        }
+        for (ReservaActiva r : sinCupo) {
+            int cupo = tabla.reservar(r.idTecnico(), r.idSolicitud());
+            if (cupo < 0) {
+                conflictos++; // Sobreasignación previa: se libera cuando esa asignación se cierre
+            } else {
+                asignacionRepository.fijarCupo(r.idAsignacion(), cupo);
+            }
+        }
+        System.out.println("🔒 Reservas activas: " + tabla.tamano() + (conflictos > 0 ? " (" + conflictos + " sin cupo)" : "")); // Log carga
+    }
+
+    // Toma cupo para la asignación y lo deja en sus columnas activas; ConflictoAsignacionException si otra ganó
+    public void reservar(Asignacion asignacion) {
+        int cupo = tabla.reservar(asignacion.getIdTecnico(), asignacion.getIdSolicitud());
+        if (cupo == TablaReservas.SOLICITUD_OCUPADA) {
+            throw new ConflictoAsignacionException("La solicitud " + asignacion.getIdSolicitud() + " ya tiene una asignación activa", true);
+        }
+        if (cupo == TablaReservas.SIN_CUPO) {
+            throw new ConflictoAsignacionException("El técnico " + asignacion.getIdTecnico() + " no tiene cupo libre", false);
+        }
+        asignacion.setIdTecnicoActivo(asignacion.getIdTecnico());
+        asignacion.setCupoActivo(cupo);
+    }
+
+    // Devuelve el cupo de la asignación y limpia sus columnas activas (la fila se guarda aparte)
+    public void liberar(Asignacion asignacion) {
+        tabla.liberar(asignacion.getIdTecnico(), asignacion.getIdSolicitud());
+        asignacion.setIdTecnicoActivo(null);
+        asignacion.setCupoActivo(null);
+    }
+
+    // Cupos ocupados del técnico
+    public int ocupados(Long idTecnico) {
+        return tabla.ocupados(idTecnico);
+    }
+}
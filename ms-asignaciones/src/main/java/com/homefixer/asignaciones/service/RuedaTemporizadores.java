@@ -0,0 +1,140 @@
+package com.homefixer.asignaciones.service;
+
+import java.util.Arrays; // Para recortar el resultado
+
+// Rueda de temporizadores con hash (hashed timing wheel): cada plazo cae en la ranura de su tick, en una lista
+// doblemente enlazada, y un mapa id -> nodo permite cancelar sin buscar. Programar y cancelar son O(1); avanzar
+// recorre solo las ranuras de los ticks transcurridos (los plazos a más de una vuelta se quedan esperando su vuelta).
+// No es seguro entre hilos por sí solo: los métodos públicos sincronizan sobre la rueda.
+public class RuedaTemporizadores {
+
+    private final long tickMs; // Resolución de los plazos
+    private final long inicioMs; // Momento del tick 0
+    private final int mascara; // ranuras - 1 (potencia de 2)
+    private final Nodo[] cabezas; // Primer nodo de cada ranura
+    private final MapaPorId<Nodo> porId; // id -> nodo, para cancelar en O(1)
+    private long siguienteTick; // Primer tick aún no procesado
+
+    public RuedaTemporizadores(long tickMs, int ranuras, long inicioMs) {
+        if (tickMs <= 0 || ranuras <= 0) {
+            throw new IllegalArgumentException("Tick y ranuras deben ser positivos"); // Configuración inválida
+        }
+        int capacidad = Integer.highestOneBit(Math.max(1, ranuras - 1)) << 1; // Potencia de 2 >= ranuras
+        this.tickMs = tickMs;
+        this.inicioMs = inicioMs;
+        this.mascara = capacidad - 1;
+        this.cabezas = new Nodo[capacidad];
+        this.porId = new MapaPorId<>(1024);
+    }
+
+    // Programa (o reprograma) el plazo del id; un plazo ya vencido sale en el próximo avance
+    public synchronized void programar(long id, long venceMs) {
+        Nodo nodo = porId.obtener(id);
+        if (nodo != null) {
+            desenlazar(nodo); // Reprogramar: sale de su ranura
+        } else {
+            nodo = new Nodo(id);
+            porId.poner(id, nodo);
+        }
+        nodo.venceTick = Math.max(siguienteTick, Math.floorDiv(venceMs - inicioMs + tickMs - 1, tickMs)); // Primer tick >= vence
+        enlazar(nodo);
+    }
+
+    // Quita el plazo del id; false si no tenía
+    public synchronized boolean cancelar(long id) {
+        Nodo nodo = porId.quitar(id);
+        if (nodo == null) {
+            return false;
+        }
+        desenlazar(nodo);
+        return true;
+    }
+
+    // Plazos pendientes
+    public synchronized int tamano() {
+        return porId.tamano();
+    }
+
+    // Procesa los ticks hasta ahoraMs y devuelve los ids vencidos (ya fuera de la rueda)
+    public synchronized long[] avanzar(long ahoraMs) {
+        long objetivo = Math.floorDiv(ahoraMs - inicioMs, tickMs); // Último tick cumplido
+        Vencidos vencidos = new Vencidos();
+        if (objetivo - siguienteTick >= cabezas.length) {
+            for (int r = 0; r < cabezas.length; r++) {
+                vencer(r, objetivo, vencidos); // Pausa de más de una vuelta: cada ranura una sola vez
+            }
+        } else {
+            for (long tick = siguienteTick; tick <= objetivo; tick++) {
+                vencer((int) (tick & mascara), tick, vencidos);
+            }
+        }
+        siguienteTick = Math.max(siguienteTick, objetivo + 1);
+        return vencidos.ids();
+    }
+
+    // Saca de la ranura los nodos con plazo <= hastaTick
+    private void vencer(int ranura, long hastaTick, Vencidos vencidos) {
+        Nodo nodo = cabezas[ranura];
+        while (nodo != null) {
+            Nodo siguiente = nodo.siguiente;
+            if (nodo.venceTick <= hastaTick) {
+                desenlazar(nodo);
+                porId.quitar(nodo.id);
+                vencidos.agregar(nodo.id);
+            }
+            nodo = siguiente;
+        }
+    }
+
+    private void enlazar(Nodo nodo) {
+        int ranura = (int) (nodo.venceTick & mascara);
+        nodo.anterior = null;
+        nodo.siguiente = cabezas[ranura];
+        if (nodo.siguiente != null) {
+            nodo.siguiente.anterior = nodo;
+        }
+        cabezas[ranura] = nodo;
+    }
+
+    private void desenlazar(Nodo nodo) {
+        if (nodo.anterior != null) {
+            nodo.anterior.siguiente = nodo.siguiente;
+        } else {
+            cabezas[(int) (nodo.venceTick & mascara)] = nodo.siguiente; // Era la cabeza
+        }
+        if (nodo.siguiente != null) {
+            nodo.siguiente.anterior = nodo.anterior;
+        }
+        nodo.anterior = null;
+        nodo.siguiente = null;
+    }
+
+    // Plazo de un id dentro de su ranura
+    private static final class Nodo {
+        private final long id; // Id programado
+        private long venceTick; // Tick en que vence; la ranura es venceTick & mascara
+        private Nodo anterior; // Lista de la ranura
+        private Nodo siguiente;
+
+        private Nodo(long id) {
+            this.id = id;
+        }
+    }
+
+    // Ids vencidos en un arreglo que crece (sin cajas Long)
+    private static final class Vencidos {
+        private long[] ids = new long[16];
+        private int tamano;
+
+        private void agregar(long id) {
+            if (tamano == ids.length) {
+                ids = Arrays.copyOf(ids, tamano * 2);
+            }
+            ids[tamano++] = id;
+        }
+
+        private long[] ids() {
+            return Arrays.copyOf(ids, tamano);
+        }
+    }
+}
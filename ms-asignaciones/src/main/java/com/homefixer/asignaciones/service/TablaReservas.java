@@ -0,0 +1,82 @@
+package com.homefixer.asignaciones.service;
+
+import java.util.concurrent.ConcurrentHashMap; // Mapas concurrentes
+import java.util.concurrent.atomic.AtomicLongArray; // Cupos con compare-and-set
+
+// Reservas activas en memoria: cada técnico tiene "cupos" celdas con el id de la solicitud que las ocupa (0 = libre)
+// y cada solicitud activa apunta a su técnico. Tomar una reserva es un putIfAbsent más un compare-and-set sobre
+// la celda en disputa: dos altas concurrentes nunca comparten cupo ni solicitud y no hay candado global.
+public class TablaReservas {
+
+    public static final int SOLICITUD_OCUPADA = -1; // La solicitud ya tiene técnico
+    public static final int SIN_CUPO = -2; // El técnico no tiene cupos libres
+    private static final long LIBRE = 0L; // Celda sin solicitud
+
+    private final int cupos; // Asignaciones activas por técnico
+    private final ConcurrentHashMap<Long, AtomicLongArray> cuposPorTecnico = new ConcurrentHashMap<>(); // técnico -> solicitud por cupo
+    private final ConcurrentHashMap<Long, Long> tecnicoPorSolicitud = new ConcurrentHashMap<>(); // solicitud activa -> técnico
+
+    public TablaReservas(int cupos) {
+        if (cupos <= 0) {
+            throw new IllegalArgumentException("Debe haber al menos un cupo por técnico"); // Configuración inválida
+        }
+        this.cupos = cupos;
+    }
+
+    // Reserva un cupo del técnico para la solicitud; devuelve el cupo, SOLICITUD_OCUPADA o SIN_CUPO
+    public int reservar(long idTecnico, long idSolicitud) {
+        if (tecnicoPorSolicitud.putIfAbsent(idSolicitud, idTecnico) != null) {
+            return SOLICITUD_OCUPADA; // Otra petición ya la tomó
+        }
+        AtomicLongArray celdas = cuposPorTecnico.computeIfAbsent(idTecnico, t -> new AtomicLongArray(cupos));
+        for (int cupo = 0; cupo < cupos; cupo++) {
+            if (celdas.get(cupo) == LIBRE && celdas.compareAndSet(cupo, LIBRE, idSolicitud)) {
+                return cupo;
+            }
+        }
+        tecnicoPorSolicitud.remove(idSolicitud, idTecnico); // Devuelve la solicitud
+        return SIN_CUPO;
+    }
+
+    // Marca un cupo ya reservado en BD (carga inicial); false si está fuera de rango o lo tiene otra solicitud
+    public boolean ocupar(long idTecnico, long idSolicitud, int cupo) {
+        if (cupo < 0 || cupo >= cupos || tecnicoPorSolicitud.putIfAbsent(idSolicitud, idTecnico) != null) {
+            return false;
+        }
+        if (cuposPorTecnico.computeIfAbsent(idTecnico, t -> new AtomicLongArray(cupos)).compareAndSet(cupo, LIBRE, idSolicitud)) {
+            return true;
+        }
+        tecnicoPorSolicitud.remove(idSolicitud, idTecnico);
+        return false;
+    }
+
+    // Libera el cupo que la solicitud ocupa en el técnico (sin efecto si no lo ocupaba)
+    public void liberar(long idTecnico, long idSolicitud) {
+        AtomicLongArray celdas = cuposPorTecnico.get(idTecnico);
+        if (celdas != null) {
+            for (int cupo = 0; cupo < cupos; cupo++) {
+                if (celdas.compareAndSet(cupo, idSolicitud, LIBRE)) {
+                    break; // Una solicitud ocupa a lo más un cupo
+                }
+            }
+        }
+        tecnicoPorSolicitud.remove(idSolicitud, idTecnico); // Solo si seguía apuntando a este técnico
+    }
+
+    // Cupos ocupados del técnico
+    public int ocupados(long idTecnico) {
+        AtomicLongArray celdas = cuposPorTecnico.get(idTecnico);
+        int ocupados = 0;
+        for (int cupo = 0; celdas != null && cupo < cupos; cupo++) {
+            if (celdas.get(cupo) != LIBRE) {
+                ocupados++;
+            }
+        }
+        return ocupados;
+    }
+
+    // Solicitudes con reserva activa
+    public int tamano() {
+        return tecnicoPorSolicitud.size();
+    }
+}
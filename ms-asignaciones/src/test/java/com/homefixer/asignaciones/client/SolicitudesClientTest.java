@@ -0,0 +1,156 @@
+package com.homefixer.asignaciones.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homefixer.asignaciones.dto.SolicitudRemota;
+import com.homefixer.asignaciones.exception.ServicioNoDisponibleException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Contra un ms-solicitudes falso: los pedidos por id salen juntos por /lote, una ventana que no alcanza a cerrar
+// responde 503 (no 400) y el listado de pendientes sigue X-Next-Cursor hasta la última página
+class SolicitudesClientTest {
+
+	private static final int LOTE = 10;
+	private static final int PAGINA_SERVIDOR = 3; // El servidor corta antes del limite pedido
+	private static final long PENDIENTES = 7;
+
+	private HttpServer servidor;
+	private final AtomicInteger llamadasLote = new AtomicInteger(); // GET /api/solicitudes/lote recibidos
+	private final List<Integer> tamanos = new ArrayList<>(); // Ids por llamada a /lote
+	private final List<String> consultasListado = new ArrayList<>(); // Query de cada página pedida
+	private SolicitudesClient cliente;
+
+	@BeforeEach
+	void iniciar() throws IOException {
+		servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		servidor.setExecutor(Executors.newFixedThreadPool(8));
+		servidor.createContext("/api/solicitudes/lote", intercambio -> {
+			llamadasLote.incrementAndGet();
+			List<Long> ids = Arrays.stream(parametros(intercambio).get("ids").split(",")).map(Long::valueOf).toList();
+			synchronized (tamanos) {
+				tamanos.add(ids.size());
+			}
+			responder(intercambio, ids.stream().filter(id -> id <= 100).map(id -> json(id, "ASIGNADA")) // Solo existen hasta el 100
+				.collect(Collectors.joining(",", "[", "]")), null);
+		});
+		servidor.createContext("/api/solicitudes/estado/PENDIENTE", intercambio -> {
+			synchronized (consultasListado) {
+				consultasListado.add(intercambio.getRequestURI().getQuery());
+			}
+			long cursor = Long.parseLong(parametros(intercambio).get("cursor"));
+			long hasta = Math.min(cursor + PAGINA_SERVIDOR, PENDIENTES);
+			String pagina = LongStream.rangeClosed(cursor + 1, hasta).mapToObj(id -> json(id, "PENDIENTE"))
+				.collect(Collectors.joining(",", "[", "]"));
+			responder(intercambio, pagina, hasta < PENDIENTES ? String.valueOf(hasta) : null); // Sin header en la última
+		});
+		servidor.start();
+		cliente = nuevoCliente(2_000, 500);
+	}
+
+	private SolicitudesClient nuevoCliente(long timeoutMs, long esperaLoteMs) {
+		return new SolicitudesClient(new ObjectMapper(), "http://127.0.0.1:" + servidor.getAddress().getPort(),
+			timeoutMs, 60_000, 10_000, LOTE, esperaLoteMs, 3, 300);
+	}
+
+	@AfterEach
+	void detener() {
+		cliente.cerrar();
+		servidor.stop(0);
+	}
+
+	@Test
+	void pedidosPorIdDistintosSalenEnUnLote() throws Exception {
+		ExecutorService hilos = Executors.newFixedThreadPool(LOTE);
+		CountDownLatch largada = new CountDownLatch(1);
+		List<Future<Optional<SolicitudRemota>>> futuros = new ArrayList<>();
+		for (long id = 95; id < 95 + LOTE; id++) {
+			long pedido = id;
+			futuros.add(hilos.submit(() -> {
+				largada.await();
+				return cliente.obtenerSolicitud(pedido);
+			}));
+		}
+		largada.countDown();
+		int encontradas = 0;
+		for (Future<Optional<SolicitudRemota>> f : futuros) {
+			encontradas += f.get().isPresent() ? 1 : 0;
+		}
+		hilos.shutdown();
+		assertEquals(6, encontradas); // 95..100
+		assertEquals(1, llamadasLote.get()); // Lote lleno: sale sin esperar la ventana
+		assertEquals(List.of(LOTE), tamanos);
+
+		assertEquals("ASIGNADA", cliente.obtenerSolicitud(97L).orElseThrow().estado()); // De la caché
+		assertTrue(cliente.obtenerSolicitud(101L).isEmpty()); // "No existe" también en caché
+		assertEquals(1, llamadasLote.get());
+	}
+
+	@Test
+	void unaVentanaQueNoAlcanzaACerrarEsServicioNoDisponible() {
+		cliente.cerrar();
+		cliente = nuevoCliente(100, 1_000); // Espera dos timeouts, la ventana tarda más
+		assertThrows(ServicioNoDisponibleException.class, () -> cliente.obtenerSolicitud(1L));
+	}
+
+	@Test
+	void listarPendientesSigueElCursorHastaLaUltimaPagina() {
+		List<SolicitudRemota> pendientes = cliente.listarPendientes();
+		assertEquals(LongStream.rangeClosed(1, PENDIENTES).boxed().toList(), pendientes.stream().map(SolicitudRemota::idSolicitud).toList());
+		assertEquals(3, consultasListado.size()); // 3 + 3 + 1
+		assertEquals(List.of("0", "3", "6"), consultasListado.stream().map(q -> parametros(q).get("cursor")).toList());
+		assertTrue(consultasListado.stream().allMatch(q -> "500".equals(parametros(q).get("limite")) && parametros(q).containsKey("fields")));
+	}
+
+	private static String json(long id, String estado) {
+		return "{\"idSolicitud\":" + id + ",\"idCliente\":1,\"especialidadRequerida\":\"Plomería\",\"ciudad\":\"Santiago\",\"estado\":\""
+			+ estado + "\",\"prioridad\":\"MEDIA\"}";
+	}
+
+	private static Map<String, String> parametros(HttpExchange intercambio) {
+		return parametros(intercambio.getRequestURI().getQuery());
+	}
+
+	private static Map<String, String> parametros(String consulta) {
+		Map<String, String> parametros = new HashMap<>();
+		for (String par : consulta.split("&")) {
+			int igual = par.indexOf('=');
+			parametros.put(par.substring(0, igual), par.substring(igual + 1));
+		}
+		return parametros;
+	}
+
+	private static void responder(HttpExchange intercambio, String cuerpo, String siguienteCursor) throws IOException {
+		byte[] bytes = cuerpo.getBytes(StandardCharsets.UTF_8);
+		intercambio.getResponseHeaders().add("Content-Type", "application/json");
+		if (siguienteCursor != null) {
+			intercambio.getResponseHeaders().add("X-Next-Cursor", siguienteCursor);
+		}
+		intercambio.sendResponseHeaders(200, bytes.length);
+		intercambio.getResponseBody().write(bytes);
+		intercambio.close();
+	}
+}
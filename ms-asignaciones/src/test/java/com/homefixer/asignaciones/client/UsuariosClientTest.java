@@ -0,0 +1,169 @@
+package com.homefixer.asignaciones.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homefixer.asignaciones.dto.ClienteRemoto;
+import com.homefixer.asignaciones.exception.ServicioNoDisponibleException;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Contra un ms-usuarios falso: pedidos concurrentes del mismo id salen en una llamada, muchos ids salen por lotes,
+// la caché (también de "no existe") vence, el disyuntor corta a un servicio caído y un servicio lento no bloquea
+class UsuariosClientTest {
+
+	private static final long TIMEOUT_MS = 1_000;
+	private static final long TTL_MS = 200; // Solo para la prueba de vencimiento
+	private static final long TTL_LARGO_MS = 60_000; // Las demás pruebas cuentan llamadas exactas
+	private static final int LOTE = 50;
+	private static final int FALLOS = 3;
+	private static final long ESPERA_DISYUNTOR_MS = 300;
+
+	private HttpServer servidor;
+	private final AtomicInteger llamadas = new AtomicInteger(); // GET /api/clientes/lote recibidos
+	private final List<Integer> tamanos = new ArrayList<>(); // Ids por llamada
+	private volatile int estado = 200; // Respuesta forzada
+	private volatile long demoraMs; // Respuesta lenta
+	private UsuariosClient cliente;
+
+	@BeforeEach
+	void iniciar() throws IOException {
+		servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		servidor.setExecutor(Executors.newFixedThreadPool(8));
+		servidor.createContext("/api/clientes/lote", intercambio -> {
+			llamadas.incrementAndGet();
+			String consulta = intercambio.getRequestURI().getQuery().substring("ids=".length());
+			List<Long> ids = Arrays.stream(consulta.split(",")).map(Long::valueOf).toList();
+			synchronized (tamanos) {
+				tamanos.add(ids.size());
+			}
+			dormir(demoraMs);
+			byte[] cuerpo = estado == 200
+				? ids.stream().filter(id -> id % 2 == 0) // Solo existen los pares
+					.map(id -> "{\"idCliente\":" + id + ",\"ciudad\":\"Santiago\",\"latitud\":-33.4,\"longitud\":-70.6}")
+					.collect(Collectors.joining(",", "[", "]")).getBytes(StandardCharsets.UTF_8)
+				: new byte[0];
+			intercambio.getResponseHeaders().add("Content-Type", "application/json");
+			intercambio.sendResponseHeaders(estado, cuerpo.length == 0 ? -1 : cuerpo.length);
+			intercambio.getResponseBody().write(cuerpo);
+			intercambio.close();
+		});
+		servidor.start();
+		cliente = nuevoCliente(TTL_LARGO_MS);
+	}
+
+	private UsuariosClient nuevoCliente(long ttlMs) {
+		return new UsuariosClient(new ObjectMapper(), "http://127.0.0.1:" + servidor.getAddress().getPort(),
+			TIMEOUT_MS, ttlMs, ttlMs, 10_000, LOTE, 5, FALLOS, ESPERA_DISYUNTOR_MS);
+	}
+
+	@AfterEach
+	void detener() {
+		cliente.cerrar();
+		servidor.stop(0);
+	}
+
+	@Test
+	void pedidosConcurrentesDelMismoIdHacenUnaLlamada() throws Exception {
+		ExecutorService hilos = Executors.newFixedThreadPool(16);
+		CountDownLatch largada = new CountDownLatch(1);
+		List<Future<Optional<ClienteRemoto>>> futuros = new ArrayList<>();
+		for (int i = 0; i < 64; i++) {
+			futuros.add(hilos.submit(() -> {
+				largada.await();
+				return cliente.obtenerCliente(42L);
+			}));
+		}
+		largada.countDown();
+		for (Future<Optional<ClienteRemoto>> f : futuros) {
+			assertEquals(42L, f.get().orElseThrow().idCliente());
+		}
+		hilos.shutdown();
+		assertEquals(1, llamadas.get());
+	}
+
+	@Test
+	void muchosIdsSalenPorLotesYLosQueNoExistenNoAparecen() {
+		List<Long> ids = LongStream.rangeClosed(1, 1_000).boxed().toList();
+		Map<Long, ClienteRemoto> encontrados = cliente.obtenerClientes(ids);
+		assertEquals(500, encontrados.size());
+		assertTrue(encontrados.keySet().stream().allMatch(id -> id % 2 == 0));
+		assertEquals(1_000 / LOTE, llamadas.get()); // Lotes llenos, sin llamadas por id
+		assertTrue(tamanos.stream().allMatch(t -> t == LOTE));
+		assertTrue(cliente.obtenerCliente(7L).isEmpty()); // "No existe" en caché
+		assertEquals(1_000 / LOTE, llamadas.get());
+	}
+
+	@Test
+	void laCacheEvitaLlamadasHastaQueVence() {
+		cliente.cerrar();
+		cliente = nuevoCliente(TTL_MS);
+		assertTrue(cliente.obtenerCliente(10L).isPresent());
+		assertTrue(cliente.obtenerCliente(11L).isEmpty());
+		int despuesDeCargar = llamadas.get();
+		for (int i = 0; i < 100; i++) {
+			cliente.obtenerCliente(10L);
+			cliente.obtenerCliente(11L);
+		}
+		assertEquals(despuesDeCargar, llamadas.get());
+		dormir(TTL_MS + 50);
+		assertTrue(cliente.obtenerCliente(10L).isPresent());
+		assertEquals(despuesDeCargar + 1, llamadas.get());
+	}
+
+	@Test
+	void elDisyuntorCortaAUnServicioCaidoYPruebaDespuesDeLaEspera() {
+		estado = 503;
+		for (int i = 0; i < FALLOS; i++) {
+			long id = i;
+			assertThrows(ServicioNoDisponibleException.class, () -> cliente.obtenerCliente(id));
+		}
+		assertEquals(Disyuntor.Estado.ABIERTO, cliente.estadoDisyuntor());
+		int alAbrir = llamadas.get();
+		List<Long> ids = LongStream.range(100, 1_100).boxed().toList();
+		assertThrows(ServicioNoDisponibleException.class, () -> cliente.obtenerClientes(ids));
+		assertEquals(alAbrir, llamadas.get()); // Ninguna llegó al servidor
+
+		estado = 200;
+		dormir(ESPERA_DISYUNTOR_MS + 50);
+		assertTrue(cliente.obtenerCliente(2L).isPresent()); // Llamada de prueba
+		assertEquals(Disyuntor.Estado.CERRADO, cliente.estadoDisyuntor());
+	}
+
+	@Test
+	void unServicioLentoFallaPorTimeout() {
+		demoraMs = TIMEOUT_MS * 2;
+		long inicio = System.nanoTime();
+		assertThrows(ServicioNoDisponibleException.class, () -> cliente.obtenerCliente(4L));
+		long ms = (System.nanoTime() - inicio) / 1_000_000;
+		assertTrue(ms < TIMEOUT_MS * 2, "Esperó " + ms + " ms");
+	}
+
+	private static void dormir(long ms) {
+		try {
+			Thread.sleep(ms);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,155 @@
+package com.homefixer.asignaciones.repository;
+
+import com.homefixer.asignaciones.model.Asignacion;
+import com.homefixer.asignaciones.model.Asignacion.EstadoAsignacion;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Ciclo de vida con UPDATE condicionales contra H2 y respaldo único del cupo activo del técnico
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AsignacionRepositoryTransicionTest {
+
+	private static final int HILOS = 16;
+
+	@Autowired
+	private AsignacionRepository asignacionRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void cicloCompletoLiberaElCupo() {
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+		Long id = asignacionRepository.save(nueva(1L, 10L)).getIdAsignacion();
+
+		assertEquals(0, (int) tx.execute(s -> asignacionRepository.salirEnCamino(id, EstadoAsignacion.EN_CAMINO,
+			EstadoAsignacion.EN_CAMINO.origenesPermitidos(), LocalDateTime.now()))); // Todavía no aceptada
+		assertEquals(1, (int) tx.execute(s -> asignacionRepository.aceptar(id, EstadoAsignacion.ACEPTADA,
+			EstadoAsignacion.ACEPTADA.origenesPermitidos(), LocalDateTime.now())));
+		assertEquals(1, (int) tx.execute(s -> asignacionRepository.salirEnCamino(id, EstadoAsignacion.EN_CAMINO,
+			EstadoAsignacion.EN_CAMINO.origenesPermitidos(), LocalDateTime.now())));
+		assertEquals(1, (int) tx.execute(s -> asignacionRepository.iniciarServicio(id, EstadoAsignacion.EN_SERVICIO,
+			EstadoAsignacion.EN_SERVICIO.origenesPermitidos(), LocalDateTime.now())));
+		assertEquals(1, (int) tx.execute(s -> asignacionRepository.completar(id, EstadoAsignacion.COMPLETADA,
+			EstadoAsignacion.COMPLETADA.origenesPermitidos(), LocalDateTime.now(), new BigDecimal("45000.00"), "Cambio de llave")));
+		assertEquals(0, (int) tx.execute(s -> asignacionRepository.cerrar(id, EstadoAsignacion.CANCELADA,
+			EstadoAsignacion.CANCELADA.origenesPermitidos(), "tarde"))); // Terminal
+
+		Asignacion a = asignacionRepository.findById(id).orElseThrow();
+		assertEquals(EstadoAsignacion.COMPLETADA, a.getEstado());
+		assertEquals(4L, a.getVersion()); // Una escritura por transición ganada
+		assertTrue(a.getFechaAceptacion() != null && a.getFechaEnCamino() != null && a.getFechaInicioServicio() != null && a.getFechaFinServicio() != null);
+		assertEquals(0, new BigDecimal("45000").compareTo(a.getCostoFinal()));
+		assertNull(a.getIdTecnicoActivo());
+		assertNull(a.getCupoActivo());
+
+		asignacionRepository.save(nueva(2L, 10L)); // El cupo 0 del técnico 10 quedó libre
+	}
+
+	@Test
+	void elCupoActivoNoSeComparte() {
+		asignacionRepository.save(nueva(3L, 20L));
+		DataIntegrityViolationException cupo = assertThrows(DataIntegrityViolationException.class, () -> asignacionRepository.save(nueva(4L, 20L)));
+		assertTrue(Asignacion.violaCupoActivo(cupo)); // /auto prueba otro técnico
+		DataIntegrityViolationException solicitud = assertThrows(DataIntegrityViolationException.class, () -> asignacionRepository.save(nueva(3L, 21L))); // Solicitud repetida
+		assertFalse(Asignacion.violaCupoActivo(solicitud)); // /auto se rinde
+	}
+
+	@Test
+	void soloUnaTransicionGanaEnCarrera() throws Exception {
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+		Long id = asignacionRepository.save(nueva(5L, 30L)).getIdAsignacion();
+
+		ExecutorService pool = Executors.newFixedThreadPool(HILOS);
+		AtomicInteger aceptadas = new AtomicInteger();
+		AtomicInteger canceladas = new AtomicInteger();
+		CountDownLatch largada = new CountDownLatch(1);
+		List<Future<?>> intentos = new ArrayList<>();
+		try {
+			for (int h = 0; h < HILOS; h++) {
+				boolean aceptar = h % 2 == 0; // Técnico aceptando contra cliente cancelando
+				intentos.add(pool.submit(() -> {
+					largada.await();
+					Integer filas = aceptar
+						? tx.execute(s -> asignacionRepository.aceptar(id, EstadoAsignacion.ACEPTADA,
+							EstadoAsignacion.ACEPTADA.origenesPermitidos(), LocalDateTime.now()))
+						: tx.execute(s -> asignacionRepository.cerrar(id, EstadoAsignacion.CANCELADA,
+							EstadoAsignacion.CANCELADA.origenesPermitidos(), "cliente"));
+					if (filas != null && filas == 1) {
+						(aceptar ? aceptadas : canceladas).incrementAndGet();
+					}
+					return null;
+				}));
+			}
+			largada.countDown();
+			for (Future<?> intento : intentos) {
+				intento.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+
+		// A lo más un ACEPTADA; una cancelación puede ganar antes o después de él, nunca dos veces
+		assertTrue(aceptadas.get() <= 1);
+		assertEquals(1, canceladas.get());
+		Asignacion a = asignacionRepository.findById(id).orElseThrow();
+		assertEquals(EstadoAsignacion.CANCELADA, a.getEstado());
+		assertEquals((long) aceptadas.get() + canceladas.get(), a.getVersion());
+	}
+
+	@Test
+	void laRechazadaSeReproponeUnaSolaVezAOtroTecnico() {
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+		Long id = asignacionRepository.save(nueva(6L, 40L)).getIdAsignacion();
+		assertEquals(1, (int) tx.execute(s -> asignacionRepository.cerrar(id, EstadoAsignacion.RECHAZADA,
+			EstadoAsignacion.RECHAZADA.origenesPermitidos(), "lejos")));
+		asignacionRepository.save(nueva(7L, 40L)); // El cupo del técnico que rechazó quedó libre
+
+		EstadoAsignacion propuesta = EstadoAsignacion.PROPUESTA;
+		assertEquals(1, (int) tx.execute(s -> asignacionRepository.reproponer(id, propuesta, propuesta.origenesPermitidos(),
+			41L, 0, LocalDateTime.now(), new BigDecimal("3.20"), 7)));
+		assertEquals(0, (int) tx.execute(s -> asignacionRepository.reproponer(id, propuesta, propuesta.origenesPermitidos(),
+			42L, 0, LocalDateTime.now(), new BigDecimal("1.00"), 2))); // Ya no está RECHAZADA
+		assertThrows(DataIntegrityViolationException.class, () -> tx.execute(s -> asignacionRepository.save(nueva(8L, 41L)))); // Cupo tomado
+
+		Asignacion a = asignacionRepository.findById(id).orElseThrow();
+		assertEquals(propuesta, a.getEstado());
+		assertEquals(41L, a.getIdTecnico());
+		assertEquals(41L, a.getIdTecnicoActivo());
+		assertNull(a.getMotivoRechazo());
+		assertEquals(7, a.getTiempoEstimadoMinutos());
+		assertEquals(2L, a.getVersion());
+	}
+
+	private static Asignacion nueva(Long idSolicitud, Long idTecnico) {
+		return Asignacion.builder()
+			.idSolicitud(idSolicitud).idTecnico(idTecnico).idCliente(1L)
+			.estado(EstadoAsignacion.PROPUESTA).fechaAsignacion(LocalDateTime.now())
+			.idTecnicoActivo(idTecnico).cupoActivo(0)
+			.build();
+	}
+}
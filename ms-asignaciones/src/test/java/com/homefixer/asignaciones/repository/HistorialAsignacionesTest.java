@@ -0,0 +1,119 @@
+package com.homefixer.asignaciones.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homefixer.asignaciones.dto.AsignacionResumen;
+import com.homefixer.asignaciones.dto.FiltroHistorial;
+import com.homefixer.asignaciones.model.Asignacion;
+import com.homefixer.asignaciones.model.Asignacion.EstadoAsignacion;
+import com.homefixer.asignaciones.service.HistorialAsignacionesService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Historial con cursor (fecha_fin_servicio, id_asignacion) contra H2: páginas sin huecos ni repetidos aunque haya
+// fechas empatadas, filtros y exportación NDJSON
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class HistorialAsignacionesTest {
+
+	private static final LocalDateTime BASE = LocalDateTime.of(2025, 3, 1, 8, 0);
+
+	@Autowired
+	private AsignacionRepository asignacionRepository;
+
+	@Autowired
+	private DataSource dataSource;
+
+	private HistorialAsignacionesService historial;
+	private final List<Asignacion> completadas = new ArrayList<>();
+
+	@BeforeEach
+	void cargar() {
+		asignacionRepository.deleteAll();
+		completadas.clear();
+		historial = new HistorialAsignacionesService(new JdbcTemplate(dataSource), dataSource, new ObjectMapper().findAndRegisterModules(), 100); // H2 no acepta el fetch size de streaming de MySQL
+		for (int i = 0; i < 120; i++) {
+			EstadoAsignacion estado = i % 10 == 0 ? EstadoAsignacion.CANCELADA : EstadoAsignacion.COMPLETADA; // Los cancelados no salen
+			Asignacion a = asignacionRepository.save(Asignacion.builder()
+				.idSolicitud(1000L + i).idTecnico(1L + i % 3).idCliente(50L + i % 4)
+				.estado(estado).fechaAsignacion(BASE)
+				.fechaFinServicio(BASE.plusHours(i / 4)) // De a cuatro con la misma fecha: empates
+				.build());
+			if (estado == EstadoAsignacion.COMPLETADA) {
+				completadas.add(a);
+			}
+		}
+		completadas.sort(Comparator.comparing(Asignacion::getFechaFinServicio).thenComparing(Asignacion::getIdAsignacion).reversed());
+	}
+
+	@Test
+	void paginasEncadenadasSinHuecosNiRepetidos() {
+		assertEquals(ids(completadas, a -> true), ids(todas(new FiltroHistorial(null, null, null, null), 7)));
+	}
+
+	@Test
+	void filtrosPorTecnicoClienteYRango() {
+		LocalDateTime desde = BASE.plusHours(5);
+		LocalDateTime hasta = BASE.plusHours(20);
+		assertEquals(ids(completadas, a -> a.getIdTecnico() == 2L), ids(todas(new FiltroHistorial(2L, null, null, null), 5)));
+		assertEquals(ids(completadas, a -> a.getIdCliente() == 51L && !a.getFechaFinServicio().isBefore(desde) && a.getFechaFinServicio().isBefore(hasta)),
+			ids(todas(new FiltroHistorial(null, 51L, desde, hasta), 3)));
+	}
+
+	@Test
+	void exportaUnaLineaPorAsignacion() throws Exception {
+		ByteArrayOutputStream salida = new ByteArrayOutputStream();
+		long filas = historial.exportarNdjson(new FiltroHistorial(3L, null, null, null), salida);
+		String[] lineas = salida.toString(StandardCharsets.UTF_8).trim().split("\n");
+		assertEquals(ids(completadas, a -> a.getIdTecnico() == 3L).size(), filas);
+		assertEquals(filas, lineas.length);
+
+		ByteArrayOutputStream vacia = new ByteArrayOutputStream();
+		assertEquals(0, historial.exportarNdjson(new FiltroHistorial(999_999L, null, null, null), vacia));
+		assertEquals(0, vacia.size()); // Sin filas no hay línea en blanco
+	}
+
+	@Test
+	void cursorMalFormado() {
+		assertThrows(IllegalArgumentException.class, () -> historial.pagina(new FiltroHistorial(null, null, null, null), "ayer", 10));
+	}
+
+	// Recorre todas las páginas siguiendo el cursor
+	private List<AsignacionResumen> todas(FiltroHistorial filtro, int limite) {
+		List<AsignacionResumen> filas = new ArrayList<>();
+		String cursor = null;
+		List<AsignacionResumen> pagina;
+		do {
+			pagina = historial.pagina(filtro, cursor, limite);
+			filas.addAll(pagina);
+			if (!pagina.isEmpty()) {
+				cursor = HistorialAsignacionesService.cursor(pagina.get(pagina.size() - 1));
+			}
+		} while (pagina.size() == limite);
+		return filas;
+	}
+
+	private static List<Long> ids(List<AsignacionResumen> filas) {
+		return filas.stream().map(AsignacionResumen::idAsignacion).toList();
+	}
+
+	private static List<Long> ids(List<Asignacion> asignaciones, Predicate<Asignacion> filtro) {
+		return asignaciones.stream().filter(filtro).map(Asignacion::getIdAsignacion).toList();
+	}
+}
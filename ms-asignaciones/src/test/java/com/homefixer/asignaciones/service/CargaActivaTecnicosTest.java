@@ -0,0 +1,63 @@
+package com.homefixer.asignaciones.service;
+
+import com.homefixer.asignaciones.dto.AsignacionActiva;
+import com.homefixer.asignaciones.model.Asignacion.EstadoAsignacion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Vista de carga: entra, cambia de estado y sale con cada transición; hilos con técnicos propios no se pisan
+class CargaActivaTecnicosTest {
+
+	@Test
+	void sigueElCicloDeVida() {
+		CargaActivaTecnicos carga = new CargaActivaTecnicos(4, 16);
+		carga.registrar(7, 30, EstadoAsignacion.PROPUESTA);
+		carga.registrar(7, 12, EstadoAsignacion.ACEPTADA);
+		carga.registrar(7, 30, EstadoAsignacion.EN_CAMINO);
+
+		assertEquals(List.of(new AsignacionActiva(12L, 7L, EstadoAsignacion.ACEPTADA), new AsignacionActiva(30L, 7L, EstadoAsignacion.EN_CAMINO)),
+			carga.activas(7)); // En orden de id
+		assertEquals(2, carga.cantidad(7));
+
+		carga.registrar(7, 12, EstadoAsignacion.RECHAZADA);
+		carga.registrar(7, 30, EstadoAsignacion.COMPLETADA);
+		carga.registrar(7, 99, EstadoAsignacion.CANCELADA); // Nunca estuvo: sin efecto
+		assertTrue(carga.activas(7).isEmpty());
+		assertEquals(0, carga.tecnicos());
+	}
+
+	@Test
+	void hilosConcurrentes() throws InterruptedException {
+		CargaActivaTecnicos carga = new CargaActivaTecnicos(16, 1024);
+		int hilos = 16;
+		int tecnicosPorHilo = 500;
+		ExecutorService pool = Executors.newFixedThreadPool(hilos);
+		for (int h = 0; h < hilos; h++) {
+			long primero = 1 + (long) h * tecnicosPorHilo;
+			pool.execute(() -> {
+				for (long t = primero; t < primero + tecnicosPorHilo; t++) {
+					for (long a = 1; a <= 3; a++) {
+						carga.registrar(t, t * 10 + a, EstadoAsignacion.PROPUESTA);
+						carga.registrar(t, t * 10 + a, EstadoAsignacion.ACEPTADA);
+					}
+					carga.registrar(t, t * 10 + 2, EstadoAsignacion.COMPLETADA); // Sale la del medio
+				}
+			});
+		}
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+		assertEquals(hilos * tecnicosPorHilo, carga.tecnicos());
+		for (long t = 1; t <= (long) hilos * tecnicosPorHilo; t++) {
+			assertEquals(List.of(new AsignacionActiva(t * 10 + 1, t, EstadoAsignacion.ACEPTADA), new AsignacionActiva(t * 10 + 3, t, EstadoAsignacion.ACEPTADA)),
+				carga.activas(t));
+		}
+	}
+}
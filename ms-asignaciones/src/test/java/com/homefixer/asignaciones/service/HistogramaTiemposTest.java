@@ -0,0 +1,54 @@
+package com.homefixer.asignaciones.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Percentiles del histograma contra el arreglo ordenado, con distribución de cola larga como los tiempos reales
+class HistogramaTiemposTest {
+
+	private static final long MAXIMO = 720L * 3600; // 30 días en segundos
+
+	@Test
+	void percentilesDentroDelErrorRelativo() {
+		Random random = new Random(11);
+		for (int bits : new int[]{4, 7}) {
+			HistogramaTiempos histograma = new HistogramaTiempos(bits, MAXIMO);
+			long[] muestras = new long[200_000];
+			for (int i = 0; i < muestras.length; i++) {
+				muestras[i] = Math.min(MAXIMO, (long) Math.exp(5 + 2 * random.nextGaussian())); // Log-normal: segundos a días
+				histograma.registrar(muestras[i]);
+			}
+			Arrays.sort(muestras);
+			double tolerancia = Math.pow(2, -(bits - 1)); // Ancho relativo de una cubeta
+			for (double p : new double[]{1, 50, 90, 99, 99.9, 100}) {
+				long esperado = muestras[(int) Math.ceil(p / 100 * muestras.length) - 1];
+				long obtenido = histograma.percentil(p);
+				assertTrue(Math.abs(obtenido - esperado) <= Math.max(1, esperado * tolerancia),
+					"bits=" + bits + " p" + p + ": " + obtenido + " vs " + esperado);
+			}
+			assertEquals(muestras.length, histograma.total());
+		}
+	}
+
+	@Test
+	void valoresChicosSonExactosYLosExtremosSeAcotan() {
+		HistogramaTiempos histograma = new HistogramaTiempos(4, MAXIMO);
+		assertEquals(-1L, histograma.percentil(50)); // Vacío
+		for (long v = 0; v < 16; v++) {
+			histograma.registrar(v);
+		}
+		assertEquals(7L, histograma.percentil(50));
+		assertEquals(15L, histograma.percentil(100));
+
+		histograma.registrar(-5); // Cuenta como 0
+		histograma.registrar(Long.MAX_VALUE); // Cuenta como el máximo
+		assertEquals(0L, histograma.percentil(0));
+		assertTrue(histograma.percentil(100) <= MAXIMO && histograma.percentil(100) > MAXIMO * 0.9);
+		assertTrue(histograma.cubetas() < 200, "Cubetas: " + histograma.cubetas()); // Memoria fija y chica
+	}
+}
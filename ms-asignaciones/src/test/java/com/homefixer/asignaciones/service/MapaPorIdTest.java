@@ -0,0 +1,36 @@
+package com.homefixer.asignaciones.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Operaciones al azar contra HashMap, con muchas colisiones y borrados para ejercitar el desplazamiento hacia atrás
+class MapaPorIdTest {
+
+	@Test
+	void coincideConHashMap() {
+		Random random = new Random(5);
+		MapaPorId<Long> mapa = new MapaPorId<>(4); // Crece varias veces
+		Map<Long, Long> referencia = new HashMap<>();
+		for (int op = 0; op < 500_000; op++) {
+			long clave = 1 + random.nextInt(5_000);
+			switch (random.nextInt(3)) {
+				case 0 -> assertEquals(referencia.put(clave, (long) op), mapa.poner(clave, (long) op));
+				case 1 -> assertEquals(referencia.remove(clave), mapa.quitar(clave));
+				default -> assertEquals(referencia.get(clave), mapa.obtener(clave));
+			}
+			assertEquals(referencia.size(), mapa.tamano());
+		}
+		for (long clave = 1; clave <= 5_000; clave++) {
+			assertEquals(referencia.get(clave), mapa.obtener(clave));
+		}
+		mapa.limpiar();
+		assertEquals(0, mapa.tamano());
+		assertNull(mapa.obtener(1));
+	}
+}
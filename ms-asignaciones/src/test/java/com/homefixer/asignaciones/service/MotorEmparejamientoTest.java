@@ -0,0 +1,146 @@
+package com.homefixer.asignaciones.service;
+
+import com.homefixer.asignaciones.dto.CandidatoTecnico;
+import com.homefixer.asignaciones.dto.TecnicoRemoto;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Ranking contra fuerza bruta y benchmark (tag benchmark) con 50k técnicos alrededor de Santiago
+class MotorEmparejamientoTest {
+
+	private static final String[] ESPECIALIDADES = {"Plomería", "Electricidad", "Gasfitería", "Cerrajería", "Pintura"};
+	private static final int TECNICOS = 50_000;
+	private static final MotorEmparejamiento.Parametros PARAMETROS = new MotorEmparejamiento.Parametros(0.4, 0.3, 0.2, 0.1, 24, 30);
+	private static final long AHORA = 1_700_000_000_000L;
+	private static final double RADIO = 15;
+	private static final int CARGA_MAXIMA = 3;
+
+	@Test
+	void rankearCoincideConFuerzaBruta() {
+		Escenario escenario = escenario(new Random(7));
+		Random random = escenario.random();
+		MotorEmparejamiento motor = escenario.motor();
+		List<TecnicoRemoto> tecnicos = escenario.tecnicos();
+		int[] activas = escenario.activas();
+		long[] ultima = escenario.ultima();
+
+		// Correctitud: mismos técnicos y puntajes que puntuar a todos
+		for (int q = 0; q < 100; q++) {
+			double lat = -33.45 + (random.nextDouble() - 0.5);
+			double lon = -70.65 + (random.nextDouble() - 0.5);
+			String especialidad = ESPECIALIDADES[random.nextInt(ESPECIALIDADES.length)];
+			List<CandidatoTecnico> resultado = motor.rankear(especialidad.toUpperCase(), lat, lon, 10, RADIO, CARGA_MAXIMA, AHORA);
+
+			List<double[]> esperado = new ArrayList<>(); // {puntaje, idTecnico}
+			for (TecnicoRemoto t : tecnicos) {
+				int id = t.idTecnico().intValue();
+				double d = MotorEmparejamiento.distanciaKm(lat, lon, t.latitud(), t.longitud());
+				if (t.estado().equals("DISPONIBLE") && t.especialidad().equals(especialidad) && d <= RADIO && activas[id] < CARGA_MAXIMA) {
+					double equidad = ultima[id] == 0 ? 1.0 : Math.min(1.0, (AHORA - ultima[id]) / (24 * 3_600_000.0));
+					double puntaje = 0.4 * (1 - d / RADIO) + 0.3 * t.calificacionPromedio() / 5
+						+ 0.2 * (1 - (double) activas[id] / CARGA_MAXIMA) + 0.1 * equidad;
+					esperado.add(new double[]{puntaje, id});
+				}
+			}
+			esperado.sort(Comparator.<double[]>comparingDouble(e -> -e[0]).thenComparingDouble(e -> e[1]));
+			esperado = esperado.subList(0, Math.min(10, esperado.size()));
+
+			assertEquals(esperado.size(), resultado.size());
+			for (int i = 0; i < esperado.size(); i++) {
+				assertEquals((long) esperado.get(i)[1], resultado.get(i).idTecnico());
+				assertEquals(esperado.get(i)[0], resultado.get(i).puntaje(), 1e-9);
+			}
+		}
+	}
+
+	@Test
+	@Tag("benchmark") // Fuera de mvn test: mide tiempos
+	void benchmarkRankearCon50kTecnicos() {
+		Escenario escenario = escenario(new Random(7));
+		Random random = escenario.random();
+		MotorEmparejamiento motor = escenario.motor();
+
+		// Calentamiento y medición
+		int consultas = 20_000;
+		for (int q = 0; q < consultas; q++) {
+			motor.rankear(ESPECIALIDADES[q % ESPECIALIDADES.length], -33.45 + (random.nextDouble() - 0.5), -70.65 + (random.nextDouble() - 0.5), 10, RADIO, CARGA_MAXIMA, AHORA);
+		}
+		long inicio = System.nanoTime();
+		for (int q = 0; q < consultas; q++) {
+			motor.rankear(ESPECIALIDADES[q % ESPECIALIDADES.length], -33.45 + (random.nextDouble() - 0.5), -70.65 + (random.nextDouble() - 0.5), 10, RADIO, CARGA_MAXIMA, AHORA);
+		}
+		double promedioMicros = (System.nanoTime() - inicio) / 1_000.0 / consultas;
+		System.out.printf("MotorEmparejamiento: %d técnicos, k=10, R=15 km -> %.1f µs por ranking%n", TECNICOS, promedioMicros);
+	}
+
+	@Test
+	void cargaMaximaExcluyeYLiberarDevuelveAlTecnico() {
+		MotorEmparejamiento motor = new MotorEmparejamiento(0.05, PARAMETROS);
+		motor.reconstruir(List.of(
+			new TecnicoRemoto(1L, "Plomería", "DISPONIBLE", 5.0, -33.45, -70.65),
+			new TecnicoRemoto(2L, "Plomería", "DISPONIBLE", 4.0, -33.46, -70.66),
+			new TecnicoRemoto(3L, "Plomería", "INACTIVO", 5.0, -33.45, -70.65)));
+
+		assertEquals(1L, motor.rankear("plomeria", -33.45, -70.65, 5, RADIO, 1, AHORA).get(0).idTecnico());
+		assertEquals(2, motor.rankear("plomeria", -33.45, -70.65, 5, RADIO, 1, AHORA).size()); // El inactivo no es candidato
+
+		motor.asignado(1L, AHORA);
+		List<CandidatoTecnico> conCarga = motor.rankear("Plomería", -33.45, -70.65, 5, RADIO, 1, AHORA);
+		assertEquals(List.of(2L), conCarga.stream().map(CandidatoTecnico::idTecnico).toList());
+
+		motor.liberado(1L);
+		assertEquals(2, motor.rankear("Plomería", -33.45, -70.65, 5, RADIO, 1, AHORA).size());
+		assertTrue(motor.distanciaA(3L, -33.45, -70.65).isPresent()); // Posición conocida aunque no sea candidato
+	}
+
+	@Test
+	void elRitmoObservadoReemplazaALaVelocidadConfigurada() {
+		MotorEmparejamiento motor = new MotorEmparejamiento(0.05, PARAMETROS);
+		motor.reconstruir(List.of(
+			new TecnicoRemoto(1L, "Plomería", "DISPONIBLE", 5.0, -33.45, -70.65),
+			new TecnicoRemoto(2L, "Plomería", "DISPONIBLE", 4.0, -33.46, -70.66),
+			new TecnicoRemoto(3L, "Pintura", "DISPONIBLE", 4.0, -33.46, -70.66)));
+
+		assertEquals(20, motor.minutosEstimados(1L, 10)); // 30 km/h
+		motor.fijarRitmo(2L, "PLOMERIA", null, 3.0); // Solo la especialidad
+		assertEquals(30, motor.minutosEstimados(1L, 10));
+		assertEquals(30, motor.minutosEstimados(2L, 10));
+		assertEquals(20, motor.minutosEstimados(3L, 10)); // Otra especialidad
+		motor.fijarRitmo(2L, "plomeria", 1.5, null); // El propio técnico gana
+		assertEquals(15, motor.minutosEstimados(2L, 10));
+		CandidatoTecnico segundo = motor.rankear("plomeria", -33.45, -70.65, 5, RADIO, 1, AHORA).get(1);
+		assertEquals(2L, segundo.idTecnico());
+		assertEquals((int) Math.ceil(segundo.distanciaKm() * 1.5), segundo.minutosEstimados()); // El ranking usa el mismo ETA
+	}
+
+	// 50k técnicos alrededor de Santiago, con carga en el 30%
+	private static Escenario escenario(Random random) {
+		MotorEmparejamiento motor = new MotorEmparejamiento(0.05, PARAMETROS);
+		List<TecnicoRemoto> tecnicos = new ArrayList<>();
+		int[] activas = new int[TECNICOS + 1];
+		long[] ultima = new long[TECNICOS + 1];
+		for (int i = 1; i <= TECNICOS; i++) {
+			String estado = random.nextDouble() < 0.8 ? "DISPONIBLE" : "OCUPADO";
+			tecnicos.add(new TecnicoRemoto((long) i, ESPECIALIDADES[random.nextInt(ESPECIALIDADES.length)], estado,
+				1 + random.nextDouble() * 4, -33.45 + (random.nextDouble() - 0.5), -70.65 + (random.nextDouble() - 0.5)));
+			if (random.nextDouble() < 0.3) {
+				activas[i] = random.nextInt(CARGA_MAXIMA + 1);
+				ultima[i] = AHORA - random.nextInt(48 * 3_600_000); // Hasta dos días atrás
+				motor.registrarCarga(i, activas[i], ultima[i]);
+			}
+		}
+		motor.reconstruir(tecnicos);
+		return new Escenario(random, motor, tecnicos, activas, ultima);
+	}
+
+	private record Escenario(Random random, MotorEmparejamiento motor, List<TecnicoRemoto> tecnicos, int[] activas, long[] ultima) {
+	}
+}
@@ -0,0 +1,147 @@
+package com.homefixer.asignaciones.service;
+
+import com.homefixer.asignaciones.service.OptimizadorAsignaciones.PuntoSolicitud;
+import com.homefixer.asignaciones.service.OptimizadorAsignaciones.PuntoTecnico;
+import com.homefixer.asignaciones.service.OptimizadorAsignaciones.Resultado;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Húngaro y heurística contra fuerza bruta, prioridad cuando faltan técnicos y benchmark (tag benchmark) de costo y tiempo hasta 5k x 5k
+class OptimizadorAsignacionesTest {
+
+	private static final double RADIO = 15;
+
+	@Test
+	void hungaroEncuentraElCostoMinimo() {
+		Random random = new Random(3);
+		OptimizadorAsignaciones optimizador = new OptimizadorAsignaciones(RADIO, Long.MAX_VALUE, 10, 0.05);
+		OptimizadorAsignaciones heuristico = new OptimizadorAsignaciones(RADIO, 0, 10, 0.05); // Con pocos técnicos ve todas las aristas
+		for (int caso = 0; caso < 200; caso++) {
+			List<PuntoSolicitud> solicitudes = solicitudes(random, 1 + random.nextInt(6), 0.3);
+			List<PuntoTecnico> tecnicos = tecnicos(random, 1 + random.nextInt(6), 0.3);
+
+			Resultado resultado = optimizador.optimizar(solicitudes, tecnicos);
+			assertTrue(resultado.exacto());
+			double optimo = fuerzaBruta(solicitudes, tecnicos, 0, new boolean[tecnicos.size()]);
+			assertEquals(optimo, resultado.costoTotal(), 1e-6);
+			assertEquals(optimo, heuristico.optimizar(solicitudes, tecnicos).costoTotal(), 1e-6);
+		}
+	}
+
+	@Test
+	void sinTecnicosSuficientesGanaLaMasUrgente() {
+		OptimizadorAsignaciones optimizador = new OptimizadorAsignaciones(RADIO, Long.MAX_VALUE, 10, 0.05);
+		List<PuntoSolicitud> solicitudes = List.of(
+			new PuntoSolicitud(1, 1, -33.45, -70.65, RADIO * 2), // MEDIA, más cerca
+			new PuntoSolicitud(2, 2, -33.47, -70.65, RADIO * 5)); // CRITICA
+		List<PuntoTecnico> tecnicos = List.of(new PuntoTecnico(10, -33.45, -70.65));
+
+		for (Resultado resultado : List.of(optimizador.optimizar(solicitudes, tecnicos),
+			new OptimizadorAsignaciones(RADIO, 0, 10, 0.05).optimizar(solicitudes, tecnicos))) {
+			assertEquals(-1, resultado.tecnicoDe()[0]);
+			assertEquals(0, resultado.tecnicoDe()[1]);
+		}
+	}
+
+	@Test
+	@Tag("benchmark") // Fuera de mvn test: mide tiempos
+	void benchmarkCostoYTiempo() {
+		Random random = new Random(11);
+
+		// 1k x 1k: heurística contra el óptimo
+		List<PuntoSolicitud> solicitudes = solicitudes(random, 1_000, 0.5);
+		List<PuntoTecnico> tecnicos = tecnicos(random, 1_000, 0.5);
+		long inicio = System.nanoTime();
+		Resultado exacto = new OptimizadorAsignaciones(RADIO, Long.MAX_VALUE, 10, 0.05).optimizar(solicitudes, tecnicos);
+		long msExacto = (System.nanoTime() - inicio) / 1_000_000;
+		inicio = System.nanoTime();
+		Resultado heuristico = new OptimizadorAsignaciones(RADIO, 0, 10, 0.05).optimizar(solicitudes, tecnicos);
+		long msHeuristico = (System.nanoTime() - inicio) / 1_000_000;
+		System.out.printf("Optimizador 1k x 1k: húngaro costo %.1f, %.1f km (%d asignadas) en %d ms; heurística costo %.1f, %.1f km (%d) en %d ms; voraz por llegada %.1f km%n",
+			exacto.costoTotal(), exacto.kmTotales(), exacto.asignadas(), msExacto,
+			heuristico.costoTotal(), heuristico.kmTotales(), heuristico.asignadas(), msHeuristico,
+			vorazPorLlegada(solicitudes, tecnicos));
+		assertTrue(exacto.exacto());
+		assertFalse(heuristico.exacto());
+		assertTrue(heuristico.costoTotal() <= exacto.costoTotal() * 1.02, "Heurística más de 2% sobre el óptimo");
+
+		// 5k x 5k: cae en la heurística con el presupuesto por defecto
+		solicitudes = solicitudes(random, 5_000, 0.5);
+		tecnicos = tecnicos(random, 5_000, 0.5);
+		OptimizadorAsignaciones porDefecto = new OptimizadorAsignaciones(RADIO, 1_000_000_000L, 10, 0.05);
+		porDefecto.optimizar(solicitudes.subList(0, 500), tecnicos.subList(0, 500)); // Calentamiento
+		inicio = System.nanoTime();
+		Resultado grande = porDefecto.optimizar(solicitudes, tecnicos);
+		long msGrande = (System.nanoTime() - inicio) / 1_000_000;
+		double voraz = vorazPorLlegada(solicitudes, tecnicos);
+		System.out.printf("Optimizador 5k x 5k: heurística %.1f km (%d asignadas) en %d ms, voraz por llegada %.1f km%n",
+			grande.kmTotales(), grande.asignadas(), msGrande, voraz);
+		assertFalse(grande.exacto());
+		assertTrue(grande.kmTotales() < voraz, "La heurística debería recorrer menos que asignar de a una");
+	}
+
+	// Costo mínimo probando todas las combinaciones
+	private static double fuerzaBruta(List<PuntoSolicitud> solicitudes, List<PuntoTecnico> tecnicos, int i, boolean[] usado) {
+		if (i == solicitudes.size()) {
+			return 0;
+		}
+		PuntoSolicitud s = solicitudes.get(i);
+		double mejor = s.penalizacion() + fuerzaBruta(solicitudes, tecnicos, i + 1, usado); // Sin técnico
+		for (int j = 0; j < tecnicos.size(); j++) {
+			double d = MotorEmparejamiento.distanciaKm(s.latitud(), s.longitud(), tecnicos.get(j).latitud(), tecnicos.get(j).longitud());
+			if (!usado[j] && d <= RADIO) {
+				usado[j] = true;
+				mejor = Math.min(mejor, d + fuerzaBruta(solicitudes, tecnicos, i + 1, usado));
+				usado[j] = false;
+			}
+		}
+		return mejor;
+	}
+
+	// Lo que pasaría asignando de a una en orden de llegada: el técnico libre más cercano
+	private static double vorazPorLlegada(List<PuntoSolicitud> solicitudes, List<PuntoTecnico> tecnicos) {
+		boolean[] usado = new boolean[tecnicos.size()];
+		double km = 0;
+		for (PuntoSolicitud s : solicitudes) {
+			int mejor = -1;
+			double distancia = RADIO;
+			for (int j = 0; j < tecnicos.size(); j++) {
+				double d = MotorEmparejamiento.distanciaKm(s.latitud(), s.longitud(), tecnicos.get(j).latitud(), tecnicos.get(j).longitud());
+				if (!usado[j] && d <= distancia) {
+					mejor = j;
+					distancia = d;
+				}
+			}
+			if (mejor != -1) {
+				usado[mejor] = true;
+				km += distancia;
+			}
+		}
+		return km;
+	}
+
+	private static List<PuntoSolicitud> solicitudes(Random random, int n, double grados) {
+		List<PuntoSolicitud> lista = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			double penalizacion = RADIO * (2 + random.nextInt(4)); // BAJA..CRITICA
+			lista.add(new PuntoSolicitud(i, i, -33.45 + (random.nextDouble() - 0.5) * grados, -70.65 + (random.nextDouble() - 0.5) * grados, penalizacion));
+		}
+		return lista;
+	}
+
+	private static List<PuntoTecnico> tecnicos(Random random, int m, double grados) {
+		List<PuntoTecnico> lista = new ArrayList<>();
+		for (int j = 0; j < m; j++) {
+			lista.add(new PuntoTecnico(j, -33.45 + (random.nextDouble() - 0.5) * grados, -70.65 + (random.nextDouble() - 0.5) * grados));
+		}
+		return lista;
+	}
+}
@@ -0,0 +1,125 @@
+package com.homefixer.asignaciones.service;
+
+import com.homefixer.asignaciones.dto.CandidatoTecnico;
+import com.homefixer.asignaciones.dto.ResultadoEmparejamiento;
+import com.homefixer.asignaciones.event.AsignacionRechazadaEvent;
+import com.homefixer.asignaciones.model.Asignacion;
+import com.homefixer.asignaciones.repository.AsignacionRepository;
+import com.homefixer.asignaciones.repository.IntentoAsignacionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Re-despacho sobre un repositorio falso y la tabla de reservas real: tope de intentos, técnicos que ya rechazaron,
+// técnicos sin cupo y re-emparejo cuando no hay lista guardada
+class RedespachoServiceTest {
+
+	private static final long ASIGNACION = 100L;
+	private static final long SOLICITUD = 7L;
+	private static final int INTENTOS_MAXIMOS = 3;
+
+	private AsignacionRepository asignaciones;
+	private IntentoAsignacionRepository intentos;
+	private EmparejamientoService emparejamiento;
+	private ReservaTecnicosService reservas;
+	private final List<Runnable> reemparejos = new ArrayList<>(); // Tareas enviadas al pool, corridas a mano
+	private RedespachoService redespacho;
+
+	@BeforeEach
+	void iniciar() {
+		asignaciones = mock(AsignacionRepository.class);
+		intentos = mock(IntentoAsignacionRepository.class);
+		emparejamiento = mock(EmparejamientoService.class);
+		reservas = new ReservaTecnicosService(asignaciones, 1); // Un cupo por técnico
+		Asignacion fila = Asignacion.builder().idAsignacion(ASIGNACION).idSolicitud(SOLICITUD).idTecnico(1L)
+			.estado(Asignacion.EstadoAsignacion.PROPUESTA).build();
+		when(asignaciones.findById(ASIGNACION)).thenReturn(Optional.of(fila));
+		when(asignaciones.reproponer(eq(ASIGNACION), any(), any(), anyLong(), any(), any(), any(), any())).thenReturn(1);
+		redespacho = new RedespachoService(asignaciones, intentos, emparejamiento, reservas, mock(CargaTecnicosService.class),
+			mock(PlazosPropuestaService.class), mock(ApplicationEventPublisher.class), mock(PlatformTransactionManager.class),
+			INTENTOS_MAXIMOS, 100, reemparejos::add);
+	}
+
+	@Test
+	void alLlegarAlTopeNoSeReproponeYSeOlvidaLaLista() {
+		redespacho.recordar(lista(1L, 2L, 3L));
+		redespacho.redespachar(new AsignacionRechazadaEvent(ASIGNACION, SOLICITUD, 1L, INTENTOS_MAXIMOS));
+		verify(asignaciones, never()).reproponer(any(), any(), any(), any(), any(), any(), any(), any());
+
+		when(emparejamiento.candidatos(SOLICITUD)).thenReturn(lista(2L));
+		redespacho.redespachar(new AsignacionRechazadaEvent(ASIGNACION, SOLICITUD, 1L, 1));
+		assertEquals(1, reemparejos.size()); // La lista se olvidó: hay que re-emparejar
+	}
+
+	@Test
+	void saltaALosTecnicosQueYaRechazaron() {
+		redespacho.recordar(lista(1L, 2L, 3L));
+		when(intentos.tecnicosIntentados(SOLICITUD)).thenReturn(List.of(1L, 2L));
+		redespacho.redespachar(new AsignacionRechazadaEvent(ASIGNACION, SOLICITUD, 2L, 2));
+		verify(asignaciones).reproponer(eq(ASIGNACION), any(), any(), eq(3L), any(), any(), any(), any());
+		verify(asignaciones, times(1)).reproponer(any(), any(), any(), any(), any(), any(), any(), any());
+		assertEquals(1, reservas.ocupados(3L));
+	}
+
+	@Test
+	void unTecnicoSinCupoPasaAlSiguiente() {
+		redespacho.recordar(lista(1L, 2L, 3L));
+		when(intentos.tecnicosIntentados(SOLICITUD)).thenReturn(List.of(1L));
+		reservas.reservar(Asignacion.builder().idSolicitud(99L).idTecnico(2L).build()); // El 2 está con otra solicitud
+		redespacho.redespachar(new AsignacionRechazadaEvent(ASIGNACION, SOLICITUD, 1L, 1));
+		verify(asignaciones).reproponer(eq(ASIGNACION), any(), any(), eq(3L), any(), any(), any(), any());
+		verify(asignaciones, never()).reproponer(any(), any(), any(), eq(2L), any(), any(), any(), any());
+	}
+
+	@Test
+	void listaAgotadaQuedaRechazada() {
+		redespacho.recordar(lista(1L, 2L));
+		when(intentos.tecnicosIntentados(SOLICITUD)).thenReturn(List.of(1L));
+		reservas.reservar(Asignacion.builder().idSolicitud(99L).idTecnico(2L).build());
+		redespacho.redespachar(new AsignacionRechazadaEvent(ASIGNACION, SOLICITUD, 1L, 1));
+		verify(asignaciones, never()).reproponer(any(), any(), any(), any(), any(), any(), any(), any());
+		assertEquals(0, reservas.ocupados(1L)); // No quedó ningún cupo tomado por el intento
+	}
+
+	@Test
+	void sinListaGuardadaReemparejaFueraDelHiloDelRechazo() {
+		when(emparejamiento.candidatos(SOLICITUD)).thenReturn(lista(1L, 4L));
+		when(intentos.tecnicosIntentados(SOLICITUD)).thenReturn(List.of(1L));
+		redespacho.redespachar(new AsignacionRechazadaEvent(ASIGNACION, SOLICITUD, 1L, 1));
+		verify(emparejamiento, never()).candidatos(any()); // Nada remoto en el hilo del rechazo
+		assertEquals(1, reemparejos.size());
+
+		reemparejos.remove(0).run();
+		verify(emparejamiento).candidatos(SOLICITUD);
+		verify(asignaciones).reproponer(eq(ASIGNACION), any(), any(), eq(4L), any(), any(), any(), any());
+
+		when(intentos.tecnicosIntentados(SOLICITUD)).thenReturn(List.of(1L, 4L));
+		redespacho.redespachar(new AsignacionRechazadaEvent(ASIGNACION, SOLICITUD, 4L, 2));
+		assertTrue(reemparejos.isEmpty()); // La lista nueva quedó guardada
+		verify(emparejamiento, times(1)).candidatos(SOLICITUD);
+	}
+
+	private static ResultadoEmparejamiento lista(Long... idsTecnico) {
+		List<CandidatoTecnico> candidatos = new ArrayList<>();
+		for (Long id : idsTecnico) {
+			candidatos.add(new CandidatoTecnico(id, 1.0 / id, id, 4.5, 0, 10));
+		}
+		return new ResultadoEmparejamiento(SOLICITUD, 50L, "Plomería", candidatos);
+	}
+}
@@ -0,0 +1,97 @@
+package com.homefixer.asignaciones.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Vencimientos contra un mapa de referencia (con vueltas completas, reprogramación y pausas largas)
+// y benchmark (tag benchmark) con un millón de plazos pendientes
+class RuedaTemporizadoresTest {
+
+	private static final long TICK = 1_000;
+	private static final int PENDIENTES = 1_000_000;
+
+	@Test
+	void venceCadaPlazoEnSuTickComoLaReferencia() {
+		Random random = new Random(3);
+		RuedaTemporizadores rueda = new RuedaTemporizadores(TICK, 64, 0L); // Vuelta de 64 s: la mayoría da varias
+		Map<Long, Long> referencia = new HashMap<>(); // id -> vence (ms)
+		long ahora = 0;
+		long siguienteTick = 0; // Un plazo ya pasado sale en el próximo tick, no en uno ya procesado
+		for (int paso = 0; paso < 3_000; paso++) {
+			for (int op = 0; op < 20; op++) {
+				long id = 1 + random.nextInt(2_000);
+				if (random.nextInt(4) == 0) {
+					assertEquals(referencia.remove(id) != null, rueda.cancelar(id));
+				} else {
+					long vence = ahora + random.nextInt(600_000) - 5_000; // Algunos ya vencidos
+					rueda.programar(id, vence);
+					referencia.put(id, Math.max(vence, siguienteTick * TICK));
+				}
+			}
+			ahora += random.nextInt(50) == 0 ? 200_000 : random.nextInt(3_000); // A veces una pausa de más de una vuelta
+			long[] vencidos = rueda.avanzar(ahora);
+			siguienteTick = Math.max(siguienteTick, ahora / TICK + 1);
+			long limite = ahora;
+			long[] esperados = referencia.entrySet().stream()
+				.filter(e -> e.getValue() <= limite - limite % TICK) // Vence en un tick ya cumplido
+				.mapToLong(Map.Entry::getKey).sorted().toArray();
+			Arrays.sort(vencidos);
+			assertArrayEquals(esperados, vencidos, "paso " + paso);
+			for (long id : vencidos) {
+				referencia.remove(id);
+			}
+			assertEquals(referencia.size(), rueda.tamano());
+		}
+	}
+
+	@Test
+	@Tag("benchmark") // Fuera de mvn test: mide tiempos
+	void unMillonDePlazosConAltaYBajaEnTiempoConstante() {
+		RuedaTemporizadores rueda = new RuedaTemporizadores(TICK, 4096, 0L);
+		Random random = new Random(9);
+		long[] vence = new long[PENDIENTES + 1];
+		for (int i = 1; i <= PENDIENTES; i++) {
+			vence[i] = random.nextInt(15 * 60) * TICK; // Plazos de hasta 15 minutos
+		}
+
+		long inicio = System.nanoTime();
+		for (int i = 1; i <= PENDIENTES; i++) {
+			rueda.programar(i, vence[i]);
+		}
+		double programarNs = (System.nanoTime() - inicio) / (double) PENDIENTES;
+		assertEquals(PENDIENTES, rueda.tamano());
+
+		inicio = System.nanoTime();
+		for (int i = 2; i <= PENDIENTES; i += 2) {
+			assertTrue(rueda.cancelar(i)); // La mitad responde a tiempo
+		}
+		double cancelarNs = (System.nanoTime() - inicio) / (PENDIENTES / 2.0);
+		assertFalse(rueda.cancelar(2));
+
+		inicio = System.nanoTime();
+		int vencidos = 0;
+		for (long ahora = 0; ahora <= 15 * 60 * TICK; ahora += TICK) {
+			for (long id : rueda.avanzar(ahora)) {
+				assertEquals(1, id % 2); // Solo los no cancelados
+				assertEquals(ahora, vence[(int) id]); // En su tick exacto
+				vencidos++;
+			}
+		}
+		double avanzarMs = (System.nanoTime() - inicio) / 1e6;
+
+		System.out.printf("RuedaTemporizadores: %d plazos -> programar %.0f ns, cancelar %.0f ns, 900 ticks en %.0f ms%n",
+			PENDIENTES, programarNs, cancelarNs, avanzarMs);
+		assertEquals(PENDIENTES / 2, vencidos);
+		assertEquals(0, rueda.tamano());
+	}
+}
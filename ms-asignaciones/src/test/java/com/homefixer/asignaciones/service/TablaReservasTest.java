@@ -0,0 +1,97 @@
+package com.homefixer.asignaciones.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Reglas básicas de la tabla de reservas y prueba de estrés: muchos hilos reservando y liberando sin pasar nunca
+// de un cupo por técnico ni de un técnico por solicitud
+class TablaReservasTest {
+
+	@Test
+	void unCupoPorTecnicoYUnTecnicoPorSolicitud() {
+		TablaReservas tabla = new TablaReservas(1);
+		assertEquals(0, tabla.reservar(10, 1));
+		assertEquals(TablaReservas.SIN_CUPO, tabla.reservar(10, 2)); // Técnico ocupado
+		assertEquals(TablaReservas.SOLICITUD_OCUPADA, tabla.reservar(11, 1)); // Solicitud tomada
+		assertEquals(0, tabla.reservar(11, 2)); // El fallo anterior no dejó la solicitud 2 tomada
+
+		tabla.liberar(11, 1); // No era suya: sin efecto
+		assertEquals(TablaReservas.SOLICITUD_OCUPADA, tabla.reservar(12, 1));
+		tabla.liberar(10, 1);
+		assertEquals(0, tabla.ocupados(10));
+		assertEquals(0, tabla.reservar(12, 1));
+		assertEquals(2, tabla.tamano());
+	}
+
+	@Test
+	void ocuparRespetaLosCuposCargados() {
+		TablaReservas tabla = new TablaReservas(2);
+		assertTrue(tabla.ocupar(10, 1, 1));
+		assertFalse(tabla.ocupar(10, 2, 1)); // Cupo ya tomado
+		assertFalse(tabla.ocupar(10, 3, 2)); // Fuera de rango
+		assertEquals(0, tabla.reservar(10, 2)); // Queda el cupo 0
+		assertEquals(TablaReservas.SIN_CUPO, tabla.reservar(10, 3));
+	}
+
+	@Test
+	void estresSinDobleReserva() throws InterruptedException {
+		int hilos = 32;
+		int tecnicos = 64; // Pocos técnicos y solicitudes: mucha contención
+		int solicitudes = 256;
+		int operaciones = 200_000;
+		TablaReservas tabla = new TablaReservas(1);
+		AtomicIntegerArray porTecnico = new AtomicIntegerArray(tecnicos); // Reservas vistas por los hilos
+		AtomicIntegerArray porSolicitud = new AtomicIntegerArray(solicitudes);
+		AtomicLong exitos = new AtomicLong();
+		AtomicLong violaciones = new AtomicLong();
+		CountDownLatch largada = new CountDownLatch(1);
+
+		ExecutorService pool = Executors.newFixedThreadPool(hilos);
+		for (int h = 0; h < hilos; h++) {
+			pool.execute(() -> {
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				try {
+					largada.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				for (int op = 0; op < operaciones; op++) {
+					int t = random.nextInt(tecnicos);
+					int s = random.nextInt(solicitudes);
+					if (tabla.reservar(t + 1, s + 1) < 0) {
+						continue; // Perdió la carrera
+					}
+					exitos.incrementAndGet();
+					if (porTecnico.incrementAndGet(t) > 1 | porSolicitud.incrementAndGet(s) > 1) {
+						violaciones.incrementAndGet(); // Dos dueños a la vez
+					}
+					porTecnico.decrementAndGet(t); // Antes de liberar: después ya puede entrar otro
+					porSolicitud.decrementAndGet(s);
+					tabla.liberar(t + 1, s + 1);
+				}
+			});
+		}
+		largada.countDown();
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(60, TimeUnit.SECONDS));
+
+		assertEquals(0, violaciones.get());
+		assertTrue(exitos.get() > 0);
+		assertEquals(0, tabla.tamano()); // Todo lo reservado se liberó
+		for (int t = 0; t < tecnicos; t++) {
+			assertEquals(0, tabla.ocupados(t + 1));
+		}
+	}
+}
@@ -2,8 +2,10 @@ package com.homefixer.solicitudes;
 
 import org.springframework.boot.SpringApplication; // Importa SpringApplication CORRECTO
 import org.springframework.boot.autoconfigure.SpringBootApplication; // Importa configuración automática
+import org.springframework.scheduling.annotation.EnableScheduling; // Habilita tareas programadas
 
 @SpringBootApplication // Configuración automática de Spring Boot
+@EnableScheduling // Habilita @Scheduled (refresco del índice de búsqueda)
 public class SolicitudesApplication {
     
     // Método principal - punto de entrada de la aplicación
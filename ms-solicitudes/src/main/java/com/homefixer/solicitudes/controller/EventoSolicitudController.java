@@ -0,0 +1,33 @@
+package com.homefixer.solicitudes.controller;
+
+import com.homefixer.solicitudes.dto.PaginaEventos; // Página de eventos
+import com.homefixer.solicitudes.event.PublicadorEnMemoria; // Broker embebido
+import lombok.RequiredArgsConstructor; // Constructor automático
+import lombok.extern.slf4j.Slf4j; // Logger automático
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty; // Activación por configuración
+import org.springframework.http.ResponseEntity; // Para respuestas HTTP
+import org.springframework.web.bind.annotation.*; // Anotaciones REST
+
+// Lectura del stream de eventos de solicitudes (solo con el broker en memoria)
+@RestController // Controlador REST
+@RequestMapping("/api/solicitudes/eventos") // Ruta base
+@ConditionalOnProperty(name = "homefixer.solicitudes.outbox.destino", havingValue = "memoria", matchIfMissing = true)
+@RequiredArgsConstructor // Constructor automático para dependencias
+@Slf4j // Logger automático
+public class EventoSolicitudController {
+    
+    private static final int LIMITE_MAXIMO = 1000; // Eventos máximos por lectura
+    
+    private final PublicadorEnMemoria broker; // Log en memoria
+    
+    // GET /api/solicitudes/eventos?offset=0 - Lee eventos desde un offset (reemplaza el polling por estado)
+    @GetMapping
+    public ResponseEntity<PaginaEventos> leer(@RequestParam(defaultValue = "0") long offset,
+                                              @RequestParam(defaultValue = "100") int limite) {
+        PaginaEventos pagina = broker.leer(Math.max(0L, offset), Math.max(1, Math.min(limite, LIMITE_MAXIMO))); // Sin tocar MySQL
+        if (pagina.eventosPerdidos()) {
+            log.warn("⚠️ Consumidor pidió offset {} fuera de la retención", offset); // Debe resincronizar
+        }
+        return ResponseEntity.ok(pagina); // Retorna 200 OK
+    }
+}
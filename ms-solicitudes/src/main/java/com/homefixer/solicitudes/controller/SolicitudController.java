@@ -1,13 +1,34 @@
 package com.homefixer.solicitudes.controller;
 
+import com.homefixer.solicitudes.dto.ConteoSolicitudes; // Conteo por combinación
+import com.homefixer.solicitudes.dto.EstadisticasSolicitudes; // Contadores del dashboard
+import com.homefixer.solicitudes.dto.FiltroSolicitudes; // Filtros de exportación
+import com.homefixer.solicitudes.dto.HistogramaAgenda; // Histograma por hora
+import com.homefixer.solicitudes.dto.ItemAgenda; // Entrada de agenda
+import com.homefixer.solicitudes.dto.ResultadoBusqueda; // Resultado de búsqueda
+import com.homefixer.solicitudes.dto.SolicitudResumen; // Fila de listado
+import com.homefixer.solicitudes.exception.TransicionEstadoException; // Transición rechazada
 import com.homefixer.solicitudes.model.Solicitud; // Importa entidad Solicitud
+import com.homefixer.solicitudes.service.AgendaSolicitudesService; // Agenda por fecha preferida
+import com.homefixer.solicitudes.service.BusquedaSolicitudesService; // Búsqueda de texto
+import com.homefixer.solicitudes.service.EstadisticasSolicitudesService; // Contadores en memoria
+import com.homefixer.solicitudes.service.ExportacionSolicitudesService; // Exportación NDJSON
 import com.homefixer.solicitudes.service.SolicitudService; // Importa servicio
 import lombok.RequiredArgsConstructor; // Constructor automático
 import lombok.extern.slf4j.Slf4j; // Logger automático
+import org.springframework.beans.factory.annotation.Value; // Para leer configuración
+import org.springframework.format.annotation.DateTimeFormat; // Para parsear fechas
+import org.springframework.http.HttpStatus; // Códigos HTTP
+import org.springframework.http.MediaType; // Tipos de contenido
 import org.springframework.http.ResponseEntity; // Para respuestas HTTP
 import org.springframework.web.bind.annotation.*; // Anotaciones REST
+import org.springframework.web.context.request.WebRequest; // Para If-None-Match
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody; // Respuesta en streaming
+import java.time.LocalDateTime; // Para fechas
 import java.util.List; // Para listas
+import java.util.Map; // Para respuestas simples
 import java.util.Optional; // Para opcionales
+import java.util.function.Supplier; // Carga diferida de la vista completa
 
 @RestController // Marca como controlador REST
 @RequestMapping("/api/solicitudes") // URL base: /api/solicitudes
@@ -15,29 +36,188 @@ import java.util.Optional; // Para opcionales
 @Slf4j // Logger automático
 public class SolicitudController {
     
+    private static final String HEADER_CURSOR = "X-Next-Cursor"; // Cursor de la página siguiente
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson"); // Un JSON por línea
+    private static final int IDS_MAXIMOS = 500; // Ids por consulta en lote
+    
     private final SolicitudService solicitudService; // Servicio inyectado
+    private final ExportacionSolicitudesService exportacionService; // Exportación en streaming
+    private final BusquedaSolicitudesService busquedaService; // Búsqueda de texto
+    private final EstadisticasSolicitudesService estadisticasService; // Contadores en memoria
+    private final AgendaSolicitudesService agendaService; // Calendario en memoria
+    
+    @Value("${homefixer.solicitudes.paginacion.limite-maximo:500}")
+    private int limiteMaximo; // Tope de filas por página
     
-    // GET /api/solicitudes - Obtener todas las solicitudes
+    // GET /api/solicitudes?cursor=&limite=&view=&fields= - Página de solicitudes ordenadas por ID
     @GetMapping
-    public ResponseEntity<List<Solicitud>> obtenerTodas() {
-        log.info("📋 GET /api/solicitudes - Obteniendo todas las solicitudes"); // Log request
+    public ResponseEntity<List<?>> obtenerTodas(@RequestParam(defaultValue = "0") Long cursor,
+                                                @RequestParam(defaultValue = "100") int limite,
+                                                @RequestParam(required = false) String view,
+                                                @RequestParam(required = false) String fields) {
+        log.info("📋 GET /api/solicitudes - Página después de ID {}", cursor); // Log request
+        
+        try {
+            int tamano = limitar(limite); // Nunca más que el máximo
+            List<?> solicitudes = enVista(view, fields, null, null, cursor, tamano, false,
+                () -> solicitudService.obtenerTodas(cursor, tamano)); // Llama servicio
+            
+            log.info("✅ Se encontraron {} solicitudes", solicitudes.size()); // Log resultado
+            return paginado(solicitudes, tamano); // Retorna 200 OK con cursor
+        } catch (Exception e) {
+            log.error("❌ Error listando solicitudes: {}", e.getMessage()); // Vista o campos inválidos
+            return ResponseEntity.badRequest().build(); // Retorna 400
+        }
+    }
+    
+    // GET /api/solicitudes/export - Exporta solicitudes como NDJSON en streaming
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportar(@RequestParam(required = false) String estado,
+                                                          @RequestParam(required = false) String ciudad,
+                                                          @RequestParam(required = false) String especialidad,
+                                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+                                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta) {
+        log.info("📤 GET /api/solicitudes/export - estado {} ciudad {} especialidad {} desde {} hasta {}", estado, ciudad, especialidad, desde, hasta); // Log request
+        
+        Solicitud.EstadoSolicitud estadoEnum; // Estado opcional
+        try {
+            estadoEnum = estado == null ? null : Solicitud.EstadoSolicitud.valueOf(estado.toUpperCase()); // Convierte a enum
+        } catch (IllegalArgumentException e) {
+            log.error("❌ Estado inválido: {}", estado); // Log error
+            return ResponseEntity.badRequest().build(); // Retorna 400
+        }
+        
+        FiltroSolicitudes filtro = new FiltroSolicitudes(estadoEnum, ciudad, especialidad, desde, hasta); // Filtros
+        StreamingResponseBody cuerpo = salida -> exportacionService.exportarNdjson(filtro, salida); // Se escribe fila por fila
+        return ResponseEntity.ok().contentType(NDJSON).body(cuerpo); // Retorna 200 OK en streaming
+    }
+    
+    // GET /api/solicitudes/estadisticas - Total y desglose por estado (filtros opcionales)
+    @GetMapping("/estadisticas")
+    public ResponseEntity<EstadisticasSolicitudes> obtenerEstadisticas(@RequestParam(required = false) String especialidad,
+                                                                       @RequestParam(required = false) String ciudad) {
+        log.info("📊 GET /api/solicitudes/estadisticas - especialidad: {}, ciudad: {}", especialidad, ciudad); // Log request
+        return ResponseEntity.ok(estadisticasService.obtener(especialidad, ciudad)); // Sin consultar BD
+    }
+    
+    // GET /api/solicitudes/estadisticas/detalle - Conteo por estado, especialidad y ciudad
+    @GetMapping("/estadisticas/detalle")
+    public ResponseEntity<List<ConteoSolicitudes>> obtenerDetalleEstadisticas() {
+        log.info("📊 GET /api/solicitudes/estadisticas/detalle"); // Log request
+        return ResponseEntity.ok(estadisticasService.detalle()); // Sin consultar BD
+    }
+    
+    // GET /api/solicitudes/agenda?especialidad=&desde=&hasta= - Solicitudes por fecha preferida en [desde, hasta)
+    @GetMapping("/agenda")
+    public ResponseEntity<List<ItemAgenda>> obtenerAgenda(@RequestParam(required = false) String especialidad,
+                                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+                                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+                                                          @RequestParam(required = false) String estado,
+                                                          @RequestParam(required = false) String prioridad,
+                                                          @RequestParam(required = false) String ciudad,
+                                                          @RequestParam(defaultValue = "100") int limite) {
+        log.info("📅 GET /api/solicitudes/agenda - especialidad {} desde {} hasta {}", especialidad, desde, hasta); // Log request
         
-        List<Solicitud> solicitudes = solicitudService.obtenerTodas(); // Llama servicio
+        try {
+            List<ItemAgenda> agenda = agendaService.buscar(especialidad, desde, hasta,
+                estado == null ? null : Solicitud.EstadoSolicitud.valueOf(estado.toUpperCase()), // Estado opcional
+                prioridad == null ? null : Solicitud.PrioridadSolicitud.valueOf(prioridad.toUpperCase()), // Prioridad opcional
+                ciudad, limitar(limite));
+            log.info("✅ Agenda con {} solicitudes", agenda.size()); // Log resultado
+            return ResponseEntity.ok(agenda); // Retorna 200 OK
+        } catch (Exception e) {
+            log.error("❌ Error consultando agenda: {}", e.getMessage()); // Log error
+            return ResponseEntity.badRequest().build(); // Retorna 400
+        }
+    }
+    
+    // GET /api/solicitudes/agenda/histograma?especialidad=&desde=&hasta= - Solicitudes no terminadas por hora
+    @GetMapping("/agenda/histograma")
+    public ResponseEntity<HistogramaAgenda> obtenerHistogramaAgenda(@RequestParam(required = false) String especialidad,
+                                                                    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+                                                                    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+                                                                    @RequestParam(required = false) String estado,
+                                                                    @RequestParam(required = false) String prioridad,
+                                                                    @RequestParam(required = false) String ciudad) {
+        log.info("📅 GET /api/solicitudes/agenda/histograma - especialidad {} desde {} hasta {}", especialidad, desde, hasta); // Log request
+        
+        try {
+            HistogramaAgenda histograma = agendaService.histograma(especialidad, desde, hasta,
+                estado == null ? null : Solicitud.EstadoSolicitud.valueOf(estado.toUpperCase()), // Estado opcional
+                prioridad == null ? null : Solicitud.PrioridadSolicitud.valueOf(prioridad.toUpperCase()), // Prioridad opcional
+                ciudad);
+            return ResponseEntity.ok(histograma); // Retorna 200 OK
+        } catch (Exception e) {
+            log.error("❌ Error calculando histograma de agenda: {}", e.getMessage()); // Log error
+            return ResponseEntity.badRequest().build(); // Retorna 400
+        }
+    }
+    
+    // GET /api/solicitudes/buscar?q= - Búsqueda de texto en título y descripción
+    @GetMapping("/buscar")
+    public ResponseEntity<ResultadoBusqueda> buscar(@RequestParam(required = false) String q,
+                                                    @RequestParam(required = false) String estado,
+                                                    @RequestParam(required = false) String especialidad,
+                                                    @RequestParam(required = false) String ciudad,
+                                                    @RequestParam(defaultValue = "0") int pagina,
+                                                    @RequestParam(defaultValue = "20") int tamano) {
+        log.info("🔎 GET /api/solicitudes/buscar - q: {}", q); // Log request
         
-        log.info("✅ Se encontraron {} solicitudes", solicitudes.size()); // Log resultado
-        return ResponseEntity.ok(solicitudes); // Retorna 200 OK
+        try {
+            ResultadoBusqueda resultado = busquedaService.buscar(q, estado, especialidad, ciudad, Math.max(0, pagina), limitar(tamano)); // Consulta el índice
+            log.info("✅ Búsqueda con {} coincidencias", resultado.total()); // Log resultado
+            return ResponseEntity.ok(resultado); // Retorna 200 OK
+        } catch (Exception e) {
+            log.error("❌ Error en búsqueda: {}", e.getMessage()); // Log error
+            return ResponseEntity.badRequest().build(); // Retorna 400
+        }
+    }
+    
+    // POST /api/solicitudes/buscar/reconstruir - Reconstruye el índice desde la BD
+    @PostMapping("/buscar/reconstruir")
+    public ResponseEntity<Map<String, Object>> reconstruirIndice() {
+        log.info("🔄 POST /api/solicitudes/buscar/reconstruir"); // Log request
+        
+        try {
+            long documentos = busquedaService.reconstruir(); // Pasada completa
+            return ResponseEntity.ok(Map.of("success", true, "documentos", documentos)); // Retorna 200 OK
+        } catch (Exception e) {
+            log.error("❌ Error reconstruyendo índice: {}", e.getMessage()); // Log error
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", String.valueOf(e.getMessage()))); // Retorna 400
+        }
+    }
+    
+    // GET /api/solicitudes/lote?ids=1,2,3 - Varias solicitudes por ID (las que no existen no aparecen)
+    @GetMapping("/lote")
+    public ResponseEntity<List<Solicitud>> obtenerPorIds(@RequestParam List<Long> ids) {
+        log.info("🔍 GET /api/solicitudes/lote - {} ids", ids.size()); // Log request
+        
+        if (ids.size() > IDS_MAXIMOS) {
+            log.warn("❌ Lote de {} ids supera el máximo de {}", ids.size(), IDS_MAXIMOS); // Log error
+            return ResponseEntity.badRequest().build(); // Retorna 400
+        }
+        return ResponseEntity.ok(solicitudService.buscarPorIds(ids)); // Retorna 200 OK
     }
     
     // GET /api/solicitudes/{id} - Obtener solicitud por ID
     @GetMapping("/{id}")
-    public ResponseEntity<Solicitud> obtenerPorId(@PathVariable Long id) {
+    public ResponseEntity<Solicitud> obtenerPorId(@PathVariable Long id, WebRequest request) {
         log.info("🔍 GET /api/solicitudes/{} - Buscando solicitud", id); // Log request
         
-        Optional<Solicitud> solicitud = solicitudService.buscarPorId(id); // Busca solicitud
+        Optional<String> etag = solicitudService.etagSolicitud(id); // Solo lee la versión
+        if (etag.isPresent() && request.checkNotModified(etag.get())) {
+            log.info("✅ Solicitud {} sin cambios (304)", id); // Log 304
+            return null; // 304 ya escrito, sin cargar ni serializar
+        }
+        
+        Optional<Solicitud> solicitud = etag.isPresent() ? solicitudService.buscarPorId(id) : Optional.empty(); // Busca solicitud
         
         if (solicitud.isPresent()) {
             log.info("✅ Solicitud encontrada ID: {}", id); // Log éxito
-            return ResponseEntity.ok(solicitud.get()); // Retorna 200 OK
+            Solicitud encontrada = solicitud.get();
+            return ResponseEntity.ok()
+                .eTag(SolicitudService.etag(encontrada.getIdSolicitud(), encontrada.getVersion())) // Versión realmente enviada
+                .body(encontrada); // Retorna 200 OK
         } else {
             log.warn("❌ Solicitud no encontrada ID: {}", id); // Log error
             return ResponseEntity.notFound().build(); // Retorna 404
@@ -61,28 +241,59 @@ public class SolicitudController {
     
     // GET /api/solicitudes/cliente/{idCliente} - Solicitudes de un cliente
     @GetMapping("/cliente/{idCliente}")
-    public ResponseEntity<List<Solicitud>> buscarPorCliente(@PathVariable Long idCliente) {
+    public ResponseEntity<List<?>> buscarPorCliente(@PathVariable Long idCliente,
+                                                    @RequestParam(defaultValue = "0") Long cursor,
+                                                    @RequestParam(defaultValue = "100") int limite,
+                                                    @RequestParam(defaultValue = "false") boolean historial,
+                                                    @RequestParam(required = false) String view,
+                                                    @RequestParam(required = false) String fields,
+                                                    WebRequest request) {
         log.info("🔍 GET /api/solicitudes/cliente/{} - Solicitudes del cliente", idCliente); // Log request
         
-        List<Solicitud> solicitudes = solicitudService.buscarPorCliente(idCliente); // Busca por cliente
+        int tamano = limitar(limite); // Nunca más que el máximo
+        try {
+            validarVista(view, fields); // Antes del ETag: una vista inválida es 400, nunca 304
+        } catch (Exception e) {
+            log.error("❌ Vista o campos inválidos: {}", e.getMessage()); // Log error
+            return ResponseEntity.badRequest().build(); // Retorna 400
+        }
+        String etag = conVista(solicitudService.etagPorCliente(idCliente, cursor, tamano, historial), view, fields); // Versión de la colección y de la vista
+        if (request.checkNotModified(etag)) {
+            log.info("✅ Solicitudes del cliente {} sin cambios (304)", idCliente); // Log 304
+            return null; // 304 ya escrito
+        }
         
-        log.info("✅ Se encontraron {} solicitudes del cliente {}", solicitudes.size(), idCliente); // Log resultado
-        return ResponseEntity.ok(solicitudes); // Retorna 200 OK
+        try {
+            List<?> solicitudes = enVista(view, fields, idCliente, null, cursor, tamano, historial,
+                () -> solicitudService.buscarPorCliente(idCliente, cursor, tamano, historial)); // Activas y, si se pide, archivadas
+            
+            log.info("✅ Se encontraron {} solicitudes del cliente {}", solicitudes.size(), idCliente); // Log resultado
+            return paginado(solicitudes, tamano, etag); // Retorna 200 OK con cursor y ETag
+        } catch (Exception e) {
+            log.error("❌ Error listando solicitudes del cliente {}: {}", idCliente, e.getMessage()); // Vista o campos inválidos
+            return ResponseEntity.badRequest().build(); // Retorna 400
+        }
     }
     
     // GET /api/solicitudes/estado/{estado} - Solicitudes por estado
     @GetMapping("/estado/{estado}")
-    public ResponseEntity<List<Solicitud>> buscarPorEstado(@PathVariable String estado) {
+    public ResponseEntity<List<?>> buscarPorEstado(@PathVariable String estado,
+                                                   @RequestParam(defaultValue = "0") Long cursor,
+                                                   @RequestParam(defaultValue = "100") int limite,
+                                                   @RequestParam(required = false) String view,
+                                                   @RequestParam(required = false) String fields) {
         log.info("🔍 GET /api/solicitudes/estado/{} - Buscando por estado", estado); // Log request
         
         try {
             Solicitud.EstadoSolicitud estadoEnum = Solicitud.EstadoSolicitud.valueOf(estado.toUpperCase()); // Convierte a enum
-            List<Solicitud> solicitudes = solicitudService.buscarPorEstado(estadoEnum); // Busca por estado
+            int tamano = limitar(limite); // Nunca más que el máximo
+            List<?> solicitudes = enVista(view, fields, null, estadoEnum, cursor, tamano, false,
+                () -> solicitudService.buscarPorEstado(estadoEnum, cursor, tamano)); // Busca por estado
             
             log.info("✅ Se encontraron {} solicitudes con estado {}", solicitudes.size(), estado); // Log resultado
-            return ResponseEntity.ok(solicitudes); // Retorna 200 OK
+            return paginado(solicitudes, tamano); // Retorna 200 OK con cursor
         } catch (Exception e) {
-            log.error("❌ Estado inválido: {}", estado); // Log error
+            log.error("❌ Estado, vista o campos inválidos: {}", e.getMessage()); // Log error
             return ResponseEntity.badRequest().build(); // Retorna 400
         }
     }
@@ -100,14 +311,18 @@ public class SolicitudController {
     
     // PUT /api/solicitudes/{id}/estado/{estado} - Cambiar estado
     @PutMapping("/{id}/estado/{estado}")
-    public ResponseEntity<Solicitud> cambiarEstado(@PathVariable Long id, @PathVariable String estado) {
+    public ResponseEntity<Solicitud> cambiarEstado(@PathVariable Long id, @PathVariable String estado,
+                                                   @RequestParam(required = false) Long version) {
         log.info("🔄 PUT /api/solicitudes/{}/estado/{} - Cambiando estado", id, estado); // Log request
         
         try {
             Solicitud.EstadoSolicitud nuevoEstado = Solicitud.EstadoSolicitud.valueOf(estado.toUpperCase()); // Convierte a enum
-            Solicitud solicitudActualizada = solicitudService.cambiarEstado(id, nuevoEstado); // Cambia estado
+            Solicitud solicitudActualizada = solicitudService.cambiarEstado(id, nuevoEstado, version); // Cambia estado
             log.info("✅ Estado cambiado exitosamente"); // Log éxito
             return ResponseEntity.ok(solicitudActualizada); // Retorna 200 OK
+        } catch (TransicionEstadoException e) {
+            log.warn("⚠️ Conflicto cambiando estado: {}", e.getMessage()); // Otro proceso ganó
+            return ResponseEntity.status(HttpStatus.CONFLICT).build(); // Retorna 409
         } catch (Exception e) {
             log.error("❌ Error cambiando estado: {}", e.getMessage()); // Log error
             return ResponseEntity.badRequest().build(); // Retorna 400
@@ -138,9 +353,81 @@ public class SolicitudController {
             Solicitud solicitudCancelada = solicitudService.cancelarSolicitud(id); // Cancela solicitud
             log.info("✅ Solicitud cancelada exitosamente"); // Log éxito
             return ResponseEntity.ok(solicitudCancelada); // Retorna 200 OK
+        } catch (TransicionEstadoException e) {
+            log.warn("⚠️ Conflicto cancelando solicitud: {}", e.getMessage()); // Ya terminada o cancelada
+            return ResponseEntity.status(HttpStatus.CONFLICT).build(); // Retorna 409
         } catch (Exception e) {
             log.error("❌ Error cancelando solicitud: {}", e.getMessage()); // Log error
             return ResponseEntity.badRequest().build(); // Retorna 400
         }
     }
-}
\ No newline at end of file
+    
+    // Acota el tamaño de página pedido por el cliente
+    private int limitar(int limite) {
+        return Math.max(1, Math.min(limite, limiteMaximo)); // Entre 1 y el máximo configurado
+    }
+    
+    // Página en la vista pedida: completa (por defecto), ?view=summary o ?fields=a,b,c con SELECT angosto
+    private List<?> enVista(String view, String fields, Long idCliente, Solicitud.EstadoSolicitud estado,
+                            Long cursor, int tamano, boolean historial, Supplier<List<Solicitud>> completa) {
+        if (fields != null && !fields.isBlank()) {
+            return solicitudService.listarCampos(fields, idCliente, estado, cursor, tamano, historial); // Solo las columnas pedidas
+        }
+        if (view == null || view.equalsIgnoreCase("full")) {
+            return completa.get(); // Entidades completas
+        }
+        if (view.equalsIgnoreCase("summary")) {
+            return solicitudService.listarResumen(idCliente, estado, cursor, tamano, historial); // Sin textos largos
+        }
+        throw new IllegalArgumentException("Vista desconocida: " + view);
+    }
+    
+    // Falla si la vista o los campos pedidos no existen, sin consultar filas
+    private void validarVista(String view, String fields) {
+        if (fields != null && !fields.isBlank()) {
+            solicitudService.validarCampos(fields); // Campos desconocidos
+        } else if (view != null && !view.equalsIgnoreCase("full") && !view.equalsIgnoreCase("summary")) {
+            throw new IllegalArgumentException("Vista desconocida: " + view);
+        }
+    }
+    
+    // El ETag de una colección cambia según la vista: misma versión, distinta representación
+    private static String conVista(String etag, String view, String fields) {
+        if (fields != null && !fields.isBlank()) {
+            return etag.substring(0, etag.length() - 1) + "-f" + Integer.toHexString(fields.replace(" ", "").hashCode()) + "\"";
+        }
+        if (view != null && view.equalsIgnoreCase("summary")) {
+            return etag.substring(0, etag.length() - 1) + "-r\"";
+        }
+        return etag; // Vista completa
+    }
+    
+    // Id de una fila de cualquier vista (para el cursor)
+    private static Long idDe(Object fila) {
+        if (fila instanceof Solicitud solicitud) {
+            return solicitud.getIdSolicitud();
+        }
+        if (fila instanceof SolicitudResumen resumen) {
+            return resumen.idSolicitud();
+        }
+        return (Long) ((Map<?, ?>) fila).get("idSolicitud"); // fields= siempre incluye el id
+    }
+    
+    // Respuesta con header X-Next-Cursor cuando puede haber más páginas
+    private ResponseEntity<List<?>> paginado(List<?> pagina, int tamano) {
+        return paginado(pagina, tamano, null); // Sin ETag
+    }
+    
+    // Igual que paginado, agregando el ETag de la colección si se calculó
+    private ResponseEntity<List<?>> paginado(List<?> pagina, int tamano, String etag) {
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+        if (etag != null) {
+            respuesta.eTag(etag); // Para el próximo If-None-Match
+        }
+        if (pagina.size() < tamano) {
+            return respuesta.body(pagina); // Última página
+        }
+        Long siguiente = idDe(pagina.get(pagina.size() - 1)); // Último id entregado
+        return respuesta.header(HEADER_CURSOR, String.valueOf(siguiente)).body(pagina); // Hay más
+    }
+}
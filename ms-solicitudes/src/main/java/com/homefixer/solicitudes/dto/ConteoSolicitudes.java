@@ -0,0 +1,12 @@
+package com.homefixer.solicitudes.dto;
+
+import com.homefixer.solicitudes.model.Solicitud; // Importa entidad Solicitud
+
+// Cantidad de solicitudes para una combinación de estado, especialidad y ciudad
+public record ConteoSolicitudes(
+    Solicitud.EstadoSolicitud estado, // Estado
+    String especialidad, // Especialidad requerida
+    String ciudad, // Ciudad (puede ser null)
+    Long cantidad // Solicitudes en esa combinación
+) {
+}
@@ -0,0 +1,12 @@
+package com.homefixer.solicitudes.dto;
+
+import java.util.Map; // Para mapas
+
+// Respuesta de GET /api/solicitudes/estadisticas
+public record EstadisticasSolicitudes(
+    String especialidad, // Filtro aplicado (null = todas)
+    String ciudad, // Filtro aplicado (null = todas)
+    long total, // Solicitudes que cumplen el filtro
+    Map<String, Long> porEstado // Desglose por estado
+) {
+}
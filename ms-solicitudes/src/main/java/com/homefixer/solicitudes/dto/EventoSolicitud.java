@@ -0,0 +1,21 @@
+package com.homefixer.solicitudes.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue; // Inserta el JSON tal cual
+import com.homefixer.solicitudes.model.EventoOutbox; // Importa entidad EventoOutbox
+import java.time.LocalDateTime; // Para fechas
+
+// Evento tal como lo reciben los consumidores (webhook, archivo o broker en memoria)
+public record EventoSolicitud(
+    Long idEvento, // Creciente; sirve para deduplicar (entrega al menos una vez)
+    Long idSolicitud, // Agregado: los eventos de una solicitud llegan en orden
+    EventoOutbox.TipoEvento tipo, // Qué pasó
+    LocalDateTime fecha, // Cuándo pasó
+    @JsonRawValue String solicitud // Solicitud serializada al momento del cambio
+) {
+
+    // Convierte la fila del outbox en el mensaje publicado
+    public static EventoSolicitud desde(EventoOutbox evento) {
+        return new EventoSolicitud(evento.getIdEvento(), evento.getIdSolicitud(), evento.getTipo(),
+            evento.getFechaCreacion(), evento.getPayload());
+    }
+}
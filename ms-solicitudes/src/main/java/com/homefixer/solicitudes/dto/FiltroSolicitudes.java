@@ -0,0 +1,19 @@
+package com.homefixer.solicitudes.dto;
+
+import com.homefixer.solicitudes.model.Solicitud; // Importa entidad Solicitud
+import java.time.LocalDateTime; // Para fechas
+
+// Filtros opcionales para recorridos completos de la tabla (exportación, reconstrucciones)
+public record FiltroSolicitudes(
+    Solicitud.EstadoSolicitud estado, // null = todos los estados
+    String ciudad, // null = todas las ciudades
+    String especialidad, // null = todas las especialidades
+    LocalDateTime desde, // fecha_creacion >= desde (opcional)
+    LocalDateTime hasta // fecha_creacion < hasta (opcional)
+) {
+
+    // Sin filtros: recorre toda la tabla
+    public static FiltroSolicitudes todos() {
+        return new FiltroSolicitudes(null, null, null, null, null);
+    }
+}
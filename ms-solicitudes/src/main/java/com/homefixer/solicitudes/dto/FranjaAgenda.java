@@ -0,0 +1,10 @@
+package com.homefixer.solicitudes.dto;
+
+import java.time.LocalDateTime; // Para fechas
+
+// Cantidad de solicitudes cuya fecha preferida cae en una hora
+public record FranjaAgenda(
+    LocalDateTime hora, // Inicio de la hora
+    long cantidad // Solicitudes en [hora, hora + 1h)
+) {
+}
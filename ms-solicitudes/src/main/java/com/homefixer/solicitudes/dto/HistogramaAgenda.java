@@ -0,0 +1,14 @@
+package com.homefixer.solicitudes.dto;
+
+import java.time.LocalDateTime; // Para fechas
+import java.util.List; // Para listas
+
+// Respuesta de GET /api/solicitudes/agenda/histograma
+public record HistogramaAgenda(
+    String especialidad, // Filtro aplicado (null = todas)
+    LocalDateTime desde, // Primera hora incluida
+    LocalDateTime hasta, // Fin exclusivo
+    long total, // Suma de todas las franjas
+    List<FranjaAgenda> franjas // Una por hora, incluidas las vacías
+) {
+}
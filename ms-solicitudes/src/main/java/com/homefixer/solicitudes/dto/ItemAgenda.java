@@ -0,0 +1,21 @@
+package com.homefixer.solicitudes.dto;
+
+import com.homefixer.solicitudes.model.Solicitud; // Importa entidad Solicitud
+import java.time.LocalDateTime; // Para fechas
+
+// Solicitud vista desde la agenda: solo lo que necesita un planificador
+public record ItemAgenda(
+    Long idSolicitud, // ID de la solicitud
+    String especialidad, // Especialidad requerida
+    Solicitud.EstadoSolicitud estado, // Estado actual
+    Solicitud.PrioridadSolicitud prioridad, // Urgencia
+    String ciudad, // Ciudad (puede ser null)
+    LocalDateTime fechaPreferida // Cuándo prefiere el servicio el cliente
+) {
+
+    // Copia los campos de agenda de una solicitud
+    public static ItemAgenda de(Solicitud solicitud) {
+        return new ItemAgenda(solicitud.getIdSolicitud(), solicitud.getEspecialidadRequerida(), solicitud.getEstado(),
+            solicitud.getPrioridad(), solicitud.getCiudad(), solicitud.getFechaPreferida());
+    }
+}
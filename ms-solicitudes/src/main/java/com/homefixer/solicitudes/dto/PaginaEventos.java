@@ -0,0 +1,11 @@
+package com.homefixer.solicitudes.dto;
+
+import java.util.List; // Para listas
+
+// Página leída del broker en memoria; el consumidor guarda siguienteOffset para la próxima lectura
+public record PaginaEventos(
+    long siguienteOffset, // Offset desde el que pedir la próxima página
+    boolean eventosPerdidos, // El offset pedido ya salió de la retención
+    List<EventoSolicitud> eventos // Eventos en orden de publicación
+) {
+}
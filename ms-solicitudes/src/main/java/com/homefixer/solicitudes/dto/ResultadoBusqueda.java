@@ -0,0 +1,25 @@
+package com.homefixer.solicitudes.dto;
+
+import java.util.List; // Para listas
+import java.util.Map; // Para mapas
+
+// Página de resultados de búsqueda de texto con facetas
+public record ResultadoBusqueda(
+    long total, // Total de coincidencias
+    int pagina, // Página devuelta (desde 0)
+    int tamano, // Resultados por página
+    List<Coincidencia> resultados, // Ordenados por relevancia
+    Map<String, Map<String, Long>> facetas // dimensión -> valor -> cantidad
+) {
+
+    // Una solicitud encontrada
+    public record Coincidencia(
+        Long idSolicitud, // ID de la solicitud
+        String titulo, // Título guardado en el índice
+        String estado, // Estado indexado
+        String especialidad, // Especialidad indexada
+        String ciudad, // Ciudad indexada
+        float puntaje // Relevancia BM25
+    ) {
+    }
+}
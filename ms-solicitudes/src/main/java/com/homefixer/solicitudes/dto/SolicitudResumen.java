@@ -0,0 +1,22 @@
+package com.homefixer.solicitudes.dto;
+
+import com.homefixer.solicitudes.model.Solicitud; // Importa entidad Solicitud
+import java.math.BigDecimal; // Para decimales
+import java.time.LocalDateTime; // Para fechas
+
+// Fila de listado (?view=summary): todo menos los textos largos (descripcion, observaciones, direccion)
+public record SolicitudResumen(
+    Long idSolicitud, // ID de la solicitud
+    Long idCliente, // Cliente que la pidió
+    String titulo, // Título del servicio
+    String especialidadRequerida, // Tipo de técnico
+    String ciudad, // Ciudad del servicio
+    String region, // Región del servicio
+    Solicitud.EstadoSolicitud estado, // Estado actual
+    Solicitud.PrioridadSolicitud prioridad, // Urgencia
+    BigDecimal presupuestoEstimado, // Presupuesto del cliente
+    LocalDateTime fechaCreacion, // Cuándo se creó
+    LocalDateTime fechaPreferida, // Cuándo prefiere el servicio
+    Long version // Versión de la fila
+) {
+}
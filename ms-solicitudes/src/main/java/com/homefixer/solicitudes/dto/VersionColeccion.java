@@ -0,0 +1,19 @@
+package com.homefixer.solicitudes.dto;
+
+// Resumen barato de una colección para calcular su ETag sin cargar las filas
+public record VersionColeccion(
+    Long cantidad, // Filas en la colección (cambia con altas y bajas)
+    Long sumaVersiones, // Cambia con cada modificación de una fila
+    Long maxId // Cambia si se reemplaza una fila por otra
+) {
+
+    // ETag fuerte de la colección (con prefijo para distinguir recursos)
+    public String etag(String prefijo) {
+        return "\"" + prefijo + "-" + firma() + "\"";
+    }
+    
+    // Parte variable del ETag, para combinar varias colecciones en uno
+    public String firma() {
+        return cantidad + "-" + sumaVersiones + "-" + maxId;
+    }
+}
@@ -0,0 +1,47 @@
+package com.homefixer.solicitudes.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper; // Serializador JSON de Spring
+import com.homefixer.solicitudes.dto.EventoSolicitud; // Evento publicado
+import lombok.extern.slf4j.Slf4j; // Logger automático
+import org.springframework.beans.factory.annotation.Value; // Para leer configuración
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty; // Activación por configuración
+import org.springframework.stereotype.Component; // Componente Spring
+import java.io.ByteArrayOutputStream; // Buffer del lote
+import java.io.FileOutputStream; // Escritura en modo append
+import java.io.IOException; // Errores de disco
+import java.nio.file.Files; // Para crear carpetas
+import java.nio.file.Path; // Ruta del log
+import java.util.List; // Para listas
+
+// Agrega cada lote como NDJSON a un archivo local y hace fsync antes de confirmar
+@Component // Componente Spring
+@ConditionalOnProperty(name = "homefixer.solicitudes.outbox.destino", havingValue = "archivo")
+@Slf4j // Logger automático
+public class PublicadorArchivo implements PublicadorEventos {
+
+    private final ObjectMapper objectMapper; // Mismo formato JSON que la API
+    private final Path ruta; // Archivo de eventos
+
+    public PublicadorArchivo(ObjectMapper objectMapper,
+                             @Value("${homefixer.solicitudes.outbox.archivo.ruta:./data/eventos-solicitudes.ndjson}") String ruta) throws IOException {
+        this.objectMapper = objectMapper;
+        this.ruta = Path.of(ruta);
+        if (this.ruta.getParent() != null) {
+            Files.createDirectories(this.ruta.getParent()); // Crea la carpeta si no existe
+        }
+        log.info("📮 Outbox publicando en archivo {}", this.ruta.toAbsolutePath()); // Log destino
+    }
+
+    @Override
+    public synchronized void publicar(List<EventoSolicitud> lote) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(lote.size() * 512); // Una sola escritura por lote
+        for (EventoSolicitud evento : lote) {
+            objectMapper.writeValue(buffer, evento); // Un evento por línea
+            buffer.write('\n');
+        }
+        try (FileOutputStream salida = new FileOutputStream(ruta.toFile(), true)) {
+            buffer.writeTo(salida);
+            salida.getFD().sync(); // Durable antes de marcar como publicado
+        }
+    }
+}
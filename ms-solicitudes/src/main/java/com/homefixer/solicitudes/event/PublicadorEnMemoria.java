@@ -0,0 +1,52 @@
+package com.homefixer.solicitudes.event;
+
+import com.homefixer.solicitudes.dto.EventoSolicitud; // Evento publicado
+import com.homefixer.solicitudes.dto.PaginaEventos; // Página para consumidores
+import org.springframework.beans.factory.annotation.Value; // Para leer configuración
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty; // Activación por configuración
+import org.springframework.stereotype.Component; // Componente Spring
+import java.util.ArrayList; // Para listas mutables
+import java.util.HashSet; // Ids ya aceptados
+import java.util.List; // Para listas
+import java.util.Set; // Para conjuntos
+
+// Broker embebido: log circular en memoria que los consumidores leen por offset en vez de consultar MySQL
+@Component // Componente Spring
+@ConditionalOnProperty(name = "homefixer.solicitudes.outbox.destino", havingValue = "memoria", matchIfMissing = true)
+public class PublicadorEnMemoria implements PublicadorEventos {
+
+    private final EventoSolicitud[] anillo; // Log circular: offset % capacidad
+    private final Set<Long> aceptados = new HashSet<>(); // idEvento presentes en el anillo (reintentos del relay)
+    private long siguienteOffset = 0L; // Offset del próximo evento
+
+    public PublicadorEnMemoria(@Value("${homefixer.solicitudes.outbox.memoria.capacidad:10000}") int capacidad) {
+        this.anillo = new EventoSolicitud[capacidad];
+    }
+
+    @Override
+    public synchronized void publicar(List<EventoSolicitud> lote) {
+        for (EventoSolicitud evento : lote) {
+            if (!aceptados.add(evento.idEvento())) {
+                continue; // Ya publicado: el relay reintentó el lote
+            }
+            int posicion = (int) (siguienteOffset % anillo.length);
+            if (anillo[posicion] != null) {
+                aceptados.remove(anillo[posicion].idEvento()); // Sale de la retención
+            }
+            anillo[posicion] = evento;
+            siguienteOffset++;
+        }
+    }
+
+    // Hasta limite eventos desde el offset indicado, en orden de publicación
+    public synchronized PaginaEventos leer(long desde, int limite) {
+        long primero = Math.max(0L, siguienteOffset - anillo.length); // Offset más antiguo retenido
+        long inicio = Math.max(desde, primero);
+        long fin = Math.min(siguienteOffset, inicio + limite);
+        List<EventoSolicitud> eventos = new ArrayList<>((int) Math.max(0, fin - inicio));
+        for (long offset = inicio; offset < fin; offset++) {
+            eventos.add(anillo[(int) (offset % anillo.length)]); // Acceso directo por offset
+        }
+        return new PaginaEventos(Math.max(fin, desde), desde < primero, eventos);
+    }
+}
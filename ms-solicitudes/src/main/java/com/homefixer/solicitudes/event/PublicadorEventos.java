@@ -0,0 +1,11 @@
+package com.homefixer.solicitudes.event;
+
+import com.homefixer.solicitudes.dto.EventoSolicitud; // Evento publicado
+import java.util.List; // Para listas
+
+// Destino del relay del outbox; se elige con homefixer.solicitudes.outbox.destino
+public interface PublicadorEventos {
+
+    // Publica un lote en orden; si lanza excepción el lote completo se reintenta
+    void publicar(List<EventoSolicitud> lote) throws Exception;
+}
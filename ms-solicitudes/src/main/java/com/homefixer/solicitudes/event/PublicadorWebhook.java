@@ -0,0 +1,50 @@
+package com.homefixer.solicitudes.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper; // Serializador JSON de Spring
+import com.homefixer.solicitudes.dto.EventoSolicitud; // Evento publicado
+import lombok.extern.slf4j.Slf4j; // Logger automático
+import org.springframework.beans.factory.annotation.Value; // Para leer configuración
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty; // Activación por configuración
+import org.springframework.stereotype.Component; // Componente Spring
+import java.io.IOException; // Error de red
+import java.net.URI; // Destino
+import java.net.http.HttpClient; // Cliente HTTP del JDK
+import java.net.http.HttpRequest; // Request
+import java.net.http.HttpResponse; // Response
+import java.time.Duration; // Timeouts
+import java.util.List; // Para listas
+
+// Envía cada lote como un arreglo JSON por POST; cualquier respuesta que no sea 2xx se reintenta
+@Component // Componente Spring
+@ConditionalOnProperty(name = "homefixer.solicitudes.outbox.destino", havingValue = "webhook")
+@Slf4j // Logger automático
+public class PublicadorWebhook implements PublicadorEventos {
+
+    private final HttpClient httpClient; // Reutiliza conexiones
+    private final ObjectMapper objectMapper; // Mismo formato JSON que la API
+    private final URI url; // Endpoint del consumidor
+    private final Duration timeout; // Tiempo máximo por lote
+
+    public PublicadorWebhook(ObjectMapper objectMapper,
+                             @Value("${homefixer.solicitudes.outbox.webhook.url}") String url,
+                             @Value("${homefixer.solicitudes.outbox.webhook.timeout-ms:5000}") long timeoutMs) {
+        this.objectMapper = objectMapper;
+        this.url = URI.create(url);
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+        log.info("📮 Outbox publicando por webhook a {}", url); // Log destino
+    }
+
+    @Override
+    public void publicar(List<EventoSolicitud> lote) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(url)
+            .timeout(timeout)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(lote))) // Lote completo
+            .build();
+        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Webhook respondió " + response.statusCode()); // Se reintenta en el próximo ciclo
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.homefixer.solicitudes.event;
+
+import com.homefixer.solicitudes.model.Solicitud; // Importa entidad Solicitud
+
+// Evento publicado por SolicitudService cada vez que una solicitud se crea o cambia
+public record SolicitudCambiadaEvent(
+    Solicitud solicitud, // Estado ya guardado en BD
+    Solicitud.EstadoSolicitud estadoAnterior // Null si es nueva; igual al actual si no cambió de estado
+) {
+}
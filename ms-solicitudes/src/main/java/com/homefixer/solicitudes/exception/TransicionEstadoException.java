@@ -0,0 +1,24 @@
+package com.homefixer.solicitudes.exception;
+
+import com.homefixer.solicitudes.model.Solicitud; // Importa entidad Solicitud
+
+// La solicitud existe pero su estado (o versión) ya no permite el cambio pedido: otro proceso ganó
+public class TransicionEstadoException extends RuntimeException {
+
+    private final Solicitud.EstadoSolicitud estadoActual; // Estado que tiene ahora la fila
+    private final Long versionActual; // Versión que tiene ahora la fila
+
+    public TransicionEstadoException(String mensaje, Solicitud.EstadoSolicitud estadoActual, Long versionActual) {
+        super(mensaje);
+        this.estadoActual = estadoActual;
+        this.versionActual = versionActual;
+    }
+
+    public Solicitud.EstadoSolicitud getEstadoActual() {
+        return estadoActual;
+    }
+
+    public Long getVersionActual() {
+        return versionActual;
+    }
+}
@@ -0,0 +1,46 @@
+package com.homefixer.solicitudes.model;
+
+import jakarta.persistence.*; // Importa anotaciones JPA
+import lombok.*; // Importa Lombok
+import java.time.LocalDateTime; // Para fechas con hora
+
+@Entity // Marca como entidad de base de datos
+@Table(name = "outbox_solicitudes", indexes = { // Eventos pendientes de publicar
+    @Index(name = "idx_outbox_pendientes", columnList = "fecha_publicacion, id_evento") // Lotes del relay en orden
+})
+@Data // Lombok: getters, setters, toString automáticos
+@NoArgsConstructor // Constructor vacío
+@AllArgsConstructor // Constructor con todos los parámetros
+@Builder // Patrón builder para crear objetos
+public class EventoOutbox {
+    
+    @Id // Clave primaria
+    @GeneratedValue(strategy = GenerationType.IDENTITY) // Auto incremento = orden de publicación
+    @Column(name = "id_evento") // Nombre explícito para el índice
+    private Long idEvento; // ID único y creciente del evento
+    
+    @Column(name = "id_solicitud", nullable = false) // Agregado al que pertenece
+    private Long idSolicitud; // Solicitud que cambió
+    
+    @Enumerated(EnumType.STRING) // Tipo como texto
+    @Column(name = "tipo", nullable = false, length = 30) // Tipo obligatorio
+    private TipoEvento tipo; // Qué pasó
+    
+    @Lob // Texto largo
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT") // JSON de la solicitud
+    private String payload; // Solicitud serializada al momento del cambio
+    
+    @Column(name = "fecha_creacion", nullable = false) // Cuándo se registró
+    private LocalDateTime fechaCreacion; // Timestamp del cambio
+    
+    @Column(name = "fecha_publicacion") // Null = pendiente
+    private LocalDateTime fechaPublicacion; // Cuándo lo confirmó el destino
+    
+    // Enum para los tipos de evento
+    public enum TipoEvento {
+        CREADA,          // Nueva solicitud
+        ESTADO_CAMBIADO, // Cambio de estado
+        ACTUALIZADA,     // Cambio de datos editables
+        CANCELADA        // Cancelada por el cliente
+    }
+}
@@ -1,12 +1,20 @@
 package com.homefixer.solicitudes.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore; // Para ocultar columnas internas
 import jakarta.persistence.*; // Importa anotaciones JPA
 import lombok.*; // Importa Lombok
 import java.math.BigDecimal; // Para decimales con precisión
 import java.time.LocalDateTime; // Para fechas con hora
+import java.util.EnumSet; // Conjuntos de estados
+import java.util.Set; // Para conjuntos
 
 @Entity // Marca como entidad de base de datos
-@Table(name = "solicitudes") // Nombre de tabla en MySQL
+@Table(name = "solicitudes", indexes = { // Nombre de tabla en MySQL
+    @Index(name = "idx_solicitudes_estado", columnList = "estado, id_solicitud"), // Paginación por estado
+    @Index(name = "idx_solicitudes_cliente", columnList = "id_cliente, id_solicitud, version"), // Paginación y ETag por cliente
+    @Index(name = "idx_solicitudes_agenda", columnList = "id_especialidad, estado, fecha_preferida"), // Ventanas de agenda
+    @Index(name = "idx_solicitudes_actualizacion", columnList = "fecha_actualizacion") // Puesta al día del índice de búsqueda
+})
 @Data // Lombok: getters, setters, toString automáticos
 @NoArgsConstructor // Constructor vacío
 @AllArgsConstructor // Constructor con todos los parámetros
@@ -15,6 +23,7 @@ public class Solicitud {
     
     @Id // Clave primaria
     @GeneratedValue(strategy = GenerationType.IDENTITY) // Auto incremento
+    @Column(name = "id_solicitud") // Nombre explícito: lo usan los índices y el SQL nativo
     private Long idSolicitud; // ID único de la solicitud
     
     @Column(name = "id_cliente", nullable = false) // FK obligatoria a ms-usuarios
@@ -38,9 +47,25 @@ public class Solicitud {
     @Column(name = "region", length = 50) // Región opcional
     private String region; // Región del servicio
     
+    @JsonIgnore // Derivado del texto; no viaja en la API
+    @Column(name = "id_especialidad") // Id en catalogo_valores
+    private Integer idEspecialidad; // Especialidad codificada (filtros e índices)
+    
+    @JsonIgnore // Derivado del texto; no viaja en la API
+    @Column(name = "id_ciudad") // Id en catalogo_valores
+    private Integer idCiudad; // Ciudad codificada
+    
+    @JsonIgnore // Derivado del texto; no viaja en la API
+    @Column(name = "id_region") // Id en catalogo_valores
+    private Integer idRegion; // Región codificada
+    
     @Enumerated(EnumType.STRING) // Guarda enum como texto
     private EstadoSolicitud estado; // Estado actual de la solicitud
     
+    @Enumerated(EnumType.STRING) // Guarda enum como texto
+    @Column(name = "estado_anterior", length = 20) // Lo escribe el mismo UPDATE de la transición
+    private EstadoSolicitud estadoAnterior; // Estado antes de la última transición
+    
     @Enumerated(EnumType.STRING) // Prioridad como texto
     private PrioridadSolicitud prioridad; // Urgencia del servicio
     
@@ -50,19 +75,47 @@ public class Solicitud {
     @Column(name = "fecha_creacion") // Cuándo se creó
     private LocalDateTime fechaCreacion; // Timestamp de creación
     
+    @Column(name = "fecha_actualizacion") // Último cambio
+    private LocalDateTime fechaActualizacion; // Base de la política de retención
+    
     @Column(name = "fecha_preferida") // Cuándo prefiere el servicio
     private LocalDateTime fechaPreferida; // Fecha/hora preferida por el cliente
     
     @Column(name = "observaciones", length = 500) // Observaciones opcionales
     private String observaciones; // Notas adicionales del cliente
     
-    // Enum para los estados posibles de una solicitud
+    @Version // Bloqueo optimista
+    @Column(name = "version") // Se incrementa en cada cambio
+    private Long version; // Versión de la fila
+    
+    // Enum para los estados posibles de una solicitud (máquina de estados)
     public enum EstadoSolicitud {
         PENDIENTE,   // Recién creada, esperando técnicos
         ASIGNADA,    // Ya tiene técnico asignado
         EN_PROCESO,  // El técnico está trabajando
         COMPLETADA,  // Servicio terminado
-        CANCELADA    // Cancelada por cliente o técnico
+        CANCELADA;   // Cancelada por cliente o técnico
+        
+        // Estados desde los que se puede llegar a este
+        public Set<EstadoSolicitud> origenesPermitidos() {
+            return switch (this) {
+                case PENDIENTE -> EnumSet.of(ASIGNADA); // Se liberó al técnico
+                case ASIGNADA -> EnumSet.of(PENDIENTE); // Un técnico la tomó
+                case EN_PROCESO -> EnumSet.of(ASIGNADA); // El técnico empezó
+                case COMPLETADA -> EnumSet.of(EN_PROCESO); // Solo se completa lo que está en proceso
+                case CANCELADA -> EnumSet.of(PENDIENTE, ASIGNADA, EN_PROCESO); // Cualquier estado no terminal
+            };
+        }
+        
+        // ¿Es válido pasar de este estado a destino?
+        public boolean puedeCambiarA(EstadoSolicitud destino) {
+            return destino.origenesPermitidos().contains(this);
+        }
+        
+        // COMPLETADA y CANCELADA no tienen salida
+        public boolean esTerminal() {
+            return this == COMPLETADA || this == CANCELADA;
+        }
     }
     
     // Enum para la prioridad de la solicitud
@@ -0,0 +1,100 @@
+package com.homefixer.solicitudes.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore; // Para ocultar columnas internas
+import jakarta.persistence.*; // Importa anotaciones JPA
+import lombok.*; // Importa Lombok
+import java.math.BigDecimal; // Para decimales con precisión
+import java.time.LocalDateTime; // Para fechas con hora
+
+@Entity // Marca como entidad de base de datos
+@Table(name = "solicitudes_archivadas", indexes = { // Solicitudes terminadas fuera de la tabla activa
+    @Index(name = "idx_archivadas_cliente", columnList = "id_cliente, id_solicitud") // Historial por cliente
+})
+@Data // Lombok: getters, setters, toString automáticos
+@NoArgsConstructor // Constructor vacío
+@AllArgsConstructor // Constructor con todos los parámetros
+@Builder // Patrón builder para crear objetos
+public class SolicitudArchivada {
+    
+    @Id // Clave primaria: el mismo id que tenía en la tabla activa
+    @Column(name = "id_solicitud") // Sin autoincremento
+    private Long idSolicitud; // ID original de la solicitud
+    
+    @Column(name = "id_cliente", nullable = false) // FK a ms-usuarios
+    private Long idCliente; // Cliente que la pidió
+    
+    @Column(name = "titulo", nullable = false, length = 200)
+    private String titulo; // Título del servicio
+    
+    @Column(name = "descripcion", nullable = false, length = 1000)
+    private String descripcion; // Descripción del problema
+    
+    @Column(name = "especialidad_requerida", nullable = false, length = 100)
+    private String especialidadRequerida; // Tipo de técnico
+    
+    @Column(name = "direccion_servicio", nullable = false, length = 200)
+    private String direccionServicio; // Dirección del servicio
+    
+    @Column(name = "ciudad", length = 50)
+    private String ciudad; // Ciudad del servicio
+    
+    @Column(name = "region", length = 50)
+    private String region; // Región del servicio
+    
+    @JsonIgnore // Derivado del texto; no viaja en la API
+    @Column(name = "id_especialidad") // Id en catalogo_valores
+    private Integer idEspecialidad; // Especialidad codificada (filtros e índices)
+    
+    @JsonIgnore // Derivado del texto; no viaja en la API
+    @Column(name = "id_ciudad") // Id en catalogo_valores
+    private Integer idCiudad; // Ciudad codificada
+    
+    @JsonIgnore // Derivado del texto; no viaja en la API
+    @Column(name = "id_region") // Id en catalogo_valores
+    private Integer idRegion; // Región codificada
+    
+    @Enumerated(EnumType.STRING) // Guarda enum como texto
+    @Column(name = "estado", length = 20)
+    private Solicitud.EstadoSolicitud estado; // COMPLETADA o CANCELADA
+    
+    @Enumerated(EnumType.STRING) // Guarda enum como texto
+    @Column(name = "estado_anterior", length = 20)
+    private Solicitud.EstadoSolicitud estadoAnterior; // Estado antes de terminar
+    
+    @Enumerated(EnumType.STRING) // Prioridad como texto
+    @Column(name = "prioridad", length = 20)
+    private Solicitud.PrioridadSolicitud prioridad; // Urgencia que tuvo
+    
+    @Column(name = "presupuesto_estimado", precision = 10, scale = 2)
+    private BigDecimal presupuestoEstimado; // Presupuesto del cliente
+    
+    @Column(name = "fecha_creacion")
+    private LocalDateTime fechaCreacion; // Cuándo se creó
+    
+    @Column(name = "fecha_actualizacion")
+    private LocalDateTime fechaActualizacion; // Cuándo terminó
+    
+    @Column(name = "fecha_preferida")
+    private LocalDateTime fechaPreferida; // Fecha preferida por el cliente
+    
+    @Column(name = "observaciones", length = 500)
+    private String observaciones; // Notas del cliente
+    
+    @Column(name = "version")
+    private Long version; // Última versión que tuvo (las archivadas no cambian)
+    
+    @Column(name = "fecha_archivado", nullable = false) // Cuándo se movió
+    private LocalDateTime fechaArchivado; // Timestamp del archivado
+    
+    // Vuelve a la forma de Solicitud para responder igual que la tabla activa
+    public Solicitud aSolicitud() {
+        return Solicitud.builder()
+            .idSolicitud(idSolicitud).idCliente(idCliente).titulo(titulo).descripcion(descripcion)
+            .especialidadRequerida(especialidadRequerida).direccionServicio(direccionServicio)
+            .ciudad(ciudad).region(region).idEspecialidad(idEspecialidad).idCiudad(idCiudad).idRegion(idRegion).estado(estado).estadoAnterior(estadoAnterior).prioridad(prioridad)
+            .presupuestoEstimado(presupuestoEstimado).fechaCreacion(fechaCreacion)
+            .fechaActualizacion(fechaActualizacion).fechaPreferida(fechaPreferida)
+            .observaciones(observaciones).version(version)
+            .build();
+    }
+}
@@ -0,0 +1,31 @@
+package com.homefixer.solicitudes.repository;
+
+import com.homefixer.solicitudes.model.EventoOutbox; // Importa entidad EventoOutbox
+import org.springframework.data.domain.Pageable; // Para limitar resultados
+import org.springframework.data.jpa.repository.JpaRepository; // Interfaz base
+import org.springframework.data.jpa.repository.Modifying; // Para UPDATE y DELETE
+import org.springframework.data.jpa.repository.Query; // Para consultas personalizadas
+import org.springframework.data.repository.query.Param; // Para parámetros
+import org.springframework.stereotype.Repository; // Anotación repositorio
+import java.time.LocalDateTime; // Para fechas
+import java.util.List; // Para listas
+
+@Repository // Marca como repositorio Spring
+public interface EventoOutboxRepository extends JpaRepository<EventoOutbox, Long> {
+    
+    // Siguiente lote pendiente en orden de registro (usa idx_outbox_pendientes)
+    List<EventoOutbox> findByFechaPublicacionIsNullOrderByIdEventoAsc(Pageable pageable); // Lote del relay
+    
+    // Cantidad de eventos sin publicar
+    long countByFechaPublicacionIsNull(); // Para monitoreo
+    
+    // Marca un lote como publicado en una sola sentencia
+    @Modifying
+    @Query("UPDATE EventoOutbox e SET e.fechaPublicacion = :fecha WHERE e.idEvento IN :ids")
+    int marcarPublicados(@Param("ids") List<Long> ids, @Param("fecha") LocalDateTime fecha); // Confirmación del destino
+    
+    // Borra eventos ya publicados más antiguos que la retención
+    @Modifying
+    @Query("DELETE FROM EventoOutbox e WHERE e.fechaPublicacion IS NOT NULL AND e.fechaPublicacion < :limite")
+    int borrarPublicadosAntesDe(@Param("limite") LocalDateTime limite); // Limpieza
+}
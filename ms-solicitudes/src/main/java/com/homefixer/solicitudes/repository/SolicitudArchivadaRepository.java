@@ -0,0 +1,46 @@
+package com.homefixer.solicitudes.repository;
+
+import com.homefixer.solicitudes.dto.ConteoSolicitudes; // Conteo agrupado
+import com.homefixer.solicitudes.dto.SolicitudResumen; // Fila de listado
+import com.homefixer.solicitudes.dto.VersionColeccion; // Resumen para ETag
+import com.homefixer.solicitudes.model.SolicitudArchivada; // Importa entidad SolicitudArchivada
+import org.springframework.data.domain.Pageable; // Para limitar resultados
+import org.springframework.data.jpa.repository.JpaRepository; // Interfaz base
+import org.springframework.data.jpa.repository.Modifying; // Para INSERT
+import org.springframework.data.jpa.repository.Query; // Para consultas personalizadas
+import org.springframework.data.repository.query.Param; // Para parámetros
+import org.springframework.stereotype.Repository; // Anotación repositorio
+import java.time.LocalDateTime; // Para fechas
+import java.util.List; // Para listas
+
+@Repository // Marca como repositorio Spring
+public interface SolicitudArchivadaRepository extends JpaRepository<SolicitudArchivada, Long> {
+    
+    // Copia filas de la tabla activa al archivo en una sola sentencia (sin pasar por Java)
+    @Modifying
+    @Query(value = "INSERT INTO solicitudes_archivadas (id_solicitud, id_cliente, titulo, descripcion, especialidad_requerida, "
+                 + "direccion_servicio, ciudad, region, id_especialidad, id_ciudad, id_region, estado, estado_anterior, prioridad, presupuesto_estimado, fecha_creacion, "
+                 + "fecha_actualizacion, fecha_preferida, observaciones, version, fecha_archivado) "
+                 + "SELECT id_solicitud, id_cliente, titulo, descripcion, especialidad_requerida, direccion_servicio, ciudad, region, "
+                 + "id_especialidad, id_ciudad, id_region, estado, estado_anterior, prioridad, presupuesto_estimado, fecha_creacion, fecha_actualizacion, fecha_preferida, "
+                 + "observaciones, version, :ahora FROM solicitudes WHERE id_solicitud IN :ids",
+           nativeQuery = true)
+    int copiarDesdeActivas(@Param("ids") List<Long> ids, @Param("ahora") LocalDateTime ahora); // Filas copiadas
+    
+    // Historial archivado de un cliente por cursor (usa idx_archivadas_cliente)
+    List<SolicitudArchivada> findByIdClienteAndIdSolicitudGreaterThanOrderByIdSolicitudAsc(Long idCliente, Long cursor, Pageable pageable); // Por cliente
+    
+    // Resumen del historial archivado de un cliente (mismo SELECT angosto que la tabla activa)
+    @Query(SolicitudRepository.SELECT_RESUMEN + "FROM SolicitudArchivada s WHERE s.idCliente = :idCliente AND s.idSolicitud > :cursor ORDER BY s.idSolicitud ASC")
+    List<SolicitudResumen> listarResumenPorCliente(@Param("idCliente") Long idCliente, @Param("cursor") Long cursor, Pageable pageable); // Por cliente
+    
+    // Versión del historial archivado de un cliente desde el cursor
+    @Query("SELECT new com.homefixer.solicitudes.dto.VersionColeccion(COUNT(s), COALESCE(SUM(s.version), 0L), COALESCE(MAX(s.idSolicitud), 0L)) "
+         + "FROM SolicitudArchivada s WHERE s.idCliente = :idCliente AND s.idSolicitud > :cursor")
+    VersionColeccion obtenerVersionPorCliente(@Param("idCliente") Long idCliente, @Param("cursor") Long cursor); // Una fila agregada
+    
+    // Conteo agrupado del archivo (se suma al de la tabla activa en las estadísticas)
+    @Query("SELECT new com.homefixer.solicitudes.dto.ConteoSolicitudes(s.estado, s.especialidadRequerida, s.ciudad, COUNT(s)) "
+         + "FROM SolicitudArchivada s GROUP BY s.estado, s.especialidadRequerida, s.ciudad")
+    List<ConteoSolicitudes> contarAgrupado(); // Una fila por combinación
+}
@@ -1,38 +1,129 @@
 package com.homefixer.solicitudes.repository;
 
 import com.homefixer.solicitudes.model.Solicitud; // Importa entidad Solicitud
+import com.homefixer.solicitudes.dto.ConteoSolicitudes; // Conteo agrupado
+import com.homefixer.solicitudes.dto.ItemAgenda; // Proyección de agenda
+import com.homefixer.solicitudes.dto.SolicitudResumen; // Fila de listado
+import com.homefixer.solicitudes.dto.VersionColeccion; // Resumen para ETag
+import org.springframework.data.domain.Pageable; // Para limitar resultados
 import org.springframework.data.jpa.repository.JpaRepository; // Interfaz base
+import org.springframework.data.jpa.repository.Modifying; // Para UPDATE
 import org.springframework.data.jpa.repository.Query; // Para consultas personalizadas
 import org.springframework.data.repository.query.Param; // Para parámetros
 import org.springframework.stereotype.Repository; // Anotación repositorio
+import java.time.LocalDateTime; // Para fechas
+import java.util.Collection; // Para colecciones
 import java.util.List; // Para listas
+import java.util.Optional; // Para opcionales
 
 @Repository // Marca como repositorio Spring
 public interface SolicitudRepository extends JpaRepository<Solicitud, Long> {
     // Hereda métodos CRUD básicos de JpaRepository
     
+    // SELECT angosto de SolicitudResumen (alias s); también lo usa el archivo
+    String SELECT_RESUMEN = "SELECT new com.homefixer.solicitudes.dto.SolicitudResumen(s.idSolicitud, s.idCliente, s.titulo, "
+        + "s.especialidadRequerida, s.ciudad, s.region, s.estado, s.prioridad, s.presupuestoEstimado, s.fechaCreacion, s.fechaPreferida, s.version) ";
+    
     // Buscar solicitudes por cliente
     List<Solicitud> findByIdCliente(Long idCliente); // Todas las solicitudes de un cliente
     
     // Buscar solicitudes por estado
     List<Solicitud> findByEstado(Solicitud.EstadoSolicitud estado); // Filtrar por estado
     
-    // Buscar solicitudes por especialidad
-    List<Solicitud> findByEspecialidadRequerida(String especialidad); // Por tipo de servicio
+    // Buscar solicitudes por especialidad (id de catálogo)
+    List<Solicitud> findByIdEspecialidad(Integer idEspecialidad); // Por tipo de servicio
     
-    // Buscar solicitudes por ciudad
-    List<Solicitud> findByCiudad(String ciudad); // En una ciudad específica
+    // Buscar solicitudes por ciudad (id de catálogo)
+    List<Solicitud> findByIdCiudad(Integer idCiudad); // En una ciudad específica
     
     // Buscar solicitudes por prioridad
     List<Solicitud> findByPrioridad(Solicitud.PrioridadSolicitud prioridad); // Por urgencia
     
-    // Consulta personalizada: solicitudes disponibles para asignar
-    @Query("SELECT s FROM Solicitud s WHERE s.estado = 'PENDIENTE' AND s.especialidadRequerida = :especialidad ORDER BY s.prioridad DESC, s.fechaCreacion ASC")
-    List<Solicitud> encontrarSolicitudesDisponibles(@Param("especialidad") String especialidad); // Para técnicos disponibles
+    // Consulta personalizada: solicitudes disponibles para asignar (prioridad real, no alfabética)
+    @Query("SELECT s FROM Solicitud s WHERE s.estado = 'PENDIENTE' AND s.idEspecialidad = :idEspecialidad "
+         + "ORDER BY CASE s.prioridad WHEN 'CRITICA' THEN 0 WHEN 'ALTA' THEN 1 WHEN 'MEDIA' THEN 2 ELSE 3 END, s.fechaCreacion ASC, s.idSolicitud ASC")
+    List<Solicitud> encontrarSolicitudesDisponibles(@Param("idEspecialidad") Integer idEspecialidad); // Para técnicos disponibles
     
     // Contar solicitudes por estado
     long countByEstado(Solicitud.EstadoSolicitud estado); // Estadísticas por estado
     
     // Buscar solicitudes urgentes
     List<Solicitud> findByPrioridadInOrderByFechaCreacionAsc(List<Solicitud.PrioridadSolicitud> prioridades); // Urgentes primero
-}
\ No newline at end of file
+    
+    // Paginación por cursor (keyset): siguiente página después del último id visto
+    List<Solicitud> findByIdSolicitudGreaterThanOrderByIdSolicitudAsc(Long cursor, Pageable pageable); // Todas
+    
+    // Paginación por cursor filtrando por estado (usa idx_solicitudes_estado)
+    List<Solicitud> findByEstadoAndIdSolicitudGreaterThanOrderByIdSolicitudAsc(Solicitud.EstadoSolicitud estado, Long cursor, Pageable pageable); // Por estado
+    
+    // Paginación por cursor filtrando por cliente (usa idx_solicitudes_cliente)
+    List<Solicitud> findByIdClienteAndIdSolicitudGreaterThanOrderByIdSolicitudAsc(Long idCliente, Long cursor, Pageable pageable); // Por cliente
+    
+    // Resumen paginado por cursor (sin descripcion ni observaciones; no crea entidades administradas)
+    @Query(SELECT_RESUMEN + "FROM Solicitud s WHERE s.idSolicitud > :cursor ORDER BY s.idSolicitud ASC")
+    List<SolicitudResumen> listarResumen(@Param("cursor") Long cursor, Pageable pageable); // Todas
+    
+    // Resumen paginado por estado (usa idx_solicitudes_estado)
+    @Query(SELECT_RESUMEN + "FROM Solicitud s WHERE s.estado = :estado AND s.idSolicitud > :cursor ORDER BY s.idSolicitud ASC")
+    List<SolicitudResumen> listarResumenPorEstado(@Param("estado") Solicitud.EstadoSolicitud estado, @Param("cursor") Long cursor, Pageable pageable); // Por estado
+    
+    // Resumen paginado por cliente (usa idx_solicitudes_cliente)
+    @Query(SELECT_RESUMEN + "FROM Solicitud s WHERE s.idCliente = :idCliente AND s.idSolicitud > :cursor ORDER BY s.idSolicitud ASC")
+    List<SolicitudResumen> listarResumenPorCliente(@Param("idCliente") Long idCliente, @Param("cursor") Long cursor, Pageable pageable); // Por cliente
+    
+    // Transición condicional en una sola sentencia: devuelve 1 si ganó, 0 si el estado ya no lo permitía
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Solicitud s SET s.estadoAnterior = s.estado, s.estado = :nuevoEstado, s.fechaActualizacion = :ahora, s.version = s.version + 1 "
+         + "WHERE s.idSolicitud = :id AND s.estado IN :permitidos")
+    int transicionarEstado(@Param("id") Long id, @Param("nuevoEstado") Solicitud.EstadoSolicitud nuevoEstado,
+                           @Param("permitidos") Collection<Solicitud.EstadoSolicitud> permitidos,
+                           @Param("ahora") LocalDateTime ahora); // Sin leer antes
+    
+    // Igual que transicionarEstado pero además exige la versión que leyó el cliente
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Solicitud s SET s.estadoAnterior = s.estado, s.estado = :nuevoEstado, s.fechaActualizacion = :ahora, s.version = s.version + 1 "
+         + "WHERE s.idSolicitud = :id AND s.estado IN :permitidos AND s.version = :version")
+    int transicionarEstadoConVersion(@Param("id") Long id, @Param("nuevoEstado") Solicitud.EstadoSolicitud nuevoEstado,
+                                     @Param("permitidos") Collection<Solicitud.EstadoSolicitud> permitidos,
+                                     @Param("version") Long version,
+                                     @Param("ahora") LocalDateTime ahora); // Bloqueo optimista
+    
+    // Conteo completo agrupado por estado, especialidad y ciudad (solo para reconciliar estadísticas)
+    @Query("SELECT new com.homefixer.solicitudes.dto.ConteoSolicitudes(s.estado, s.especialidadRequerida, s.ciudad, COUNT(s)) "
+         + "FROM Solicitud s GROUP BY s.estado, s.especialidadRequerida, s.ciudad")
+    List<ConteoSolicitudes> contarAgrupado(); // Una fila por combinación
+    
+    // Versión de una solicitud sin cargar la entidad (para If-None-Match)
+    @Query("SELECT s.version FROM Solicitud s WHERE s.idSolicitud = :id")
+    Optional<Long> obtenerVersion(@Param("id") Long id); // Vacío si no existe
+    
+    // Versión de las solicitudes de un cliente desde el cursor (idx_solicitudes_cliente es cubriente)
+    @Query("SELECT new com.homefixer.solicitudes.dto.VersionColeccion(COUNT(s), COALESCE(SUM(s.version), 0L), COALESCE(MAX(s.idSolicitud), 0L)) "
+         + "FROM Solicitud s WHERE s.idCliente = :idCliente AND s.idSolicitud > :cursor")
+    VersionColeccion obtenerVersionPorCliente(@Param("idCliente") Long idCliente, @Param("cursor") Long cursor); // Una fila agregada
+    
+    // Ventana de fecha preferida para una especialidad y estado (rango sobre idx_solicitudes_agenda)
+    @Query("SELECT new com.homefixer.solicitudes.dto.ItemAgenda(s.idSolicitud, s.especialidadRequerida, s.estado, s.prioridad, s.ciudad, s.fechaPreferida) "
+         + "FROM Solicitud s WHERE s.idEspecialidad = :idEspecialidad AND s.estado = :estado "
+         + "AND s.fechaPreferida >= :desde AND s.fechaPreferida < :hasta "
+         + "AND (:prioridad IS NULL OR s.prioridad = :prioridad) AND (:idCiudad IS NULL OR s.idCiudad = :idCiudad) "
+         + "ORDER BY s.fechaPreferida ASC, s.idSolicitud ASC")
+    List<ItemAgenda> buscarVentanaAgenda(@Param("idEspecialidad") Integer idEspecialidad,
+                                         @Param("estado") Solicitud.EstadoSolicitud estado,
+                                         @Param("desde") LocalDateTime desde,
+                                         @Param("hasta") LocalDateTime hasta,
+                                         @Param("prioridad") Solicitud.PrioridadSolicitud prioridad,
+                                         @Param("idCiudad") Integer idCiudad,
+                                         Pageable pageable); // Sin cargar entidades
+    
+    // Bloquea un bloque de solicitudes terminadas antes de la fecha límite, en orden de id
+    @Query(value = "SELECT id_solicitud FROM solicitudes WHERE estado IN ('COMPLETADA', 'CANCELADA') "
+                 + "AND COALESCE(fecha_actualizacion, fecha_creacion) < :limite ORDER BY id_solicitud LIMIT :tamano FOR UPDATE",
+           nativeQuery = true)
+    List<Long> bloquearIdsParaArchivar(@Param("limite") LocalDateTime limite, @Param("tamano") int tamano); // Candidatos a archivo
+    
+    // Borra de la tabla activa las filas ya copiadas al archivo
+    @Modifying
+    @Query("DELETE FROM Solicitud s WHERE s.idSolicitud IN :ids")
+    int borrarPorIds(@Param("ids") List<Long> ids); // Un DELETE por bloque
+}
@@ -0,0 +1,104 @@
+package com.homefixer.solicitudes.service;
+
+import com.homefixer.solicitudes.dto.HistogramaAgenda; // Histograma por hora
+import com.homefixer.solicitudes.dto.ItemAgenda; // Entrada de agenda
+import com.homefixer.solicitudes.event.SolicitudCambiadaEvent; // Evento de cambio
+import com.homefixer.solicitudes.model.Solicitud; // Importa entidad Solicitud
+import com.homefixer.solicitudes.model.ValorCatalogo.TipoCatalogo; // Dimensiones del catálogo
+import com.homefixer.solicitudes.repository.SolicitudRepository; // Importa repositorio
+import lombok.RequiredArgsConstructor; // Constructor automático
+import lombok.extern.slf4j.Slf4j; // Logger automático
+import org.springframework.beans.factory.annotation.Value; // Para leer configuración
+import org.springframework.boot.context.event.ApplicationReadyEvent; // Evento de arranque
+import org.springframework.context.event.EventListener; // Para escuchar eventos
+import org.springframework.data.domain.PageRequest; // Para limitar resultados
+import org.springframework.stereotype.Service; // Anotación servicio
+import org.springframework.transaction.event.TransactionalEventListener; // Escucha tras el commit
+import java.time.Duration; // Para medir ventanas
+import java.time.LocalDateTime; // Para fechas
+import java.util.List; // Para listas
+import java.util.Optional; // Para opcionales
+
+// Consultas de planificación por fecha preferida: el trabajo no terminado sale del calendario en memoria,
+// el historial (COMPLETADA/CANCELADA) de un rango sobre idx_solicitudes_agenda
+@Service // Marca como servicio Spring
+@RequiredArgsConstructor // Constructor automático para dependencias
+@Slf4j // Logger automático
+public class AgendaSolicitudesService {
+
+    private static final int TAMANO_CARGA = 1000; // Filas por página al cargar
+
+    private final SolicitudRepository solicitudRepository; // Carga inicial e historial
+    private final CatalogoService catalogoService; // Texto -> id para filtrar en BD
+    private final CalendarioSolicitudes calendario = new CalendarioSolicitudes(); // Trabajo pendiente por hora
+
+    @Value("${homefixer.solicitudes.agenda.horas-maximas:744}")
+    private long horasMaximas; // Ventana máxima por consulta (31 días)
+
+    // Carga el trabajo no terminado con paginación por cursor, un estado a la vez
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        for (Solicitud.EstadoSolicitud estado : Solicitud.EstadoSolicitud.values()) {
+            if (!CalendarioSolicitudes.agendable(estado)) {
+                continue; // Los terminados se consultan en BD
+            }
+            long cursor = 0L;
+            List<Solicitud> pagina;
+            do {
+                pagina = solicitudRepository.findByEstadoAndIdSolicitudGreaterThanOrderByIdSolicitudAsc(estado, cursor, PageRequest.of(0, TAMANO_CARGA));
+                pagina.forEach(s -> calendario.actualizar(ItemAgenda.de(s))); // Solo entran las que tienen fecha
+                if (!pagina.isEmpty()) {
+                    cursor = pagina.get(pagina.size() - 1).getIdSolicitud(); // Avanza el cursor
+                }
+            } while (pagina.size() == TAMANO_CARGA);
+        }
+        log.info("📅 Agenda cargada con {} solicitudes con fecha preferida", calendario.tamano()); // Log carga
+    }
+
+    // Mantiene el calendario al día después de cada commit
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSolicitudCambiada(SolicitudCambiadaEvent evento) {
+        calendario.actualizar(ItemAgenda.de(evento.solicitud())); // Entra, se mueve de hora o sale
+    }
+
+    // Solicitudes con fecha preferida en [desde, hasta)
+    public List<ItemAgenda> buscar(String especialidad, LocalDateTime desde, LocalDateTime hasta,
+                                   Solicitud.EstadoSolicitud estado, Solicitud.PrioridadSolicitud prioridad,
+                                   String ciudad, int limite) {
+        validarVentana(desde, hasta);
+        if (estado == null || CalendarioSolicitudes.agendable(estado)) {
+            return calendario.buscar(especialidad, desde, hasta, estado, prioridad, ciudad, limite); // Sin consultar BD
+        }
+        if (especialidad == null || especialidad.isBlank()) {
+            throw new RuntimeException("El historial de agenda requiere especialidad"); // Sin prefijo el índice no sirve
+        }
+        log.info("📅 Agenda de {} {} desde BD", especialidad, estado); // Estados terminales
+        Optional<Integer> idEspecialidad = catalogoService.buscar(TipoCatalogo.ESPECIALIDAD, especialidad);
+        Optional<Integer> idCiudad = catalogoService.buscar(TipoCatalogo.CIUDAD, ciudad);
+        if (idEspecialidad.isEmpty() || (ciudad != null && !ciudad.isBlank() && idCiudad.isEmpty())) {
+            return List.of(); // Valor que nunca se usó: no hay filas
+        }
+        return solicitudRepository.buscarVentanaAgenda(idEspecialidad.get(), estado, desde, hasta, prioridad,
+            idCiudad.orElse(null), PageRequest.of(0, limite)); // Rango sobre el índice compuesto
+    }
+
+    // Solicitudes no terminadas por hora de fecha preferida
+    public HistogramaAgenda histograma(String especialidad, LocalDateTime desde, LocalDateTime hasta,
+                                       Solicitud.EstadoSolicitud estado, Solicitud.PrioridadSolicitud prioridad, String ciudad) {
+        validarVentana(desde, hasta);
+        if (estado != null && !CalendarioSolicitudes.agendable(estado)) {
+            throw new RuntimeException("El histograma solo cubre solicitudes no terminadas"); // No están en memoria
+        }
+        return calendario.histograma(especialidad, desde, hasta, estado, prioridad, ciudad); // Sin consultar BD
+    }
+
+    // Rango válido y acotado
+    private void validarVentana(LocalDateTime desde, LocalDateTime hasta) {
+        if (!desde.isBefore(hasta)) {
+            throw new RuntimeException("desde debe ser anterior a hasta");
+        }
+        if (Duration.between(desde, hasta).toHours() > horasMaximas) {
+            throw new RuntimeException("La ventana no puede superar " + horasMaximas + " horas");
+        }
+    }
+}
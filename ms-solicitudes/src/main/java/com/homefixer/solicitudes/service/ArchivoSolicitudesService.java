@@ -0,0 +1,56 @@
+package com.homefixer.solicitudes.service;
+
+import com.homefixer.solicitudes.repository.SolicitudArchivadaRepository; // Repositorio del archivo
+import com.homefixer.solicitudes.repository.SolicitudRepository; // Importa repositorio
+import lombok.RequiredArgsConstructor; // Constructor automático
+import lombok.extern.slf4j.Slf4j; // Logger automático
+import org.springframework.beans.factory.annotation.Value; // Para leer configuración
+import org.springframework.scheduling.annotation.Scheduled; // Tareas programadas
+import org.springframework.stereotype.Service; // Anotación servicio
+import org.springframework.transaction.support.TransactionTemplate; // Transacción por bloque
+import java.time.LocalDateTime; // Para fechas
+import java.util.List; // Para listas
+
+// Mueve solicitudes COMPLETADA/CANCELADA antiguas a solicitudes_archivadas por bloques, para que la tabla activa siga chica
+@Service // Marca como servicio Spring
+@RequiredArgsConstructor // Constructor automático para dependencias
+@Slf4j // Logger automático
+public class ArchivoSolicitudesService {
+
+    private final SolicitudRepository solicitudRepository; // Tabla activa
+    private final SolicitudArchivadaRepository archivadaRepository; // Tabla de archivo
+    private final TransactionTemplate transactionTemplate; // Una transacción corta por bloque
+
+    @Value("${homefixer.solicitudes.archivo.dias-retencion:30}")
+    private int diasRetencion; // Días que una solicitud terminada sigue en la tabla activa
+
+    @Value("${homefixer.solicitudes.archivo.tamano-bloque:1000}")
+    private int tamanoBloque; // Filas movidas por transacción
+
+    // Tarea programada: archiva todo lo que cumplió la retención
+    @Scheduled(fixedDelayString = "${homefixer.solicitudes.archivo.intervalo-ms:3600000}",
+               initialDelayString = "${homefixer.solicitudes.archivo.retraso-inicial-ms:120000}")
+    public int archivarAntiguas() {
+        LocalDateTime limite = LocalDateTime.now().minusDays(diasRetencion); // Terminadas antes de esto
+        log.info("🗄️ Archivando solicitudes terminadas antes de {}", limite); // Log inicio
+
+        int total = 0; // Filas movidas
+        while (true) {
+            Integer movidas = transactionTemplate.execute(estado -> {
+                List<Long> ids = solicitudRepository.bloquearIdsParaArchivar(limite, tamanoBloque); // Bloquea el bloque
+                if (ids.isEmpty()) {
+                    return 0; // Nada más que mover
+                }
+                archivadaRepository.copiarDesdeActivas(ids, LocalDateTime.now()); // INSERT ... SELECT
+                return solicitudRepository.borrarPorIds(ids); // DELETE en la misma transacción
+            });
+            if (movidas == null || movidas == 0) {
+                break;
+            }
+            total += movidas;
+        }
+
+        log.info("✅ {} solicitudes archivadas", total); // Log resultado
+        return total;
+    }
+}
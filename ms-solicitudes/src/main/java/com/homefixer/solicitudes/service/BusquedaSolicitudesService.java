@@ -0,0 +1,180 @@
+package com.homefixer.solicitudes.service;
+
+import com.homefixer.solicitudes.dto.FiltroSolicitudes; // Filtros de recorrido
+import com.homefixer.solicitudes.dto.ResultadoBusqueda; // Resultado de búsqueda
+import com.homefixer.solicitudes.event.SolicitudCambiadaEvent; // Evento de cambio
+import com.homefixer.solicitudes.model.Solicitud; // Importa entidad Solicitud
+import lombok.extern.slf4j.Slf4j; // Logger automático
+import org.springframework.beans.factory.annotation.Value; // Para leer configuración
+import org.springframework.boot.context.event.ApplicationReadyEvent; // Evento de arranque
+import org.springframework.context.event.EventListener; // Para escuchar eventos
+import org.springframework.scheduling.annotation.Scheduled; // Tareas programadas
+import org.springframework.stereotype.Service; // Anotación servicio
+import org.springframework.transaction.event.TransactionalEventListener; // Escucha tras el commit
+import jakarta.annotation.PreDestroy; // Para cerrar el índice al apagar
+import java.io.IOException; // Errores de disco
+import java.io.UncheckedIOException; // Para propagar desde lambdas
+import java.nio.file.Files; // Para crear el directorio
+import java.nio.file.Path; // Ruta del índice
+import java.time.Duration; // Margen de la puesta al día
+import java.time.LocalDateTime; // Para fechas
+import java.util.HashMap; // Cambios durante un recorrido
+import java.util.Map; // Para mapas
+import java.util.Optional; // Puede no haber marca
+import java.util.concurrent.atomic.AtomicBoolean; // Bandera de reconstrucción
+import java.util.function.Consumer; // Recibe cada fila
+
+// Búsqueda de texto sobre solicitudes: mantiene el índice Lucene al día con los eventos de SolicitudService
+@Service // Marca como servicio Spring
+@Slf4j // Logger automático
+public class BusquedaSolicitudesService {
+
+    private final IndiceSolicitudes indice; // Índice en disco
+    private final ExportacionSolicitudesService exportacionService; // Recorrido streaming de la tabla
+    private final AtomicBoolean reconstruyendo = new AtomicBoolean(false); // Evita dos reconstrucciones a la vez
+
+    private final Object cerrojo = new Object(); // Ordena los eventos contra el fin de un recorrido
+    private Map<Long, Solicitud> cambiosDuranteRecorrido; // Eventos llegados durante un recorrido (bajo cerrojo); null = sin recorrido
+
+    @Value("${homefixer.solicitudes.busqueda.reconstruir-al-iniciar:false}")
+    private boolean reconstruirAlIniciar; // Útil con ddl-auto create-drop
+
+    @Value("${homefixer.solicitudes.busqueda.margen-puesta-al-dia-ms:300000}")
+    private long margenPuestaAlDiaMs; // Cubre transacciones en curso al momento del commit del índice
+
+    public BusquedaSolicitudesService(ExportacionSolicitudesService exportacionService,
+                                      @Value("${homefixer.solicitudes.busqueda.directorio:./data/indice-solicitudes}") String directorio) throws IOException {
+        this.exportacionService = exportacionService;
+        Path ruta = Path.of(directorio);
+        Files.createDirectories(ruta); // Crea la carpeta si no existe
+        this.indice = new IndiceSolicitudes(ruta);
+        log.info("🔎 Índice de búsqueda abierto en {}", ruta.toAbsolutePath()); // Log apertura
+    }
+
+    // Reconstruye al arrancar si está configurado, si el índice está vacío o si se escribió con otro formato de filtros;
+    // si no, lo pone al día con lo que cambió mientras estaba apagado
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() throws IOException {
+        Optional<LocalDateTime> confirmadoHasta = indice.confirmadoHasta();
+        if (reconstruirAlIniciar || indice.cantidadDocumentos() == 0 || !indice.formatoVigente() || confirmadoHasta.isEmpty()) {
+            reconstruir(); // Deja el índice igual a la BD
+        } else {
+            ponerAlDia(confirmadoHasta.get().minus(Duration.ofMillis(margenPuestaAlDiaMs)));
+        }
+    }
+
+    // Búsqueda paginada por relevancia
+    public ResultadoBusqueda buscar(String texto, String estado, String especialidad, String ciudad, int pagina, int tamano) throws IOException {
+        log.info("🔎 Buscando '{}' (estado {}, especialidad {}, ciudad {}) página {}", texto, estado, especialidad, ciudad, pagina); // Log búsqueda
+        return indice.buscar(texto, estado, especialidad, ciudad, pagina, tamano);
+    }
+
+    // Borra el índice y lo vuelve a llenar en una pasada streaming sobre la tabla
+    public long reconstruir() throws IOException {
+        if (!reconstruyendo.compareAndSet(false, true)) {
+            throw new RuntimeException("Ya hay una reconstrucción en curso"); // Una a la vez
+        }
+        try {
+            log.info("🔄 Reconstruyendo índice de búsqueda desde la BD"); // Log inicio
+            indice.vaciar(); // No visible hasta el refresco final
+            long documentos = indexarRecorrido(consumidor -> exportacionService.recorrer(FiltroSolicitudes.todos(), consumidor));
+            indice.marcarFormatoVigente(); // Todo quedó con los filtros actuales
+            indice.confirmar(); // Persiste
+            indice.refrescar(); // Visible para búsquedas
+            log.info("✅ Índice reconstruido con {} solicitudes", documentos); // Log resultado
+            return documentos;
+        } finally {
+            reconstruyendo.set(false);
+        }
+    }
+
+    // Reindexa las filas cambiadas desde una fecha (eventos perdidos en una caída antes del commit del índice)
+    public long ponerAlDia(LocalDateTime desde) throws IOException {
+        if (!reconstruyendo.compareAndSet(false, true)) {
+            throw new RuntimeException("Ya hay una reconstrucción en curso"); // Una a la vez
+        }
+        try {
+            long documentos = indexarRecorrido(consumidor -> exportacionService.recorrerActualizadas(desde, consumidor));
+            indice.confirmar(); // Persiste con la nueva marca
+            indice.refrescar(); // Visible para búsquedas
+            log.info("✅ Índice puesto al día: {} solicitudes cambiadas desde {}", documentos, desde); // Log resultado
+            return documentos;
+        } finally {
+            reconstruyendo.set(false);
+        }
+    }
+
+    // Indexa cada cambio después del commit; durante un recorrido se guarda y se aplica al final
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSolicitudCambiada(SolicitudCambiadaEvent evento) {
+        Solicitud solicitud = evento.solicitud();
+        synchronized (cerrojo) {
+            if (cambiosDuranteRecorrido != null) {
+                cambiosDuranteRecorrido.merge(solicitud.getIdSolicitud(), solicitud, BusquedaSolicitudesService::masNueva); // El recorrido puede traer una versión anterior
+                return;
+            }
+        }
+        indexar(solicitud); // Inserta o reemplaza
+    }
+
+    // Recorre la tabla indexando fila por fila y al final reaplica los eventos llegados entre medio: la lectura del
+    // recorrido puede ser anterior a esos cambios y los pisaría
+    private long indexarRecorrido(Consumer<Consumer<Solicitud>> recorrido) {
+        synchronized (cerrojo) {
+            cambiosDuranteRecorrido = new HashMap<>(); // Desde aquí los eventos esperan
+        }
+        long[] documentos = {0};
+        try {
+            recorrido.accept(solicitud -> {
+                try {
+                    indice.indexar(solicitud); // Fila por fila, sin acumular
+                    documentos[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } finally {
+            synchronized (cerrojo) {
+                cambiosDuranteRecorrido.values().forEach(this::indexar); // La versión más nueva de cada una, al final
+                log.info("🔁 {} cambios reaplicados tras el recorrido", cambiosDuranteRecorrido.size()); // Log reaplicados
+                cambiosDuranteRecorrido = null; // Los eventos vuelven a indexarse directo
+            }
+        }
+        return documentos[0];
+    }
+
+    private void indexar(Solicitud solicitud) {
+        try {
+            indice.indexar(solicitud);
+        } catch (IOException e) {
+            log.error("❌ No se pudo indexar solicitud {}: {}", solicitud.getIdSolicitud(), e.getMessage()); // Se corrige al reconstruir
+        }
+    }
+
+    private static Solicitud masNueva(Solicitud actual, Solicitud nueva) {
+        long versionActual = actual.getVersion() != null ? actual.getVersion() : -1;
+        long versionNueva = nueva.getVersion() != null ? nueva.getVersion() : -1;
+        return versionNueva >= versionActual ? nueva : actual; // Los eventos pueden llegar desordenados
+    }
+
+    // Near-real-time: los cambios se ven en búsquedas en ~1 segundo
+    @Scheduled(fixedDelayString = "${homefixer.solicitudes.busqueda.refresco-ms:1000}")
+    public void refrescar() throws IOException {
+        if (!reconstruyendo.get()) {
+            indice.refrescar(); // No mostrar un índice a medio reconstruir
+        }
+    }
+
+    // Persiste periódicamente para no reindexar mucho tras un reinicio
+    @Scheduled(fixedDelayString = "${homefixer.solicitudes.busqueda.commit-ms:30000}")
+    public void confirmar() throws IOException {
+        if (!reconstruyendo.get()) {
+            indice.confirmar();
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() throws IOException {
+        indice.close(); // Commit final y libera archivos
+    }
+}
@@ -0,0 +1,168 @@
+package com.homefixer.solicitudes.service;
+
+import com.homefixer.solicitudes.dto.FranjaAgenda; // Conteo por hora
+import com.homefixer.solicitudes.dto.HistogramaAgenda; // Histograma por hora
+import com.homefixer.solicitudes.dto.ItemAgenda; // Entrada del calendario
+import com.homefixer.solicitudes.model.Solicitud; // Importa entidad Solicitud
+import java.time.LocalDateTime; // Para fechas
+import java.time.temporal.ChronoUnit; // Para truncar a la hora
+import java.util.ArrayList; // Para listas mutables
+import java.util.Collection; // Para colecciones
+import java.util.Comparator; // Para ordenar
+import java.util.List; // Para listas
+import java.util.Map; // Para mapas
+import java.util.NavigableMap; // Mapa ordenado
+import java.util.Objects; // Comparación null-safe
+import java.util.Set; // Para conjuntos
+import java.util.TreeMap; // Para mezclar especialidades
+import java.util.concurrent.ConcurrentHashMap; // Mapa concurrente
+import java.util.concurrent.ConcurrentSkipListMap; // Mapa ordenado concurrente
+
+// Calendario en memoria del trabajo no terminado: por especialidad, una cubeta por hora de fecha preferida.
+// Una ventana recorre solo las cubetas que toca y un histograma es el tamaño de cada cubeta.
+public class CalendarioSolicitudes {
+
+    // Orden de entrega: fecha preferida y luego id
+    private static final Comparator<ItemAgenda> ORDEN = Comparator
+        .comparing(ItemAgenda::fechaPreferida)
+        .thenComparing(ItemAgenda::idSolicitud);
+
+    private final Map<String, NavigableMap<LocalDateTime, Set<ItemAgenda>>> cubetasPorEspecialidad = new ConcurrentHashMap<>(); // especialidad -> hora -> solicitudes
+    private final Map<Long, ItemAgenda> porId = new ConcurrentHashMap<>(); // idSolicitud -> entrada actual
+    private final Map<String, String> clavesCiudad = new ConcurrentHashMap<>(); // Ciudad guardada -> clave de catálogo (pocas)
+
+    // Solo el trabajo no terminado entra al calendario
+    public static boolean agendable(Solicitud.EstadoSolicitud estado) {
+        return estado != null && !estado.esTerminal();
+    }
+
+    // Inserta, mueve o quita una solicitud según su estado y fecha preferida
+    public void actualizar(ItemAgenda item) {
+        porId.compute(item.idSolicitud(), (id, anterior) -> {
+            if (anterior != null) {
+                quitarDeCubeta(anterior); // Sale de su hora anterior
+            }
+            if (!agendable(item.estado()) || item.fechaPreferida() == null || item.especialidad() == null) {
+                return null; // Terminada o sin fecha: fuera del calendario
+            }
+            cubetasPorEspecialidad
+                .computeIfAbsent(clave(item.especialidad()), e -> new ConcurrentSkipListMap<>())
+                .computeIfAbsent(hora(item.fechaPreferida()), h -> ConcurrentHashMap.newKeySet())
+                .add(item); // Entra a su nueva hora
+            return item;
+        });
+    }
+
+    // Quita una solicitud del calendario
+    public void eliminar(long idSolicitud) {
+        porId.computeIfPresent(idSolicitud, (id, anterior) -> {
+            quitarDeCubeta(anterior);
+            return null;
+        });
+    }
+
+    // Solicitudes en el calendario
+    public int tamano() {
+        return porId.size();
+    }
+
+    // Solicitudes con fecha preferida en [desde, hasta), en orden de fecha; los filtros null no filtran
+    public List<ItemAgenda> buscar(String especialidad, LocalDateTime desde, LocalDateTime hasta,
+                                   Solicitud.EstadoSolicitud estado, Solicitud.PrioridadSolicitud prioridad,
+                                   String ciudad, int limite) {
+        List<ItemAgenda> resultado = new ArrayList<>();
+        String claveCiudad = CatalogoService.normalizar(ciudad); // Una vez por consulta
+        for (List<Set<ItemAgenda>> cubetas : cubetas(especialidad, desde, hasta).values()) {
+            List<ItemAgenda> hora = new ArrayList<>();
+            for (Set<ItemAgenda> cubeta : cubetas) {
+                for (ItemAgenda item : cubeta) {
+                    if (!item.fechaPreferida().isBefore(desde) && item.fechaPreferida().isBefore(hasta)
+                        && coincide(item, estado, prioridad, claveCiudad)) {
+                        hora.add(item); // Dentro de la ventana exacta
+                    }
+                }
+            }
+            hora.sort(ORDEN); // Las cubetas ya vienen en orden; solo se ordena dentro de la hora
+            for (ItemAgenda item : hora) {
+                if (resultado.size() == limite) {
+                    return resultado; // Página completa
+                }
+                resultado.add(item);
+            }
+        }
+        return resultado;
+    }
+
+    // Conteo por hora entre desde (truncado a la hora) y hasta (redondeado hacia arriba), con horas vacías en cero
+    public HistogramaAgenda histograma(String especialidad, LocalDateTime desde, LocalDateTime hasta,
+                                       Solicitud.EstadoSolicitud estado, Solicitud.PrioridadSolicitud prioridad, String ciudad) {
+        LocalDateTime inicio = hora(desde);
+        LocalDateTime fin = hora(hasta).equals(hasta) ? hasta : hora(hasta).plusHours(1); // Incluye la hora parcial final
+        String claveCiudad = CatalogoService.normalizar(ciudad); // Una vez por consulta
+        boolean sinFiltros = estado == null && prioridad == null && claveCiudad == null; // Basta el tamaño de cada cubeta
+
+        NavigableMap<LocalDateTime, List<Set<ItemAgenda>>> cubetas = cubetas(especialidad, inicio, fin);
+        List<FranjaAgenda> franjas = new ArrayList<>();
+        long total = 0;
+        for (LocalDateTime h = inicio; h.isBefore(fin); h = h.plusHours(1)) {
+            long cantidad = 0;
+            for (Set<ItemAgenda> cubeta : cubetas.getOrDefault(h, List.of())) {
+                cantidad += sinFiltros ? cubeta.size() : cubeta.stream().filter(i -> coincide(i, estado, prioridad, claveCiudad)).count();
+            }
+            franjas.add(new FranjaAgenda(h, cantidad));
+            total += cantidad;
+        }
+        return new HistogramaAgenda(especialidad, inicio, fin, total, franjas);
+    }
+
+    // Cubetas que tocan [desde, hasta) agrupadas por hora, de una especialidad o de todas
+    private NavigableMap<LocalDateTime, List<Set<ItemAgenda>>> cubetas(String especialidad, LocalDateTime desde, LocalDateTime hasta) {
+        Collection<NavigableMap<LocalDateTime, Set<ItemAgenda>>> calendarios = especialidad == null || especialidad.isBlank()
+            ? cubetasPorEspecialidad.values() // Todas las especialidades
+            : singletonOVacio(cubetasPorEspecialidad.get(clave(especialidad))); // Solo la pedida
+
+        NavigableMap<LocalDateTime, List<Set<ItemAgenda>>> porHora = new TreeMap<>();
+        for (NavigableMap<LocalDateTime, Set<ItemAgenda>> calendario : calendarios) {
+            calendario.subMap(hora(desde), true, hasta, false).forEach((h, cubeta) -> {
+                if (!cubeta.isEmpty()) {
+                    porHora.computeIfAbsent(h, k -> new ArrayList<>()).add(cubeta); // Solo horas con trabajo
+                }
+            });
+        }
+        return porHora;
+    }
+
+    private void quitarDeCubeta(ItemAgenda item) {
+        NavigableMap<LocalDateTime, Set<ItemAgenda>> calendario = cubetasPorEspecialidad.get(clave(item.especialidad()));
+        if (calendario != null) {
+            Set<ItemAgenda> cubeta = calendario.get(hora(item.fechaPreferida()));
+            if (cubeta != null) {
+                cubeta.remove(item); // Las cubetas vacías se conservan: son pocas (especialidades x horas)
+            }
+        }
+    }
+
+    // claveCiudad ya normalizada (null = cualquier ciudad)
+    private boolean coincide(ItemAgenda item, Solicitud.EstadoSolicitud estado, Solicitud.PrioridadSolicitud prioridad, String claveCiudad) {
+        return (estado == null || item.estado() == estado)
+            && (prioridad == null || item.prioridad() == prioridad)
+            && (claveCiudad == null || claveCiudad.equals(claveCiudad(item.ciudad())));
+    }
+
+    private String claveCiudad(String ciudad) {
+        return ciudad == null ? null : clavesCiudad.computeIfAbsent(ciudad, CatalogoService::normalizar);
+    }
+
+    private static LocalDateTime hora(LocalDateTime fecha) {
+        return fecha.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    // Misma clave que el catálogo: "plomeria" y "Plomería" son el mismo calendario
+    private static String clave(String especialidad) {
+        return Objects.requireNonNullElse(CatalogoService.normalizar(especialidad), "");
+    }
+
+    private static Collection<NavigableMap<LocalDateTime, Set<ItemAgenda>>> singletonOVacio(NavigableMap<LocalDateTime, Set<ItemAgenda>> calendario) {
+        return calendario == null ? List.of() : List.of(calendario);
+    }
+}
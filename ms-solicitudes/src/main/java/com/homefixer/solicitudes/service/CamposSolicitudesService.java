@@ -0,0 +1,75 @@
+package com.homefixer.solicitudes.service;
+
+import com.homefixer.solicitudes.model.Solicitud; // Importa entidad Solicitud
+import jakarta.persistence.EntityManager; // Para consultas dinámicas
+import jakarta.persistence.Tuple; // Fila con columnas elegidas
+import jakarta.persistence.TupleElement; // Columna de la fila
+import jakarta.persistence.criteria.CriteriaBuilder; // Constructor de consultas
+import jakarta.persistence.criteria.CriteriaQuery; // Consulta tipada
+import jakarta.persistence.criteria.Predicate; // Condiciones
+import jakarta.persistence.criteria.Root; // Entidad consultada
+import jakarta.persistence.criteria.Selection; // Columna seleccionada
+import jakarta.persistence.metamodel.SingularAttribute; // Atributos simples
+import lombok.RequiredArgsConstructor; // Constructor automático
+import org.springframework.stereotype.Service; // Anotación servicio
+import java.util.ArrayList; // Para listas mutables
+import java.util.LinkedHashMap; // Mapa con orden
+import java.util.LinkedHashSet; // Conjunto con orden
+import java.util.List; // Para listas
+import java.util.Map; // Para mapas
+import java.util.Set; // Para conjuntos
+import java.util.stream.Collectors; // Para colectar
+
+// Listados con fields= (sparse fieldset): el SELECT trae solo las columnas pedidas y no crea entidades administradas
+@Service // Marca como servicio Spring
+@RequiredArgsConstructor // Constructor automático para dependencias
+public class CamposSolicitudesService {
+
+    private static final String ID = "idSolicitud"; // Siempre se incluye: lo usa el cursor
+
+    private final EntityManager entityManager; // Proxy compartido de Spring
+
+    // Valida "titulo,estado,..." contra los atributos de Solicitud; devuelve la lista con el id primero
+    public List<String> parsear(String fields) {
+        Set<String> validos = entityManager.getMetamodel().entity(Solicitud.class).getSingularAttributes().stream()
+            .map(SingularAttribute::getName)
+            .collect(Collectors.toSet()); // Nombres igual que en el JSON completo
+        Set<String> campos = new LinkedHashSet<>();
+        campos.add(ID);
+        for (String campo : fields.split(",")) {
+            String limpio = campo.trim();
+            if (limpio.isEmpty()) {
+                continue; // Tolera comas de más
+            }
+            if (!validos.contains(limpio)) {
+                throw new RuntimeException("Campo desconocido: " + limpio); // El controlador responde 400
+            }
+            campos.add(limpio);
+        }
+        return new ArrayList<>(campos);
+    }
+
+    // Página ordenada por id con solo los campos pedidos; filtros = igualdades por atributo
+    public List<Map<String, Object>> listar(Class<?> entidad, List<String> campos, Map<String, Object> filtros, Long cursor, int limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> consulta = cb.createTupleQuery();
+        Root<?> raiz = consulta.from(entidad);
+
+        consulta.multiselect(campos.stream().<Selection<?>>map(c -> raiz.get(c).alias(c)).toList()); // Solo estas columnas
+        List<Predicate> condiciones = new ArrayList<>();
+        condiciones.add(cb.greaterThan(raiz.get(ID), cursor)); // Cursor por id
+        filtros.forEach((atributo, valor) -> condiciones.add(cb.equal(raiz.get(atributo), valor)));
+        consulta.where(condiciones.toArray(Predicate[]::new));
+        consulta.orderBy(cb.asc(raiz.get(ID)));
+
+        List<Map<String, Object>> filas = new ArrayList<>();
+        for (Tuple tupla : entityManager.createQuery(consulta).setMaxResults(limite).getResultList()) {
+            Map<String, Object> fila = new LinkedHashMap<>(); // Mismo orden que fields=
+            for (TupleElement<?> elemento : tupla.getElements()) {
+                fila.put(elemento.getAlias(), tupla.get(elemento));
+            }
+            filas.add(fila);
+        }
+        return filas;
+    }
+}
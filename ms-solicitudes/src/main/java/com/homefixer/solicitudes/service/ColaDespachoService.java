@@ -0,0 +1,137 @@
+package com.homefixer.solicitudes.service;
+
+import com.homefixer.solicitudes.event.SolicitudCambiadaEvent; // Evento de cambio
+import com.homefixer.solicitudes.model.Solicitud; // Importa entidad Solicitud
+import com.homefixer.solicitudes.repository.SolicitudRepository; // Importa repositorio
+import lombok.RequiredArgsConstructor; // Constructor automático
+import lombok.extern.slf4j.Slf4j; // Logger automático
+import org.springframework.boot.context.event.ApplicationReadyEvent; // Evento de arranque
+import org.springframework.context.event.EventListener; // Para escuchar eventos
+import org.springframework.scheduling.annotation.Scheduled; // Tareas programadas
+import org.springframework.stereotype.Service; // Anotación servicio
+import org.springframework.transaction.event.TransactionalEventListener; // Escucha tras el commit
+import java.time.LocalDateTime; // Para fechas
+import java.util.ArrayList; // Para listas mutables
+import java.util.Comparator; // Para ordenar
+import java.util.List; // Para listas
+import java.util.Map; // Para mapas
+import java.util.NavigableSet; // Conjunto ordenado
+import java.util.concurrent.ConcurrentHashMap; // Mapa concurrente
+import java.util.concurrent.ConcurrentSkipListSet; // Cola ordenada concurrente
+import java.util.concurrent.TimeUnit; // Unidades de tiempo
+import java.util.concurrent.atomic.AtomicInteger; // Contador de encoladas
+
+// Cola de despacho en memoria: solicitudes PENDIENTE por especialidad, en orden real de prioridad y FIFO dentro de cada prioridad
+@Service // Marca como servicio Spring
+@RequiredArgsConstructor // Constructor automático para dependencias
+@Slf4j // Logger automático
+public class ColaDespachoService {
+
+    // CRITICA primero; dentro de una prioridad, la más antigua primero (id como desempate)
+    private static final Comparator<Clave> ORDEN = Comparator
+        .comparingInt(Clave::prioridad).reversed()
+        .thenComparing(Clave::fechaCreacion, Comparator.nullsLast(Comparator.naturalOrder()))
+        .thenComparingLong(Clave::idSolicitud);
+
+    private static final long RETENCION_SALIDAS_NANOS = TimeUnit.MINUTES.toNanos(10); // Cuánto se recuerda la versión de una que salió
+
+    private final SolicitudRepository solicitudRepository; // Solo para reconstruir al arrancar
+
+    private final Map<String, NavigableSet<Clave>> colas = new ConcurrentHashMap<>(); // especialidad -> cola ordenada
+    private final Map<Long, EnCola> porId = new ConcurrentHashMap<>(); // idSolicitud -> posición actual o salida reciente
+    private final AtomicInteger encoladas = new AtomicInteger(); // Entradas de porId que están en una cola
+
+    // Reconstruye las colas desde BD al arrancar
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        List<Solicitud> pendientes = solicitudRepository.findByEstado(Solicitud.EstadoSolicitud.PENDIENTE); // Única consulta
+        pendientes.forEach(this::actualizar); // Encola cada una
+        log.info("✅ Cola de despacho reconstruida con {} solicitudes pendientes", encoladas.get()); // Log carga
+    }
+
+    // Solicitudes pendientes de una especialidad en orden de despacho
+    public List<Solicitud> obtenerDisponibles(String especialidad) {
+        NavigableSet<Clave> cola = colas.get(clave(especialidad));
+        if (cola == null) {
+            return List.of(); // Nada pendiente
+        }
+        List<Solicitud> resultado = new ArrayList<>(cola.size()); // Copia en orden
+        for (Clave c : cola) {
+            EnCola enCola = porId.get(c.idSolicitud());
+            if (enCola != null && enCola.enCola()) {
+                resultado.add(enCola.solicitud()); // Puede haber salido entre medio
+            }
+        }
+        return resultado;
+    }
+
+    // Cantidad de pendientes en una especialidad
+    public int tamano(String especialidad) {
+        NavigableSet<Clave> cola = colas.get(clave(especialidad));
+        return cola == null ? 0 : cola.size();
+    }
+
+    // Se ejecuta después del commit (o de inmediato si no hay transacción)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSolicitudCambiada(SolicitudCambiadaEvent evento) {
+        actualizar(evento.solicitud()); // Entra, se actualiza o sale de la cola
+    }
+
+    // Olvida las salidas viejas: pasado este tiempo ya no llegan eventos atrasados de ellas
+    @Scheduled(fixedDelayString = "${homefixer.solicitudes.cola.limpieza-ms:60000}")
+    public void limpiarSalidas() {
+        long ahora = System.nanoTime();
+        porId.values().removeIf(e -> !e.enCola() && ahora - e.salida() > RETENCION_SALIDAS_NANOS);
+    }
+
+    // Entra a la cola si está PENDIENTE; si no, sale. Solo cuenta una versión más nueva que la conocida:
+    // un evento PENDIENTE atrasado no vuelve a encolar una solicitud ya asignada
+    private void actualizar(Solicitud solicitud) {
+        Long id = solicitud.getIdSolicitud();
+        long version = solicitud.getVersion() != null ? solicitud.getVersion() : -1;
+        porId.compute(id, (k, anterior) -> {
+            if (anterior != null && version <= anterior.version()) {
+                return anterior; // Atrasado o repetido
+            }
+            if (anterior != null && anterior.enCola()) {
+                colaDe(anterior.especialidad()).remove(anterior.clave()); // Sale de su posición anterior
+                encoladas.decrementAndGet();
+            }
+            if (solicitud.getEstado() != Solicitud.EstadoSolicitud.PENDIENTE) {
+                return new EnCola(null, null, null, version, System.nanoTime()); // Ya no está disponible; se recuerda la versión
+            }
+            String especialidad = clave(solicitud.getEspecialidadRequerida());
+            Clave nueva = new Clave(prioridad(solicitud), solicitud.getFechaCreacion(), id);
+            colaDe(especialidad).add(nueva); // Entra en orden
+            encoladas.incrementAndGet();
+            return new EnCola(especialidad, nueva, solicitud, version, 0);
+        });
+    }
+
+    private NavigableSet<Clave> colaDe(String especialidad) {
+        return colas.computeIfAbsent(especialidad, e -> new ConcurrentSkipListSet<>(ORDEN));
+    }
+
+    private static int prioridad(Solicitud solicitud) {
+        Solicitud.PrioridadSolicitud prioridad = solicitud.getPrioridad() != null ? solicitud.getPrioridad() : Solicitud.PrioridadSolicitud.MEDIA;
+        return prioridad.ordinal(); // BAJA=0 ... CRITICA=3
+    }
+
+    // Misma clave que el catálogo: "plomeria" y "Plomería" son la misma cola
+    private static String clave(String especialidad) {
+        String clave = CatalogoService.normalizar(especialidad);
+        return clave == null ? "" : clave;
+    }
+
+    // Clave inmutable de orden dentro de la cola
+    private record Clave(int prioridad, LocalDateTime fechaCreacion, long idSolicitud) {
+    }
+
+    // Dónde está encolada cada solicitud, su último estado conocido y su versión; clave null = salió de la cola en el instante salida
+    private record EnCola(String especialidad, Clave clave, Solicitud solicitud, long version, long salida) {
+
+        boolean enCola() {
+            return clave != null;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.homefixer.solicitudes.service;
+
+import com.homefixer.solicitudes.dto.ConteoSolicitudes; // Conteo agrupado
+import com.homefixer.solicitudes.dto.EstadisticasSolicitudes; // Respuesta del dashboard
+import com.homefixer.solicitudes.event.SolicitudCambiadaEvent; // Evento de cambio
+import com.homefixer.solicitudes.model.Solicitud; // Importa entidad Solicitud
+import com.homefixer.solicitudes.repository.SolicitudArchivadaRepository; // Repositorio del archivo
+import com.homefixer.solicitudes.repository.SolicitudRepository; // Importa repositorio
+import lombok.extern.slf4j.Slf4j; // Logger automático
+import org.springframework.boot.context.event.ApplicationReadyEvent; // Evento de arranque
+import org.springframework.context.event.EventListener; // Para escuchar eventos
+import org.springframework.scheduling.annotation.Scheduled; // Tareas programadas
+import org.springframework.stereotype.Service; // Anotación servicio
+import org.springframework.transaction.PlatformTransactionManager; // Para la transacción de lectura
+import org.springframework.transaction.support.TransactionTemplate; // Ambos GROUP BY en la misma foto
+import org.springframework.transaction.event.TransactionalEventListener; // Escucha tras el commit
+import java.util.ArrayList; // Para listas mutables
+import java.util.LinkedHashMap; // Mapa con orden
+import java.util.List; // Para listas
+import java.util.Map; // Para mapas
+import java.util.concurrent.ConcurrentHashMap; // Mapa concurrente
+import java.util.concurrent.atomic.LongAdder; // Contador sin contención
+
+// Contadores en memoria por (estado, especialidad, ciudad) en las 8 combinaciones con comodín, sin GROUP BY por consulta
+@Service // Marca como servicio Spring
+@Slf4j // Logger automático
+public class EstadisticasSolicitudesService {
+
+    private static final String TODOS = "*"; // Comodín de una dimensión
+    private static final String SIN_CIUDAD = ""; // Solicitudes sin ciudad
+
+    private final SolicitudRepository solicitudRepository; // Solo para reconciliar
+    private final SolicitudArchivadaRepository archivadaRepository; // Las archivadas también cuentan
+    private final TransactionTemplate lectura; // Solo lectura: un bloque archivado en medio no se cuenta dos veces
+
+    private volatile Map<Clave, LongAdder> contadores = new ConcurrentHashMap<>(); // Se reemplaza completo al reconciliar
+    private final Map<String, String> nombres = new ConcurrentHashMap<>(); // Clave de catálogo -> nombre a mostrar en el detalle
+    private final Object cambios = new Object(); // Serializa los eventos con el cambio de mapa
+    private List<SolicitudCambiadaEvent> duranteReconciliacion; // Eventos a reaplicar; null fuera de una reconciliación
+
+    public EstadisticasSolicitudesService(SolicitudRepository solicitudRepository, SolicitudArchivadaRepository archivadaRepository,
+                                          PlatformTransactionManager transactionManager) {
+        this.solicitudRepository = solicitudRepository;
+        this.archivadaRepository = archivadaRepository;
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+    }
+
+    // Carga inicial desde BD
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        reconciliar();
+    }
+
+    // Recalcula desde BD y reemplaza los contadores; corrige cualquier deriva acumulada
+    @Scheduled(fixedDelayString = "${homefixer.solicitudes.estadisticas.reconciliacion-ms:300000}",
+               initialDelayString = "${homefixer.solicitudes.estadisticas.reconciliacion-ms:300000}")
+    public synchronized void reconciliar() {
+        synchronized (cambios) {
+            duranteReconciliacion = new ArrayList<>(); // Desde antes de las consultas: ningún cambio posterior se pierde
+        }
+        try {
+            Map<Clave, LongAdder> nuevos = new ConcurrentHashMap<>();
+            List<ConteoSolicitudes> filas = lectura.execute(estado -> {
+                List<ConteoSolicitudes> conteos = new ArrayList<>(solicitudRepository.contarAgrupado()); // GROUP BY de la tabla activa
+                conteos.addAll(archivadaRepository.contarAgrupado()); // Mover al archivo no cambia los totales
+                return conteos;
+            }); // Misma foto: una fila está en una tabla o en la otra, nunca en ambas
+            for (ConteoSolicitudes fila : filas) {
+                sumar(nuevos, fila.estado(), fila.especialidad(), fila.ciudad(), fila.cantidad());
+            }
+            synchronized (cambios) {
+                duranteReconciliacion.forEach(evento -> aplicar(nuevos, evento)); // Lo que cambió mientras se consultaba
+                contadores = nuevos; // Cambio atómico de referencia
+                log.info("📊 Estadísticas reconciliadas: {} combinaciones, {} cambios reaplicados", filas.size(),
+                    duranteReconciliacion.size()); // Log reconciliación
+            }
+        } finally {
+            synchronized (cambios) {
+                duranteReconciliacion = null;
+            }
+        }
+    }
+
+    // Ajusta los contadores con cada cambio confirmado
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSolicitudCambiada(SolicitudCambiadaEvent evento) {
+        Solicitud solicitud = evento.solicitud();
+        if (evento.estadoAnterior() == solicitud.getEstado()) {
+            return; // No cambió de estado
+        }
+        synchronized (cambios) {
+            aplicar(contadores, evento);
+            if (duranteReconciliacion != null) {
+                duranteReconciliacion.add(evento); // También va a los contadores que se están armando
+            }
+        }
+    }
+
+    // Cantidad para un filtro; cualquier parámetro null significa "todos"
+    public long contar(Solicitud.EstadoSolicitud estado, String especialidad, String ciudad) {
+        LongAdder contador = contadores.get(new Clave(
+            estado == null ? TODOS : estado.name(),
+            especialidad == null ? TODOS : clave(especialidad),
+            ciudad == null ? TODOS : clave(ciudad))); // Mismo criterio que los filtros contra BD: "plomeria" = "Plomería"
+        return contador == null ? 0L : contador.sum();
+    }
+
+    // Total y desglose por estado para una especialidad y/o ciudad
+    public EstadisticasSolicitudes obtener(String especialidad, String ciudad) {
+        Map<String, Long> porEstado = new LinkedHashMap<>();
+        for (Solicitud.EstadoSolicitud estado : Solicitud.EstadoSolicitud.values()) {
+            porEstado.put(estado.name(), contar(estado, especialidad, ciudad)); // Una búsqueda por estado
+        }
+        return new EstadisticasSolicitudes(especialidad, ciudad, contar(null, especialidad, ciudad), porEstado);
+    }
+
+    // Todas las combinaciones sin comodín (para tablas de detalle)
+    public List<ConteoSolicitudes> detalle() {
+        List<ConteoSolicitudes> resultado = new ArrayList<>();
+        contadores.forEach((clave, contador) -> {
+            if (!clave.estado().equals(TODOS) && !clave.especialidad().equals(TODOS) && !clave.ciudad().equals(TODOS)) {
+                long cantidad = contador.sum();
+                if (cantidad != 0) {
+                    resultado.add(new ConteoSolicitudes(Solicitud.EstadoSolicitud.valueOf(clave.estado()), nombres.get(clave.especialidad()),
+                        clave.ciudad().isEmpty() ? null : nombres.get(clave.ciudad()), cantidad));
+                }
+            }
+        });
+        return resultado;
+    }
+
+    // Resta en el estado anterior y suma en el nuevo
+    private void aplicar(Map<Clave, LongAdder> destino, SolicitudCambiadaEvent evento) {
+        Solicitud solicitud = evento.solicitud();
+        if (evento.estadoAnterior() != null) {
+            sumar(destino, evento.estadoAnterior(), solicitud.getEspecialidadRequerida(), solicitud.getCiudad(), -1); // Sale del estado anterior
+        }
+        sumar(destino, solicitud.getEstado(), solicitud.getEspecialidadRequerida(), solicitud.getCiudad(), 1); // Entra al nuevo
+    }
+
+    // Suma delta en las 8 combinaciones (cada dimensión con su valor o con comodín)
+    private void sumar(Map<Clave, LongAdder> destino, Solicitud.EstadoSolicitud estado, String especialidad, String ciudad, long delta) {
+        String e = estado.name();
+        String esp = especialidad == null ? TODOS : recordarNombre(especialidad);
+        String c = ciudad == null ? SIN_CIUDAD : recordarNombre(ciudad);
+        for (int mascara = 0; mascara < 8; mascara++) {
+            Clave clave = new Clave(
+                (mascara & 1) != 0 ? TODOS : e,
+                (mascara & 2) != 0 ? TODOS : esp,
+                (mascara & 4) != 0 ? TODOS : c);
+            destino.computeIfAbsent(clave, k -> new LongAdder()).add(delta);
+        }
+    }
+
+    // Clave de catálogo del texto, guardando el primer nombre visto para mostrarlo
+    private String recordarNombre(String texto) {
+        String clave = clave(texto);
+        nombres.putIfAbsent(clave, texto);
+        return clave;
+    }
+
+    // Clave normalizada del catálogo ("" si el texto está vacío)
+    private static String clave(String texto) {
+        String clave = CatalogoService.normalizar(texto);
+        return clave == null ? SIN_CIUDAD : clave;
+    }
+
+    // Combinación de dimensiones
+    private record Clave(String estado, String especialidad, String ciudad) {
+    }
+}
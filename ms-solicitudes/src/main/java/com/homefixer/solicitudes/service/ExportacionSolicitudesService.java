@@ -0,0 +1,143 @@
+package com.homefixer.solicitudes.service;
+
+import com.fasterxml.jackson.core.JsonGenerator; // Opciones del generador
+import com.fasterxml.jackson.databind.ObjectMapper; // Serializador JSON de Spring
+import com.fasterxml.jackson.databind.SequenceWriter; // Escritura de muchos valores seguidos
+import com.fasterxml.jackson.databind.SerializationFeature; // Opciones de serialización
+import com.homefixer.solicitudes.dto.FiltroSolicitudes; // Filtros de recorrido
+import com.homefixer.solicitudes.model.Solicitud; // Importa entidad Solicitud
+import com.homefixer.solicitudes.model.ValorCatalogo.TipoCatalogo; // Dimensiones del catálogo
+import lombok.extern.slf4j.Slf4j; // Logger automático
+import org.springframework.jdbc.core.JdbcTemplate; // Acceso JDBC directo
+import org.springframework.jdbc.core.RowCallbackHandler; // Procesa fila por fila
+import org.springframework.stereotype.Service; // Anotación servicio
+import javax.sql.DataSource; // Pool de conexiones
+import java.io.IOException; // Errores de escritura
+import java.io.OutputStream; // Salida de la respuesta
+import java.io.UncheckedIOException; // Para propagar desde el callback
+import java.sql.ResultSet; // Fila actual
+import java.sql.SQLException; // Errores JDBC
+import java.sql.Timestamp; // Fechas JDBC
+import java.time.LocalDateTime; // Para fechas
+import java.util.ArrayList; // Para listas mutables
+import java.util.List; // Para listas
+import java.util.function.Consumer; // Recibe cada fila
+
+// Recorre solicitudes con un cursor JDBC de solo avance (streaming de MySQL), sin cargar la tabla en memoria
+@Service // Marca como servicio Spring
+@Slf4j // Logger automático
+public class ExportacionSolicitudesService {
+
+    private static final String COLUMNAS = "id_solicitud, id_cliente, titulo, descripcion, especialidad_requerida, direccion_servicio, "
+        + "ciudad, region, estado, estado_anterior, prioridad, presupuesto_estimado, fecha_creacion, fecha_actualizacion, fecha_preferida, observaciones, version"; // Columnas exportadas
+
+    private final JdbcTemplate jdbcStreaming; // JdbcTemplate con fetch size de streaming
+    private final ObjectMapper objectMapper; // Mismo formato JSON que la API
+    private final CatalogoService catalogoService; // Filtros por id de catálogo
+
+    public ExportacionSolicitudesService(DataSource dataSource, ObjectMapper objectMapper, CatalogoService catalogoService) {
+        this.jdbcStreaming = new JdbcTemplate(dataSource);
+        this.jdbcStreaming.setFetchSize(Integer.MIN_VALUE); // MySQL: filas de a una, cursor forward-only
+        this.objectMapper = objectMapper;
+        this.catalogoService = catalogoService;
+    }
+
+    // Escribe una solicitud JSON por línea (NDJSON) en la salida
+    public long exportarNdjson(FiltroSolicitudes filtro, OutputStream salida) throws IOException {
+        log.info("📤 Exportando solicitudes con filtro: {}", filtro); // Log inicio
+        long[] filas = {0}; // Contador mutable para la lambda
+
+        try (SequenceWriter escritor = objectMapper.writerFor(Solicitud.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE) // El buffer decide cuándo vaciar
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET) // La respuesta la cierra Spring
+                .withRootValueSeparator("\n") // Una solicitud por línea
+                .writeValues(salida)) {
+            recorrer(filtro, solicitud -> {
+                try {
+                    escritor.write(solicitud); // Serializa y descarta la fila
+                    filas[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e); // Cliente desconectado
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause(); // Error de escritura original
+        }
+        if (filas[0] > 0) {
+            salida.write('\n'); // Última línea terminada; sin filas el cuerpo queda vacío
+        }
+        salida.flush(); // Envía lo que quede
+
+        log.info("✅ Exportación terminada: {} solicitudes", filas[0]); // Log resultado
+        return filas[0];
+    }
+
+    // Recorre todas las filas que cumplen el filtro en orden de id, una a la vez
+    public void recorrer(FiltroSolicitudes filtro, Consumer<Solicitud> consumidor) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNAS).append(" FROM solicitudes WHERE 1 = 1"); // Consulta base
+        List<Object> parametros = new ArrayList<>(); // Parámetros en orden
+
+        if (filtro.estado() != null) {
+            sql.append(" AND estado = ?");
+            parametros.add(filtro.estado().name());
+        }
+        if (filtro.ciudad() != null) {
+            sql.append(" AND id_ciudad = ?");
+            parametros.add(catalogoService.buscar(TipoCatalogo.CIUDAD, filtro.ciudad()).orElse(-1)); // -1: ciudad nunca usada
+        }
+        if (filtro.especialidad() != null) {
+            sql.append(" AND id_especialidad = ?");
+            parametros.add(catalogoService.buscar(TipoCatalogo.ESPECIALIDAD, filtro.especialidad()).orElse(-1)); // -1: especialidad nunca usada
+        }
+        if (filtro.desde() != null) {
+            sql.append(" AND fecha_creacion >= ?");
+            parametros.add(Timestamp.valueOf(filtro.desde()));
+        }
+        if (filtro.hasta() != null) {
+            sql.append(" AND fecha_creacion < ?");
+            parametros.add(Timestamp.valueOf(filtro.hasta()));
+        }
+        sql.append(" ORDER BY id_solicitud"); // Orden estable
+
+        RowCallbackHandler porFila = rs -> consumidor.accept(mapear(rs)); // Nunca se acumulan filas
+        jdbcStreaming.query(sql.toString(), porFila, parametros.toArray());
+    }
+
+    // Recorre en orden de id las filas cambiadas desde una fecha (puesta al día del índice de búsqueda)
+    public void recorrerActualizadas(LocalDateTime desde, Consumer<Solicitud> consumidor) {
+        String sql = "SELECT " + COLUMNAS + " FROM solicitudes WHERE fecha_actualizacion >= ? ORDER BY id_solicitud";
+        RowCallbackHandler porFila = rs -> consumidor.accept(mapear(rs)); // Nunca se acumulan filas
+        jdbcStreaming.query(sql, porFila, Timestamp.valueOf(desde));
+    }
+
+    // Convierte la fila actual en Solicitud
+    private Solicitud mapear(ResultSet rs) throws SQLException {
+        return Solicitud.builder()
+            .idSolicitud(rs.getLong("id_solicitud"))
+            .idCliente(rs.getLong("id_cliente"))
+            .titulo(rs.getString("titulo"))
+            .descripcion(rs.getString("descripcion"))
+            .especialidadRequerida(rs.getString("especialidad_requerida"))
+            .direccionServicio(rs.getString("direccion_servicio"))
+            .ciudad(rs.getString("ciudad"))
+            .region(rs.getString("region"))
+            .estado(enumONulo(Solicitud.EstadoSolicitud.class, rs.getString("estado")))
+            .estadoAnterior(enumONulo(Solicitud.EstadoSolicitud.class, rs.getString("estado_anterior")))
+            .prioridad(enumONulo(Solicitud.PrioridadSolicitud.class, rs.getString("prioridad")))
+            .presupuestoEstimado(rs.getBigDecimal("presupuesto_estimado"))
+            .fechaCreacion(fecha(rs.getTimestamp("fecha_creacion")))
+            .fechaActualizacion(fecha(rs.getTimestamp("fecha_actualizacion")))
+            .fechaPreferida(fecha(rs.getTimestamp("fecha_preferida")))
+            .observaciones(rs.getString("observaciones"))
+            .version(rs.getLong("version"))
+            .build();
+    }
+
+    private static <E extends Enum<E>> E enumONulo(Class<E> tipo, String valor) {
+        return valor == null ? null : Enum.valueOf(tipo, valor);
+    }
+
+    private static LocalDateTime fecha(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+}
@@ -0,0 +1,277 @@
+package com.homefixer.solicitudes.service;
+
+import com.homefixer.solicitudes.dto.ResultadoBusqueda; // Resultado de búsqueda
+import com.homefixer.solicitudes.model.Solicitud; // Importa entidad Solicitud
+import org.apache.lucene.analysis.Analyzer; // Analizador base
+import org.apache.lucene.analysis.LowerCaseFilter; // Minúsculas
+import org.apache.lucene.analysis.StopFilter; // Palabras vacías
+import org.apache.lucene.analysis.StopwordAnalyzerBase; // Base con stopwords
+import org.apache.lucene.analysis.TokenStream; // Flujo de tokens
+import org.apache.lucene.analysis.Tokenizer; // Separador de palabras
+import org.apache.lucene.analysis.es.SpanishAnalyzer; // Stopwords en español
+import org.apache.lucene.analysis.es.SpanishLightStemFilter; // Raíces en español
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter; // Quita tildes
+import org.apache.lucene.analysis.standard.StandardTokenizer; // Tokenizador estándar
+import org.apache.lucene.document.Document; // Documento Lucene
+import org.apache.lucene.document.Field; // Opciones de campo
+import org.apache.lucene.document.StoredField; // Campo solo almacenado
+import org.apache.lucene.document.StringField; // Campo exacto
+import org.apache.lucene.document.TextField; // Campo analizado
+import org.apache.lucene.facet.FacetResult; // Resultado de faceta
+import org.apache.lucene.facet.FacetsCollector; // Recolector de facetas
+import org.apache.lucene.facet.FacetsConfig; // Configuración de facetas
+import org.apache.lucene.facet.LabelAndValue; // Valor de faceta
+import org.apache.lucene.facet.sortedset.DefaultSortedSetDocValuesReaderState; // Estado de facetas por lector
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetCounts; // Conteo de facetas
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetField; // Campo de faceta
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesReaderState; // Estado de facetas
+import org.apache.lucene.index.IndexReader; // Lector del índice
+import org.apache.lucene.index.IndexWriter; // Escritor del índice
+import org.apache.lucene.index.IndexWriterConfig; // Configuración del escritor
+import org.apache.lucene.index.Term; // Término exacto
+import org.apache.lucene.queryparser.simple.SimpleQueryParser; // Parser tolerante a errores
+import org.apache.lucene.search.BooleanClause; // Cláusulas booleanas
+import org.apache.lucene.search.BooleanQuery; // Consulta combinada
+import org.apache.lucene.search.IndexSearcher; // Buscador
+import org.apache.lucene.search.MatchAllDocsQuery; // Todos los documentos
+import org.apache.lucene.search.Query; // Consulta base
+import org.apache.lucene.search.ScoreDoc; // Documento con puntaje
+import org.apache.lucene.search.SearcherManager; // Buscador near-real-time
+import org.apache.lucene.search.TermQuery; // Filtro exacto
+import org.apache.lucene.search.TopDocs; // Resultados
+import org.apache.lucene.store.Directory; // Almacenamiento
+import org.apache.lucene.store.FSDirectory; // Directorio en disco
+import java.io.Closeable; // Para cerrar recursos
+import java.io.IOException; // Errores de disco
+import java.nio.file.Path; // Ruta del índice
+import java.time.LocalDateTime; // Marca de tiempo del commit
+import java.util.ArrayList; // Para listas mutables
+import java.util.LinkedHashMap; // Mapas ordenados
+import java.util.List; // Para listas
+import java.util.Map; // Para mapas
+import java.util.Optional; // Puede no haber marca
+import java.util.concurrent.ConcurrentHashMap; // Datos del commit
+
+// Índice invertido de solicitudes en disco (Lucene): texto en español sobre titulo/descripcion y facetas por estado, especialidad y ciudad
+public class IndiceSolicitudes implements Closeable {
+
+    private static final String ID = "id"; // Clave única del documento
+    private static final String TITULO = "titulo"; // Texto con más peso
+    private static final String DESCRIPCION = "descripcion"; // Texto completo
+    private static final String[] FACETAS = {"estado", "especialidad", "ciudad"}; // Dimensiones de faceta
+    private static final int MAX_VALORES_FACETA = 20; // Valores por dimensión en la respuesta
+    private static final String FORMATO = "formato"; // Clave en los datos del commit
+    private static final String VERSION_FORMATO = "2"; // 2: filtros con la normalización del catálogo
+    private static final String CONFIRMADO_HASTA = "confirmadoHasta"; // Lo procesado antes de este instante está en disco
+
+    private final Directory directorio; // Archivos del índice
+    private final Analyzer analizador = new AnalizadorEspanol(); // Análisis en español
+    private final FacetsConfig facetsConfig = new FacetsConfig(); // Facetas por SortedSetDocValues
+    private final IndexWriter escritor; // Único escritor del índice
+    private final SearcherManager buscadores; // Lectores near-real-time
+    private volatile EstadoFacetas estadoFacetas; // Estado de facetas del último lector
+    private final Map<String, String> datosCommit = new ConcurrentHashMap<>(); // Formato y marca de tiempo del último commit
+    private volatile boolean formatoSinConfirmar; // Se marcó el formato después del último commit
+
+    public IndiceSolicitudes(Path ruta) throws IOException {
+        this.directorio = FSDirectory.open(ruta); // Crea o abre el índice
+        IndexWriterConfig config = new IndexWriterConfig(analizador);
+        config.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND); // Conserva lo indexado
+        config.setRAMBufferSizeMB(64); // Menos segmentos durante reconstrucciones
+        this.escritor = new IndexWriter(directorio, config);
+        this.buscadores = new SearcherManager(escritor, null); // Ve cambios sin commit
+        escritor.getLiveCommitData().forEach(dato -> datosCommit.put(dato.getKey(), dato.getValue())); // Del último commit en disco
+    }
+
+    // Inserta o reemplaza una solicitud (visible tras el siguiente refresco)
+    public void indexar(Solicitud solicitud) throws IOException {
+        String id = String.valueOf(solicitud.getIdSolicitud());
+        Document doc = new Document();
+        doc.add(new StringField(ID, id, Field.Store.YES)); // Para reemplazar y devolver
+        doc.add(new TextField(TITULO, texto(solicitud.getTitulo()), Field.Store.YES)); // Buscable y visible
+        doc.add(new TextField(DESCRIPCION, texto(solicitud.getDescripcion()), Field.Store.NO)); // Solo buscable
+        agregarFaceta(doc, "estado", solicitud.getEstado() != null ? solicitud.getEstado().name() : null);
+        agregarFaceta(doc, "especialidad", solicitud.getEspecialidadRequerida());
+        agregarFaceta(doc, "ciudad", solicitud.getCiudad());
+        escritor.updateDocument(new Term(ID, id), facetsConfig.build(doc)); // Reemplaza por id
+    }
+
+    // Borra todo el contenido (antes de una reconstrucción)
+    public void vaciar() throws IOException {
+        escritor.deleteAll();
+    }
+
+    // Si el índice en disco se escribió con los filtros actuales; si no, hay que reconstruirlo
+    public boolean formatoVigente() {
+        return VERSION_FORMATO.equals(datosCommit.get(FORMATO)); // Sin dato: índice anterior al formato
+    }
+
+    // Marca el contenido como escrito con el formato actual (tras reconstruir); se guarda en el próximo commit
+    public void marcarFormatoVigente() {
+        datosCommit.put(FORMATO, VERSION_FORMATO);
+        formatoSinConfirmar = true; // Aunque no haya documentos nuevos
+    }
+
+    // Hasta cuándo está en disco lo indexado; vacío si el índice nunca se confirmó con marca
+    public Optional<LocalDateTime> confirmadoHasta() {
+        return Optional.ofNullable(datosCommit.get(CONFIRMADO_HASTA)).map(LocalDateTime::parse);
+    }
+
+    // Hace visibles los cambios para nuevas búsquedas
+    public void refrescar() throws IOException {
+        buscadores.maybeRefresh();
+    }
+
+    // Persiste en disco lo indexado junto con el instante previo al commit (base de la puesta al día tras una caída)
+    public synchronized void confirmar() throws IOException {
+        LocalDateTime ahora = LocalDateTime.now(); // Antes del commit: lo indexado hasta aquí entra en él
+        if (escritor.hasUncommittedChanges() || formatoSinConfirmar) {
+            datosCommit.put(CONFIRMADO_HASTA, ahora.toString());
+            escritor.setLiveCommitData(Map.copyOf(datosCommit).entrySet());
+            escritor.commit();
+            formatoSinConfirmar = false;
+        }
+    }
+
+    // Documentos visibles
+    public int cantidadDocumentos() throws IOException {
+        IndexSearcher buscador = buscadores.acquire();
+        try {
+            return buscador.getIndexReader().numDocs();
+        } finally {
+            buscadores.release(buscador);
+        }
+    }
+
+    // Búsqueda paginada por relevancia con filtros exactos y facetas
+    public ResultadoBusqueda buscar(String texto, String estado, String especialidad, String ciudad, int pagina, int tamano) throws IOException {
+        BooleanQuery.Builder consulta = new BooleanQuery.Builder();
+        consulta.add(consultaTexto(texto), BooleanClause.Occur.MUST); // Relevancia
+        agregarFiltro(consulta, "estado", estado);
+        agregarFiltro(consulta, "especialidad", especialidad);
+        agregarFiltro(consulta, "ciudad", ciudad);
+
+        IndexSearcher buscador = buscadores.acquire();
+        try {
+            FacetsCollector recolector = new FacetsCollector();
+            int hasta = (pagina + 1) * tamano; // Documentos necesarios hasta esta página
+            TopDocs top = FacetsCollector.search(buscador, consulta.build(), Math.max(hasta, 1), recolector);
+
+            List<ResultadoBusqueda.Coincidencia> resultados = new ArrayList<>();
+            ScoreDoc[] docs = top.scoreDocs;
+            for (int i = pagina * tamano; i < Math.min(hasta, docs.length); i++) {
+                Document doc = buscador.storedFields().document(docs[i].doc);
+                resultados.add(new ResultadoBusqueda.Coincidencia(
+                    Long.valueOf(doc.get(ID)), doc.get(TITULO), doc.get("estado"), doc.get("especialidad"), doc.get("ciudad"), docs[i].score));
+            }
+
+            return new ResultadoBusqueda(top.totalHits.value, pagina, tamano, resultados, facetas(buscador.getIndexReader(), recolector));
+        } finally {
+            buscadores.release(buscador);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        confirmar(); // Lo pendiente, con su marca de tiempo
+        buscadores.close();
+        escritor.close();
+        directorio.close();
+    }
+
+    private Query consultaTexto(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return new MatchAllDocsQuery(); // Solo filtros
+        }
+        SimpleQueryParser parser = new SimpleQueryParser(analizador, Map.of(TITULO, 2.0f, DESCRIPCION, 1.0f)); // Título pesa el doble
+        parser.setDefaultOperator(BooleanClause.Occur.MUST); // Todas las palabras
+        return parser.parse(texto);
+    }
+
+    private void agregarFaceta(Document doc, String dimension, String valor) {
+        if (valor == null || valor.isBlank()) {
+            return; // Las facetas no aceptan valores vacíos
+        }
+        String normalizado = valor.trim();
+        doc.add(new StringField(dimension, CatalogoService.normalizar(normalizado), Field.Store.NO)); // Filtro como el catálogo: sin mayúsculas ni tildes
+        doc.add(new StoredField(dimension, normalizado)); // Valor original para mostrar
+        doc.add(new SortedSetDocValuesFacetField(dimension, normalizado)); // Conteo por faceta
+    }
+
+    private void agregarFiltro(BooleanQuery.Builder consulta, String dimension, String valor) {
+        String clave = CatalogoService.normalizar(valor);
+        if (clave != null) {
+            consulta.add(new TermQuery(new Term(dimension, clave)), BooleanClause.Occur.FILTER); // No afecta el puntaje
+        }
+    }
+
+    // Conteos de las facetas sobre los documentos encontrados
+    private Map<String, Map<String, Long>> facetas(IndexReader lector, FacetsCollector recolector) throws IOException {
+        Map<String, Map<String, Long>> resultado = new LinkedHashMap<>();
+        SortedSetDocValuesReaderState estado = estadoFacetas(lector);
+        if (estado == null) {
+            return resultado; // Índice sin facetas todavía
+        }
+        SortedSetDocValuesFacetCounts conteos = new SortedSetDocValuesFacetCounts(estado, recolector);
+        for (String dimension : FACETAS) {
+            Map<String, Long> valores = new LinkedHashMap<>();
+            try {
+                FacetResult faceta = conteos.getTopChildren(MAX_VALORES_FACETA, dimension);
+                if (faceta != null) {
+                    for (LabelAndValue lv : faceta.labelValues) {
+                        valores.put(lv.label, lv.value.longValue());
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                // La dimensión aún no tiene valores indexados
+            }
+            resultado.put(dimension, valores);
+        }
+        return resultado;
+    }
+
+    // El estado de facetas es caro de construir: se reutiliza mientras el lector no cambie
+    private SortedSetDocValuesReaderState estadoFacetas(IndexReader lector) throws IOException {
+        EstadoFacetas actual = estadoFacetas;
+        if (actual != null && actual.lector() == lector) {
+            return actual.estado();
+        }
+        try {
+            SortedSetDocValuesReaderState nuevo = new DefaultSortedSetDocValuesReaderState(lector, facetsConfig);
+            estadoFacetas = new EstadoFacetas(lector, nuevo);
+            return nuevo;
+        } catch (IllegalArgumentException e) {
+            return null; // Todavía no hay documentos con facetas
+        }
+    }
+
+    private static String texto(String valor) {
+        return valor == null ? "" : valor;
+    }
+
+    private record EstadoFacetas(IndexReader lector, SortedSetDocValuesReaderState estado) {
+    }
+
+    // Minúsculas, stopwords y raíces en español; luego quita tildes para que "tuberia" encuentre "tubería"
+    private static final class AnalizadorEspanol extends StopwordAnalyzerBase {
+
+        private AnalizadorEspanol() {
+            super(SpanishAnalyzer.getDefaultStopSet());
+        }
+
+        @Override
+        protected TokenStreamComponents createComponents(String campo) {
+            Tokenizer tokenizador = new StandardTokenizer();
+            TokenStream flujo = new LowerCaseFilter(tokenizador);
+            flujo = new StopFilter(flujo, stopwords);
+            flujo = new SpanishLightStemFilter(flujo);
+            flujo = new ASCIIFoldingFilter(flujo);
+            return new TokenStreamComponents(tokenizador, flujo);
+        }
+
+        @Override
+        protected TokenStream normalize(String campo, TokenStream entrada) {
+            return new ASCIIFoldingFilter(new LowerCaseFilter(entrada));
+        }
+    }
+}
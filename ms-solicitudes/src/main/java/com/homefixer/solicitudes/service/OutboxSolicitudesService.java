@@ -0,0 +1,99 @@
+package com.homefixer.solicitudes.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException; // Error de serialización
+import com.fasterxml.jackson.databind.ObjectMapper; // Serializador JSON de Spring
+import com.homefixer.solicitudes.dto.EventoSolicitud; // Evento publicado
+import com.homefixer.solicitudes.event.PublicadorEventos; // Destino configurado
+import com.homefixer.solicitudes.model.EventoOutbox; // Importa entidad EventoOutbox
+import com.homefixer.solicitudes.model.Solicitud; // Importa entidad Solicitud
+import com.homefixer.solicitudes.repository.EventoOutboxRepository; // Importa repositorio
+import lombok.RequiredArgsConstructor; // Constructor automático
+import lombok.extern.slf4j.Slf4j; // Logger automático
+import org.springframework.beans.factory.annotation.Value; // Para leer configuración
+import org.springframework.data.domain.PageRequest; // Para limitar resultados
+import org.springframework.scheduling.annotation.Scheduled; // Tareas programadas
+import org.springframework.stereotype.Service; // Anotación servicio
+import org.springframework.transaction.annotation.Propagation; // Propagación de transacciones
+import org.springframework.transaction.annotation.Transactional; // Para transacciones
+import org.springframework.transaction.support.TransactionTemplate; // Transacción corta por lote
+import java.time.LocalDateTime; // Para fechas
+import java.util.List; // Para listas
+
+// Outbox transaccional: SolicitudService registra el evento en su misma transacción y un relay lo publica en lotes
+@Service // Marca como servicio Spring
+@RequiredArgsConstructor // Constructor automático para dependencias
+@Slf4j // Logger automático
+public class OutboxSolicitudesService {
+
+    private final EventoOutboxRepository eventoOutboxRepository; // Repositorio inyectado
+    private final PublicadorEventos publicador; // Webhook, archivo o broker en memoria
+    private final ObjectMapper objectMapper; // Mismo formato JSON que la API
+    private final TransactionTemplate transactionTemplate; // Marca cada lote en su propia transacción
+
+    @Value("${homefixer.solicitudes.outbox.tamano-lote:200}")
+    private int tamanoLote; // Eventos por publicación
+
+    @Value("${homefixer.solicitudes.outbox.retencion-horas:24}")
+    private int retencionHoras; // Cuánto se guardan los eventos ya publicados
+
+    // Registra el evento; exige una transacción abierta para que se confirme junto con la solicitud
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(EventoOutbox.TipoEvento tipo, Solicitud solicitud) {
+        try {
+            eventoOutboxRepository.save(EventoOutbox.builder()
+                .idSolicitud(solicitud.getIdSolicitud())
+                .tipo(tipo)
+                .payload(objectMapper.writeValueAsString(solicitud)) // Foto de la solicitud
+                .fechaCreacion(LocalDateTime.now())
+                .build());
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("No se pudo serializar la solicitud para el outbox", e); // Revierte la transacción
+        }
+    }
+
+    // Relay: publica lotes en orden de id hasta vaciar el outbox; si el destino falla se reintenta todo el lote
+    @Scheduled(fixedDelayString = "${homefixer.solicitudes.outbox.intervalo-ms:500}")
+    public void publicarPendientes() {
+        int total = 0; // Eventos publicados en esta pasada
+        while (true) {
+            List<EventoOutbox> lote = eventoOutboxRepository.findByFechaPublicacionIsNullOrderByIdEventoAsc(PageRequest.of(0, tamanoLote));
+            if (lote.isEmpty()) {
+                break; // Nada pendiente
+            }
+
+            try {
+                publicador.publicar(lote.stream().map(EventoSolicitud::desde).toList()); // Entrega al destino
+            } catch (Exception e) {
+                log.warn("⚠️ Destino de eventos no disponible, se reintentará: {}", e.getMessage()); // Al menos una vez
+                return; // No se salta el lote: el orden por solicitud se mantiene
+            }
+
+            List<Long> ids = lote.stream().map(EventoOutbox::getIdEvento).toList();
+            transactionTemplate.executeWithoutResult(estado ->
+                eventoOutboxRepository.marcarPublicados(ids, LocalDateTime.now())); // Si esto falla, el lote se repite
+            total += lote.size();
+
+            if (lote.size() < tamanoLote) {
+                break; // Último lote
+            }
+        }
+        if (total > 0) {
+            log.info("📮 {} eventos de solicitudes publicados", total); // Log resultado
+        }
+    }
+
+    // Borra eventos ya publicados fuera de la retención
+    @Scheduled(fixedDelayString = "${homefixer.solicitudes.outbox.limpieza-ms:3600000}")
+    public void limpiar() {
+        Integer borrados = transactionTemplate.execute(estado ->
+            eventoOutboxRepository.borrarPublicadosAntesDe(LocalDateTime.now().minusHours(retencionHoras)));
+        if (borrados != null && borrados > 0) {
+            log.info("🧹 {} eventos antiguos borrados del outbox", borrados); // Log limpieza
+        }
+    }
+
+    // Eventos aún sin publicar
+    public long pendientes() {
+        return eventoOutboxRepository.countByFechaPublicacionIsNull();
+    }
+}
@@ -1,13 +1,28 @@
 package com.homefixer.solicitudes.service;
 
+import com.homefixer.solicitudes.dto.SolicitudResumen; // Fila de listado
+import com.homefixer.solicitudes.dto.VersionColeccion; // Resumen para ETag
+import com.homefixer.solicitudes.event.SolicitudCambiadaEvent; // Evento de cambio
+import com.homefixer.solicitudes.exception.TransicionEstadoException; // Transición rechazada
+import com.homefixer.solicitudes.model.EventoOutbox; // Tipos de evento
 import com.homefixer.solicitudes.model.Solicitud; // Importa entidad Solicitud
+import com.homefixer.solicitudes.model.SolicitudArchivada; // Solicitudes archivadas
+import com.homefixer.solicitudes.model.ValorCatalogo.TipoCatalogo; // Dimensiones del catálogo
+import com.homefixer.solicitudes.repository.SolicitudArchivadaRepository; // Repositorio del archivo
 import com.homefixer.solicitudes.repository.SolicitudRepository; // Importa repositorio
 import lombok.RequiredArgsConstructor; // Constructor automático
 import lombok.extern.slf4j.Slf4j; // Logger automático
+import org.springframework.context.ApplicationEventPublisher; // Para publicar eventos
+import org.springframework.data.domain.PageRequest; // Para limitar resultados
 import org.springframework.stereotype.Service; // Anotación servicio
+import org.springframework.transaction.annotation.Transactional; // Para transacciones
 import java.time.LocalDateTime; // Para fechas
+import java.util.ArrayList; // Para listas mutables
 import java.util.List; // Para listas
+import java.util.Map; // Para mapas
 import java.util.Optional; // Para opcionales
+import java.util.Set; // Para conjuntos
+import java.util.function.Function; // Para extraer el id
 
 @Service // Marca como servicio Spring
 @RequiredArgsConstructor // Constructor automático para dependencias
@@ -15,14 +30,25 @@ import java.util.Optional; // Para opcionales
 public class SolicitudService {
     
     private final SolicitudRepository solicitudRepository; // Repositorio inyectado
+    private final SolicitudArchivadaRepository archivadaRepository; // Historial archivado
+    private final ColaDespachoService colaDespachoService; // Cola de despacho en memoria
+    private final ApplicationEventPublisher eventPublisher; // Avisa cambios a las vistas en memoria
+    private final OutboxSolicitudesService outboxService; // Eventos para otros servicios
+    private final CamposSolicitudesService camposService; // Listados con fields=
+    private final CatalogoService catalogoService; // Especialidades y ubicaciones codificadas
     
     // Crear nueva solicitud
+    @Transactional // Solicitud y evento de outbox juntos
     public Solicitud crearSolicitud(Solicitud solicitud) {
         log.info("✅ Creando nueva solicitud para cliente: {}", solicitud.getIdCliente()); // Log inicio
         
         // Establecer valores por defecto
         solicitud.setEstado(Solicitud.EstadoSolicitud.PENDIENTE); // Nueva solicitud pendiente
+        solicitud.setVersion(null); // La asigna Hibernate
+        solicitud.setEstadoAnterior(null); // Recién creada
         solicitud.setFechaCreacion(LocalDateTime.now()); // Fecha actual
+        solicitud.setFechaActualizacion(solicitud.getFechaCreacion()); // Último cambio = creación
+        codificar(solicitud); // Ids de catálogo y nombres canónicos
         
         // Si no especifica prioridad, poner MEDIA por defecto
         if (solicitud.getPrioridad() == null) {
@@ -31,6 +57,7 @@ public class SolicitudService {
         
         Solicitud solicitudGuardada = solicitudRepository.save(solicitud); // Guarda en BD
         log.info("✅ Solicitud creada con ID: {}", solicitudGuardada.getIdSolicitud()); // Log éxito
+        publicarCambio(EventoOutbox.TipoEvento.CREADA, solicitudGuardada, null); // Entra a la cola
         
         return solicitudGuardada; // Retorna solicitud creada
     }
@@ -41,46 +68,125 @@ public class SolicitudService {
         return solicitudRepository.findById(id); // Busca en BD
     }
     
-    // Obtener todas las solicitudes
-    public List<Solicitud> obtenerTodas() {
-        log.info("📋 Obteniendo todas las solicitudes"); // Log consulta
-        return solicitudRepository.findAll(); // Retorna todas
+    // Buscar varias solicitudes por ID en una consulta (las que no existen no aparecen)
+    public List<Solicitud> buscarPorIds(List<Long> ids) {
+        log.info("🔍 Buscando {} solicitudes por ID", ids.size()); // Log búsqueda
+        return solicitudRepository.findAllById(ids); // WHERE id_solicitud IN (...)
     }
     
-    // Buscar solicitudes por cliente
-    public List<Solicitud> buscarPorCliente(Long idCliente) {
-        log.info("🔍 Buscando solicitudes del cliente: {}", idCliente); // Log búsqueda
-        return solicitudRepository.findByIdCliente(idCliente); // Filtra por cliente
+    // ETag de una solicitud a partir de su versión (vacío si no existe)
+    public Optional<String> etagSolicitud(Long id) {
+        return solicitudRepository.obtenerVersion(id).map(version -> etag(id, version)); // Sin cargar la entidad
     }
     
-    // Buscar solicitudes por estado
-    public List<Solicitud> buscarPorEstado(Solicitud.EstadoSolicitud estado) {
-        log.info("🔍 Buscando solicitudes con estado: {}", estado); // Log búsqueda
-        return solicitudRepository.findByEstado(estado); // Filtra por estado
+    // ETag de una página de solicitudes de un cliente; cubre todo lo posterior al cursor
+    public String etagPorCliente(Long idCliente, Long cursor, int limite, boolean historial) {
+        VersionColeccion activas = solicitudRepository.obtenerVersionPorCliente(idCliente, cursor); // Una consulta agregada
+        if (!historial) {
+            return activas.etag("sc-" + idCliente + "-" + cursor + "-" + limite);
+        }
+        VersionColeccion archivadas = archivadaRepository.obtenerVersionPorCliente(idCliente, cursor); // Archivo
+        return "\"sch-" + idCliente + "-" + cursor + "-" + limite + "-" + activas.firma() + "-" + archivadas.firma() + "\""; // Ambas tablas
+    }
+    
+    // ETag fuerte de una solicitud
+    public static String etag(Long idSolicitud, Long version) {
+        return "\"s-" + idSolicitud + "-" + version + "\"";
+    }
+    
+    // Obtener una página de solicitudes (cursor = último id recibido, 0 para empezar)
+    public List<Solicitud> obtenerTodas(Long cursor, int limite) {
+        log.info("📋 Obteniendo solicitudes después de ID {} (límite {})", cursor, limite); // Log consulta
+        return solicitudRepository.findByIdSolicitudGreaterThanOrderByIdSolicitudAsc(cursor, PageRequest.of(0, limite)); // Una página
+    }
+    
+    // Buscar una página de solicitudes de un cliente
+    public List<Solicitud> buscarPorCliente(Long idCliente, Long cursor, int limite) {
+        return buscarPorCliente(idCliente, cursor, limite, false); // Solo tabla activa
+    }
+    
+    // Igual, pero con historial=true mezcla la tabla activa y el archivo en orden de id
+    @Transactional(readOnly = true) // Ambas lecturas ven la misma foto aunque se archive en medio
+    public List<Solicitud> buscarPorCliente(Long idCliente, Long cursor, int limite, boolean historial) {
+        log.info("🔍 Buscando solicitudes del cliente: {} después de ID {} (historial: {})", idCliente, cursor, historial); // Log búsqueda
+        List<Solicitud> activas = solicitudRepository.findByIdClienteAndIdSolicitudGreaterThanOrderByIdSolicitudAsc(idCliente, cursor, PageRequest.of(0, limite)); // Filtra por cliente
+        if (!historial) {
+            return activas;
+        }
+        
+        List<Solicitud> archivadas = archivadaRepository
+            .findByIdClienteAndIdSolicitudGreaterThanOrderByIdSolicitudAsc(idCliente, cursor, PageRequest.of(0, limite))
+            .stream().map(SolicitudArchivada::aSolicitud).toList(); // Mismo cursor
+        return mezclar(activas, archivadas, Solicitud::getIdSolicitud, limite);
+    }
+    
+    // Página de resúmenes (sin textos largos); idCliente o estado opcionales, historial solo aplica con cliente
+    @Transactional(readOnly = true) // Misma foto de la tabla activa y el archivo
+    public List<SolicitudResumen> listarResumen(Long idCliente, Solicitud.EstadoSolicitud estado, Long cursor, int limite, boolean historial) {
+        PageRequest pagina = PageRequest.of(0, limite);
+        if (idCliente == null) {
+            return estado == null
+                ? solicitudRepository.listarResumen(cursor, pagina) // Todas
+                : solicitudRepository.listarResumenPorEstado(estado, cursor, pagina); // Por estado
+        }
+        List<SolicitudResumen> activas = solicitudRepository.listarResumenPorCliente(idCliente, cursor, pagina); // Por cliente
+        if (!historial) {
+            return activas;
+        }
+        return mezclar(activas, archivadaRepository.listarResumenPorCliente(idCliente, cursor, pagina), SolicitudResumen::idSolicitud, limite);
+    }
+    
+    // Página con solo los campos pedidos (fields=); mismos filtros que listarResumen
+    @Transactional(readOnly = true) // Misma foto de la tabla activa y el archivo
+    public List<Map<String, Object>> listarCampos(String fields, Long idCliente, Solicitud.EstadoSolicitud estado, Long cursor, int limite, boolean historial) {
+        List<String> campos = camposService.parsear(fields); // Falla con campos desconocidos
+        Map<String, Object> filtros = idCliente != null ? Map.of("idCliente", idCliente)
+            : estado != null ? Map.of("estado", estado) : Map.of();
+        List<Map<String, Object>> activas = camposService.listar(Solicitud.class, campos, filtros, cursor, limite);
+        if (idCliente == null || !historial) {
+            return activas;
+        }
+        List<Map<String, Object>> archivadas = camposService.listar(SolicitudArchivada.class, campos, filtros, cursor, limite);
+        return mezclar(activas, archivadas, fila -> (Long) fila.get("idSolicitud"), limite);
+    }
+    
+    // Valida fields= sin consultar filas (el controlador lo hace antes de comparar el ETag)
+    public void validarCampos(String fields) {
+        camposService.parsear(fields); // Falla con campos desconocidos
+    }
+    
+    // Buscar una página de solicitudes por estado
+    public List<Solicitud> buscarPorEstado(Solicitud.EstadoSolicitud estado, Long cursor, int limite) {
+        log.info("🔍 Buscando solicitudes con estado: {} después de ID {}", estado, cursor); // Log búsqueda
+        return solicitudRepository.findByEstadoAndIdSolicitudGreaterThanOrderByIdSolicitudAsc(estado, cursor, PageRequest.of(0, limite)); // Filtra por estado
     }
     
     // Buscar solicitudes disponibles para técnicos
     public List<Solicitud> obtenerDisponibles(String especialidad) {
         log.info("🎯 Obteniendo solicitudes disponibles para: {}", especialidad); // Log búsqueda
-        return solicitudRepository.encontrarSolicitudesDisponibles(especialidad); // Consulta personalizada
+        return colaDespachoService.obtenerDisponibles(especialidad); // Cola en memoria, sin consultar BD
     }
     
     // Cambiar estado de solicitud
+    @Transactional // La llamada interna no pasa por el proxy
     public Solicitud cambiarEstado(Long idSolicitud, Solicitud.EstadoSolicitud nuevoEstado) {
+        return cambiarEstado(idSolicitud, nuevoEstado, null); // Sin control de versión
+    }
+    
+    // Cambiar estado exigiendo opcionalmente la versión leída por el cliente
+    @Transactional // UPDATE y relectura en la misma transacción
+    public Solicitud cambiarEstado(Long idSolicitud, Solicitud.EstadoSolicitud nuevoEstado, Long versionEsperada) {
         log.info("🔄 Cambiando estado de solicitud {} a: {}", idSolicitud, nuevoEstado); // Log cambio
         
-        Solicitud solicitud = solicitudRepository.findById(idSolicitud)
-            .orElseThrow(() -> new RuntimeException("Solicitud no encontrada")); // Busca o falla
-        
-        solicitud.setEstado(nuevoEstado); // Cambia estado
-        
-        Solicitud guardada = solicitudRepository.save(solicitud); // Guarda cambio
+        Solicitud guardada = transicionar(idSolicitud, nuevoEstado, versionEsperada); // Un solo UPDATE condicional
         log.info("✅ Estado cambiado exitosamente"); // Log éxito
+        publicarCambio(EventoOutbox.TipoEvento.ESTADO_CAMBIADO, guardada, guardada.getEstadoAnterior()); // Entra o sale de la cola
         
         return guardada; // Retorna solicitud actualizada
     }
     
     // Actualizar solicitud
+    @Transactional // Solicitud y evento de outbox juntos
     public Solicitud actualizarSolicitud(Long id, Solicitud solicitudActualizada) {
         log.info("📝 Actualizando solicitud ID: {}", id); // Log actualización
         
@@ -92,30 +198,79 @@ public class SolicitudService {
         solicitud.setDescripcion(solicitudActualizada.getDescripcion()); // Nueva descripción
         solicitud.setPresupuestoEstimado(solicitudActualizada.getPresupuestoEstimado()); // Nuevo presupuesto
         solicitud.setObservaciones(solicitudActualizada.getObservaciones()); // Nuevas observaciones
+        solicitud.setFechaActualizacion(LocalDateTime.now()); // Último cambio
         
-        Solicitud guardada = solicitudRepository.save(solicitud); // Guarda cambios
+        Solicitud guardada = solicitudRepository.saveAndFlush(solicitud); // UPDATE ya: el outbox serializa la versión incrementada
         log.info("✅ Solicitud actualizada exitosamente"); // Log éxito
+        publicarCambio(EventoOutbox.TipoEvento.ACTUALIZADA, guardada, guardada.getEstado()); // Refresca datos en memoria
         
         return guardada; // Retorna solicitud actualizada
     }
     
     // Cancelar solicitud
+    @Transactional // UPDATE y relectura en la misma transacción
     public Solicitud cancelarSolicitud(Long idSolicitud) {
         log.info("❌ Cancelando solicitud ID: {}", idSolicitud); // Log cancelación
         
-        Solicitud solicitud = solicitudRepository.findById(idSolicitud)
-            .orElseThrow(() -> new RuntimeException("Solicitud no encontrada")); // Busca solicitud
+        // Solo se puede cancelar si no está completada ni cancelada (lo decide el WHERE del UPDATE)
+        Solicitud guardada = transicionar(idSolicitud, Solicitud.EstadoSolicitud.CANCELADA, null);
+        log.info("✅ Solicitud cancelada exitosamente"); // Log éxito
+        publicarCambio(EventoOutbox.TipoEvento.CANCELADA, guardada, guardada.getEstadoAnterior()); // Sale de la cola
         
-        // Solo se puede cancelar si está pendiente o asignada
-        if (solicitud.getEstado() == Solicitud.EstadoSolicitud.COMPLETADA) {
-            throw new RuntimeException("No se puede cancelar una solicitud completada"); // Error si ya terminó
+        return guardada; // Retorna solicitud cancelada
+    }
+    
+    // Reemplaza especialidad, ciudad y región por su forma canónica y guarda sus ids de catálogo
+    private void codificar(Solicitud solicitud) {
+        solicitud.setIdEspecialidad(catalogoService.registrar(TipoCatalogo.ESPECIALIDAD, solicitud.getEspecialidadRequerida()));
+        solicitud.setIdCiudad(catalogoService.registrar(TipoCatalogo.CIUDAD, solicitud.getCiudad()));
+        solicitud.setIdRegion(catalogoService.registrar(TipoCatalogo.REGION, solicitud.getRegion()));
+        if (solicitud.getIdEspecialidad() != null) {
+            solicitud.setEspecialidadRequerida(catalogoService.nombre(TipoCatalogo.ESPECIALIDAD, solicitud.getIdEspecialidad())); // "plomeria" -> "Plomería"
         }
+        solicitud.setCiudad(catalogoService.nombre(TipoCatalogo.CIUDAD, solicitud.getIdCiudad()));
+        solicitud.setRegion(catalogoService.nombre(TipoCatalogo.REGION, solicitud.getIdRegion()));
+    }
+    
+    // Merge de dos listas ordenadas por id, hasta limite elementos; un id repetido sale una vez (gana la activa)
+    private static <T> List<T> mezclar(List<T> activas, List<T> archivadas, Function<T, Long> id, int limite) {
+        List<T> pagina = new ArrayList<>(limite);
+        int i = 0;
+        int j = 0;
+        while (pagina.size() < limite && (i < activas.size() || j < archivadas.size())) {
+            if (i < activas.size() && j < archivadas.size() && id.apply(activas.get(i)).equals(id.apply(archivadas.get(j)))) {
+                j++; // Fila a medio archivar: ya viene de la tabla activa
+                continue;
+            }
+            boolean tomarActiva = j >= archivadas.size()
+                || (i < activas.size() && id.apply(activas.get(i)) < id.apply(archivadas.get(j)));
+            pagina.add(tomarActiva ? activas.get(i++) : archivadas.get(j++));
+        }
+        return pagina;
+    }
+    
+    // Outbox en la misma transacción; las vistas en memoria se enteran después del commit
+    private void publicarCambio(EventoOutbox.TipoEvento tipo, Solicitud solicitud, Solicitud.EstadoSolicitud estadoAnterior) {
+        outboxService.registrar(tipo, solicitud); // Se confirma o revierte junto con la solicitud
+        eventPublisher.publishEvent(new SolicitudCambiadaEvent(solicitud, estadoAnterior)); // Cola, búsqueda, estadísticas
+    }
+    
+    // Aplica la transición con UPDATE ... WHERE estado IN (permitidos); solo uno de varios concurrentes gana
+    private Solicitud transicionar(Long idSolicitud, Solicitud.EstadoSolicitud nuevoEstado, Long versionEsperada) {
+        Set<Solicitud.EstadoSolicitud> permitidos = nuevoEstado.origenesPermitidos(); // Estados de origen válidos
+        int filas = versionEsperada == null
+            ? solicitudRepository.transicionarEstado(idSolicitud, nuevoEstado, permitidos, LocalDateTime.now())
+            : solicitudRepository.transicionarEstadoConVersion(idSolicitud, nuevoEstado, permitidos, versionEsperada, LocalDateTime.now());
         
-        solicitud.setEstado(Solicitud.EstadoSolicitud.CANCELADA); // Marca como cancelada
-        
-        Solicitud guardada = solicitudRepository.save(solicitud); // Guarda cambio
-        log.info("✅ Solicitud cancelada exitosamente"); // Log éxito
+        Solicitud actual = solicitudRepository.findById(idSolicitud)
+            .orElseThrow(() -> new RuntimeException("Solicitud no encontrada")); // No existe
         
-        return guardada; // Retorna solicitud cancelada
+        if (filas == 0) {
+            log.warn("⚠️ Transición rechazada: solicitud {} está {} (versión {}), se pidió {}", 
+                idSolicitud, actual.getEstado(), actual.getVersion(), nuevoEstado); // Perdió la carrera
+            throw new TransicionEstadoException("No se puede pasar de " + actual.getEstado() + " a " + nuevoEstado, 
+                actual.getEstado(), actual.getVersion()); // El controlador responde 409
+        }
+        return actual; // Estado ya actualizado
     }
-}
\ No newline at end of file
+}
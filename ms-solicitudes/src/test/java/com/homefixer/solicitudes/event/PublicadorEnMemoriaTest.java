@@ -0,0 +1,54 @@
+package com.homefixer.solicitudes.event;
+
+import com.homefixer.solicitudes.dto.EventoSolicitud;
+import com.homefixer.solicitudes.dto.PaginaEventos;
+import com.homefixer.solicitudes.model.EventoOutbox;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Reintentos del relay sin duplicados, lectura por offset y retención acotada
+class PublicadorEnMemoriaTest {
+
+	@Test
+	void reintentoDelMismoLoteNoDuplica() {
+		PublicadorEnMemoria broker = new PublicadorEnMemoria(100);
+		List<EventoSolicitud> lote = eventos(1, 5);
+		broker.publicar(lote);
+		broker.publicar(lote);
+		broker.publicar(eventos(4, 7));
+
+		PaginaEventos pagina = broker.leer(0, 100);
+		assertEquals(7, pagina.eventos().size());
+		assertEquals(7, pagina.siguienteOffset());
+		assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L), pagina.eventos().stream().map(EventoSolicitud::idEvento).toList());
+		assertTrue(broker.leer(pagina.siguienteOffset(), 100).eventos().isEmpty());
+	}
+
+	@Test
+	void consumidorAtrasadoDetectaEventosPerdidos() {
+		PublicadorEnMemoria broker = new PublicadorEnMemoria(10);
+		broker.publicar(eventos(1, 25));
+
+		PaginaEventos atrasado = broker.leer(3, 4);
+		assertTrue(atrasado.eventosPerdidos());
+		assertEquals(16L, atrasado.eventos().get(0).idEvento()); // Lo más antiguo retenido
+		assertEquals(19, atrasado.siguienteOffset());
+
+		PaginaEventos alDia = broker.leer(20, 100);
+		assertFalse(alDia.eventosPerdidos());
+		assertEquals(5, alDia.eventos().size());
+	}
+
+	private static List<EventoSolicitud> eventos(long desde, long hasta) {
+		return LongStream.rangeClosed(desde, hasta)
+			.mapToObj(id -> new EventoSolicitud(id, id % 3, EventoOutbox.TipoEvento.CREADA, LocalDateTime.now(), "{}"))
+			.toList();
+	}
+}
@@ -0,0 +1,68 @@
+package com.homefixer.solicitudes.repository;
+
+import com.homefixer.solicitudes.model.Solicitud;
+import com.homefixer.solicitudes.service.ArchivoSolicitudesService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// El archivado mueve por bloques solo las terminadas fuera de la retención y conserva ids y datos
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ArchivoSolicitudesTest {
+
+	@Autowired
+	private SolicitudRepository solicitudRepository;
+
+	@Autowired
+	private SolicitudArchivadaRepository archivadaRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void archivaTerminadasAntiguasPorBloques() {
+		long cliente = 700L;
+		LocalDateTime antigua = LocalDateTime.now().minusDays(90);
+		for (int i = 0; i < 7; i++) {
+			solicitudRepository.save(nueva(cliente, Solicitud.EstadoSolicitud.COMPLETADA, antigua));
+		}
+		solicitudRepository.save(nueva(cliente, Solicitud.EstadoSolicitud.CANCELADA, antigua));
+		solicitudRepository.save(nueva(cliente, Solicitud.EstadoSolicitud.COMPLETADA, LocalDateTime.now())); // Dentro de la retención
+		solicitudRepository.save(nueva(cliente, Solicitud.EstadoSolicitud.PENDIENTE, antigua)); // No terminada
+
+		ArchivoSolicitudesService archivo = new ArchivoSolicitudesService(solicitudRepository, archivadaRepository,
+			new TransactionTemplate(transactionManager));
+		ReflectionTestUtils.setField(archivo, "diasRetencion", 30);
+		ReflectionTestUtils.setField(archivo, "tamanoBloque", 3);
+
+		assertEquals(8, archivo.archivarAntiguas());
+		assertEquals(0, archivo.archivarAntiguas());
+
+		List<Solicitud> activas = solicitudRepository.findByIdClienteAndIdSolicitudGreaterThanOrderByIdSolicitudAsc(cliente, 0L, PageRequest.of(0, 100));
+		assertEquals(2, activas.size());
+		assertEquals(8, archivadaRepository.findByIdClienteAndIdSolicitudGreaterThanOrderByIdSolicitudAsc(cliente, 0L, PageRequest.of(0, 100)).size());
+		assertTrue(archivadaRepository.findAll().stream().allMatch(a -> a.getFechaArchivado() != null && "Fuga".equals(a.getTitulo())));
+		assertEquals(8, archivadaRepository.contarAgrupado().stream().mapToLong(c -> c.cantidad()).sum());
+	}
+
+	private static Solicitud nueva(long cliente, Solicitud.EstadoSolicitud estado, LocalDateTime fechaActualizacion) {
+		return Solicitud.builder()
+			.idCliente(cliente).titulo("Fuga").descripcion("Fuga en el baño").especialidadRequerida("Plomería")
+			.direccionServicio("Calle 123").estado(estado).prioridad(Solicitud.PrioridadSolicitud.MEDIA)
+			.fechaCreacion(fechaActualizacion).fechaActualizacion(fechaActualizacion)
+			.build();
+	}
+}
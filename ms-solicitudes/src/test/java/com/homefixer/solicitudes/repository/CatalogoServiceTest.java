@@ -0,0 +1,79 @@
+package com.homefixer.solicitudes.repository;
+
+import com.homefixer.solicitudes.model.Solicitud;
+import com.homefixer.solicitudes.model.ValorCatalogo.TipoCatalogo;
+import com.homefixer.solicitudes.service.CatalogoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+// Variantes de escritura comparten id y nombre canónico; otra instancia ve los valores ya registrados
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CatalogoServiceTest {
+
+	@Autowired
+	private ValorCatalogoRepository repository;
+
+	@Autowired
+	private SolicitudRepository solicitudRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Test
+	void normalizaYCompartePorIds() {
+		CatalogoService catalogo = nuevoCatalogo();
+		Integer plomeria = catalogo.registrar(TipoCatalogo.ESPECIALIDAD, "Plomería");
+		assertEquals(plomeria, catalogo.registrar(TipoCatalogo.ESPECIALIDAD, "  PLOMERIA "));
+		assertEquals(plomeria, catalogo.registrar(TipoCatalogo.ESPECIALIDAD, "plomería"));
+		assertNotEquals(plomeria, catalogo.registrar(TipoCatalogo.ESPECIALIDAD, "Electricidad"));
+		assertSame(catalogo.nombre(TipoCatalogo.ESPECIALIDAD, plomeria), catalogo.nombre(TipoCatalogo.ESPECIALIDAD, plomeria));
+		assertEquals("Plomería", catalogo.nombre(TipoCatalogo.ESPECIALIDAD, plomeria));
+		assertNull(catalogo.registrar(TipoCatalogo.CIUDAD, " "));
+		assertEquals(Optional.empty(), catalogo.buscar(TipoCatalogo.CIUDAD, "Arica"));
+
+		CatalogoService otraInstancia = nuevoCatalogo();
+		assertEquals(Optional.of(plomeria), otraInstancia.buscar(TipoCatalogo.ESPECIALIDAD, "PLOMERÍA"));
+	}
+
+	@Test
+	void completaFilasGuardadasSinId() {
+		Solicitud antigua = solicitudRepository.save(Solicitud.builder()
+			.idCliente(703L).titulo("Corte").descripcion("Sin luz").especialidadRequerida("electricidad ")
+			.direccionServicio("Calle 123").ciudad("VALPARAISO").estado(Solicitud.EstadoSolicitud.PENDIENTE)
+			.prioridad(Solicitud.PrioridadSolicitud.MEDIA).fechaCreacion(LocalDateTime.now())
+			.build());
+
+		CatalogoService catalogo = nuevoCatalogo();
+		catalogo.completarFilasSinId();
+
+		Solicitud codificada = solicitudRepository.findById(antigua.getIdSolicitud()).orElseThrow();
+		assertEquals(catalogo.buscar(TipoCatalogo.ESPECIALIDAD, "Electricidad").orElseThrow(), codificada.getIdEspecialidad());
+		assertEquals(catalogo.buscar(TipoCatalogo.CIUDAD, "Valparaíso").orElseThrow(), codificada.getIdCiudad());
+		assertEquals(catalogo.nombre(TipoCatalogo.CIUDAD, codificada.getIdCiudad()), codificada.getCiudad());
+		assertNull(codificada.getIdRegion());
+	}
+
+	private CatalogoService nuevoCatalogo() {
+		CatalogoService catalogo = new CatalogoService(repository, transactionManager, new JdbcTemplate(dataSource));
+		catalogo.cargar();
+		return catalogo;
+	}
+}
@@ -0,0 +1,55 @@
+package com.homefixer.solicitudes.repository;
+
+import com.homefixer.solicitudes.dto.ItemAgenda;
+import com.homefixer.solicitudes.model.Solicitud;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// La ventana de agenda en BD filtra por especialidad, estado y rango de fecha preferida, con filtros opcionales
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SolicitudRepositoryAgendaTest {
+
+	private static final int PLOMERIA = 1; // Ids de catálogo
+	private static final int SANTIAGO = 4;
+	private static final LocalDateTime MANANA = LocalDateTime.of(2025, 3, 11, 0, 0);
+
+	@Autowired
+	private SolicitudRepository solicitudRepository;
+
+	@Test
+	void ventanaPorIndiceDeAgenda() {
+		Solicitud primera = solicitudRepository.save(nueva("Plomería", Solicitud.PrioridadSolicitud.ALTA, "Santiago", MANANA.plusHours(10)));
+		Solicitud segunda = solicitudRepository.save(nueva("Plomería", Solicitud.PrioridadSolicitud.ALTA, "Santiago", MANANA.plusHours(9)));
+		solicitudRepository.save(nueva("Plomería", Solicitud.PrioridadSolicitud.BAJA, "Santiago", MANANA.plusHours(9)));
+		solicitudRepository.save(nueva("Plomería", Solicitud.PrioridadSolicitud.ALTA, "Temuco", MANANA.plusHours(9)));
+		solicitudRepository.save(nueva("Plomería", Solicitud.PrioridadSolicitud.ALTA, "Santiago", MANANA.plusHours(13)));
+		solicitudRepository.save(nueva("Pintura", Solicitud.PrioridadSolicitud.ALTA, "Santiago", MANANA.plusHours(9)));
+
+		List<ItemAgenda> ventana = solicitudRepository.buscarVentanaAgenda(PLOMERIA, Solicitud.EstadoSolicitud.COMPLETADA,
+			MANANA.plusHours(8), MANANA.plusHours(12), Solicitud.PrioridadSolicitud.ALTA, SANTIAGO, PageRequest.of(0, 10));
+		assertEquals(List.of(segunda.getIdSolicitud(), primera.getIdSolicitud()), ventana.stream().map(ItemAgenda::idSolicitud).toList());
+
+		List<ItemAgenda> sinFiltros = solicitudRepository.buscarVentanaAgenda(PLOMERIA, Solicitud.EstadoSolicitud.COMPLETADA,
+			MANANA.plusHours(8), MANANA.plusHours(12), null, null, PageRequest.of(0, 10));
+		assertEquals(4, sinFiltros.size());
+	}
+
+	private static Solicitud nueva(String especialidad, Solicitud.PrioridadSolicitud prioridad, String ciudad, LocalDateTime fechaPreferida) {
+		return Solicitud.builder()
+			.idCliente(701L).titulo("Trabajo").descripcion("Trabajo terminado").especialidadRequerida(especialidad)
+			.idEspecialidad(especialidad.equals("Plomería") ? PLOMERIA : 2).idCiudad(ciudad.equals("Santiago") ? SANTIAGO : 3)
+			.direccionServicio("Calle 123").ciudad(ciudad).estado(Solicitud.EstadoSolicitud.COMPLETADA)
+			.prioridad(prioridad).fechaCreacion(LocalDateTime.now()).fechaPreferida(fechaPreferida)
+			.build();
+	}
+}
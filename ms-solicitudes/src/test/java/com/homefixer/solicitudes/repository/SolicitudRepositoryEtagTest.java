@@ -0,0 +1,52 @@
+package com.homefixer.solicitudes.repository;
+
+import com.homefixer.solicitudes.model.Solicitud;
+import com.homefixer.solicitudes.service.SolicitudService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Las consultas de versión que respaldan los ETag cambian con cada alta o modificación
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SolicitudRepositoryEtagTest {
+
+	@Autowired
+	private SolicitudRepository solicitudRepository;
+
+	@Test
+	void versionDeFilaYDeColeccion() {
+		long cliente = 900L;
+		assertTrue(solicitudRepository.obtenerVersion(-1L).isEmpty());
+		String vacia = solicitudRepository.obtenerVersionPorCliente(cliente, 0L).etag("sc");
+
+		Solicitud solicitud = solicitudRepository.save(nueva(cliente));
+		assertEquals(0L, solicitudRepository.obtenerVersion(solicitud.getIdSolicitud()).orElseThrow());
+		String conUna = solicitudRepository.obtenerVersionPorCliente(cliente, 0L).etag("sc");
+		assertNotEquals(vacia, conUna);
+
+		solicitud.setTitulo("Fuga grande");
+		solicitudRepository.save(solicitud);
+		assertEquals(1L, solicitudRepository.obtenerVersion(solicitud.getIdSolicitud()).orElseThrow());
+		String modificada = solicitudRepository.obtenerVersionPorCliente(cliente, 0L).etag("sc");
+		assertNotEquals(conUna, modificada);
+		assertEquals(modificada, solicitudRepository.obtenerVersionPorCliente(cliente, 0L).etag("sc"));
+		assertEquals("\"s-" + solicitud.getIdSolicitud() + "-1\"", SolicitudService.etag(solicitud.getIdSolicitud(), 1L));
+	}
+
+	private static Solicitud nueva(long cliente) {
+		return Solicitud.builder()
+			.idCliente(cliente).titulo("Fuga").descripcion("Fuga en el baño").especialidadRequerida("Plomería")
+			.direccionServicio("Calle 123").estado(Solicitud.EstadoSolicitud.PENDIENTE)
+			.prioridad(Solicitud.PrioridadSolicitud.MEDIA).fechaCreacion(LocalDateTime.now())
+			.build();
+	}
+}
@@ -0,0 +1,60 @@
+package com.homefixer.solicitudes.repository;
+
+import com.homefixer.solicitudes.dto.SolicitudResumen;
+import com.homefixer.solicitudes.model.Solicitud;
+import com.homefixer.solicitudes.service.CamposSolicitudesService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Las vistas de listado traen solo sus columnas y no dejan entidades en el contexto de persistencia
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class SolicitudRepositoryResumenTest {
+
+	@Autowired
+	private SolicitudRepository solicitudRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Test
+	void resumenYCamposSinEntidadesAdministradas() {
+		long cliente = 702L;
+		Solicitud primera = solicitudRepository.save(nueva(cliente, Solicitud.EstadoSolicitud.PENDIENTE));
+		Solicitud segunda = solicitudRepository.save(nueva(cliente, Solicitud.EstadoSolicitud.ASIGNADA));
+		solicitudRepository.save(nueva(cliente + 1, Solicitud.EstadoSolicitud.PENDIENTE));
+		entityManager.flush();
+		entityManager.clear();
+
+		List<SolicitudResumen> resumen = solicitudRepository.listarResumenPorCliente(cliente, 0L, PageRequest.of(0, 10));
+		assertEquals(List.of(primera.getIdSolicitud(), segunda.getIdSolicitud()), resumen.stream().map(SolicitudResumen::idSolicitud).toList());
+		assertEquals("Fuga", resumen.get(0).titulo());
+		assertEquals(1, solicitudRepository.listarResumenPorEstado(Solicitud.EstadoSolicitud.ASIGNADA, primera.getIdSolicitud(), PageRequest.of(0, 10)).size());
+
+		CamposSolicitudesService campos = new CamposSolicitudesService(entityManager);
+		List<Map<String, Object>> filas = campos.listar(Solicitud.class, campos.parsear("titulo, estado"),
+			Map.of("idCliente", cliente), primera.getIdSolicitud(), 10);
+		assertEquals(List.of(Map.of("idSolicitud", segunda.getIdSolicitud(), "titulo", "Fuga", "estado", Solicitud.EstadoSolicitud.ASIGNADA)), filas);
+		assertEquals(List.of("idSolicitud", "titulo", "estado"), List.copyOf(filas.get(0).keySet()));
+		assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount()); // Nada que revisar al hacer flush
+		assertThrows(RuntimeException.class, () -> campos.parsear("titulo,clave"));
+	}
+
+	private static Solicitud nueva(long cliente, Solicitud.EstadoSolicitud estado) {
+		return Solicitud.builder()
+			.idCliente(cliente).titulo("Fuga").descripcion("x".repeat(900)).especialidadRequerida("Plomería")
+			.direccionServicio("Calle 123").estado(estado).prioridad(Solicitud.PrioridadSolicitud.MEDIA)
+			.fechaCreacion(LocalDateTime.now()).observaciones("y".repeat(400))
+			.build();
+	}
+}
@@ -0,0 +1,119 @@
+package com.homefixer.solicitudes.repository;
+
+import com.homefixer.solicitudes.model.Solicitud;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Transiciones condicionales contra H2: con muchos hilos sobre la misma fila solo uno gana y no se pierden cambios
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SolicitudRepositoryTransicionTest {
+
+	private static final int HILOS = 32;
+	private static final int SOLICITUDES = 50;
+
+	@Autowired
+	private SolicitudRepository solicitudRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void maquinaDeEstados() {
+		assertTrue(Solicitud.EstadoSolicitud.PENDIENTE.puedeCambiarA(Solicitud.EstadoSolicitud.ASIGNADA));
+		assertTrue(Solicitud.EstadoSolicitud.EN_PROCESO.puedeCambiarA(Solicitud.EstadoSolicitud.CANCELADA));
+		assertFalse(Solicitud.EstadoSolicitud.PENDIENTE.puedeCambiarA(Solicitud.EstadoSolicitud.COMPLETADA));
+		assertFalse(Solicitud.EstadoSolicitud.COMPLETADA.puedeCambiarA(Solicitud.EstadoSolicitud.CANCELADA));
+		for (Solicitud.EstadoSolicitud terminal : List.of(Solicitud.EstadoSolicitud.COMPLETADA, Solicitud.EstadoSolicitud.CANCELADA)) {
+			for (Solicitud.EstadoSolicitud destino : Solicitud.EstadoSolicitud.values()) {
+				assertFalse(terminal.puedeCambiarA(destino));
+			}
+		}
+	}
+
+	@Test
+	void soloUnHiloGanaCadaAsignacion() throws Exception {
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < SOLICITUDES; i++) {
+			ids.add(solicitudRepository.save(nueva()).getIdSolicitud());
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(HILOS);
+		AtomicInteger ganadores = new AtomicInteger();
+		AtomicInteger perdedores = new AtomicInteger();
+		try {
+			for (Long id : ids) {
+				CountDownLatch largada = new CountDownLatch(1);
+				List<Future<?>> intentos = new ArrayList<>();
+				for (int h = 0; h < HILOS; h++) {
+					intentos.add(pool.submit(() -> {
+						largada.await();
+						Integer filas = tx.execute(s -> solicitudRepository.transicionarEstado(id, Solicitud.EstadoSolicitud.ASIGNADA,
+							Solicitud.EstadoSolicitud.ASIGNADA.origenesPermitidos(), LocalDateTime.now()));
+						(filas != null && filas == 1 ? ganadores : perdedores).incrementAndGet();
+						return null;
+					}));
+				}
+				largada.countDown();
+				for (Future<?> intento : intentos) {
+					intento.get(30, TimeUnit.SECONDS);
+				}
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+
+		assertEquals(SOLICITUDES, ganadores.get());
+		assertEquals(SOLICITUDES * (HILOS - 1), perdedores.get());
+		for (Long id : ids) {
+			Solicitud s = solicitudRepository.findById(id).orElseThrow();
+			assertEquals(Solicitud.EstadoSolicitud.ASIGNADA, s.getEstado());
+			assertEquals(1L, s.getVersion()); // Una sola escritura por fila
+		}
+	}
+
+	@Test
+	void versionEsperadaDesactualizadaNoEscribe() {
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+		Long id = solicitudRepository.save(nueva()).getIdSolicitud();
+
+		Integer conVersionVieja = tx.execute(s -> solicitudRepository.transicionarEstadoConVersion(id,
+			Solicitud.EstadoSolicitud.CANCELADA, Solicitud.EstadoSolicitud.CANCELADA.origenesPermitidos(), 7L, LocalDateTime.now()));
+		Integer conVersionActual = tx.execute(s -> solicitudRepository.transicionarEstadoConVersion(id,
+			Solicitud.EstadoSolicitud.CANCELADA, Solicitud.EstadoSolicitud.CANCELADA.origenesPermitidos(), 0L, LocalDateTime.now()));
+
+		assertEquals(0, conVersionVieja);
+		assertEquals(1, conVersionActual);
+		assertEquals(Solicitud.EstadoSolicitud.PENDIENTE, solicitudRepository.findById(id).orElseThrow().getEstadoAnterior());
+		assertTrue(solicitudRepository.contarAgrupado().stream()
+			.anyMatch(c -> c.estado() == Solicitud.EstadoSolicitud.CANCELADA && c.cantidad() >= 1));
+	}
+
+	private static Solicitud nueva() {
+		return Solicitud.builder()
+			.idCliente(1L).titulo("Fuga").descripcion("Fuga en el baño").especialidadRequerida("Plomería")
+			.direccionServicio("Calle 123").estado(Solicitud.EstadoSolicitud.PENDIENTE)
+			.prioridad(Solicitud.PrioridadSolicitud.MEDIA).fechaCreacion(LocalDateTime.now())
+			.build();
+	}
+}
@@ -0,0 +1,109 @@
+package com.homefixer.solicitudes.service;
+
+import com.homefixer.solicitudes.dto.FiltroSolicitudes;
+import com.homefixer.solicitudes.event.SolicitudCambiadaEvent;
+import com.homefixer.solicitudes.model.Solicitud;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+// Un evento llegado durante la reconstrucción no lo pisa la fila leída antes, y al reabrir se reindexa lo cambiado desde el último commit
+class BusquedaSolicitudesServiceTest {
+
+	private static final long MARGEN_MS = 60_000;
+
+	@TempDir
+	Path directorio;
+
+	private final ExportacionSolicitudesService exportacion = mock(ExportacionSolicitudesService.class);
+
+	@Test
+	void losEventosDuranteLaReconstruccionSeReaplicanAlFinal() throws Exception {
+		BusquedaSolicitudesService busqueda = nuevo();
+		doAnswer(invocacion -> {
+			Consumer<Solicitud> consumidor = invocacion.getArgument(1);
+			busqueda.onSolicitudCambiada(new SolicitudCambiadaEvent(solicitud(1L, Solicitud.EstadoSolicitud.ASIGNADA, 2L), Solicitud.EstadoSolicitud.PENDIENTE)); // Llega a mitad del recorrido
+			busqueda.onSolicitudCambiada(new SolicitudCambiadaEvent(solicitud(1L, Solicitud.EstadoSolicitud.PENDIENTE, 1L), null)); // Evento atrasado
+			consumidor.accept(solicitud(1L, Solicitud.EstadoSolicitud.PENDIENTE, 1L)); // Lectura anterior al cambio
+			consumidor.accept(solicitud(2L, Solicitud.EstadoSolicitud.PENDIENTE, 1L));
+			return null;
+		}).when(exportacion).recorrer(eq(FiltroSolicitudes.todos()), any());
+
+		assertEquals(2, busqueda.reconstruir());
+		assertEquals(1, busqueda.buscar("fuga", "ASIGNADA", null, null, 0, 10).total());
+		assertEquals(1, busqueda.buscar("fuga", "PENDIENTE", null, null, 0, 10).total());
+
+		busqueda.onSolicitudCambiada(new SolicitudCambiadaEvent(solicitud(2L, Solicitud.EstadoSolicitud.CANCELADA, 2L), Solicitud.EstadoSolicitud.PENDIENTE)); // Fuera del recorrido: directo
+		busqueda.refrescar();
+		assertEquals(1, busqueda.buscar("fuga", "CANCELADA", null, null, 0, 10).total());
+		busqueda.cerrar();
+	}
+
+	@Test
+	void alReabrirSePoneAlDiaDesdeElUltimoCommit() throws Exception {
+		BusquedaSolicitudesService anterior = nuevo();
+		doAnswer(invocacion -> {
+			Consumer<Solicitud> consumidor = invocacion.getArgument(1);
+			consumidor.accept(solicitud(1L, Solicitud.EstadoSolicitud.PENDIENTE, 1L));
+			return null;
+		}).when(exportacion).recorrer(eq(FiltroSolicitudes.todos()), any());
+		anterior.alIniciar(); // Índice vacío: reconstruye
+		LocalDateTime antesDelCierre = LocalDateTime.now();
+		anterior.cerrar();
+
+		BusquedaSolicitudesService reabierto = nuevo();
+		LocalDateTime[] desde = new LocalDateTime[1];
+		doAnswer(invocacion -> {
+			desde[0] = invocacion.getArgument(0);
+			Consumer<Solicitud> consumidor = invocacion.getArgument(1);
+			consumidor.accept(solicitud(1L, Solicitud.EstadoSolicitud.ASIGNADA, 2L)); // Cambió sin que llegara el evento
+			return null;
+		}).when(exportacion).recorrerActualizadas(any(), any());
+		reabierto.alIniciar();
+
+		verify(exportacion).recorrer(eq(FiltroSolicitudes.todos()), any()); // Solo la reconstrucción inicial
+		assertFalse(desde[0].isAfter(antesDelCierre.minusNanos(MARGEN_MS * 1_000_000))); // Desde el commit menos el margen
+		assertEquals(1, reabierto.buscar("fuga", "ASIGNADA", null, null, 0, 10).total());
+		assertEquals(0, reabierto.buscar("fuga", "PENDIENTE", null, null, 0, 10).total());
+		reabierto.cerrar();
+	}
+
+	@Test
+	void unIndiceSinMarcaSeReconstruye() throws Exception {
+		try (IndiceSolicitudes indice = new IndiceSolicitudes(directorio)) {
+			indice.indexar(solicitud(1L, Solicitud.EstadoSolicitud.PENDIENTE, 1L)); // Formato anterior: sin datos de commit
+		}
+		BusquedaSolicitudesService busqueda = nuevo();
+		busqueda.alIniciar();
+		verify(exportacion).recorrer(eq(FiltroSolicitudes.todos()), any());
+		verify(exportacion, never()).recorrerActualizadas(any(), any());
+		busqueda.cerrar();
+	}
+
+	private BusquedaSolicitudesService nuevo() throws Exception {
+		BusquedaSolicitudesService busqueda = new BusquedaSolicitudesService(exportacion, directorio.toString());
+		ReflectionTestUtils.setField(busqueda, "margenPuestaAlDiaMs", MARGEN_MS);
+		return busqueda;
+	}
+
+	private static Solicitud solicitud(Long id, Solicitud.EstadoSolicitud estado, Long version) {
+		return Solicitud.builder()
+			.idSolicitud(id).idCliente(1L).titulo("Fuga de agua").descripcion("Fuga bajo el lavaplatos")
+			.especialidadRequerida("Plomería").direccionServicio("Calle 123").ciudad("Santiago")
+			.estado(estado).prioridad(Solicitud.PrioridadSolicitud.MEDIA).fechaCreacion(LocalDateTime.now()).version(version)
+			.build();
+	}
+}
@@ -0,0 +1,79 @@
+package com.homefixer.solicitudes.service;
+
+import com.homefixer.solicitudes.dto.HistogramaAgenda;
+import com.homefixer.solicitudes.dto.ItemAgenda;
+import com.homefixer.solicitudes.model.Solicitud;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Las ventanas y el histograma del calendario coinciden con un recorrido completo
+class CalendarioSolicitudesTest {
+
+	private static final String[] ESPECIALIDADES = {"Plomería", "Electricidad", "Pintura"};
+	private static final String[] CIUDADES = {"Santiago", "Valparaíso", null};
+	private static final LocalDateTime BASE = LocalDateTime.of(2025, 3, 10, 0, 0);
+
+	@Test
+	void ventanaEHistogramaCoincidenConRecorridoCompleto() {
+		Random random = new Random(7);
+		CalendarioSolicitudes calendario = new CalendarioSolicitudes();
+		List<ItemAgenda> todas = new ArrayList<>();
+		for (long id = 1; id <= 5_000; id++) {
+			ItemAgenda item = new ItemAgenda(id, ESPECIALIDADES[random.nextInt(3)],
+				Solicitud.EstadoSolicitud.values()[random.nextInt(5)],
+				Solicitud.PrioridadSolicitud.values()[random.nextInt(4)],
+				CIUDADES[random.nextInt(3)],
+				random.nextInt(10) == 0 ? null : BASE.plusMinutes(random.nextInt(7 * 24 * 60)));
+			calendario.actualizar(item);
+			todas.add(item);
+		}
+
+		LocalDateTime desde = BASE.plusDays(1).plusHours(8).plusMinutes(30); // Desde mañana 08:30
+		LocalDateTime hasta = BASE.plusDays(3).plusHours(12);
+		List<ItemAgenda> esperadas = todas.stream()
+			.filter(i -> i.fechaPreferida() != null && !i.estado().esTerminal())
+			.filter(i -> i.especialidad().equals("Plomería") && i.prioridad() == Solicitud.PrioridadSolicitud.ALTA && "Santiago".equals(i.ciudad()))
+			.filter(i -> !i.fechaPreferida().isBefore(desde) && i.fechaPreferida().isBefore(hasta))
+			.sorted(Comparator.comparing(ItemAgenda::fechaPreferida).thenComparing(ItemAgenda::idSolicitud))
+			.toList();
+		assertTrue(esperadas.size() > 3);
+		assertEquals(esperadas, calendario.buscar("plomería", desde, hasta, null, Solicitud.PrioridadSolicitud.ALTA, "santiago", 1_000));
+		assertEquals(esperadas.subList(0, 3), calendario.buscar("Plomería", desde, hasta, null, Solicitud.PrioridadSolicitud.ALTA, "Santiago", 3));
+
+		HistogramaAgenda histograma = calendario.histograma(null, BASE, BASE.plusDays(7), null, null, null);
+		assertEquals(7 * 24, histograma.franjas().size());
+		long enMemoria = todas.stream().filter(i -> i.fechaPreferida() != null && !i.estado().esTerminal()).count();
+		assertEquals(enMemoria, histograma.total());
+		assertEquals(enMemoria, calendario.tamano());
+		LocalDateTime hora = BASE.plusHours(30);
+		assertEquals(todas.stream().filter(i -> i.fechaPreferida() != null && !i.estado().esTerminal())
+				.filter(i -> i.estado() == Solicitud.EstadoSolicitud.PENDIENTE && i.especialidad().equals("Pintura"))
+				.filter(i -> !i.fechaPreferida().isBefore(hora) && i.fechaPreferida().isBefore(hora.plusHours(1))).count(),
+			calendario.histograma("Pintura", hora, hora.plusMinutes(1), Solicitud.EstadoSolicitud.PENDIENTE, null, null).total());
+	}
+
+	@Test
+	void cambiosMuevenOQuitanDelCalendario() {
+		CalendarioSolicitudes calendario = new CalendarioSolicitudes();
+		LocalDateTime nueve = BASE.plusHours(9);
+		calendario.actualizar(new ItemAgenda(1L, "Plomería", Solicitud.EstadoSolicitud.PENDIENTE, Solicitud.PrioridadSolicitud.ALTA, "Santiago", nueve));
+		assertEquals(1, calendario.buscar("Plomería", BASE, BASE.plusDays(1), null, null, null, 10).size());
+
+		calendario.actualizar(new ItemAgenda(1L, "Plomería", Solicitud.EstadoSolicitud.ASIGNADA, Solicitud.PrioridadSolicitud.ALTA, "Santiago", nueve));
+		assertEquals(0, calendario.buscar("Plomería", BASE, BASE.plusDays(1), Solicitud.EstadoSolicitud.PENDIENTE, null, null, 10).size());
+		assertEquals(1, calendario.histograma("Plomería", nueve, nueve.plusHours(1), null, null, null).total());
+		assertEquals(1, calendario.buscar("PLOMERIA ", BASE, BASE.plusDays(1), null, null, "santiago", 10).size()); // Mismo criterio que el catálogo
+
+		calendario.actualizar(new ItemAgenda(1L, "Plomería", Solicitud.EstadoSolicitud.COMPLETADA, Solicitud.PrioridadSolicitud.ALTA, "Santiago", nueve));
+		assertEquals(0, calendario.tamano());
+		assertEquals(0, calendario.histograma("Plomería", BASE, BASE.plusDays(1), null, null, null).total());
+	}
+}
@@ -0,0 +1,52 @@
+package com.homefixer.solicitudes.service;
+
+import com.homefixer.solicitudes.event.SolicitudCambiadaEvent;
+import com.homefixer.solicitudes.model.Solicitud;
+import com.homefixer.solicitudes.repository.SolicitudRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Un evento atrasado (versión no más nueva) no reencola una solicitud ya asignada
+class ColaDespachoServiceTest {
+
+	private final SolicitudRepository repository = mock(SolicitudRepository.class);
+	private final ColaDespachoService cola = new ColaDespachoService(repository);
+
+	@Test
+	void losEventosAtrasadosSeIgnoran() {
+		when(repository.findByEstado(Solicitud.EstadoSolicitud.PENDIENTE))
+			.thenReturn(List.of(solicitud(1L, Solicitud.EstadoSolicitud.PENDIENTE, 0L), solicitud(2L, Solicitud.EstadoSolicitud.PENDIENTE, 0L)));
+		cola.reconstruir();
+		assertEquals(2, cola.tamano("plomeria"));
+
+		cambio(solicitud(1L, Solicitud.EstadoSolicitud.ASIGNADA, 1L));
+		cambio(solicitud(1L, Solicitud.EstadoSolicitud.PENDIENTE, 0L)); // Llega después de la asignación
+		cambio(solicitud(2L, Solicitud.EstadoSolicitud.PENDIENTE, 0L)); // Repetido
+		assertEquals(List.of(2L), cola.obtenerDisponibles("Plomería").stream().map(Solicitud::getIdSolicitud).toList());
+
+		cambio(solicitud(1L, Solicitud.EstadoSolicitud.PENDIENTE, 2L)); // Vuelve de verdad (versión nueva)
+		assertEquals(2, cola.tamano("PLOMERÍA"));
+
+		cola.limpiarSalidas(); // Las salidas recientes se conservan
+		cambio(solicitud(2L, Solicitud.EstadoSolicitud.CANCELADA, 1L));
+		cambio(solicitud(2L, Solicitud.EstadoSolicitud.PENDIENTE, 0L));
+		assertEquals(1, cola.tamano("plomeria"));
+	}
+
+	private void cambio(Solicitud solicitud) {
+		cola.onSolicitudCambiada(new SolicitudCambiadaEvent(solicitud, null));
+	}
+
+	private static Solicitud solicitud(Long id, Solicitud.EstadoSolicitud estado, Long version) {
+		return Solicitud.builder()
+			.idSolicitud(id).idCliente(1L).titulo("Fuga").especialidadRequerida("Plomería").ciudad("Santiago")
+			.estado(estado).prioridad(Solicitud.PrioridadSolicitud.MEDIA).fechaCreacion(LocalDateTime.now().plusSeconds(id)).version(version)
+			.build();
+	}
+}
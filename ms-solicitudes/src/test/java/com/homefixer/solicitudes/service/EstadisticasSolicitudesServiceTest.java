@@ -0,0 +1,75 @@
+package com.homefixer.solicitudes.service;
+
+import com.homefixer.solicitudes.dto.ConteoSolicitudes;
+import com.homefixer.solicitudes.event.SolicitudCambiadaEvent;
+import com.homefixer.solicitudes.model.Solicitud;
+import com.homefixer.solicitudes.repository.SolicitudArchivadaRepository;
+import com.homefixer.solicitudes.repository.SolicitudRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Contadores por combinación y con comodines tras reconciliar y aplicar eventos, también los que llegan a media reconciliación
+class EstadisticasSolicitudesServiceTest {
+
+	@Test
+	void reconciliaYAplicaTransiciones() {
+		SolicitudRepository repository = mock(SolicitudRepository.class);
+		when(repository.contarAgrupado()).thenReturn(List.of(
+			new ConteoSolicitudes(Solicitud.EstadoSolicitud.PENDIENTE, "Plomería", "Santiago", 10L),
+			new ConteoSolicitudes(Solicitud.EstadoSolicitud.PENDIENTE, "Electricidad", "Santiago", 4L),
+			new ConteoSolicitudes(Solicitud.EstadoSolicitud.COMPLETADA, "Plomería", null, 3L)));
+		EstadisticasSolicitudesService service = new EstadisticasSolicitudesService(repository, mock(SolicitudArchivadaRepository.class), mock(PlatformTransactionManager.class));
+		service.reconciliar();
+
+		assertEquals(17, service.contar(null, null, null));
+		assertEquals(14, service.contar(Solicitud.EstadoSolicitud.PENDIENTE, null, null));
+		assertEquals(13, service.contar(null, "Plomería", null));
+		assertEquals(14, service.contar(null, null, "Santiago"));
+		assertEquals(13, service.contar(null, "plomeria", null)); // Mismo criterio que el catálogo
+		assertEquals(10, service.contar(Solicitud.EstadoSolicitud.PENDIENTE, " PLOMERÍA", "santiago"));
+
+		Solicitud asignada = Solicitud.builder().idSolicitud(1L).estado(Solicitud.EstadoSolicitud.ASIGNADA)
+			.especialidadRequerida("Plomería").ciudad("Santiago").build();
+		service.onSolicitudCambiada(new SolicitudCambiadaEvent(asignada, Solicitud.EstadoSolicitud.PENDIENTE));
+		Solicitud nueva = Solicitud.builder().idSolicitud(2L).estado(Solicitud.EstadoSolicitud.PENDIENTE)
+			.especialidadRequerida("Pintura").ciudad("Temuco").build();
+		service.onSolicitudCambiada(new SolicitudCambiadaEvent(nueva, null));
+		service.onSolicitudCambiada(new SolicitudCambiadaEvent(nueva, Solicitud.EstadoSolicitud.PENDIENTE)); // Solo datos
+
+		assertEquals(18, service.contar(null, null, null));
+		assertEquals(9, service.contar(Solicitud.EstadoSolicitud.PENDIENTE, "Plomería", "Santiago"));
+		assertEquals(1, service.contar(Solicitud.EstadoSolicitud.ASIGNADA, null, "Santiago"));
+		assertEquals(1, service.obtener("Pintura", null).porEstado().get("PENDIENTE"));
+		assertEquals(5, service.detalle().size());
+	}
+
+	@Test
+	void unCambioDuranteLaReconciliacionNoSePierde() {
+		SolicitudRepository repository = mock(SolicitudRepository.class);
+		SolicitudArchivadaRepository archivadas = mock(SolicitudArchivadaRepository.class);
+		when(repository.contarAgrupado()).thenReturn(List.of(
+			new ConteoSolicitudes(Solicitud.EstadoSolicitud.PENDIENTE, "Plomería", "Santiago", 10L)));
+		EstadisticasSolicitudesService service = new EstadisticasSolicitudesService(repository, archivadas, mock(PlatformTransactionManager.class));
+		service.reconciliar();
+
+		Solicitud asignada = Solicitud.builder().idSolicitud(1L).estado(Solicitud.EstadoSolicitud.ASIGNADA)
+			.especialidadRequerida("Plomería").ciudad("Santiago").build();
+		when(repository.contarAgrupado()).thenReturn(List.of(
+			new ConteoSolicitudes(Solicitud.EstadoSolicitud.PENDIENTE, "Plomería", "Santiago", 10L))); // Leído antes del cambio
+		when(archivadas.contarAgrupado()).thenAnswer(invocacion -> {
+			service.onSolicitudCambiada(new SolicitudCambiadaEvent(asignada, Solicitud.EstadoSolicitud.PENDIENTE)); // Commit entre consultas
+			return List.of();
+		});
+		service.reconciliar();
+
+		assertEquals(9, service.contar(Solicitud.EstadoSolicitud.PENDIENTE, null, null));
+		assertEquals(1, service.contar(Solicitud.EstadoSolicitud.ASIGNADA, null, null));
+		assertEquals(10, service.contar(null, null, null));
+	}
+}
@@ -0,0 +1,108 @@
+package com.homefixer.solicitudes.service;
+
+import com.homefixer.solicitudes.dto.ResultadoBusqueda;
+import com.homefixer.solicitudes.model.Solicitud;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Relevancia básica, filtros y benchmark de latencia (tag benchmark; -Dbenchmark.documentos=5000000 para el volumen de producción)
+class IndiceSolicitudesTest {
+
+	private static final String[] ESPECIALIDADES = {"Plomería", "Electricidad", "Gasfitería", "Cerrajería", "Pintura"};
+	private static final String[] CIUDADES = {"Santiago", "Valparaíso", "Concepción", "Temuco"};
+	private static final String[] PROBLEMAS = {"fuga de agua en el baño", "cortocircuito en la cocina", "calefont no enciende",
+		"cerradura trabada", "pintar departamento", "enchufes quemados", "llave goteando", "cañería rota bajo el lavaplatos"};
+
+	@TempDir
+	Path directorio;
+
+	@Test
+	void buscaConStemmingAcentosYFiltros() throws Exception {
+		try (IndiceSolicitudes indice = new IndiceSolicitudes(directorio)) {
+			indice.indexar(solicitud(1L, "Fuga en cañerías", "Se rompió una cañería del baño", "Plomería", "Santiago", Solicitud.EstadoSolicitud.PENDIENTE));
+			indice.indexar(solicitud(2L, "Enchufe quemado", "Olor a quemado en la cocina", "Electricidad", "Santiago", Solicitud.EstadoSolicitud.PENDIENTE));
+			indice.indexar(solicitud(3L, "Cañeria rota", "Fuga bajo el lavaplatos", "Plomería", "Temuco", Solicitud.EstadoSolicitud.COMPLETADA));
+			indice.refrescar();
+
+			ResultadoBusqueda todos = indice.buscar("caneria", null, null, null, 0, 10);
+			assertEquals(2, todos.total());
+			assertEquals(2L, todos.facetas().get("especialidad").get("Plomería"));
+
+			ResultadoBusqueda filtrado = indice.buscar("cañerías", "PENDIENTE", null, "Santiago", 0, 10);
+			assertEquals(1, filtrado.total());
+			assertEquals(1L, filtrado.resultados().get(0).idSolicitud());
+			assertEquals(2, indice.buscar(null, null, " plomeria", null, 0, 10).total()); // Misma clave que el catálogo
+			assertEquals(1, indice.buscar(null, "pendiente", "PLOMERÍA", "santiago", 0, 10).total());
+
+			// Reindexar reemplaza el documento en lugar de duplicarlo
+			indice.indexar(solicitud(3L, "Cañeria rota", "Fuga bajo el lavaplatos", "Plomería", "Temuco", Solicitud.EstadoSolicitud.CANCELADA));
+			indice.refrescar();
+			assertEquals(3, indice.cantidadDocumentos());
+			assertEquals(1, indice.buscar("caneria", "CANCELADA", null, null, 0, 10).total());
+		}
+	}
+
+	@Test
+	void elFormatoSeGuardaConElCommitTrasReconstruir() throws Exception {
+		try (IndiceSolicitudes indice = new IndiceSolicitudes(directorio)) {
+			assertFalse(indice.formatoVigente()); // Índice nuevo o de un formato anterior
+			indice.indexar(solicitud(1L, "Fuga", "Fuga de agua", "Plomería", "Santiago", Solicitud.EstadoSolicitud.PENDIENTE));
+			indice.marcarFormatoVigente();
+			indice.confirmar();
+		}
+		try (IndiceSolicitudes indice = new IndiceSolicitudes(directorio)) {
+			assertTrue(indice.formatoVigente());
+		}
+	}
+
+	@Test
+	@Tag("benchmark") // Fuera de mvn test: mide tiempos
+	void benchmarkLatenciaDeBusqueda() throws Exception {
+		int documentos = Integer.getInteger("benchmark.documentos", 50_000);
+		Random random = new Random(7);
+		try (IndiceSolicitudes indice = new IndiceSolicitudes(directorio)) {
+			long inicio = System.nanoTime();
+			for (long i = 1; i <= documentos; i++) {
+				String problema = PROBLEMAS[random.nextInt(PROBLEMAS.length)];
+				indice.indexar(solicitud(i, problema, problema + " urgente, cliente " + i,
+					ESPECIALIDADES[random.nextInt(ESPECIALIDADES.length)], CIUDADES[random.nextInt(CIUDADES.length)],
+					Solicitud.EstadoSolicitud.values()[random.nextInt(5)]));
+			}
+			indice.confirmar();
+			indice.refrescar();
+			long indexacionMs = (System.nanoTime() - inicio) / 1_000_000;
+
+			String[] consultas = {"fuga agua", "cocina", "calefont", "cerradura", "cañería lavaplatos", "enchufe"};
+			int repeticiones = 500;
+			long[] latencias = new long[repeticiones];
+			for (int i = 0; i < repeticiones; i++) {
+				long t = System.nanoTime();
+				ResultadoBusqueda r = indice.buscar(consultas[i % consultas.length], i % 2 == 0 ? "PENDIENTE" : null,
+					null, i % 3 == 0 ? "Santiago" : null, 0, 20);
+				latencias[i] = System.nanoTime() - t;
+				assertTrue(r.total() > 0);
+			}
+			Arrays.sort(latencias);
+			System.out.printf("🔎 %d documentos indexados en %d ms; búsqueda p50 %.2f ms, p99 %.2f ms%n", documentos, indexacionMs,
+				latencias[repeticiones / 2] / 1e6, latencias[repeticiones * 99 / 100] / 1e6);
+		}
+	}
+
+	private static Solicitud solicitud(Long id, String titulo, String descripcion, String especialidad, String ciudad, Solicitud.EstadoSolicitud estado) {
+		return Solicitud.builder()
+			.idSolicitud(id).idCliente(1L).titulo(titulo).descripcion(descripcion)
+			.especialidadRequerida(especialidad).direccionServicio("Calle 123").ciudad(ciudad)
+			.estado(estado).prioridad(Solicitud.PrioridadSolicitud.MEDIA).fechaCreacion(LocalDateTime.now())
+			.build();
+	}
+}
@@ -2,9 +2,11 @@ package com.homefixer.usuarios;
 
 import org.springframework.boot.SpringApplication; // Para ejecutar aplicación Spring Boot
 import org.springframework.boot.autoconfigure.SpringBootApplication; // Configuración automática
+import org.springframework.scheduling.annotation.EnableScheduling; // Habilita tareas programadas
 import lombok.extern.slf4j.Slf4j; // Logger automático
 
 @SpringBootApplication // Habilita auto-configuración, escaneo de componentes y configuración
+@EnableScheduling // Habilita @Scheduled (recálculo de tipos de cliente)
 @Slf4j // Logger automático
 public class UsuariosApplication {
     
@@ -15,6 +15,8 @@ import java.util.Optional; // Para opcionales
 @Slf4j // Logger automático
 public class ClienteController {
     
+    private static final int IDS_MAXIMOS = 500; // Ids por consulta en lote
+    
     private final ClienteService clienteService; // Servicio inyectado
     
     // GET /api/clientes - Obtener todos los clientes
@@ -28,6 +30,18 @@ public class ClienteController {
         return ResponseEntity.ok(clientes); // Retorna 200 OK
     }
     
+    // GET /api/clientes/lote?ids=1,2,3 - Varios clientes por ID (los que no existen no aparecen)
+    @GetMapping("/lote")
+    public ResponseEntity<List<Cliente>> obtenerPorIds(@RequestParam List<Long> ids) {
+        log.info("🔍 GET /api/clientes/lote - {} ids", ids.size()); // Log request
+        
+        if (ids.size() > IDS_MAXIMOS) {
+            log.warn("❌ Lote de {} ids supera el máximo de {}", ids.size(), IDS_MAXIMOS); // Log error
+            return ResponseEntity.badRequest().build(); // Retorna 400
+        }
+        return ResponseEntity.ok(clienteService.buscarPorIds(ids)); // Retorna 200 OK
+    }
+    
     // GET /api/clientes/{id} - Obtener cliente por ID
     @GetMapping("/{id}")
     public ResponseEntity<Cliente> obtenerPorId(@PathVariable Long id) {
@@ -1,11 +1,17 @@
 package com.homefixer.usuarios.controller;
 
+import com.homefixer.usuarios.dto.TecnicoCercano; // Resultado de búsqueda por cercanía
+import com.homefixer.usuarios.dto.UbicacionRequest; // Cuerpo de actualización de posición
 import com.homefixer.usuarios.model.Tecnico; // Importa entidad Tecnico
+import com.homefixer.usuarios.service.DisponibilidadTecnicosService; // Stream de disponibilidad
 import com.homefixer.usuarios.service.TecnicoService; // Importa servicio
+import com.homefixer.usuarios.service.UbicacionTecnicosService; // Índice espacial
 import lombok.RequiredArgsConstructor; // Constructor automático
 import lombok.extern.slf4j.Slf4j; // Logger automático
+import org.springframework.http.MediaType; // Tipos de contenido
 import org.springframework.http.ResponseEntity; // Para respuestas HTTP
 import org.springframework.web.bind.annotation.*; // Anotaciones REST
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter; // Server-sent events
 import java.math.BigDecimal; // Para decimales
 import java.util.List; // Para listas
 import java.util.Optional; // Para opcionales
@@ -16,7 +22,11 @@ import java.util.Optional; // Para opcionales
 @Slf4j // Logger automático
 public class TecnicoController {
     
+    private static final int IDS_MAXIMOS = 500; // Ids por consulta en lote
+    
     private final TecnicoService tecnicoService; // Servicio inyectado
+    private final DisponibilidadTecnicosService disponibilidadService; // Stream de disponibles
+    private final UbicacionTecnicosService ubicacionService; // Búsquedas por cercanía
     
     // GET /api/tecnicos - Obtener todos los técnicos
     @GetMapping
@@ -29,6 +39,18 @@ public class TecnicoController {
         return ResponseEntity.ok(tecnicos); // Retorna 200 OK
     }
     
+    // GET /api/tecnicos/lote?ids=1,2,3 - Varios técnicos por ID (los que no existen no aparecen)
+    @GetMapping("/lote")
+    public ResponseEntity<List<Tecnico>> obtenerPorIds(@RequestParam List<Long> ids) {
+        log.info("🔍 GET /api/tecnicos/lote - {} ids", ids.size()); // Log request
+        
+        if (ids.size() > IDS_MAXIMOS) {
+            log.warn("❌ Lote de {} ids supera el máximo de {}", ids.size(), IDS_MAXIMOS); // Log error
+            return ResponseEntity.badRequest().build(); // Retorna 400
+        }
+        return ResponseEntity.ok(tecnicoService.buscarPorIds(ids)); // Retorna 200 OK
+    }
+    
     // GET /api/tecnicos/{id} - Obtener técnico por ID
     @GetMapping("/{id}")
     public ResponseEntity<Tecnico> obtenerPorId(@PathVariable Long id) {
@@ -76,12 +98,34 @@ public class TecnicoController {
     public ResponseEntity<List<Tecnico>> obtenerDisponibles() {
         log.info("✅ GET /api/tecnicos/disponibles - Obteniendo disponibles"); // Log request
         
-        List<Tecnico> disponibles = tecnicoService.obtenerDisponibles(); // Busca disponibles
+        List<Tecnico> disponibles = disponibilidadService.snapshot(null); // Lista en memoria, sin consultar BD
         
         log.info("✅ Se encontraron {} técnicos disponibles", disponibles.size()); // Log resultado
         return ResponseEntity.ok(disponibles); // Retorna 200 OK
     }
     
+    // GET /api/tecnicos/disponibles/stream - Snapshot y cambios de disponibilidad por SSE
+    @GetMapping(value = "/disponibles/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamDisponibles(@RequestParam(required = false) String especialidad) {
+        log.info("📡 GET /api/tecnicos/disponibles/stream - Suscripción (especialidad: {})", especialidad); // Log request
+        return disponibilidadService.suscribir(especialidad); // Mantiene la conexión abierta
+    }
+    
+    // GET /api/tecnicos/cercanos - k técnicos disponibles más cercanos a un punto
+    @GetMapping("/cercanos")
+    public ResponseEntity<List<TecnicoCercano>> buscarCercanos(@RequestParam double latitud,
+                                                               @RequestParam double longitud,
+                                                               @RequestParam(required = false) String especialidad,
+                                                               @RequestParam(defaultValue = "10") int k,
+                                                               @RequestParam(defaultValue = "20") double radioKm) {
+        log.info("🗺️ GET /api/tecnicos/cercanos - ({}, {}) especialidad {} k {} radio {} km", latitud, longitud, especialidad, k, radioKm); // Log request
+        
+        List<TecnicoCercano> cercanos = ubicacionService.buscarCercanos(especialidad, latitud, longitud, k, radioKm); // Busca en memoria
+        
+        log.info("✅ Se encontraron {} técnicos cercanos", cercanos.size()); // Log resultado
+        return ResponseEntity.ok(cercanos); // Retorna 200 OK
+    }
+    
     // GET /api/tecnicos/mejores/{especialidad} - Mejores técnicos por especialidad
     @GetMapping("/mejores/{especialidad}")
     public ResponseEntity<List<Tecnico>> obtenerMejores(@PathVariable String especialidad) {
@@ -139,4 +183,18 @@ public class TecnicoController {
             return ResponseEntity.badRequest().build(); // Retorna 400
         }
     }
+    
+    // PUT /api/tecnicos/{id}/ubicacion - Reportar posición en vivo
+    @PutMapping("/{id}/ubicacion")
+    public ResponseEntity<Void> actualizarUbicacion(@PathVariable Long id, @RequestBody UbicacionRequest ubicacion) {
+        log.debug("📍 PUT /api/tecnicos/{}/ubicacion", id); // Log debug (alta frecuencia)
+        
+        try {
+            tecnicoService.actualizarUbicacion(id, ubicacion.latitud(), ubicacion.longitud()); // Actualiza posición
+            return ResponseEntity.ok().build(); // Retorna 200 OK sin contenido
+        } catch (Exception e) {
+            log.error("❌ Error actualizando ubicación: {}", e.getMessage()); // Log error
+            return ResponseEntity.badRequest().build(); // Retorna 400
+        }
+    }
 }
\ No newline at end of file
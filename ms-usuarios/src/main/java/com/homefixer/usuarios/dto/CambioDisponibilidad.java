@@ -0,0 +1,12 @@
+package com.homefixer.usuarios.dto;
+
+import com.homefixer.usuarios.model.Tecnico; // Importa entidad Tecnico
+
+// Delta enviado por el stream de técnicos disponibles
+public record CambioDisponibilidad(
+    Long idTecnico, // Técnico afectado
+    String especialidad, // Para filtrar en el cliente
+    boolean disponible, // true = entra o sigue en la lista, false = sale
+    Tecnico tecnico // Datos actuales (null cuando sale de la lista)
+) {
+}
@@ -0,0 +1,13 @@
+package com.homefixer.usuarios.dto;
+
+import com.homefixer.usuarios.model.Tecnico; // Importa entidad Tecnico
+
+// Proyección liviana para cargar el índice espacial sin materializar entidades
+public record PosicionTecnico(
+    Long idTecnico, // ID del técnico
+    String especialidad, // Especialidad del técnico
+    Tecnico.EstadoTecnico estado, // Solo los DISPONIBLE entran al índice
+    Double latitud, // null si nunca reportó posición
+    Double longitud // null si nunca reportó posición
+) {
+}
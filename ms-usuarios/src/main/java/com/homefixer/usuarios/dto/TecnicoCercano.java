@@ -0,0 +1,10 @@
+package com.homefixer.usuarios.dto;
+
+// Resultado de una búsqueda de k técnicos más cercanos
+public record TecnicoCercano(
+    Long idTecnico, // ID del técnico
+    double latitud, // Posición indexada
+    double longitud, // Posición indexada
+    double distanciaKm // Distancia en línea recta al punto consultado
+) {
+}
@@ -0,0 +1,8 @@
+package com.homefixer.usuarios.dto;
+
+// Cuerpo de PUT /api/tecnicos/{id}/ubicacion
+public record UbicacionRequest(
+    Double latitud, // Grados decimales, entre -90 y 90
+    Double longitud // Grados decimales, entre -180 y 180
+) {
+}
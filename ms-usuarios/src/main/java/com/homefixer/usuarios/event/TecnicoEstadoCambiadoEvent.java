@@ -0,0 +1,10 @@
+package com.homefixer.usuarios.event;
+
+import com.homefixer.usuarios.model.Tecnico; // Importa entidad Tecnico
+
+// Evento publicado cuando un técnico se crea o cambia de estado
+public record TecnicoEstadoCambiadoEvent(
+    Tecnico tecnico, // Técnico ya guardado en BD
+    Tecnico.EstadoTecnico estadoAnterior // null si el técnico es nuevo
+) {
+}
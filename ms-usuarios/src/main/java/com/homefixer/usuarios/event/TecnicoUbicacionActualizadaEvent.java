@@ -0,0 +1,9 @@
+package com.homefixer.usuarios.event;
+
+// Evento publicado cada vez que un técnico reporta su posición
+public record TecnicoUbicacionActualizadaEvent(
+    Long idTecnico, // Técnico que se movió
+    double latitud, // Nueva latitud
+    double longitud // Nueva longitud
+) {
+}
@@ -0,0 +1,11 @@
+package com.homefixer.usuarios.event;
+
+import com.homefixer.usuarios.model.Cliente; // Importa entidad Cliente
+import java.util.List; // Para listas
+
+// Evento publicado cuando un bloque de clientes cambia de tipo (solo los ids que realmente cambiaron)
+public record TipoClienteCambiadoEvent(
+    Cliente.TipoCliente nuevoTipo, // Tipo que ahora tienen los clientes
+    List<Long> idsClientes // Clientes promovidos o degradados
+) {
+}
@@ -1,11 +1,15 @@
 package com.homefixer.usuarios.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore; // Ocultar columnas internas
 import jakarta.persistence.*; // Importa anotaciones JPA
 import lombok.*; // Importa Lombok para código automático
 import java.time.LocalDateTime; // Para fechas con hora
 
 @Entity // Marca como entidad de base de datos
-@Table(name = "clientes") // Tabla separada para clientes
+@Table(name = "clientes", indexes = { // Tabla separada para clientes
+    @Index(name = "idx_clientes_ciudad", columnList = "id_ciudad"), // Búsquedas por ciudad
+    @Index(name = "idx_clientes_region", columnList = "id_region") // Búsquedas por región
+})
 @Data // Lombok: getters, setters, toString automáticos
 @NoArgsConstructor // Constructor vacío
 @AllArgsConstructor // Constructor con todos los parámetros
@@ -28,6 +32,20 @@ public class Cliente {
     @Column(name = "region", length = 50) // Región opcional
     private String region; // Región del país
     
+    @JsonIgnore // Detalle interno del catálogo
+    @Column(name = "id_ciudad") // Id en catalogo_valores
+    private Integer idCiudad; // Se filtra por este entero
+    
+    @JsonIgnore // Detalle interno del catálogo
+    @Column(name = "id_region") // Id en catalogo_valores
+    private Integer idRegion; // Se filtra por este entero
+    
+    @Column(name = "latitud") // Ubicación opcional
+    private Double latitud; // Grados decimales (WGS84)
+    
+    @Column(name = "longitud") // Ubicación opcional
+    private Double longitud; // Grados decimales (WGS84)
+    
     @Column(name = "fecha_nacimiento") // Fecha de nacimiento opcional
     private LocalDateTime fechaNacimiento; // Para calcular edad
     
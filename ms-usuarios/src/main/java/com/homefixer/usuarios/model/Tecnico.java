@@ -1,16 +1,19 @@
 package com.homefixer.usuarios.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore; // Ocultar columnas internas
 import jakarta.persistence.*; // Importa anotaciones JPA
 import lombok.*; // Importa Lombok
 import java.math.BigDecimal; // Para manejar decimales con precisión
 import java.time.LocalDateTime; // Para fechas
 
 @Entity // Entidad de base de datos
-@Table(name = "tecnicos") // Tabla separada para técnicos
+@Table(name = "tecnicos", indexes = { // Tabla separada para técnicos
+    @Index(name = "idx_tecnicos_especialidad", columnList = "id_especialidad, estado") // Búsquedas por especialidad y disponibilidad
+})
 @Data // Lombok: métodos automáticos
 @NoArgsConstructor // Constructor sin parámetros
 @AllArgsConstructor // Constructor completo
-@Builder // Patrón builder
+@Builder(toBuilder = true) // Patrón builder (y copias con cambios)
 public class Tecnico {
     
     @Id // Clave primaria
@@ -23,6 +26,10 @@ public class Tecnico {
     @Column(name = "especialidad", nullable = false, length = 100) // Especialidad obligatoria
     private String especialidad; // Ej: "Plomería", "Electricidad"
     
+    @JsonIgnore // Detalle interno del catálogo
+    @Column(name = "id_especialidad") // Id en catalogo_valores
+    private Integer idEspecialidad; // Se filtra por este entero
+    
     @Column(name = "experiencia_anos") // Años de experiencia
     private Integer experienciaAnos; // Cuántos años tiene de experiencia
     
@@ -36,6 +43,7 @@ public class Tecnico {
     private Integer serviciosCompletados; // Total de servicios que ha terminado
     
     @Enumerated(EnumType.STRING) // Enum como texto
+    @Column(name = "estado") // Nombre explícito: se usa en el índice
     private EstadoTecnico estado; // DISPONIBLE, OCUPADO, INACTIVO
     
     @Column(name = "descripcion", length = 500) // Descripción opcional
@@ -44,6 +52,15 @@ public class Tecnico {
     @Column(name = "fecha_ultimo_servicio") // Última vez que trabajó
     private LocalDateTime fechaUltimoServicio; // Para saber actividad reciente
     
+    @Column(name = "latitud") // Posición actual opcional
+    private Double latitud; // Grados decimales (WGS84)
+    
+    @Column(name = "longitud") // Posición actual opcional
+    private Double longitud; // Grados decimales (WGS84)
+    
+    @Column(name = "fecha_ubicacion") // Última actualización de posición
+    private LocalDateTime fechaUbicacion; // Para descartar posiciones viejas
+    
     // Enum para el estado actual del técnico
     public enum EstadoTecnico {
         DISPONIBLE, // Puede recibir nuevos trabajos
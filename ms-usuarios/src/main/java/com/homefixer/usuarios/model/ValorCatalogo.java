@@ -0,0 +1,37 @@
+package com.homefixer.usuarios.model;
+
+import jakarta.persistence.*; // Importa anotaciones JPA
+import lombok.*; // Importa Lombok
+
+@Entity // Marca como entidad de base de datos
+@Table(name = "catalogo_valores", uniqueConstraints = { // Diccionario de especialidades y ubicaciones
+    @UniqueConstraint(name = "uk_catalogo_tipo_clave", columnNames = {"tipo", "clave"}) // Un id por valor normalizado
+})
+@Data // Lombok: getters, setters, toString automáticos
+@NoArgsConstructor // Constructor vacío
+@AllArgsConstructor // Constructor con todos los parámetros
+@Builder // Patrón builder para crear objetos
+public class ValorCatalogo {
+    
+    @Id // Clave primaria
+    @GeneratedValue(strategy = GenerationType.IDENTITY) // Auto incremento
+    @Column(name = "id_valor") // Entero pequeño que guardan las demás tablas
+    private Integer idValor; // ID del valor
+    
+    @Enumerated(EnumType.STRING) // Guarda enum como texto
+    @Column(name = "tipo", nullable = false, length = 20) // Dimensión del valor
+    private TipoCatalogo tipo; // ESPECIALIDAD, CIUDAD o REGION
+    
+    @Column(name = "clave", nullable = false, length = 100) // Sin tildes, minúsculas, espacios simples
+    private String clave; // Forma normalizada para comparar
+    
+    @Column(name = "nombre", nullable = false, length = 100) // Como se escribió la primera vez
+    private String nombre; // Forma canónica que se muestra
+    
+    // Dimensiones del catálogo
+    public enum TipoCatalogo {
+        ESPECIALIDAD, // Plomería, Electricidad, ...
+        CIUDAD,       // Santiago, Valparaíso, ...
+        REGION        // Metropolitana, Valparaíso, ...
+    }
+}
@@ -2,6 +2,7 @@ package com.homefixer.usuarios.repository;
 
 import com.homefixer.usuarios.model.Cliente; // Importa entidad Cliente
 import org.springframework.data.jpa.repository.JpaRepository; // Interfaz base
+import org.springframework.data.jpa.repository.Modifying; // Para consultas UPDATE
 import org.springframework.data.jpa.repository.Query; // Para consultas JPQL
 import org.springframework.data.repository.query.Param; // Para parámetros
 import org.springframework.stereotype.Repository; // Anotación de repositorio
@@ -15,11 +16,11 @@ public interface ClienteRepository extends JpaRepository<Cliente, Long> {
     // Buscar cliente por ID de usuario (relación 1:1)
     Optional<Cliente> findByIdUsuario(Long idUsuario); // Cliente específico por usuario
     
-    // Buscar clientes por ciudad
-    List<Cliente> findByCiudad(String ciudad); // Todos los clientes de una ciudad
+    // Buscar clientes por ciudad (id del catálogo)
+    List<Cliente> findByIdCiudad(Integer idCiudad); // Todos los clientes de una ciudad
     
-    // Buscar clientes por región
-    List<Cliente> findByRegion(String region); // Clientes de una región específica
+    // Buscar clientes por región (id del catálogo)
+    List<Cliente> findByIdRegion(Integer idRegion); // Clientes de una región específica
     
     // Buscar clientes por tipo (REGULAR o PREMIUM)
     List<Cliente> findByTipoCliente(Cliente.TipoCliente tipoCliente); // Filtrar por tipo
@@ -36,4 +37,17 @@ public interface ClienteRepository extends JpaRepository<Cliente, Long> {
     
     // Verificar si existe cliente para un usuario
     boolean existsByIdUsuario(Long idUsuario); // true si ya tiene perfil de cliente
+    
+    // Siguiente bloque de clientes REGULAR que alcanzaron el umbral premium (bloqueados hasta el commit)
+    @Query(value = "SELECT id_cliente FROM clientes WHERE id_cliente > :ultimoId AND tipo_cliente = 'REGULAR' AND servicios_contratados >= :umbral ORDER BY id_cliente LIMIT :limite FOR UPDATE", nativeQuery = true)
+    List<Long> bloquearIdsParaPromover(@Param("ultimoId") Long ultimoId, @Param("umbral") Integer umbral, @Param("limite") Integer limite); // Recorre la tabla por clave primaria
+    
+    // Siguiente bloque de clientes PREMIUM que quedaron bajo el umbral de degradación (bloqueados hasta el commit)
+    @Query(value = "SELECT id_cliente FROM clientes WHERE id_cliente > :ultimoId AND tipo_cliente = 'PREMIUM' AND servicios_contratados < :umbral ORDER BY id_cliente LIMIT :limite FOR UPDATE", nativeQuery = true)
+    List<Long> bloquearIdsParaDegradar(@Param("ultimoId") Long ultimoId, @Param("umbral") Integer umbral, @Param("limite") Integer limite); // Recorre la tabla por clave primaria
+    
+    // Cambia el tipo de un bloque de clientes en un solo UPDATE
+    @Modifying
+    @Query("UPDATE Cliente c SET c.tipoCliente = :tipoCliente WHERE c.idCliente IN :ids")
+    int actualizarTipoCliente(@Param("ids") List<Long> ids, @Param("tipoCliente") Cliente.TipoCliente tipoCliente); // Filas modificadas
 }
\ No newline at end of file
@@ -1,11 +1,14 @@
 package com.homefixer.usuarios.repository;
 
+import com.homefixer.usuarios.dto.PosicionTecnico; // Proyección para el índice espacial
 import com.homefixer.usuarios.model.Tecnico; // Importa entidad Tecnico
 import org.springframework.data.jpa.repository.JpaRepository; // Interfaz base
+import org.springframework.data.jpa.repository.Modifying; // Para consultas UPDATE
 import org.springframework.data.jpa.repository.Query; // Para consultas personalizadas
 import org.springframework.data.repository.query.Param; // Para parámetros
 import org.springframework.stereotype.Repository; // Anotación repositorio
 import java.math.BigDecimal; // Para decimales
+import java.time.LocalDateTime; // Para fechas
 import java.util.List; // Para listas
 import java.util.Optional; // Para opcionales
 
@@ -16,8 +19,8 @@ public interface TecnicoRepository extends JpaRepository<Tecnico, Long> {
     // Buscar técnico por ID de usuario
     Optional<Tecnico> findByIdUsuario(Long idUsuario); // Técnico específico por usuario
     
-    // Buscar técnicos por especialidad
-    List<Tecnico> findByEspecialidad(String especialidad); // Ej: todos los plomeros
+    // Buscar técnicos por especialidad (id del catálogo)
+    List<Tecnico> findByIdEspecialidad(Integer idEspecialidad); // Ej: todos los plomeros
     
     // Buscar técnicos disponibles solamente
     List<Tecnico> findByEstado(Tecnico.EstadoTecnico estado); // DISPONIBLE, OCUPADO, INACTIVO
@@ -32,12 +35,21 @@ public interface TecnicoRepository extends JpaRepository<Tecnico, Long> {
     List<Tecnico> findByExperienciaAnosGreaterThanEqual(Integer anosMinimos); // Técnicos experimentados
     
     // Consulta personalizada: técnicos disponibles de una especialidad con buena calificación
-    @Query("SELECT t FROM Tecnico t WHERE t.especialidad = :especialidad AND t.estado = 'DISPONIBLE' AND t.calificacionPromedio >= :calificacionMin ORDER BY t.calificacionPromedio DESC")
-    List<Tecnico> encontrarMejoresTecnicosDisponibles(@Param("especialidad") String especialidad, @Param("calificacionMin") BigDecimal calificacionMin); // Los mejores disponibles
+    @Query("SELECT t FROM Tecnico t WHERE t.idEspecialidad = :idEspecialidad AND t.estado = 'DISPONIBLE' AND t.calificacionPromedio >= :calificacionMin ORDER BY t.calificacionPromedio DESC")
+    List<Tecnico> encontrarMejoresTecnicosDisponibles(@Param("idEspecialidad") Integer idEspecialidad, @Param("calificacionMin") BigDecimal calificacionMin); // Los mejores disponibles
     
     // Contar técnicos por especialidad
-    long countByEspecialidad(String especialidad); // Cuántos hay por especialidad
+    long countByIdEspecialidad(Integer idEspecialidad); // Cuántos hay por especialidad
     
     // Verificar si existe técnico para un usuario
     boolean existsByIdUsuario(Long idUsuario); // true si ya tiene perfil de técnico
+    
+    // Actualiza solo la posición en un UPDATE (se llama con mucha frecuencia)
+    @Modifying
+    @Query("UPDATE Tecnico t SET t.latitud = :latitud, t.longitud = :longitud, t.fechaUbicacion = :fecha WHERE t.idTecnico = :idTecnico")
+    int actualizarUbicacion(@Param("idTecnico") Long idTecnico, @Param("latitud") Double latitud, @Param("longitud") Double longitud, @Param("fecha") LocalDateTime fecha); // Filas modificadas
+    
+    // Posiciones de todos los técnicos para cargar el índice espacial
+    @Query("SELECT new com.homefixer.usuarios.dto.PosicionTecnico(t.idTecnico, t.especialidad, t.estado, t.latitud, t.longitud) FROM Tecnico t")
+    List<PosicionTecnico> obtenerPosiciones(); // Proyección sin entidades
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.homefixer.usuarios.repository;
+
+import com.homefixer.usuarios.model.ValorCatalogo; // Importa entidad ValorCatalogo
+import org.springframework.data.jpa.repository.JpaRepository; // Interfaz base
+import org.springframework.stereotype.Repository; // Anotación repositorio
+import java.util.Optional; // Para opcionales
+
+@Repository // Marca como repositorio Spring
+public interface ValorCatalogoRepository extends JpaRepository<ValorCatalogo, Integer> {
+    
+    // Valor ya registrado (por esta u otra instancia)
+    Optional<ValorCatalogo> findByTipoAndClave(ValorCatalogo.TipoCatalogo tipo, String clave); // Usa uk_catalogo_tipo_clave
+}
@@ -0,0 +1,163 @@
+package com.homefixer.usuarios.service;
+
+import com.homefixer.usuarios.model.ValorCatalogo; // Importa entidad ValorCatalogo
+import com.homefixer.usuarios.model.ValorCatalogo.TipoCatalogo; // Dimensiones del catálogo
+import com.homefixer.usuarios.repository.ValorCatalogoRepository; // Importa repositorio
+import lombok.extern.slf4j.Slf4j; // Logger automático
+import org.springframework.boot.context.event.ApplicationReadyEvent; // Evento de arranque
+import org.springframework.context.event.EventListener; // Para escuchar eventos
+import org.springframework.dao.DataIntegrityViolationException; // Otra instancia registró el mismo valor
+import org.springframework.jdbc.core.JdbcTemplate; // Para completar filas antiguas
+import org.springframework.stereotype.Service; // Anotación servicio
+import org.springframework.transaction.PlatformTransactionManager; // Para transacciones propias
+import org.springframework.transaction.TransactionDefinition; // Propagación
+import org.springframework.transaction.support.TransactionTemplate; // Transacción independiente
+import jakarta.annotation.PostConstruct; // Carga antes de atender peticiones
+import java.text.Normalizer; // Para quitar tildes
+import java.util.Arrays; // Para copiar arreglos
+import java.util.EnumMap; // Mapa por dimensión
+import java.util.List; // Para listas
+import java.util.Locale; // Para minúsculas
+import java.util.Map; // Para mapas
+import java.util.Optional; // Para opcionales
+import java.util.concurrent.ConcurrentHashMap; // Mapa concurrente
+
+// Diccionario de especialidades y ubicaciones: texto libre -> entero pequeño, normalizado al escribir.
+// Todo el catálogo vive en memoria (clave -> id y arreglo id -> nombre); la BD solo se toca con valores nuevos.
+@Service // Marca como servicio Spring
+@Slf4j // Logger automático
+public class CatalogoService {
+
+    // Columnas de texto de este servicio que tienen su columna de id
+    private static final List<ColumnaCodificada> COLUMNAS = List.of(
+        new ColumnaCodificada(TipoCatalogo.ESPECIALIDAD, "tecnicos", "especialidad", "id_especialidad"),
+        new ColumnaCodificada(TipoCatalogo.CIUDAD, "clientes", "ciudad", "id_ciudad"),
+        new ColumnaCodificada(TipoCatalogo.REGION, "clientes", "region", "id_region"));
+
+    private final ValorCatalogoRepository repository; // Tabla catalogo_valores
+    private final TransactionTemplate nuevaTransaccion; // El valor queda registrado aunque falle quien lo pidió
+    private final JdbcTemplate jdbcTemplate; // UPDATE de filas sin id
+    private final Map<TipoCatalogo, Diccionario> diccionarios = new EnumMap<>(TipoCatalogo.class); // Uno por dimensión
+
+    public CatalogoService(ValorCatalogoRepository repository, PlatformTransactionManager transactionManager, JdbcTemplate jdbcTemplate) {
+        this.repository = repository;
+        this.nuevaTransaccion = new TransactionTemplate(transactionManager);
+        this.nuevaTransaccion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.jdbcTemplate = jdbcTemplate;
+        for (TipoCatalogo tipo : TipoCatalogo.values()) {
+            diccionarios.put(tipo, new Diccionario()); // El mapa no cambia después
+        }
+    }
+
+    // Carga el catálogo completo (unas pocas filas)
+    @PostConstruct
+    public void cargar() {
+        List<ValorCatalogo> valores = repository.findAll();
+        valores.forEach(this::recordar);
+        log.info("📚 Catálogo cargado con {} valores", valores.size()); // Log carga
+    }
+
+    // Asigna id a filas guardadas antes del catálogo: un UPDATE por valor distinto
+    @EventListener(ApplicationReadyEvent.class)
+    public void completarFilasSinId() {
+        int filas = 0;
+        for (ColumnaCodificada columna : COLUMNAS) {
+            List<String> textos = jdbcTemplate.queryForList("SELECT DISTINCT " + columna.texto() + " FROM " + columna.tabla()
+                + " WHERE " + columna.id() + " IS NULL AND " + columna.texto() + " IS NOT NULL", String.class);
+            for (String texto : textos) {
+                Integer id = registrar(columna.tipo(), texto);
+                if (id != null) {
+                    filas += jdbcTemplate.update("UPDATE " + columna.tabla() + " SET " + columna.id() + " = ?, " + columna.texto() + " = ?"
+                        + " WHERE " + columna.texto() + " = ? AND " + columna.id() + " IS NULL", id, nombre(columna.tipo(), id), texto);
+                }
+            }
+        }
+        if (filas > 0) {
+            log.info("📚 {} filas antiguas codificadas con el catálogo", filas); // Log migración
+        }
+    }
+
+    // Id del valor, registrándolo si nadie lo había usado; null si el texto está vacío
+    public Integer registrar(TipoCatalogo tipo, String texto) {
+        String clave = normalizar(texto);
+        if (clave == null) {
+            return null; // Campo opcional sin valor
+        }
+        Diccionario diccionario = diccionarios.get(tipo);
+        Integer id = diccionario.porClave.get(clave);
+        if (id != null) {
+            return id; // Caso normal: sin tocar la BD
+        }
+        synchronized (diccionario) {
+            id = diccionario.porClave.get(clave);
+            if (id != null) {
+                return id; // Otro hilo lo registró mientras esperábamos
+            }
+            ValorCatalogo valor;
+            try {
+                valor = nuevaTransaccion.execute(estado -> repository.findByTipoAndClave(tipo, clave)
+                    .orElseGet(() -> repository.saveAndFlush(new ValorCatalogo(null, tipo, clave, texto.trim().replaceAll("\\s+", " ")))));
+            } catch (DataIntegrityViolationException e) {
+                valor = nuevaTransaccion.execute(estado -> repository.findByTipoAndClave(tipo, clave).orElseThrow()); // Ganó otra instancia
+            }
+            recordar(valor);
+            log.info("📚 Nuevo valor de catálogo {} #{}: {}", tipo, valor.getIdValor(), valor.getNombre()); // Log alta
+            return valor.getIdValor();
+        }
+    }
+
+    // Id de un valor ya registrado (para filtrar); vacío si nunca se usó, así la consulta se puede omitir
+    public Optional<Integer> buscar(TipoCatalogo tipo, String texto) {
+        String clave = normalizar(texto);
+        if (clave == null) {
+            return Optional.empty();
+        }
+        Integer id = diccionarios.get(tipo).porClave.get(clave);
+        if (id != null) {
+            return Optional.of(id);
+        }
+        Optional<ValorCatalogo> valor = repository.findByTipoAndClave(tipo, clave); // Pudo registrarlo otra instancia
+        valor.ifPresent(this::recordar);
+        return valor.map(ValorCatalogo::getIdValor);
+    }
+
+    // Nombre canónico de un id (la misma instancia de String para todas las filas)
+    public String nombre(TipoCatalogo tipo, Integer id) {
+        return id == null ? null : diccionarios.get(tipo).nombre(id);
+    }
+
+    // Sin tildes, minúsculas y espacios simples: "  PLOMERIA " y "Plomería" son el mismo valor
+    public static String normalizar(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return null;
+        }
+        String sinTildes = Normalizer.normalize(texto.trim(), Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return sinTildes.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    private void recordar(ValorCatalogo valor) {
+        diccionarios.get(valor.getTipo()).poner(valor.getIdValor(), valor.getClave(), valor.getNombre());
+    }
+
+    // Clave -> id en un mapa concurrente e id -> nombre en un arreglo copy-on-write (las altas son raras)
+    private static final class Diccionario {
+        private final Map<String, Integer> porClave = new ConcurrentHashMap<>(); // clave normalizada -> id
+        private volatile String[] nombres = new String[64]; // id -> nombre canónico
+
+        synchronized void poner(int id, String clave, String nombre) {
+            String[] copia = Arrays.copyOf(nombres, Math.max(nombres.length, id + 1));
+            copia[id] = nombre.intern(); // Una sola instancia por valor
+            nombres = copia; // Se publica antes que la clave
+            porClave.put(clave, id);
+        }
+
+        String nombre(int id) {
+            String[] actuales = nombres;
+            return id < actuales.length ? actuales[id] : null;
+        }
+    }
+
+    // Columna de texto y su columna de id en una tabla
+    private record ColumnaCodificada(TipoCatalogo tipo, String tabla, String texto, String id) {
+    }
+}
@@ -1,9 +1,11 @@
 package com.homefixer.usuarios.service;
 
 import com.homefixer.usuarios.model.Cliente; // Importa entidad Cliente
+import com.homefixer.usuarios.model.ValorCatalogo.TipoCatalogo; // Dimensiones del catálogo
 import com.homefixer.usuarios.repository.ClienteRepository; // Importa repositorio
 import lombok.RequiredArgsConstructor; // Constructor automático
 import lombok.extern.slf4j.Slf4j; // Logger automático
+import org.springframework.beans.factory.annotation.Value; // Para leer configuración
 import org.springframework.stereotype.Service; // Anotación de servicio
 import java.util.List; // Para listas
 import java.util.Optional; // Para opcionales
@@ -14,6 +16,10 @@ import java.util.Optional; // Para opcionales
 public class ClienteService {
     
     private final ClienteRepository clienteRepository; // Repositorio inyectado automáticamente
+    private final CatalogoService catalogoService; // Ciudad/región -> id
+    
+    @Value("${homefixer.clientes.tipo.umbral-premium:5}")
+    private int umbralPremium; // Mismo umbral que usa el recálculo programado
     
     // Crear perfil de cliente
     public Cliente crearCliente(Cliente cliente) {
@@ -27,6 +33,7 @@ public class ClienteService {
         
         cliente.setTipoCliente(Cliente.TipoCliente.REGULAR); // Cliente regular por defecto
         cliente.setServiciosContratados(0); // Empieza con 0 servicios
+        codificarUbicacion(cliente); // Ids del catálogo
         
         Cliente clienteGuardado = clienteRepository.save(cliente); // Guarda en BD
         log.info("✅ Perfil de cliente creado con ID: {}", clienteGuardado.getIdCliente()); // Log éxito
@@ -40,6 +47,12 @@ public class ClienteService {
         return clienteRepository.findById(id); // Busca en BD
     }
     
+    // Buscar varios clientes por ID en una consulta (los que no existen no aparecen)
+    public List<Cliente> buscarPorIds(List<Long> ids) {
+        log.info("🔍 Buscando {} clientes por ID", ids.size()); // Log búsqueda
+        return clienteRepository.findAllById(ids); // WHERE id_cliente IN (...)
+    }
+    
     // Buscar cliente por ID de usuario
     public Optional<Cliente> buscarPorIdUsuario(Long idUsuario) {
         log.info("🔍 Buscando cliente por ID usuario: {}", idUsuario); // Log búsqueda
@@ -55,7 +68,9 @@ public class ClienteService {
     // Buscar clientes por ciudad
     public List<Cliente> buscarPorCiudad(String ciudad) {
         log.info("🏙️ Buscando clientes en ciudad: {}", ciudad); // Log búsqueda
-        return clienteRepository.findByCiudad(ciudad); // Filtra por ciudad
+        return catalogoService.buscar(TipoCatalogo.CIUDAD, ciudad)
+            .map(clienteRepository::findByIdCiudad) // Filtra por id sobre el índice
+            .orElse(List.of()); // Ciudad sin clientes
     }
     
     // Buscar clientes premium
@@ -73,8 +88,8 @@ public class ClienteService {
         
         cliente.setServiciosContratados(cliente.getServiciosContratados() + 1); // Suma uno
         
-        // Promocionar a premium si tiene 5 o más servicios
-        if (cliente.getServiciosContratados() >= 5 && cliente.getTipoCliente() == Cliente.TipoCliente.REGULAR) {
+        // Promocionar a premium si alcanza el umbral configurado
+        if (cliente.getServiciosContratados() >= umbralPremium && cliente.getTipoCliente() == Cliente.TipoCliente.REGULAR) {
             cliente.setTipoCliente(Cliente.TipoCliente.PREMIUM); // Promociona a premium
             log.info("🎉 Cliente promocionado a PREMIUM!"); // Log promoción
         }
@@ -96,10 +111,21 @@ public class ClienteService {
         cliente.setDireccion(clienteActualizado.getDireccion()); // Nueva dirección
         cliente.setCiudad(clienteActualizado.getCiudad()); // Nueva ciudad
         cliente.setRegion(clienteActualizado.getRegion()); // Nueva región
+        cliente.setLatitud(clienteActualizado.getLatitud()); // Nueva latitud
+        cliente.setLongitud(clienteActualizado.getLongitud()); // Nueva longitud
+        codificarUbicacion(cliente); // Ids del catálogo
         
         Cliente guardado = clienteRepository.save(cliente); // Guarda cambios
         log.info("✅ Cliente actualizado exitosamente"); // Log éxito
         
         return guardado; // Retorna cliente actualizado
     }
+    
+    // Ciudad y región como ids del catálogo, con el texto reemplazado por su nombre canónico
+    private void codificarUbicacion(Cliente cliente) {
+        cliente.setIdCiudad(catalogoService.registrar(TipoCatalogo.CIUDAD, cliente.getCiudad()));
+        cliente.setCiudad(catalogoService.nombre(TipoCatalogo.CIUDAD, cliente.getIdCiudad()));
+        cliente.setIdRegion(catalogoService.registrar(TipoCatalogo.REGION, cliente.getRegion()));
+        cliente.setRegion(catalogoService.nombre(TipoCatalogo.REGION, cliente.getIdRegion()));
+    }
 }
\ No newline at end of file
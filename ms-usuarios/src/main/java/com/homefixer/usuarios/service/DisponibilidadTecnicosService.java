@@ -0,0 +1,186 @@
+package com.homefixer.usuarios.service;
+
+import com.homefixer.usuarios.dto.CambioDisponibilidad; // Delta del stream
+import com.homefixer.usuarios.event.TecnicoEstadoCambiadoEvent; // Evento de cambio de estado
+import com.homefixer.usuarios.event.TecnicoUbicacionActualizadaEvent; // Evento de cambio de posición
+import com.homefixer.usuarios.model.Tecnico; // Importa entidad Tecnico
+import com.homefixer.usuarios.repository.TecnicoRepository; // Importa repositorio
+import lombok.RequiredArgsConstructor; // Constructor automático
+import lombok.extern.slf4j.Slf4j; // Logger automático
+import org.springframework.beans.factory.annotation.Value; // Para leer configuración
+import org.springframework.boot.context.event.ApplicationReadyEvent; // Evento de arranque
+import org.springframework.context.event.EventListener; // Para escuchar eventos
+import org.springframework.stereotype.Service; // Anotación servicio
+import org.springframework.transaction.event.TransactionalEventListener; // Escucha tras el commit
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter; // Server-sent events
+import jakarta.annotation.PreDestroy; // Para cerrar el pool al apagar
+import java.io.IOException; // Error de escritura al cliente
+import java.util.List; // Para listas
+import java.util.Map; // Para mapas
+import java.util.Set; // Para conjuntos
+import java.util.concurrent.ArrayBlockingQueue; // Buffer acotado por suscriptor
+import java.util.concurrent.BlockingQueue; // Interfaz de cola
+import java.util.concurrent.ConcurrentHashMap; // Mapa concurrente
+import java.util.concurrent.ExecutorService; // Pool de envío
+import java.util.concurrent.Executors; // Fábrica de pools
+import java.util.concurrent.atomic.AtomicBoolean; // Banderas sin bloqueo
+
+// Mantiene en memoria los técnicos DISPONIBLES y los empuja por SSE a las consolas de despacho
+@Service // Marca como servicio Spring
+@RequiredArgsConstructor // Constructor automático para dependencias
+@Slf4j // Logger automático
+public class DisponibilidadTecnicosService {
+
+    private final TecnicoRepository tecnicoRepository; // Solo se usa para cargar al arrancar
+
+    private final Map<Long, Tecnico> disponibles = new ConcurrentHashMap<>(); // idTecnico -> técnico disponible
+    private final Set<Suscriptor> suscriptores = ConcurrentHashMap.newKeySet(); // Consolas conectadas
+    private final ExecutorService emisor = Executors.newCachedThreadPool(r -> {
+        Thread hilo = new Thread(r, "sse-tecnicos"); // Nombre reconocible en thread dumps
+        hilo.setDaemon(true); // No bloquea el apagado
+        return hilo;
+    });
+
+    @Value("${homefixer.tecnicos.stream.buffer:256}")
+    private int tamanoBuffer; // Deltas pendientes por suscriptor antes de forzar resync
+
+    @Value("${homefixer.tecnicos.stream.timeout-ms:1800000}")
+    private long timeoutMs; // Duración máxima de una conexión SSE
+
+    // Carga inicial de técnicos disponibles (única consulta a BD)
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarDisponibles() {
+        tecnicoRepository.findByEstado(Tecnico.EstadoTecnico.DISPONIBLE)
+            .forEach(t -> disponibles.put(t.getIdTecnico(), t)); // Llena el mapa
+        log.info("✅ Stream de disponibilidad listo con {} técnicos disponibles", disponibles.size()); // Log carga
+    }
+
+    // Abre una suscripción; el primer mensaje siempre es el snapshot completo
+    public SseEmitter suscribir(String especialidad) {
+        SseEmitter emitter = new SseEmitter(timeoutMs); // Conexión SSE
+        Suscriptor suscriptor = new Suscriptor(emitter, especialidad, new ArrayBlockingQueue<>(tamanoBuffer)); // Buffer acotado
+
+        emitter.onCompletion(() -> suscriptores.remove(suscriptor)); // Cliente cerró
+        emitter.onTimeout(() -> suscriptores.remove(suscriptor)); // Se acabó el tiempo
+        emitter.onError(e -> suscriptores.remove(suscriptor)); // Error de red
+
+        suscriptores.add(suscriptor); // Registra antes del snapshot para no perder deltas
+        programar(suscriptor); // Envía snapshot inicial
+        log.info("📡 Nueva suscripción a disponibilidad (especialidad: {}), total: {}", especialidad, suscriptores.size()); // Log suscripción
+        return emitter; // Spring mantiene la conexión abierta
+    }
+
+    // Snapshot actual, opcionalmente filtrado por especialidad
+    public List<Tecnico> snapshot(String especialidad) {
+        return disponibles.values().stream()
+            .filter(t -> coincide(especialidad, t.getEspecialidad())) // Filtro por especialidad
+            .toList(); // Copia inmutable
+    }
+
+    // Recibe los cambios de TecnicoService después del commit (o de inmediato sin transacción) y los reparte
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTecnicoEstadoCambiado(TecnicoEstadoCambiadoEvent evento) {
+        Tecnico tecnico = evento.tecnico(); // Estado ya guardado
+        boolean disponible = tecnico.getEstado() == Tecnico.EstadoTecnico.DISPONIBLE; // ¿Está disponible ahora?
+        boolean estabaDisponible = evento.estadoAnterior() == Tecnico.EstadoTecnico.DISPONIBLE; // ¿Lo estaba antes?
+
+        if (!disponible && !estabaDisponible) {
+            return; // No afecta la lista de disponibles
+        }
+
+        if (disponible) {
+            disponibles.put(tecnico.getIdTecnico(), tecnico); // Entra o se actualiza
+        } else {
+            disponibles.remove(tecnico.getIdTecnico()); // Sale de la lista
+        }
+
+        repartir(new CambioDisponibilidad(
+            tecnico.getIdTecnico(), tecnico.getEspecialidad(), disponible, disponible ? tecnico : null)); // Delta
+    }
+
+    // Un técnico disponible que se mueve: nueva posición en el mapa y delta a las consolas; los demás no están en la lista
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTecnicoUbicacionActualizada(TecnicoUbicacionActualizadaEvent evento) {
+        Tecnico movido = disponibles.computeIfPresent(evento.idTecnico(), (id, actual) -> actual.toBuilder()
+            .latitud(evento.latitud()).longitud(evento.longitud()).build()); // Copia: un envío en curso no ve la mitad del cambio
+        if (movido != null) {
+            repartir(new CambioDisponibilidad(movido.getIdTecnico(), movido.getEspecialidad(), true, movido));
+        }
+    }
+
+    // Encola el delta a cada suscriptor interesado; si su buffer está lleno, se le manda un snapshot nuevo
+    private void repartir(CambioDisponibilidad cambio) {
+        for (Suscriptor suscriptor : suscriptores) {
+            if (!coincide(suscriptor.especialidad, cambio.especialidad())) {
+                continue; // No le interesa esta especialidad
+            }
+            if (!suscriptor.cola.offer(cambio)) {
+                suscriptor.cola.clear(); // Consumidor lento: se descartan los deltas
+                suscriptor.resync.set(true); // y recibirá un snapshot nuevo
+            }
+            programar(suscriptor); // Asegura que alguien drene la cola
+        }
+    }
+
+    // Agenda el envío para un suscriptor si no hay uno en curso
+    private void programar(Suscriptor suscriptor) {
+        if (suscriptor.enviando.compareAndSet(false, true)) {
+            emisor.execute(() -> drenar(suscriptor)); // Un solo hilo por suscriptor a la vez
+        }
+    }
+
+    // Envía snapshot (si hace falta) y luego los deltas pendientes
+    private void drenar(Suscriptor suscriptor) {
+        try {
+            while (true) {
+                if (suscriptor.resync.getAndSet(false)) {
+                    suscriptor.cola.clear(); // El snapshot ya incluye esos deltas
+                    suscriptor.emitter.send(SseEmitter.event().name("snapshot").data(snapshot(suscriptor.especialidad))); // Estado completo
+                    continue;
+                }
+                CambioDisponibilidad cambio = suscriptor.cola.poll(); // Siguiente delta
+                if (cambio == null) {
+                    break; // Cola vacía
+                }
+                suscriptor.emitter.send(SseEmitter.event().name("cambio").data(cambio)); // Delta
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.warn("❌ Suscriptor de disponibilidad desconectado: {}", e.getMessage()); // Log desconexión
+            suscriptores.remove(suscriptor); // Ya no recibe eventos
+            suscriptor.emitter.completeWithError(e); // Libera la conexión
+            return;
+        } finally {
+            suscriptor.enviando.set(false); // Libera el turno de envío
+        }
+
+        if (!suscriptor.cola.isEmpty() || suscriptor.resync.get()) {
+            programar(suscriptor); // Llegaron deltas mientras se liberaba el turno
+        }
+    }
+
+    // Comparación de especialidad ignorando mayúsculas; null = todas
+    private boolean coincide(String filtro, String especialidad) {
+        return filtro == null || filtro.isBlank() || filtro.equalsIgnoreCase(especialidad);
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        suscriptores.forEach(s -> s.emitter.complete()); // Cierra conexiones abiertas
+        emisor.shutdownNow(); // Detiene hilos de envío
+    }
+
+    // Estado de cada consola conectada
+    private static final class Suscriptor {
+        private final SseEmitter emitter; // Conexión SSE
+        private final String especialidad; // Filtro opcional
+        private final BlockingQueue<CambioDisponibilidad> cola; // Deltas pendientes
+        private final AtomicBoolean resync = new AtomicBoolean(true); // Primer envío = snapshot
+        private final AtomicBoolean enviando = new AtomicBoolean(false); // Hay un hilo drenando
+
+        private Suscriptor(SseEmitter emitter, String especialidad, BlockingQueue<CambioDisponibilidad> cola) {
+            this.emitter = emitter;
+            this.especialidad = especialidad;
+            this.cola = cola;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.homefixer.usuarios.service;
+
+import com.homefixer.usuarios.dto.TecnicoCercano; // Resultado de la búsqueda
+import java.util.ArrayList; // Para listas mutables
+import java.util.Collection; // Para colecciones
+import java.util.Comparator; // Para ordenar por distancia
+import java.util.List; // Para listas
+import java.util.Locale; // Para normalizar claves
+import java.util.Map; // Para mapas
+import java.util.PriorityQueue; // Heap de los k mejores
+import java.util.Set; // Para conjuntos
+import java.util.concurrent.ConcurrentHashMap; // Mapas concurrentes
+import java.util.function.UnaryOperator; // Transformación de la entrada
+
+// Grilla geográfica en memoria (celdas de tamaño fijo en grados) con técnicos DISPONIBLES por especialidad.
+// Responde "k técnicos más cercanos dentro de R km" recorriendo anillos de celdas alrededor del punto.
+public class IndiceEspacialTecnicos {
+
+    private static final double KM_POR_GRADO = 111.32; // Kilómetros por grado de latitud
+    private static final double RADIO_TIERRA_KM = 6371.0; // Radio medio de la Tierra
+
+    private final double celdaGrados; // Lado de cada celda en grados
+    private final Map<Long, Entrada> entradas = new ConcurrentHashMap<>(); // idTecnico -> último estado conocido
+    private final Map<String, Map<Long, Set<Entrada>>> celdasPorEspecialidad = new ConcurrentHashMap<>(); // especialidad -> celda -> técnicos
+
+    public IndiceEspacialTecnicos(double celdaGrados) {
+        if (celdaGrados <= 0) {
+            throw new IllegalArgumentException("El tamaño de celda debe ser positivo"); // Configuración inválida
+        }
+        this.celdaGrados = celdaGrados;
+    }
+
+    // Registra o reemplaza todo lo conocido de un técnico (carga inicial)
+    public void registrar(long idTecnico, String especialidad, boolean disponible, Double latitud, Double longitud) {
+        double lat = latitud != null ? latitud : Double.NaN; // NaN = sin posición
+        double lon = longitud != null ? longitud : Double.NaN;
+        reemplazar(idTecnico, anterior -> new Entrada(idTecnico, clave(especialidad), disponible, lat, lon));
+    }
+
+    // Cambia especialidad/disponibilidad conservando la última posición
+    public void actualizarEstado(long idTecnico, String especialidad, boolean disponible) {
+        reemplazar(idTecnico, anterior -> new Entrada(idTecnico, clave(especialidad), disponible,
+            anterior != null ? anterior.latitud : Double.NaN, anterior != null ? anterior.longitud : Double.NaN));
+    }
+
+    // Mueve al técnico conservando especialidad y disponibilidad
+    public void actualizarPosicion(long idTecnico, double latitud, double longitud) {
+        reemplazar(idTecnico, anterior -> new Entrada(idTecnico,
+            anterior != null ? anterior.especialidad : null, anterior != null && anterior.disponible, latitud, longitud));
+    }
+
+    // Quita al técnico del índice
+    public void eliminar(long idTecnico) {
+        entradas.computeIfPresent(idTecnico, (id, anterior) -> {
+            quitarDeCelda(anterior); // Sale de la grilla
+            return null; // Borra la entrada
+        });
+    }
+
+    // Técnicos indexados (disponibles con posición)
+    public int tamano() {
+        return (int) entradas.values().stream().filter(Entrada::indexable).count();
+    }
+
+    // k técnicos disponibles más cercanos de una especialidad (null = todas) dentro de radioKm
+    public List<TecnicoCercano> buscarCercanos(String especialidad, double latitud, double longitud, int k, double radioKm) {
+        if (k <= 0 || radioKm <= 0) {
+            return List.of(); // Nada que buscar
+        }
+
+        Collection<Map<Long, Set<Entrada>>> grillas = especialidad == null || especialidad.isBlank()
+            ? celdasPorEspecialidad.values() // Todas las especialidades
+            : singletonOVacio(celdasPorEspecialidad.get(clave(especialidad))); // Solo la pedida
+
+        // Lado mínimo de celda en km dentro del radio (las celdas se angostan hacia los polos)
+        double latExtrema = Math.min(89.9, Math.abs(latitud) + radioKm / KM_POR_GRADO);
+        double kmCelda = celdaGrados * KM_POR_GRADO * Math.min(1.0, Math.cos(Math.toRadians(latExtrema)));
+        int maxAnillo = (int) Math.ceil(radioKm / kmCelda) + 1; // Anillos que pueden tocar el radio
+
+        int fila = indiceCelda(latitud); // Celda del punto consultado
+        int columna = indiceCelda(longitud);
+        PriorityQueue<TecnicoCercano> mejores = new PriorityQueue<>(k + 1,
+            Comparator.comparingDouble(TecnicoCercano::distanciaKm).reversed()); // Max-heap: el peor arriba
+
+        for (int anillo = 0; anillo <= maxAnillo; anillo++) {
+            double minimoAnillo = (anillo - 1) * kmCelda; // Ningún punto del anillo está más cerca que esto
+            if (minimoAnillo > radioKm) {
+                break; // Fuera del radio
+            }
+            if (mejores.size() == k && minimoAnillo >= mejores.peek().distanciaKm()) {
+                break; // Ya no puede aparecer alguien más cercano
+            }
+            for (int dy = -anillo; dy <= anillo; dy++) {
+                boolean bordeCompleto = Math.abs(dy) == anillo; // Filas superior e inferior del anillo
+                int paso = bordeCompleto || anillo == 0 ? 1 : 2 * anillo; // En filas intermedias solo los extremos
+                for (int dx = -anillo; dx <= anillo; dx += paso) {
+                    long celda = claveCelda(fila + dy, columna + dx);
+                    for (Map<Long, Set<Entrada>> grilla : grillas) {
+                        Set<Entrada> tecnicos = grilla.get(celda);
+                        if (tecnicos != null) {
+                            evaluar(tecnicos, latitud, longitud, k, radioKm, mejores); // Candidatos de la celda
+                        }
+                    }
+                }
+            }
+        }
+
+        List<TecnicoCercano> resultado = new ArrayList<>(mejores); // Vacía el heap
+        resultado.sort(Comparator.comparingDouble(TecnicoCercano::distanciaKm)); // Más cercano primero
+        return resultado;
+    }
+
+    // Distancia en km entre dos puntos (fórmula de haversine)
+    public static double distanciaKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * RADIO_TIERRA_KM * Math.asin(Math.sqrt(a));
+    }
+
+    // Mantiene el heap con los k más cercanos dentro del radio
+    private void evaluar(Set<Entrada> tecnicos, double latitud, double longitud, int k, double radioKm, PriorityQueue<TecnicoCercano> mejores) {
+        for (Entrada entrada : tecnicos) {
+            double distancia = distanciaKm(latitud, longitud, entrada.latitud, entrada.longitud);
+            if (distancia > radioKm) {
+                continue; // Fuera del radio
+            }
+            if (mejores.size() < k) {
+                mejores.add(new TecnicoCercano(entrada.idTecnico, entrada.latitud, entrada.longitud, distancia));
+            } else if (distancia < mejores.peek().distanciaKm()) {
+                mejores.poll(); // Sale el peor
+                mejores.add(new TecnicoCercano(entrada.idTecnico, entrada.latitud, entrada.longitud, distancia));
+            }
+        }
+    }
+
+    // Reemplaza atómicamente la entrada de un técnico y ajusta su celda
+    private void reemplazar(long idTecnico, UnaryOperator<Entrada> cambio) {
+        entradas.compute(idTecnico, (id, anterior) -> {
+            Entrada nueva = cambio.apply(anterior);
+            if (anterior != null) {
+                quitarDeCelda(anterior); // Sale de su celda anterior
+            }
+            if (nueva.indexable()) {
+                celdasPorEspecialidad
+                    .computeIfAbsent(nueva.especialidad, e -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(claveCelda(indiceCelda(nueva.latitud), indiceCelda(nueva.longitud)), c -> ConcurrentHashMap.newKeySet())
+                    .add(nueva); // Entra a su nueva celda
+            }
+            return nueva;
+        });
+    }
+
+    private void quitarDeCelda(Entrada entrada) {
+        if (!entrada.indexable()) {
+            return; // Nunca estuvo en la grilla
+        }
+        Map<Long, Set<Entrada>> grilla = celdasPorEspecialidad.get(entrada.especialidad);
+        if (grilla != null) {
+            Set<Entrada> celda = grilla.get(claveCelda(indiceCelda(entrada.latitud), indiceCelda(entrada.longitud)));
+            if (celda != null) {
+                celda.remove(entrada);
+            }
+        }
+    }
+
+    private int indiceCelda(double grados) {
+        return (int) Math.floor(grados / celdaGrados);
+    }
+
+    private static long claveCelda(int fila, int columna) {
+        return ((long) fila << 32) | (columna & 0xffffffffL); // Fila y columna empaquetadas en un long
+    }
+
+    private static String clave(String especialidad) {
+        return especialidad == null ? null : especialidad.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Collection<Map<Long, Set<Entrada>>> singletonOVacio(Map<Long, Set<Entrada>> grilla) {
+        return grilla == null ? List.of() : List.of(grilla);
+    }
+
+    // Estado inmutable de un técnico dentro del índice
+    private record Entrada(long idTecnico, String especialidad, boolean disponible, double latitud, double longitud) {
+        boolean indexable() {
+            return disponible && especialidad != null && !Double.isNaN(latitud) && !Double.isNaN(longitud);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.homefixer.usuarios.service;
+
+import com.homefixer.usuarios.event.TipoClienteCambiadoEvent; // Evento de cambio de tipo
+import com.homefixer.usuarios.model.Cliente; // Importa entidad Cliente
+import com.homefixer.usuarios.repository.ClienteRepository; // Importa repositorio
+import lombok.RequiredArgsConstructor; // Constructor automático
+import lombok.extern.slf4j.Slf4j; // Logger automático
+import org.springframework.beans.factory.annotation.Value; // Para leer configuración
+import org.springframework.context.ApplicationEventPublisher; // Para publicar eventos
+import org.springframework.scheduling.annotation.Scheduled; // Para tareas programadas
+import org.springframework.stereotype.Service; // Anotación de servicio
+import org.springframework.transaction.support.TransactionTemplate; // Transacción por bloque
+import jakarta.annotation.PostConstruct; // Validación al arrancar
+import java.util.List; // Para listas
+
+// Recalcula REGULAR/PREMIUM en segundo plano con UPDATEs por bloques, sin cargar entidades
+@Service // Marca como servicio Spring
+@RequiredArgsConstructor // Constructor automático para dependencias
+@Slf4j // Logger automático
+public class RecalculoTipoClienteService {
+
+    private final ClienteRepository clienteRepository; // Repositorio inyectado
+    private final TransactionTemplate transactionTemplate; // Una transacción corta por bloque
+    private final ApplicationEventPublisher eventPublisher; // Publica los ids que cambiaron
+
+    @Value("${homefixer.clientes.tipo.umbral-premium:5}")
+    private int umbralPremium; // Servicios mínimos para ser PREMIUM
+
+    @Value("${homefixer.clientes.tipo.umbral-degradacion:5}")
+    private int umbralDegradacion; // Bajo este número un PREMIUM vuelve a REGULAR
+
+    @Value("${homefixer.clientes.tipo.tamano-bloque:1000}")
+    private int tamanoBloque; // Filas bloqueadas y actualizadas por transacción
+
+    // Con degradación > premium un cliente recién promovido se degradaría en la misma corrida (y al revés en la siguiente)
+    @PostConstruct
+    public void validarUmbrales() {
+        if (umbralDegradacion > umbralPremium) {
+            throw new IllegalStateException("homefixer.clientes.tipo.umbral-degradacion (" + umbralDegradacion
+                + ") no puede ser mayor que umbral-premium (" + umbralPremium + ")");
+        }
+        if (tamanoBloque < 1) {
+            throw new IllegalStateException("homefixer.clientes.tipo.tamano-bloque debe ser al menos 1"); // LIMIT 0 no avanza
+        }
+    }
+
+    // Tarea programada: promueve y degrada clientes según los umbrales
+    @Scheduled(fixedDelayString = "${homefixer.clientes.tipo.intervalo-ms:300000}", initialDelayString = "${homefixer.clientes.tipo.retraso-inicial-ms:60000}")
+    public void recalcularTipos() {
+        log.info("💎 Recalculando tipos de cliente (premium >= {}, degradación < {})", umbralPremium, umbralDegradacion); // Log inicio
+
+        int promovidos = recorrerBloques(Cliente.TipoCliente.PREMIUM, umbralPremium); // REGULAR -> PREMIUM
+        int degradados = recorrerBloques(Cliente.TipoCliente.REGULAR, umbralDegradacion); // PREMIUM -> REGULAR
+
+        log.info("✅ Recálculo terminado: {} promovidos, {} degradados", promovidos, degradados); // Log resultado
+    }
+
+    // Recorre la tabla por clave primaria, un bloque por transacción, y devuelve cuántos cambiaron
+    private int recorrerBloques(Cliente.TipoCliente nuevoTipo, int umbral) {
+        long ultimoId = 0L; // Cursor por id_cliente
+        int total = 0; // Clientes modificados
+
+        while (true) {
+            final long desde = ultimoId; // Copia efectiva para la lambda
+            List<Long> cambiados = transactionTemplate.execute(estado -> {
+                List<Long> ids = nuevoTipo == Cliente.TipoCliente.PREMIUM
+                    ? clienteRepository.bloquearIdsParaPromover(desde, umbral, tamanoBloque) // Candidatos a premium
+                    : clienteRepository.bloquearIdsParaDegradar(desde, umbral, tamanoBloque); // Candidatos a regular
+                if (!ids.isEmpty()) {
+                    clienteRepository.actualizarTipoCliente(ids, nuevoTipo); // Un solo UPDATE por bloque
+                }
+                return ids; // Filas bloqueadas = filas cambiadas
+            });
+
+            if (cambiados == null || cambiados.isEmpty()) {
+                return total; // No quedan candidatos
+            }
+
+            eventPublisher.publishEvent(new TipoClienteCambiadoEvent(nuevoTipo, cambiados)); // Evento después del commit
+            total += cambiados.size(); // Acumula
+            ultimoId = cambiados.get(cambiados.size() - 1); // Avanza el cursor
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.homefixer.usuarios.service;
 
+import com.homefixer.usuarios.event.TecnicoEstadoCambiadoEvent; // Evento de cambio de estado
+import com.homefixer.usuarios.event.TecnicoUbicacionActualizadaEvent; // Evento de cambio de posición
 import com.homefixer.usuarios.model.Tecnico; // Importa entidad Tecnico
+import com.homefixer.usuarios.model.ValorCatalogo.TipoCatalogo; // Dimensiones del catálogo
 import com.homefixer.usuarios.repository.TecnicoRepository; // Importa repositorio
 import lombok.RequiredArgsConstructor; // Constructor automático
 import lombok.extern.slf4j.Slf4j; // Logger automático
+import org.springframework.context.ApplicationEventPublisher; // Para publicar eventos
 import org.springframework.stereotype.Service; // Anotación servicio
+import org.springframework.transaction.annotation.Transactional; // Para consultas UPDATE
 import java.math.BigDecimal; // Para decimales
 import java.time.LocalDateTime; // Para fechas
 import java.util.List; // Para listas
@@ -16,6 +21,8 @@ import java.util.Optional; // Para opcionales
 public class TecnicoService {
     
     private final TecnicoRepository tecnicoRepository; // Repositorio inyectado
+    private final ApplicationEventPublisher eventPublisher; // Avisa cambios de disponibilidad
+    private final CatalogoService catalogoService; // Especialidad -> id
     
     // Crear perfil de técnico
     public Tecnico crearTecnico(Tecnico tecnico) {
@@ -31,9 +38,12 @@ public class TecnicoService {
         tecnico.setEstado(Tecnico.EstadoTecnico.DISPONIBLE); // Disponible por defecto
         tecnico.setCalificacionPromedio(BigDecimal.valueOf(5.0)); // Inicia con 5 estrellas
         tecnico.setServiciosCompletados(0); // Empieza con 0 servicios
+        tecnico.setIdEspecialidad(catalogoService.registrar(TipoCatalogo.ESPECIALIDAD, tecnico.getEspecialidad())); // Id del catálogo
+        tecnico.setEspecialidad(catalogoService.nombre(TipoCatalogo.ESPECIALIDAD, tecnico.getIdEspecialidad())); // Nombre canónico
         
         Tecnico tecnicoGuardado = tecnicoRepository.save(tecnico); // Guarda en BD
         log.info("✅ Perfil de técnico creado con ID: {}", tecnicoGuardado.getIdTecnico()); // Log éxito
+        eventPublisher.publishEvent(new TecnicoEstadoCambiadoEvent(tecnicoGuardado, null)); // Nuevo técnico disponible
         
         return tecnicoGuardado; // Retorna técnico creado
     }
@@ -44,6 +54,12 @@ public class TecnicoService {
         return tecnicoRepository.findById(id); // Busca en BD
     }
     
+    // Buscar varios técnicos por ID en una consulta (los que no existen no aparecen)
+    public List<Tecnico> buscarPorIds(List<Long> ids) {
+        log.info("🔍 Buscando {} técnicos por ID", ids.size()); // Log búsqueda
+        return tecnicoRepository.findAllById(ids); // WHERE id_tecnico IN (...)
+    }
+    
     // Buscar técnico por ID de usuario
     public Optional<Tecnico> buscarPorIdUsuario(Long idUsuario) {
         log.info("🔍 Buscando técnico por ID usuario: {}", idUsuario); // Log búsqueda
@@ -59,7 +75,9 @@ public class TecnicoService {
     // Buscar técnicos por especialidad
     public List<Tecnico> buscarPorEspecialidad(String especialidad) {
         log.info("🔧 Buscando técnicos de especialidad: {}", especialidad); // Log búsqueda
-        return tecnicoRepository.findByEspecialidad(especialidad); // Filtra por especialidad
+        return catalogoService.buscar(TipoCatalogo.ESPECIALIDAD, especialidad)
+            .map(tecnicoRepository::findByIdEspecialidad) // Filtra por id sobre el índice
+            .orElse(List.of()); // Especialidad que nadie tiene
     }
     
     // Buscar técnicos disponibles
@@ -72,7 +90,9 @@ public class TecnicoService {
     public List<Tecnico> obtenerMejoresTecnicos(String especialidad) {
         log.info("⭐ Buscando mejores técnicos de: {}", especialidad); // Log búsqueda
         BigDecimal calificacionMinima = BigDecimal.valueOf(4.0); // Mínimo 4 estrellas
-        return tecnicoRepository.encontrarMejoresTecnicosDisponibles(especialidad, calificacionMinima); // Consulta personalizada
+        return catalogoService.buscar(TipoCatalogo.ESPECIALIDAD, especialidad)
+            .map(id -> tecnicoRepository.encontrarMejoresTecnicosDisponibles(id, calificacionMinima)) // Consulta personalizada
+            .orElse(List.of()); // Especialidad que nadie tiene
     }
     
     // Cambiar estado de técnico
@@ -82,10 +102,12 @@ public class TecnicoService {
         Tecnico tecnico = tecnicoRepository.findById(idTecnico)
             .orElseThrow(() -> new RuntimeException("Técnico no encontrado")); // Busca técnico
         
+        Tecnico.EstadoTecnico estadoAnterior = tecnico.getEstado(); // Para calcular el delta
         tecnico.setEstado(nuevoEstado); // Cambia estado
         
         Tecnico guardado = tecnicoRepository.save(tecnico); // Guarda cambio
         log.info("✅ Estado cambiado exitosamente"); // Log éxito
+        eventPublisher.publishEvent(new TecnicoEstadoCambiadoEvent(guardado, estadoAnterior)); // Notifica stream
         
         return guardado; // Retorna técnico actualizado
     }
@@ -97,12 +119,14 @@ public class TecnicoService {
         Tecnico tecnico = tecnicoRepository.findById(idTecnico)
             .orElseThrow(() -> new RuntimeException("Técnico no encontrado")); // Busca técnico
         
+        Tecnico.EstadoTecnico estadoAnterior = tecnico.getEstado(); // Para calcular el delta
         tecnico.setServiciosCompletados(tecnico.getServiciosCompletados() + 1); // Incrementa contador
         tecnico.setFechaUltimoServicio(LocalDateTime.now()); // Actualiza fecha
         tecnico.setEstado(Tecnico.EstadoTecnico.DISPONIBLE); // Vuelve a disponible
         
         Tecnico guardado = tecnicoRepository.save(tecnico); // Guarda cambios
         log.info("✅ Servicio completado. Total servicios: {}", guardado.getServiciosCompletados()); // Log éxito
+        eventPublisher.publishEvent(new TecnicoEstadoCambiadoEvent(guardado, estadoAnterior)); // Vuelve a disponible
         
         return guardado; // Retorna técnico actualizado
     }
@@ -118,7 +142,25 @@ public class TecnicoService {
         
         Tecnico guardado = tecnicoRepository.save(tecnico); // Guarda cambio
         log.info("✅ Calificación actualizada exitosamente"); // Log éxito
+        eventPublisher.publishEvent(new TecnicoEstadoCambiadoEvent(guardado, guardado.getEstado())); // Refresca datos en el stream
         
         return guardado; // Retorna técnico actualizado
     }
+    
+    // Actualizar posición en vivo del técnico (un solo UPDATE, sin leer la entidad)
+    @Transactional
+    public void actualizarUbicacion(Long idTecnico, Double latitud, Double longitud) {
+        log.debug("📍 Actualizando ubicación de técnico ID {}: {}, {}", idTecnico, latitud, longitud); // Log debug (alta frecuencia)
+        
+        if (latitud == null || longitud == null || latitud < -90 || latitud > 90 || longitud < -180 || longitud > 180) {
+            throw new RuntimeException("Coordenadas inválidas"); // Fuera de rango
+        }
+        
+        int filas = tecnicoRepository.actualizarUbicacion(idTecnico, latitud, longitud, LocalDateTime.now()); // Guarda posición
+        if (filas == 0) {
+            throw new RuntimeException("Técnico no encontrado"); // ID inexistente
+        }
+        
+        eventPublisher.publishEvent(new TecnicoUbicacionActualizadaEvent(idTecnico, latitud, longitud)); // Mueve en el índice
+    }
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.homefixer.usuarios.service;
+
+import com.homefixer.usuarios.dto.PosicionTecnico; // Proyección de carga
+import com.homefixer.usuarios.dto.TecnicoCercano; // Resultado de búsqueda
+import com.homefixer.usuarios.event.TecnicoEstadoCambiadoEvent; // Cambios de estado
+import com.homefixer.usuarios.event.TecnicoUbicacionActualizadaEvent; // Cambios de posición
+import com.homefixer.usuarios.model.Tecnico; // Importa entidad Tecnico
+import com.homefixer.usuarios.repository.TecnicoRepository; // Importa repositorio
+import lombok.extern.slf4j.Slf4j; // Logger automático
+import org.springframework.beans.factory.annotation.Value; // Para leer configuración
+import org.springframework.boot.context.event.ApplicationReadyEvent; // Evento de arranque
+import org.springframework.context.event.EventListener; // Para escuchar eventos
+import org.springframework.stereotype.Service; // Anotación servicio
+import org.springframework.transaction.event.TransactionalEventListener; // Escucha tras el commit
+import java.util.List; // Para listas
+
+// Mantiene el índice espacial sincronizado con los eventos de técnicos y responde búsquedas por cercanía
+@Service // Marca como servicio Spring
+@Slf4j // Logger automático
+public class UbicacionTecnicosService {
+
+    private final TecnicoRepository tecnicoRepository; // Solo para la carga inicial
+    private final IndiceEspacialTecnicos indice; // Grilla en memoria
+
+    public UbicacionTecnicosService(TecnicoRepository tecnicoRepository,
+                                    @Value("${homefixer.tecnicos.indice.celda-grados:0.05}") double celdaGrados) {
+        this.tecnicoRepository = tecnicoRepository;
+        this.indice = new IndiceEspacialTecnicos(celdaGrados); // ~5 km por celda con el valor por defecto
+    }
+
+    // Carga inicial desde BD con una proyección liviana
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarIndice() {
+        List<PosicionTecnico> posiciones = tecnicoRepository.obtenerPosiciones(); // Sin materializar entidades
+        for (PosicionTecnico p : posiciones) {
+            indice.registrar(p.idTecnico(), p.especialidad(), p.estado() == Tecnico.EstadoTecnico.DISPONIBLE, p.latitud(), p.longitud());
+        }
+        log.info("🗺️ Índice espacial cargado: {} técnicos, {} disponibles con posición", posiciones.size(), indice.tamano()); // Log carga
+    }
+
+    // k técnicos disponibles más cercanos al punto
+    public List<TecnicoCercano> buscarCercanos(String especialidad, double latitud, double longitud, int k, double radioKm) {
+        return indice.buscarCercanos(especialidad, latitud, longitud, k, radioKm); // Sin consultar BD
+    }
+
+    // Después del commit (o de inmediato sin transacción): un rollback no deja el índice adelantado a la BD
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTecnicoEstadoCambiado(TecnicoEstadoCambiadoEvent evento) {
+        Tecnico tecnico = evento.tecnico(); // Estado ya guardado
+        indice.actualizarEstado(tecnico.getIdTecnico(), tecnico.getEspecialidad(), tecnico.getEstado() == Tecnico.EstadoTecnico.DISPONIBLE);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTecnicoUbicacionActualizada(TecnicoUbicacionActualizadaEvent evento) {
+        indice.actualizarPosicion(evento.idTecnico(), evento.latitud(), evento.longitud()); // Mueve en la grilla
+    }
+}
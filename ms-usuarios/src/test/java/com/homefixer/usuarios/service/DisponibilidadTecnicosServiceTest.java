@@ -0,0 +1,156 @@
+package com.homefixer.usuarios.service;
+
+import com.homefixer.usuarios.event.TecnicoEstadoCambiadoEvent;
+import com.homefixer.usuarios.event.TecnicoUbicacionActualizadaEvent;
+import com.homefixer.usuarios.model.Tecnico;
+import com.homefixer.usuarios.repository.TecnicoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+// Stream SSE de disponibles: snapshot al conectar, deltas de estado y de posición, y snapshot nuevo si el consumidor se atrasa.
+// Los envíos corren en un ejecutor manual para decidir cuándo drena cada suscriptor.
+class DisponibilidadTecnicosServiceTest {
+
+	private final TecnicoRepository repository = mock(TecnicoRepository.class);
+	private final DisponibilidadTecnicosService disponibilidad = new DisponibilidadTecnicosService(repository);
+	private final EjecutorManual emisor = new EjecutorManual();
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void iniciar() {
+		ReflectionTestUtils.setField(disponibilidad, "emisor", emisor);
+		ReflectionTestUtils.setField(disponibilidad, "tamanoBuffer", 2);
+		ReflectionTestUtils.setField(disponibilidad, "timeoutMs", 60_000L);
+		when(repository.findByEstado(Tecnico.EstadoTecnico.DISPONIBLE))
+			.thenReturn(List.of(tecnico(1L, "Plomería", Tecnico.EstadoTecnico.DISPONIBLE), tecnico(2L, "Electricidad", Tecnico.EstadoTecnico.DISPONIBLE)));
+		disponibilidad.cargarDisponibles();
+		mockMvc = MockMvcBuilders.standaloneSetup(new Stream(disponibilidad)).build();
+	}
+
+	@Test
+	void snapshotDeltasDePosicionYResync() throws Exception {
+		MockHttpServletResponse respuesta = mockMvc.perform(get("/stream").param("especialidad", "Plomería"))
+			.andExpect(request().asyncStarted()).andReturn().getResponse();
+		emisor.ejecutarPendientes();
+		assertEquals(1, veces(respuesta, "event:snapshot"));
+		assertTrue(respuesta.getContentAsString().contains("\"idTecnico\":1"));
+
+		disponibilidad.onTecnicoUbicacionActualizada(new TecnicoUbicacionActualizadaEvent(1L, -33.40, -70.60));
+		disponibilidad.onTecnicoUbicacionActualizada(new TecnicoUbicacionActualizadaEvent(2L, -33.50, -70.70)); // Otra especialidad
+		disponibilidad.onTecnicoUbicacionActualizada(new TecnicoUbicacionActualizadaEvent(9L, -33.50, -70.70)); // No está disponible
+		emisor.ejecutarPendientes();
+		assertEquals(1, veces(respuesta, "event:cambio"));
+		assertTrue(respuesta.getContentAsString().contains("\"latitud\":-33.4"));
+		assertEquals(-33.40, disponibilidad.snapshot("Plomería").get(0).getLatitud());
+		assertEquals(-70.70, disponibilidad.snapshot("Electricidad").get(0).getLongitud());
+		assertEquals(2, disponibilidad.snapshot(null).size()); // El 9 no entró
+
+		// Consumidor atrasado: tres deltas con buffer de dos se reemplazan por un snapshot con la última posición
+		for (int i = 1; i <= 3; i++) {
+			disponibilidad.onTecnicoUbicacionActualizada(new TecnicoUbicacionActualizadaEvent(1L, -33.40 - i / 100.0, -70.60));
+		}
+		emisor.ejecutarPendientes();
+		assertEquals(2, veces(respuesta, "event:snapshot"));
+		assertEquals(1, veces(respuesta, "event:cambio"));
+		assertTrue(respuesta.getContentAsString().contains("\"latitud\":-33.43"));
+
+		disponibilidad.onTecnicoEstadoCambiado(new TecnicoEstadoCambiadoEvent(tecnico(1L, "Plomería", Tecnico.EstadoTecnico.OCUPADO), Tecnico.EstadoTecnico.DISPONIBLE));
+		disponibilidad.onTecnicoUbicacionActualizada(new TecnicoUbicacionActualizadaEvent(1L, -33.0, -70.0)); // Ya no está en la lista
+		emisor.ejecutarPendientes();
+		assertEquals(2, veces(respuesta, "event:cambio")); // Solo la salida
+		assertTrue(disponibilidad.snapshot("Plomería").isEmpty());
+	}
+
+	private static int veces(MockHttpServletResponse respuesta, String texto) throws Exception {
+		String contenido = respuesta.getContentAsString();
+		int veces = 0;
+		for (int i = contenido.indexOf(texto); i >= 0; i = contenido.indexOf(texto, i + 1)) {
+			veces++;
+		}
+		return veces;
+	}
+
+	private static Tecnico tecnico(Long id, String especialidad, Tecnico.EstadoTecnico estado) {
+		return Tecnico.builder().idTecnico(id).idUsuario(id).especialidad(especialidad).estado(estado).build();
+	}
+
+	@RestController
+	static class Stream {
+
+		private final DisponibilidadTecnicosService disponibilidad;
+
+		Stream(DisponibilidadTecnicosService disponibilidad) {
+			this.disponibilidad = disponibilidad;
+		}
+
+		@GetMapping("/stream")
+		SseEmitter stream(@RequestParam(required = false) String especialidad) {
+			return disponibilidad.suscribir(especialidad);
+		}
+	}
+
+	// Guarda las tareas y las corre en el hilo de la prueba cuando se le pide
+	static final class EjecutorManual extends AbstractExecutorService {
+
+		private final Queue<Runnable> pendientes = new ArrayDeque<>();
+
+		void ejecutarPendientes() {
+			for (Runnable tarea = pendientes.poll(); tarea != null; tarea = pendientes.poll()) {
+				tarea.run();
+			}
+		}
+
+		@Override
+		public void execute(Runnable tarea) {
+			pendientes.add(tarea);
+		}
+
+		@Override
+		public void shutdown() {
+			pendientes.clear();
+		}
+
+		@Override
+		public List<Runnable> shutdownNow() {
+			List<Runnable> restantes = List.copyOf(pendientes);
+			pendientes.clear();
+			return restantes;
+		}
+
+		@Override
+		public boolean isShutdown() {
+			return false;
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return false;
+		}
+
+		@Override
+		public boolean awaitTermination(long tiempo, TimeUnit unidad) {
+			return true;
+		}
+	}
+}
@@ -0,0 +1,111 @@
+package com.homefixer.usuarios.service;
+
+import com.homefixer.usuarios.dto.TecnicoCercano;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Correctitud contra fuerza bruta y benchmark (tag benchmark) con 100k técnicos alrededor de Santiago
+class IndiceEspacialTecnicosTest {
+
+	private static final String[] ESPECIALIDADES = {"Plomería", "Electricidad", "Gasfitería", "Cerrajería", "Pintura"};
+	private static final int TECNICOS = 100_000;
+
+	@Test
+	void buscarCercanosCoincideConFuerzaBruta() {
+		Escenario escenario = escenario(new Random(42));
+		Random random = escenario.random();
+		IndiceEspacialTecnicos indice = escenario.indice();
+		double[] lat = escenario.lat();
+		double[] lon = escenario.lon();
+		boolean[] disponible = escenario.disponible();
+		int[] especialidad = escenario.especialidad();
+
+		// Correctitud: mismas distancias que una búsqueda lineal
+		for (int q = 0; q < 200; q++) {
+			double qLat = -33.45 + (random.nextDouble() - 0.5);
+			double qLon = -70.65 + (random.nextDouble() - 0.5);
+			int e = random.nextInt(ESPECIALIDADES.length);
+			List<TecnicoCercano> resultado = indice.buscarCercanos(ESPECIALIDADES[e], qLat, qLon, 10, 5.0);
+
+			List<Double> esperado = new ArrayList<>();
+			for (int i = 0; i < TECNICOS; i++) {
+				if (disponible[i] && especialidad[i] == e) {
+					double d = IndiceEspacialTecnicos.distanciaKm(qLat, qLon, lat[i], lon[i]);
+					if (d <= 5.0) {
+						esperado.add(d);
+					}
+				}
+			}
+			esperado.sort(Comparator.naturalOrder());
+			esperado = esperado.subList(0, Math.min(10, esperado.size()));
+
+			assertEquals(esperado.size(), resultado.size());
+			for (int i = 0; i < esperado.size(); i++) {
+				assertEquals(esperado.get(i), resultado.get(i).distanciaKm(), 1e-9);
+			}
+		}
+	}
+
+	@Test
+	@Tag("benchmark") // Fuera de mvn test: mide tiempos
+	void benchmarkBuscarCercanosCon100kTecnicos() {
+		Escenario escenario = escenario(new Random(42));
+		Random random = escenario.random();
+		IndiceEspacialTecnicos indice = escenario.indice();
+
+		// Calentamiento y medición
+		int consultas = 20_000;
+		for (int q = 0; q < consultas; q++) {
+			indice.buscarCercanos(ESPECIALIDADES[q % ESPECIALIDADES.length], -33.45 + (random.nextDouble() - 0.5), -70.65 + (random.nextDouble() - 0.5), 10, 10.0);
+		}
+		long inicio = System.nanoTime();
+		for (int q = 0; q < consultas; q++) {
+			indice.buscarCercanos(ESPECIALIDADES[q % ESPECIALIDADES.length], -33.45 + (random.nextDouble() - 0.5), -70.65 + (random.nextDouble() - 0.5), 10, 10.0);
+		}
+		double promedioMicros = (System.nanoTime() - inicio) / 1_000.0 / consultas;
+		System.out.printf("IndiceEspacialTecnicos: %d técnicos, k=10, R=10 km -> %.1f µs por consulta%n", TECNICOS, promedioMicros);
+	}
+
+	@Test
+	void tecnicoQueDejaDeEstarDisponibleSaleDelIndice() {
+		IndiceEspacialTecnicos indice = new IndiceEspacialTecnicos(0.05);
+		indice.registrar(1L, "Plomería", true, -33.45, -70.65);
+		indice.registrar(2L, "plomería", true, -33.46, -70.65);
+
+		assertEquals(2, indice.buscarCercanos("PLOMERÍA", -33.45, -70.65, 5, 10).size());
+
+		indice.actualizarEstado(1L, "Plomería", false);
+		indice.actualizarPosicion(2L, -33.60, -70.65);
+
+		List<TecnicoCercano> resultado = indice.buscarCercanos("Plomería", -33.45, -70.65, 5, 10);
+		assertEquals(0, resultado.size());
+		assertEquals(2L, indice.buscarCercanos("Plomería", -33.45, -70.65, 5, 20).get(0).idTecnico());
+	}
+
+	// 100k técnicos alrededor de Santiago, 80% disponibles
+	private static Escenario escenario(Random random) {
+		IndiceEspacialTecnicos indice = new IndiceEspacialTecnicos(0.05);
+		double[] lat = new double[TECNICOS];
+		double[] lon = new double[TECNICOS];
+		boolean[] disponible = new boolean[TECNICOS];
+		int[] especialidad = new int[TECNICOS];
+		for (int i = 0; i < TECNICOS; i++) {
+			lat[i] = -33.45 + (random.nextDouble() - 0.5);
+			lon[i] = -70.65 + (random.nextDouble() - 0.5);
+			disponible[i] = random.nextDouble() < 0.8;
+			especialidad[i] = random.nextInt(ESPECIALIDADES.length);
+			indice.registrar(i, ESPECIALIDADES[especialidad[i]], disponible[i], lat[i], lon[i]);
+		}
+		return new Escenario(random, indice, lat, lon, disponible, especialidad);
+	}
+
+	private record Escenario(Random random, IndiceEspacialTecnicos indice, double[] lat, double[] lon, boolean[] disponible, int[] especialidad) {
+	}
+}
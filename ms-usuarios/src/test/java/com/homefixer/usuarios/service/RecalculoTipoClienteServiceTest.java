@@ -0,0 +1,111 @@
+package com.homefixer.usuarios.service;
+
+import com.homefixer.usuarios.event.TipoClienteCambiadoEvent;
+import com.homefixer.usuarios.model.Cliente;
+import com.homefixer.usuarios.repository.ClienteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Promoción y degradación por bloques sobre una tabla en memoria que imita las consultas del repositorio,
+// y validación de umbrales al arrancar
+class RecalculoTipoClienteServiceTest {
+
+	private static final int BLOQUE = 4;
+	private static final int PREMIUM = 7;
+	private static final int DEGRADACION = 3;
+
+	private final Map<Long, Cliente> tabla = new TreeMap<>(); // id_cliente -> fila
+	private final List<TipoClienteCambiadoEvent> eventos = new ArrayList<>();
+	private final ClienteRepository repository = mock(ClienteRepository.class);
+	private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+	private final ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+	private final RecalculoTipoClienteService recalculo = new RecalculoTipoClienteService(repository, transactionTemplate, publisher);
+
+	@BeforeEach
+	void iniciar() {
+		ReflectionTestUtils.setField(recalculo, "umbralPremium", PREMIUM);
+		ReflectionTestUtils.setField(recalculo, "umbralDegradacion", DEGRADACION);
+		ReflectionTestUtils.setField(recalculo, "tamanoBloque", BLOQUE);
+		when(transactionTemplate.execute(any())).thenAnswer(i -> i.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+		doAnswer(i -> eventos.add(i.getArgument(0))).when(publisher).publishEvent(any(Object.class));
+		when(repository.bloquearIdsParaPromover(anyLong(), anyInt(), anyInt())).thenAnswer(i ->
+			bloque(i.getArgument(0), i.getArgument(2), c -> c.getTipoCliente() == Cliente.TipoCliente.REGULAR && c.getServiciosContratados() >= i.<Integer>getArgument(1)));
+		when(repository.bloquearIdsParaDegradar(anyLong(), anyInt(), anyInt())).thenAnswer(i ->
+			bloque(i.getArgument(0), i.getArgument(2), c -> c.getTipoCliente() == Cliente.TipoCliente.PREMIUM && c.getServiciosContratados() < i.<Integer>getArgument(1)));
+		when(repository.actualizarTipoCliente(anyList(), any())).thenAnswer(i -> {
+			List<Long> ids = i.getArgument(0);
+			ids.forEach(id -> tabla.get(id).setTipoCliente(i.getArgument(1)));
+			return ids.size();
+		});
+	}
+
+	@Test
+	void promueveYDegradaPorBloques() {
+		for (long id = 1; id <= 40; id++) {
+			Cliente.TipoCliente tipo = id % 2 == 0 ? Cliente.TipoCliente.PREMIUM : Cliente.TipoCliente.REGULAR;
+			tabla.put(id, Cliente.builder().idCliente(id).tipoCliente(tipo).serviciosContratados((int) (id % 10)).build());
+		}
+		long aPromover = tabla.values().stream().filter(c -> c.getTipoCliente() == Cliente.TipoCliente.REGULAR && c.getServiciosContratados() >= PREMIUM).count();
+		long aDegradar = tabla.values().stream().filter(c -> c.getTipoCliente() == Cliente.TipoCliente.PREMIUM && c.getServiciosContratados() < DEGRADACION).count();
+		assertTrue(aPromover > BLOQUE && aDegradar > BLOQUE); // Más de un bloque de cada uno
+
+		recalculo.recalcularTipos();
+
+		for (Cliente c : tabla.values()) {
+			int servicios = c.getServiciosContratados();
+			if (servicios >= PREMIUM) {
+				assertEquals(Cliente.TipoCliente.PREMIUM, c.getTipoCliente(), "cliente " + c.getIdCliente());
+			} else if (servicios < DEGRADACION) {
+				assertEquals(Cliente.TipoCliente.REGULAR, c.getTipoCliente(), "cliente " + c.getIdCliente());
+			} else {
+				assertEquals(c.getIdCliente() % 2 == 0 ? Cliente.TipoCliente.PREMIUM : Cliente.TipoCliente.REGULAR, c.getTipoCliente()); // Entre umbrales: sin cambio
+			}
+		}
+		assertEquals(aPromover, contar(Cliente.TipoCliente.PREMIUM));
+		assertEquals(aDegradar, contar(Cliente.TipoCliente.REGULAR));
+		assertTrue(eventos.stream().allMatch(e -> e.idsClientes().size() <= BLOQUE)); // Un evento por bloque
+		assertTrue(eventos.stream().filter(e -> e.nuevoTipo() == Cliente.TipoCliente.PREMIUM).count() > 1);
+		assertTrue(eventos.stream().filter(e -> e.nuevoTipo() == Cliente.TipoCliente.REGULAR).count() > 1);
+
+		eventos.clear();
+		recalculo.recalcularTipos(); // Nada más que cambiar
+		assertTrue(eventos.isEmpty());
+	}
+
+	@Test
+	void rechazaDegradacionMayorQuePremium() {
+		recalculo.validarUmbrales();
+		ReflectionTestUtils.setField(recalculo, "umbralDegradacion", PREMIUM + 1);
+		assertThrows(IllegalStateException.class, recalculo::validarUmbrales);
+	}
+
+	private long contar(Cliente.TipoCliente tipo) {
+		return eventos.stream().filter(e -> e.nuevoTipo() == tipo).mapToLong(e -> e.idsClientes().size()).sum();
+	}
+
+	private List<Long> bloque(long ultimoId, int limite, Predicate<Cliente> candidato) {
+		return tabla.values().stream().filter(c -> c.getIdCliente() > ultimoId).filter(candidato)
+			.map(Cliente::getIdCliente).limit(limite).toList();
+	}
+}